@@ -43,6 +43,10 @@ android {
         compose = true
         buildConfig = true
     }
+    testOptions {
+        // 本地单元测试中android.util.Log等桩方法返回默认值，不抛出异常
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -56,6 +60,10 @@ dependencies {
     implementation(libs.androidx.ui.tooling.preview)
     implementation(libs.androidx.material3)
     testImplementation(libs.junit)
+    testImplementation("org.mockito:mockito-core:5.7.0")
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.11.0")
+    // android.jar中的org.json只有桩实现，本地单元测试使用真实实现
+    testImplementation("org.json:json:20231013")
     androidTestImplementation(libs.androidx.junit)
     androidTestImplementation(libs.androidx.espresso.core)
     androidTestImplementation(platform(libs.androidx.compose.bom))
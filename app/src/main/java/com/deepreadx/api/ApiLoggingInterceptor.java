@@ -0,0 +1,106 @@
+package com.deepreadx.api;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.logging.HttpLoggingInterceptor;
+
+/**
+ * API请求日志拦截器，隐去Authorization头，调试模式下记录请求和响应体
+ *
+ * <p>请求和响应体中的消息内容（JSON中content、reasoning_content等字段的字符串值）包含用户选中的
+ * 文本和生成的解释，记录前替换为字符数，日志中只保留模型、参数和token用量等信息。</p>
+ *
+ * <p>SSE流式请求（Accept: text/event-stream）最多只记录到响应头：
+ * {@link HttpLoggingInterceptor}在BODY级别会先把整个响应体读入缓冲区再返回，
+ * 流式内容要等服务端生成结束后才一次性交给调用方，逐字显示就失效了。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class ApiLoggingInterceptor implements Interceptor {
+    
+    private static final String EVENT_STREAM = "text/event-stream";
+    
+    // JSON中以content结尾的字段及其字符串值，值中可能含有转义字符
+    private static final Pattern CONTENT_FIELD =
+            Pattern.compile("(\"[a-z_]*content\"\\s*:\\s*)\"((?:[^\"\\\\]|\\\\.)*)\"");
+    
+    // 普通请求的日志拦截器，调试模式下记录请求和响应体
+    private final HttpLoggingInterceptor bodyLogger;
+    
+    // 流式请求的日志拦截器，调试模式下也只记录请求和响应头
+    private final HttpLoggingInterceptor streamLogger;
+    
+    /**
+     * 构造函数，日志输出到OkHttp默认的平台日志
+     */
+    public ApiLoggingInterceptor() {
+        this(HttpLoggingInterceptor.Logger.DEFAULT);
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param logger 日志输出
+     */
+    ApiLoggingInterceptor(HttpLoggingInterceptor.Logger logger) {
+        HttpLoggingInterceptor.Logger redacting = message -> logger.log(redactContent(message));
+        bodyLogger = new HttpLoggingInterceptor(redacting);
+        streamLogger = new HttpLoggingInterceptor(redacting);
+        bodyLogger.redactHeader("Authorization");
+        streamLogger.redactHeader("Authorization");
+        setDebugLogging(false);
+    }
+    
+    /**
+     * 设置是否记录调试日志
+     *
+     * @param enabled 开启时普通请求记录隐去消息内容的请求和响应体，流式请求只记录请求和响应头；
+     *                关闭时只记录请求行和响应状态
+     */
+    public void setDebugLogging(boolean enabled) {
+        bodyLogger.setLevel(enabled ? HttpLoggingInterceptor.Level.BODY : HttpLoggingInterceptor.Level.BASIC);
+        streamLogger.setLevel(enabled ? HttpLoggingInterceptor.Level.HEADERS : HttpLoggingInterceptor.Level.BASIC);
+    }
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        if (isEventStream(chain.request())) {
+            return streamLogger.intercept(chain);
+        }
+        return bodyLogger.intercept(chain);
+    }
+    
+    /**
+     * 判断请求是否要求以SSE流式返回
+     *
+     * @param request 请求
+     * @return Accept头包含text/event-stream时返回true
+     */
+    static boolean isEventStream(Request request) {
+        String accept = request.header("Accept");
+        return accept != null && accept.contains(EVENT_STREAM);
+    }
+    
+    /**
+     * 把日志中的消息内容替换为字符数
+     *
+     * @param message 日志行
+     * @return 隐去消息内容后的日志行
+     */
+    static String redactContent(String message) {
+        Matcher matcher = CONTENT_FIELD.matcher(message);
+        StringBuffer redacted = new StringBuffer();
+        while (matcher.find()) {
+            matcher.appendReplacement(redacted,
+                    Matcher.quoteReplacement(matcher.group(1) + "\"<" + matcher.group(2).length() + "字符>\""));
+        }
+        matcher.appendTail(redacted);
+        return redacted.toString();
+    }
+}
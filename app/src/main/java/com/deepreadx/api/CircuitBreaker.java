@@ -0,0 +1,151 @@
+package com.deepreadx.api;
+
+import android.os.SystemClock;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 熔断器，服务端明显不可用时直接失败，不再等待超时
+ *
+ * <p>连续失败达到阈值后进入打开状态，期间所有请求立即失败；经过冷却时间后进入半开状态，
+ * 只放行一个试探请求，成功则恢复关闭状态，失败则重新打开。只有网络错误和5xx计为失败，
+ * 限流（429）和其他4xx不影响熔断器。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class CircuitBreaker {
+    
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        /** 正常放行 */
+        CLOSED,
+        /** 直接失败 */
+        OPEN,
+        /** 放行一个试探请求 */
+        HALF_OPEN
+    }
+    
+    // 默认连续失败阈值
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    
+    // 默认打开状态持续时间（毫秒）
+    private static final long DEFAULT_OPEN_DURATION_MS = 30000;
+    
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final LongSupplier clock;
+    
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean trialInFlight = false;
+    private long openCount = 0;
+    
+    /**
+     * 使用默认参数构造：连续失败5次后熔断30秒
+     */
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION_MS);
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param failureThreshold 连续失败多少次后熔断
+     * @param openDurationMs 熔断持续时间（毫秒）
+     */
+    public CircuitBreaker(int failureThreshold, long openDurationMs) {
+        this(failureThreshold, openDurationMs, SystemClock::elapsedRealtime);
+    }
+    
+    /**
+     * 构造函数，可指定时钟，便于测试
+     *
+     * @param failureThreshold 连续失败多少次后熔断
+     * @param openDurationMs 熔断持续时间（毫秒）
+     * @param clock 单调时钟（毫秒）
+     */
+    CircuitBreaker(int failureThreshold, long openDurationMs, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.clock = clock;
+    }
+    
+    /**
+     * 判断是否放行请求，放行后必须调用{@link #recordSuccess()}或{@link #recordFailure()}之一，
+     * 请求因其他原因结束时调用{@link #recordIgnored()}
+     *
+     * @return 放行时返回true
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDurationMs) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+    
+    /**
+     * 记录一次成功，恢复关闭状态
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+    
+    /**
+     * 记录一次失败，连续失败达到阈值或试探请求失败时熔断
+     */
+    public synchronized void recordFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                openCount++;
+            }
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+    }
+    
+    /**
+     * 记录一次既不算成功也不算失败的结果（如被取消或4xx），只释放试探名额
+     */
+    public synchronized void recordIgnored() {
+        trialInFlight = false;
+    }
+    
+    /**
+     * 获取当前状态，打开状态的冷却时间已过时返回半开
+     *
+     * @return 熔断器状态
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openDurationMs) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+    
+    /**
+     * 获取熔断器打开的累计次数
+     *
+     * @return 次数
+     */
+    public synchronized long getOpenCount() {
+        return openCount;
+    }
+}
@@ -7,7 +7,13 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import okhttp3.Call;
 import okhttp3.Callback;
@@ -17,11 +23,26 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
-import okhttp3.logging.HttpLoggingInterceptor;
+import okio.BufferedSource;
 
 /**
  * DeepSeek API客户端，负责与DeepSeek服务通信并获取AI解释结果
  * 
+ * <p>支持一次性返回和流式返回两种方式。流式请求以服务器发送事件（SSE）逐段返回生成的内容，
+ * 首段内容通常在一秒内到达，适合边生成边显示。</p>
+ * 
+ * <p>设置{@link ExplanationCache}后，相同文本、风格和模型参数的请求直接返回缓存的解释，
+ * 不再访问网络。内存未命中时在缓存的数据库线程查询，未命中再从该线程发出网络请求。</p>
+ * 
+ * <p>连接失败、限流和5xx等暂时性失败由{@link RetryInterceptor}按抖动退避自动重试，请求发出后的
+ * 读取超时不重试，避免重复生成；服务端持续不可用时熔断器打开，请求立即失败而不再等待超时。</p>
+ * 
+ * <p>每次调用的DNS、连接、TLS、首字节和总耗时，传输字节数以及token用量记入{@link NetworkMetrics}。
+ * 日志中的Authorization头始终被隐去，请求和响应体只在调试模式下记录且隐去消息内容，流式响应的响应体从不记录。</p>
+ * 
+ * <p>OkHttpClient派生自{@link HttpClientProvider}的共享实例，与其他客户端共用连接池；
+ * 可以调用{@link #prewarmConnection()}提前建立到API主机的连接。</p>
+ * 
  * @author DeepReadX团队
  * @created 2025-05-18
  */
@@ -30,9 +51,35 @@ public class DeepSeekClient {
     private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
     private static final int TIMEOUT_SECONDS = 60;
     
+    // 模型参数，同时参与解释缓存键的计算
+    private static final String MODEL = "deepseek-chat";
+    private static final double TEMPERATURE = 0.7;
+    private static final int MAX_TOKENS = 1000;
+    
+    // SSE数据行前缀和流结束标记
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String SSE_DONE = "[DONE]";
+    
     private final String apiKey;
     private final String baseUrl;
     private final OkHttpClient client;
+    private ExplanationCache explanationCache;
+    
+    // 正在进行的请求，以请求地址和请求JSON为键，相同请求的调用方共享一个网络请求
+    private final Map<String, List<ApiCallback>> inFlightRequests = new HashMap<>();
+    private final Map<String, StreamFlight> inFlightStreams = new HashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    
+    // 暂时性失败的自动重试和熔断，在createOkHttpClient中加入拦截器链
+    private final RetryInterceptor retryInterceptor =
+            new RetryInterceptor(RetryPolicy.defaultPolicy(), new CircuitBreaker());
+    
+    // 各阶段耗时、传输字节数和token用量
+    private final NetworkMetrics networkMetrics = new NetworkMetrics();
+    
+    // 日志拦截器，默认只记录请求行和状态码，调试模式下才记录隐去消息内容的请求和响应体，流式请求不记录响应体
+    private final ApiLoggingInterceptor loggingInterceptor = new ApiLoggingInterceptor();
+    private volatile boolean debugLogging = false;
     
     /**
      * API请求回调接口
@@ -53,6 +100,184 @@ public class DeepSeekClient {
         void onError(Exception e);
     }
     
+    /**
+     * 流式请求回调接口，所有方法都在网络线程中调用
+     */
+    public interface StreamCallback {
+        /**
+         * 收到新生成的一段内容时回调
+         * 
+         * @param delta 新增的文本片段
+         */
+        void onDelta(String delta);
+        
+        /**
+         * 生成结束时回调
+         * 
+         * @param explanation 完整的解释内容
+         */
+        void onComplete(String explanation);
+        
+        /**
+         * 请求发生错误或被取消时回调，此前可能已经回调过部分内容
+         * 
+         * @param e 异常信息
+         */
+        void onError(Exception e);
+    }
+    
+    /**
+     * 流式请求句柄
+     */
+    public interface RequestHandle {
+        /**
+         * 取消本调用方的请求，此后不再收到任何回调；
+         * 所有调用方都取消后才中断共享的网络请求
+         */
+        void cancel();
+    }
+    
+    /**
+     * 一次进行中的流式请求，内容相同的调用方共享同一个网络请求
+     * 
+     * <p>新内容的追加和分发在同一把锁内进行，后加入的调用方先收到已生成的内容，
+     * 不会与后续内容乱序。</p>
+     */
+    private final class StreamFlight implements StreamCallback {
+        final String key;
+        final StringBuilder received = new StringBuilder();
+        final List<StreamCallback> subscribers = new ArrayList<>();
+        volatile Call call;
+        boolean finished = false;
+        
+        StreamFlight(String key) {
+            this.key = key;
+        }
+        
+        /**
+         * 加入请求，已收到的内容以一整段立即回调
+         * 
+         * @return 请求句柄，请求已结束时返回null
+         */
+        synchronized RequestHandle join(final StreamCallback callback) {
+            if (finished) {
+                return null;
+            }
+            subscribers.add(callback);
+            if (received.length() > 0) {
+                callback.onDelta(received.toString());
+            }
+            return () -> leave(callback);
+        }
+        
+        /**
+         * 退出请求，没有调用方时取消网络请求
+         */
+        private void leave(StreamCallback callback) {
+            Call toCancel = null;
+            synchronized (this) {
+                if (!subscribers.remove(callback) || !subscribers.isEmpty() || finished) {
+                    return;
+                }
+                finished = true;
+                toCancel = call;
+            }
+            synchronized (inFlightStreams) {
+                if (inFlightStreams.get(key) == this) {
+                    inFlightStreams.remove(key);
+                }
+            }
+            if (toCancel != null) {
+                toCancel.cancel();
+            }
+        }
+        
+        @Override
+        public synchronized void onDelta(String delta) {
+            received.append(delta);
+            for (StreamCallback subscriber : subscribers) {
+                subscriber.onDelta(delta);
+            }
+        }
+        
+        @Override
+        public void onComplete(String explanation) {
+            finish(explanation, null);
+        }
+        
+        @Override
+        public void onError(Exception e) {
+            finish(null, e);
+        }
+        
+        /**
+         * 结束请求并通知所有调用方，此后相同内容的请求会重新发送
+         */
+        void finish(String explanation, Exception error) {
+            synchronized (inFlightStreams) {
+                if (inFlightStreams.get(key) == this) {
+                    inFlightStreams.remove(key);
+                }
+            }
+            List<StreamCallback> targets;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                targets = new ArrayList<>(subscribers);
+                subscribers.clear();
+            }
+            for (StreamCallback subscriber : targets) {
+                if (error != null) {
+                    subscriber.onError(error);
+                } else {
+                    subscriber.onComplete(explanation);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 查询缓存期间返回给调用方的句柄，缓存未命中后关联实际的请求
+     */
+    private static final class PendingHandle implements RequestHandle {
+        private RequestHandle request;
+        private boolean cancelled = false;
+        
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+        
+        /**
+         * 关联实际的请求，已取消时立即取消该请求
+         */
+        void attach(RequestHandle handle) {
+            synchronized (this) {
+                if (!cancelled) {
+                    request = handle;
+                    return;
+                }
+            }
+            if (handle != null) {
+                handle.cancel();
+            }
+        }
+        
+        @Override
+        public void cancel() {
+            RequestHandle toCancel;
+            synchronized (this) {
+                cancelled = true;
+                toCancel = request;
+                request = null;
+            }
+            if (toCancel != null) {
+                toCancel.cancel();
+            }
+        }
+    }
+    
     /**
      * 构造函数
      * 
@@ -68,41 +293,96 @@ public class DeepSeekClient {
     }
     
     /**
-     * 请求AI解释
+     * 设置是否记录调试日志，开启后日志中包含隐去消息内容的请求和响应体，流式请求只包含响应头
+     * 
+     * @param enabled 是否开启，发布版本应保持关闭
+     */
+    public void setDebugLogging(boolean enabled) {
+        debugLogging = enabled;
+        loggingInterceptor.setDebugLogging(enabled);
+    }
+    
+    /**
+     * 设置解释缓存，设置后相同请求直接返回缓存的解释
+     * 
+     * @param explanationCache 解释缓存，为null时不使用缓存
+     */
+    public void setExplanationCache(ExplanationCache explanationCache) {
+        this.explanationCache = explanationCache;
+    }
+    
+    /**
+     * 请求AI解释，命中内存缓存时在当前线程立即回调
+     * 
+     * <p>与正在进行的请求内容完全相同时不再发送新请求，等待同一个请求的结果。</p>
      * 
      * @param text 需要解释的文本
      * @param style 解释风格，如"简明易懂"、"学术分析"等
      * @param callback 请求回调
      */
-    public void requestExplanation(String text, String style, final ApiCallback callback) {
+    public void requestExplanation(final String text, final String style, final ApiCallback callback) {
         if (text == null || text.isEmpty()) {
             callback.onError(new IllegalArgumentException("文本不能为空"));
             return;
         }
         
+        final ExplanationCache cache = explanationCache;
+        if (cache == null) {
+            sendRequest(text, style, null, null, callback);
+            return;
+        }
+        final String cacheKey = cacheKey(text, style);
+        cache.get(cacheKey, cached -> {
+            if (cached != null) {
+                Log.d(TAG, "命中解释缓存: " + cache.getStats());
+                callback.onResponse(cached);
+                return;
+            }
+            sendRequest(text, style, cache, cacheKey, callback);
+        });
+    }
+    
+    /**
+     * 发送一次性返回的请求，与进行中的相同请求合并
+     * 
+     * @param cache 解释缓存，为null时不保存结果
+     * @param cacheKey 缓存键
+     */
+    private void sendRequest(String text, String style, final ExplanationCache cache, final String cacheKey,
+                             final ApiCallback callback) {
+        final String flightKey;
+        final Request request;
+        try {
+            String jsonBody = buildRequestJson(text, style, false).toString();
+            request = buildRequest(jsonBody, false);
+            flightKey = flightKey(request, jsonBody);
+        } catch (Exception e) {
+            Log.e(TAG, "构建请求失败", e);
+            callback.onError(e);
+            return;
+        }
+        
+        // 相同请求正在进行时只登记回调
+        synchronized (inFlightRequests) {
+            List<ApiCallback> waiting = inFlightRequests.get(flightKey);
+            if (waiting != null) {
+                waiting.add(callback);
+                coalescedCount.incrementAndGet();
+                Log.d(TAG, "合并相同的进行中请求，等待数: " + waiting.size());
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(callback);
+            inFlightRequests.put(flightKey, waiting);
+        }
+        
         try {
-            // 构建请求体
-            JSONObject requestJson = buildRequestJson(text, style);
-            String jsonBody = requestJson.toString();
-            // 打印完整请求JSON，便于调试
-            Log.d(TAG, "请求JSON: " + jsonBody);
-            
-            RequestBody requestBody = RequestBody.create(JSON, jsonBody);
-            
-            // 构建请求
-            Request request = new Request.Builder()
-                    .url(baseUrl + "/v1/chat/completions")
-                    .addHeader("Authorization", "Bearer " + apiKey)
-                    .addHeader("Content-Type", "application/json; charset=utf-8")
-                    .post(requestBody)
-                    .build();
-            
             // 发送异步请求
             client.newCall(request).enqueue(new Callback() {
                 @Override
                 public void onFailure(Call call, IOException e) {
                     Log.e(TAG, "请求失败", e);
-                    callback.onError(e);
+                    deliverError(flightKey, e);
                 }
                 
                 @Override
@@ -112,35 +392,321 @@ public class DeepSeekClient {
                         if (response.code() >= 400) {
                             String errBody = response.body() != null ? response.body().string() : "";
                             Log.e(TAG, "API错误: HTTP " + response.code() + " - " + errBody);
-                            callback.onError(new Exception("HTTP " + response.code() + ": " + errBody));
+                            deliverError(flightKey, new Exception("HTTP " + response.code() + ": " + errBody));
                             return;
                         }
                         
                         try (ResponseBody responseBody = response.body()) {
                             if (!response.isSuccessful()) {
-                                callback.onError(new IOException("请求失败，状态码: " + response.code()));
+                                deliverError(flightKey, new IOException("请求失败，状态码: " + response.code()));
                                 return;
                             }
                             
                             if (responseBody == null) {
-                                callback.onError(new IOException("响应为空"));
+                                deliverError(flightKey, new IOException("响应为空"));
                                 return;
                             }
                             
                             String responseJson = responseBody.string();
                             String explanation = parseResponse(responseJson);
-                            callback.onResponse(explanation);
+                            if (cacheKey != null) {
+                                cache.put(cacheKey, explanation);
+                            }
+                            for (ApiCallback waiting : takeWaiting(flightKey)) {
+                                waiting.onResponse(explanation);
+                            }
                         }
                     } catch (Exception e) {
                         Log.e(TAG, "处理响应失败", e);
-                        callback.onError(e);
+                        deliverError(flightKey, e);
                     }
                 }
             });
+        } catch (Exception e) {
+            Log.e(TAG, "发送请求失败", e);
+            deliverError(flightKey, e);
+        }
+    }
+    
+    /**
+     * 取出等待指定请求的全部回调，此后相同内容的请求会重新发送
+     */
+    private List<ApiCallback> takeWaiting(String flightKey) {
+        synchronized (inFlightRequests) {
+            List<ApiCallback> waiting = inFlightRequests.remove(flightKey);
+            return waiting != null ? waiting : Collections.<ApiCallback>emptyList();
+        }
+    }
+    
+    /**
+     * 向等待指定请求的全部回调报告错误
+     */
+    private void deliverError(String flightKey, Exception e) {
+        for (ApiCallback waiting : takeWaiting(flightKey)) {
+            waiting.onError(e);
+        }
+    }
+    
+    /**
+     * 以流式方式请求AI解释，生成的内容逐段通过回调返回
+     * 
+     * <p>命中缓存时以一整段内容回调onDelta，随后回调onComplete：内存命中在当前线程回调，
+     * 数据库命中在缓存的数据库线程回调。与正在进行的流式请求内容完全相同时加入该请求：
+     * 先以一整段回调已收到的内容，之后与其他调用方同步收到后续内容。</p>
+     * 
+     * @param text 需要解释的文本
+     * @param style 解释风格
+     * @param callback 流式回调
+     * @return 请求句柄，可用于取消；参数无效或请求构建失败时返回null
+     */
+    public RequestHandle requestExplanationStream(String text, String style, final StreamCallback callback) {
+        if (text == null || text.isEmpty()) {
+            callback.onError(new IllegalArgumentException("文本不能为空"));
+            return null;
+        }
+        
+        final Request request;
+        final String flightKey;
+        try {
+            String jsonBody = buildRequestJson(text, style, true).toString();
+            request = buildRequest(jsonBody, true);
+            flightKey = flightKey(request, jsonBody);
         } catch (Exception e) {
             Log.e(TAG, "构建请求失败", e);
             callback.onError(e);
+            return null;
+        }
+        
+        final ExplanationCache cache = explanationCache;
+        if (cache == null) {
+            return startStream(request, flightKey, null, null, callback);
+        }
+        // 相同的生成正在进行时立即加入，调用方随后取消旧请求也不会中断它
+        RequestHandle joined = joinStream(flightKey, callback);
+        if (joined != null) {
+            return joined;
+        }
+        // 查询缓存期间先返回占位句柄，未命中时再关联实际的请求
+        final PendingHandle pending = new PendingHandle();
+        final String cacheKey = cacheKey(text, style);
+        cache.get(cacheKey, cached -> {
+            if (pending.isCancelled()) {
+                return;
+            }
+            if (cached != null) {
+                Log.d(TAG, "命中解释缓存: " + cache.getStats());
+                callback.onDelta(cached);
+                callback.onComplete(cached);
+                return;
+            }
+            pending.attach(startStream(request, flightKey, cache, cacheKey, callback));
+        });
+        return pending;
+    }
+    
+    /**
+     * 加入内容相同的进行中流式请求
+     * 
+     * @return 请求句柄，没有相同的进行中请求时返回null
+     */
+    private RequestHandle joinStream(String flightKey, StreamCallback callback) {
+        synchronized (inFlightStreams) {
+            StreamFlight existing = inFlightStreams.get(flightKey);
+            RequestHandle joined = existing != null ? existing.join(callback) : null;
+            if (joined != null) {
+                coalescedCount.incrementAndGet();
+                Log.d(TAG, "合并相同的进行中流式请求");
+            }
+            return joined;
+        }
+    }
+    
+    /**
+     * 发送流式请求，与进行中的相同请求合并
+     * 
+     * @param request 请求
+     * @param flightKey 合并相同请求用的键
+     * @param cache 解释缓存，为null时不保存结果
+     * @param cacheKey 缓存键
+     * @param callback 流式回调
+     * @return 请求句柄，请求发送失败时返回null
+     */
+    private RequestHandle startStream(Request request, String flightKey, final ExplanationCache cache,
+                                      final String cacheKey, final StreamCallback callback) {
+        final StreamFlight flight;
+        synchronized (inFlightStreams) {
+            RequestHandle joined = joinStream(flightKey, callback);
+            if (joined != null) {
+                return joined;
+            }
+            flight = new StreamFlight(flightKey);
+            inFlightStreams.put(flightKey, flight);
+        }
+        
+        RequestHandle handle = flight.join(callback);
+        try {
+            flight.call = client.newCall(request);
+            flight.call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    Log.e(TAG, "流式请求失败", e);
+                    flight.finish(null, e);
+                }
+                
+                @Override
+                public void onResponse(Call call, Response response) {
+                    try (ResponseBody responseBody = response.body()) {
+                        if (response.code() >= 400) {
+                            String errBody = responseBody != null ? responseBody.string() : "";
+                            Log.e(TAG, "API错误: HTTP " + response.code() + " - " + errBody);
+                            flight.finish(null, new Exception("HTTP " + response.code() + ": " + errBody));
+                            return;
+                        }
+                        if (responseBody == null) {
+                            flight.finish(null, new IOException("响应为空"));
+                            return;
+                        }
+                        
+                        String explanation = readEventStream(responseBody.source(), flight);
+                        // 只缓存完整结束的生成结果
+                        if (cacheKey != null && !explanation.isEmpty()) {
+                            cache.put(cacheKey, explanation);
+                        }
+                        flight.finish(explanation, null);
+                    } catch (Exception e) {
+                        Log.e(TAG, "读取流式响应失败", e);
+                        flight.finish(null, e);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "发送请求失败", e);
+            flight.finish(null, e);
+            return null;
+        }
+        return handle;
+    }
+    
+    /**
+     * 逐行读取SSE事件流，每解析出一段内容就回调一次
+     * 
+     * <p>每个事件由若干"data:"行组成，以空行结束；以冒号开头的注释行（如保活消息）被忽略。
+     * 事件数据为"[DONE]"时生成结束。</p>
+     * 
+     * @param source 响应数据源
+     * @param callback 流式回调
+     * @return 拼接后的完整内容
+     * @throws IOException 当连接中断或流在结束标记之前关闭时
+     * @throws JSONException 当事件数据格式错误时
+     */
+    String readEventStream(BufferedSource source, StreamCallback callback) throws IOException, JSONException {
+        StringBuilder explanation = new StringBuilder();
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = source.readUtf8Line()) != null) {
+            if (line.isEmpty()) {
+                // 空行表示一个事件结束
+                if (data.length() > 0) {
+                    String event = data.toString();
+                    data.setLength(0);
+                    if (SSE_DONE.equals(event)) {
+                        return explanation.toString();
+                    }
+                    JSONObject eventObject = new JSONObject(event);
+                    // 请求设置了include_usage时，最后一个事件带有整次生成的token用量
+                    MetricsInterceptor.recordUsage(networkMetrics, eventObject);
+                    String delta = parseStreamDelta(eventObject);
+                    if (!delta.isEmpty()) {
+                        explanation.append(delta);
+                        callback.onDelta(delta);
+                    }
+                }
+            } else if (line.startsWith(SSE_DATA_PREFIX)) {
+                String value = line.substring(SSE_DATA_PREFIX.length());
+                if (value.startsWith(" ")) {
+                    value = value.substring(1);
+                }
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(value);
+            }
         }
+        throw new IOException("流式响应在结束标记之前中断");
+    }
+    
+    /**
+     * 获取被合并到进行中请求的次数，即节省的重复请求数
+     * 
+     * @return 合并次数
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+    
+    /**
+     * 获取自动重试和熔断的统计信息
+     * 
+     * @return 重试统计信息
+     */
+    public RetryInterceptor.Stats getRetryStats() {
+        return retryInterceptor.getStats();
+    }
+    
+    /**
+     * 提前建立到API主机的连接，之后的第一个请求不再等待DNS、TCP和TLS握手
+     */
+    public void prewarmConnection() {
+        HttpClientProvider.prewarm(baseUrl);
+    }
+    
+    /**
+     * 获取网络性能指标
+     * 
+     * @return 各阶段耗时、传输字节数和token用量的直方图
+     */
+    public NetworkMetrics getNetworkMetrics() {
+        return networkMetrics;
+    }
+    
+    /**
+     * 计算请求对应的解释缓存键
+     */
+    private static String cacheKey(String text, String style) {
+        return ExplanationCache.computeKey(text, style, MODEL, TEMPERATURE, MAX_TOKENS);
+    }
+    
+    /**
+     * 计算合并相同请求用的键：请求地址和完整的请求JSON
+     */
+    private static String flightKey(Request request, String jsonBody) {
+        return request.url() + "\n" + jsonBody;
+    }
+    
+    /**
+     * 构建聊天补全请求
+     * 
+     * @param jsonBody 请求JSON
+     * @param stream 是否以SSE流式返回
+     * @return 请求
+     */
+    private Request buildRequest(String jsonBody, boolean stream) {
+        // 请求JSON包含用户选中的文本，只记录长度
+        if (debugLogging) {
+            Log.d(TAG, "请求JSON长度: " + jsonBody.length() + "字符");
+        }
+        
+        RequestBody requestBody = RequestBody.create(JSON, jsonBody);
+        
+        Request.Builder builder = new Request.Builder()
+                .url(baseUrl + "/v1/chat/completions")
+                .addHeader("Authorization", "Bearer " + apiKey)
+                .addHeader("Content-Type", "application/json; charset=utf-8")
+                .post(requestBody);
+        if (stream) {
+            builder.addHeader("Accept", "text/event-stream");
+        }
+        return builder.build();
     }
     
     /**
@@ -148,10 +714,11 @@ public class DeepSeekClient {
      * 
      * @param text 要解释的文本
      * @param style 解释风格
+     * @param stream 是否以SSE流式返回
      * @return JSON对象
      * @throws JSONException 如果JSON构建失败
      */
-    private JSONObject buildRequestJson(String text, String style) throws JSONException {
+    private JSONObject buildRequestJson(String text, String style, boolean stream) throws JSONException {
         // 构建系统消息
         JSONObject systemMessageObj = new JSONObject();
         systemMessageObj.put("role", "system");
@@ -169,11 +736,17 @@ public class DeepSeekClient {
         
         // 创建主请求对象
         JSONObject jsonObject = new JSONObject();
-        jsonObject.put("model", "deepseek-chat");
-        jsonObject.put("temperature", 0.7);
-        jsonObject.put("max_tokens", 1000);
+        jsonObject.put("model", MODEL);
+        jsonObject.put("temperature", TEMPERATURE);
+        jsonObject.put("max_tokens", MAX_TOKENS);
         jsonObject.put("messages", messagesArray);
-        jsonObject.put("stream", false);
+        jsonObject.put("stream", stream);
+        if (stream) {
+            // 让最后一个事件带上token用量
+            JSONObject streamOptions = new JSONObject();
+            streamOptions.put("include_usage", true);
+            jsonObject.put("stream_options", streamOptions);
+        }
         
         return jsonObject;
     }
@@ -191,7 +764,26 @@ public class DeepSeekClient {
         JSONObject messageObject = choicesObject.getJSONObject("message");
         return messageObject.getString("content");
     }
-
+    
+    /**
+     * 解析流式响应中的一个事件
+     * 
+     * @param jsonObject 事件数据JSON
+     * @return 新增的文本，首个只含角色的事件、结束事件和用量事件返回空字符串
+     * @throws JSONException 如果解析失败
+     */
+    private String parseStreamDelta(JSONObject jsonObject) throws JSONException {
+        JSONArray choices = jsonObject.optJSONArray("choices");
+        if (choices == null || choices.length() == 0) {
+            return "";
+        }
+        JSONObject delta = choices.getJSONObject(0).optJSONObject("delta");
+        if (delta == null || delta.isNull("content")) {
+            return "";
+        }
+        return delta.optString("content", "");
+    }
+    
     /**
      * 创建OkHttpClient实例
      * 该方法被设计成可被子类覆盖，便于单元测试
@@ -199,16 +791,16 @@ public class DeepSeekClient {
      * @return 配置好的OkHttpClient
      */
     OkHttpClient createOkHttpClient() {
-        // 创建日志拦截器
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-        
-        // 创建OkHttpClient实例，设置超时时间和日志拦截器
-        return new OkHttpClient.Builder()
+        // 在共享实例上派生，设置超时时间、拦截器和指标事件监听器，连接池和调度器保持共享
+        return HttpClientProvider.getSharedClient().newBuilder()
                 .connectTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
                 .readTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
                 .writeTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
-                .addInterceptor(loggingInterceptor) // 添加日志拦截器
+                .eventListenerFactory(MetricsEventListener.factory(networkMetrics))
+                .addInterceptor(retryInterceptor) // 在日志拦截器之前，每次重试都会记录日志
+                .addInterceptor(new MetricsInterceptor(networkMetrics)) // 记录token用量
+                .addInterceptor(loggingInterceptor) // 添加日志拦截器，流式请求不缓冲响应体
+                .addNetworkInterceptor(retryInterceptor.requestSentTracker()) // 请求发出后不再重试超时
                 .build();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,314 @@
+package com.deepreadx.api;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.deepreadx.cache.CacheManager;
+import com.deepreadx.cache.TrimmableCache;
+import com.deepreadx.dao.ExplanationCacheDao;
+import com.deepreadx.dao.impl.ExplanationCacheDaoImpl;
+import com.deepreadx.model.ExplanationCacheEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AI解释缓存，以规范化文本、风格提示词和模型参数的SHA-256为键，分为内存LRU和SQLite两级
+ *
+ * <p>文本在计算哈希前做NFKC规范化并合并空白，同一页重新识别时换行或全半角的细微差异
+ * 不影响命中。模型、温度或最大输出长度任一变化都会得到不同的键。</p>
+ *
+ * <p>数据库中的记录超过有效期后视为未命中；总大小超过上限时按最近访问时间淘汰。
+ * 内存命中通常在1毫秒以内，在调用线程直接回调；数据库查询在后台线程进行，不阻塞界面。
+ * 命中耗时计入统计信息。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class ExplanationCache {
+    private static final String TAG = "ExplanationCache";
+    
+    // 数据库记录的有效期
+    private static final long DEFAULT_TTL_MS = TimeUnit.DAYS.toMillis(30);
+    
+    // 数据库中解释内容的最大总字节数
+    private static final long DEFAULT_MAX_DISK_BYTES = 8L * 1024 * 1024;
+    
+    // 内存缓存占文本缓存预算的比例（1/4），其余留给OCR结果
+    private static final int MEMORY_BUDGET_DIVISOR = 4;
+    
+    // 每写入若干条记录清理一次数据库
+    private static final int TRIM_INTERVAL = 20;
+    
+    // 键中各字段的分隔符，正常文本和提示词中不会出现
+    private static final char FIELD_SEPARATOR = '\u0000';
+    
+    private static ExplanationCache instance;
+    
+    private final LruCache<String, String> memoryCache;
+    private final TrimmableCache memoryCacheEntry;
+    private final ExplanationCacheDao cacheDao;
+    private final ExecutorService dbExecutor;
+    private final long ttlMs;
+    private final long maxDiskBytes;
+    
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong hitNanos = new AtomicLong();
+    private int insertsSinceTrim = 0;
+    
+    /**
+     * 查询结果回调接口
+     */
+    public interface LookupCallback {
+        /**
+         * 查询完成回调，内存命中时在调用线程执行，否则在数据库线程执行
+         *
+         * @param explanation 解释内容，未缓存或已过期时为null
+         */
+        void onResult(String explanation);
+    }
+    
+    /**
+     * 缓存统计信息
+     */
+    public static class Stats {
+        public final long memoryHits;
+        public final long diskHits;
+        public final long misses;
+        public final long expired;
+        public final long averageHitMicros;
+        public final int memoryBytes;
+        
+        Stats(long memoryHits, long diskHits, long misses, long expired, long averageHitMicros, int memoryBytes) {
+            this.memoryHits = memoryHits;
+            this.diskHits = diskHits;
+            this.misses = misses;
+            this.expired = expired;
+            this.averageHitMicros = averageHitMicros;
+            this.memoryBytes = memoryBytes;
+        }
+        
+        /**
+         * 获取命中率
+         *
+         * @return 0到100之间的百分比
+         */
+        public long getHitRate() {
+            long total = memoryHits + diskHits + misses;
+            return total == 0 ? 0 : (memoryHits + diskHits) * 100 / total;
+        }
+        
+        @Override
+        public String toString() {
+            return "memoryHits=" + memoryHits + ", diskHits=" + diskHits + ", misses=" + misses
+                    + ", expired=" + expired + ", hitRate=" + getHitRate() + "%, avgHit="
+                    + averageHitMicros + "us, memoryBytes=" + memoryBytes;
+        }
+    }
+    
+    /**
+     * 获取解释缓存实例，首次调用时向缓存管理器注册内存缓存并清理过期记录
+     *
+     * @param context 上下文
+     * @return 解释缓存
+     */
+    public static synchronized ExplanationCache getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            CacheManager manager = CacheManager.getInstance(appContext);
+            instance = new ExplanationCache(new ExplanationCacheDaoImpl(appContext),
+                    manager.getTextCacheBudget() / MEMORY_BUDGET_DIVISOR, DEFAULT_TTL_MS, DEFAULT_MAX_DISK_BYTES);
+            manager.register(instance.memoryCacheEntry);
+            instance.trimDisk();
+        }
+        return instance;
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param cacheDao 解释缓存DAO
+     * @param maxMemoryBytes 内存缓存容量（字节）
+     * @param ttlMs 数据库记录的有效期（毫秒）
+     * @param maxDiskBytes 数据库中解释内容的最大总字节数
+     */
+    ExplanationCache(ExplanationCacheDao cacheDao, int maxMemoryBytes, long ttlMs, long maxDiskBytes) {
+        this.cacheDao = cacheDao;
+        this.ttlMs = ttlMs;
+        this.maxDiskBytes = maxDiskBytes;
+        this.memoryCache = new LruCache<String, String>(maxMemoryBytes) {
+            @Override
+            protected int sizeOf(String key, String value) {
+                // Java字符串每个字符占2字节
+                return (key.length() + value.length()) * 2;
+            }
+        };
+        this.memoryCacheEntry = CacheManager.wrap("ExplanationCache", TrimmableCache.TIER_ESSENTIAL, memoryCache);
+        this.dbExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ExplanationCacheThread");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+    
+    /**
+     * 计算缓存键
+     *
+     * @param text 需要解释的文本
+     * @param style 风格提示词
+     * @param model 模型名称
+     * @param temperature 采样温度
+     * @param maxTokens 最大输出token数
+     * @return 64位十六进制SHA-256
+     */
+    public static String computeKey(String text, String style, String model, double temperature, int maxTokens) {
+        StringBuilder material = new StringBuilder(text.length() + style.length() + 32);
+        material.append(normalizeText(text)).append(FIELD_SEPARATOR)
+                .append(style).append(FIELD_SEPARATOR)
+                .append(model).append(FIELD_SEPARATOR)
+                .append(temperature).append(FIELD_SEPARATOR)
+                .append(maxTokens);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(material.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // 所有Android版本都提供SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * 规范化文本：NFKC统一全半角和兼容字符，合并连续空白，去掉首尾空白
+     */
+    static String normalizeText(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        StringBuilder sb = new StringBuilder(normalized.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * 查询解释，先查内存，未命中时在数据库线程查询数据库
+     *
+     * <p>数据库命中时回填内存并更新访问时间。</p>
+     *
+     * @param key 缓存键
+     * @param callback 查询结果回调
+     */
+    public void get(final String key, final LookupCallback callback) {
+        final long start = System.nanoTime();
+        String explanation = memoryCache.get(key);
+        if (explanation != null) {
+            memoryHits.incrementAndGet();
+            hitNanos.addAndGet(System.nanoTime() - start);
+            callback.onResult(explanation);
+            return;
+        }
+        dbExecutor.execute(() -> callback.onResult(getFromDiskOnWorker(key, start)));
+    }
+    
+    /**
+     * 在数据库线程查询数据库，过期的记录随后删除
+     */
+    private String getFromDiskOnWorker(final String key, long start) {
+        ExplanationCacheEntry entry = cacheDao.queryByKey(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        
+        final long now = System.currentTimeMillis();
+        if (now - entry.getCreatedAt() > ttlMs) {
+            expired.incrementAndGet();
+            misses.incrementAndGet();
+            dbExecutor.execute(() -> cacheDao.deleteByKey(key));
+            return null;
+        }
+        
+        diskHits.incrementAndGet();
+        hitNanos.addAndGet(System.nanoTime() - start);
+        memoryCache.put(key, entry.getExplanation());
+        // 排在本次回调之后执行
+        dbExecutor.execute(() -> cacheDao.updateAccessTime(key, now));
+        return entry.getExplanation();
+    }
+    
+    /**
+     * 保存解释，数据库写入在后台线程进行
+     *
+     * @param key 缓存键
+     * @param explanation 解释内容
+     */
+    public void put(final String key, final String explanation) {
+        memoryCache.put(key, explanation);
+        dbExecutor.execute(() -> {
+            long now = System.currentTimeMillis();
+            cacheDao.insert(new ExplanationCacheEntry(key, explanation, now, now));
+            if (++insertsSinceTrim >= TRIM_INTERVAL) {
+                insertsSinceTrim = 0;
+                trimDiskOnWorker();
+            }
+        });
+    }
+    
+    /**
+     * 在后台线程删除过期记录并按大小淘汰
+     */
+    private void trimDisk() {
+        dbExecutor.execute(this::trimDiskOnWorker);
+    }
+    
+    private void trimDiskOnWorker() {
+        int expiredCount = cacheDao.deleteOlderThan(System.currentTimeMillis() - ttlMs);
+        int evictedCount = cacheDao.trimToSize(maxDiskBytes);
+        Log.d(TAG, "清理解释缓存: 过期 " + expiredCount + " 条, 超出容量 " + evictedCount + " 条");
+    }
+    
+    /**
+     * 清空内存和数据库中的缓存
+     */
+    public void clear() {
+        memoryCache.evictAll();
+        dbExecutor.execute(cacheDao::deleteAll);
+    }
+    
+    /**
+     * 获取缓存统计信息
+     *
+     * @return 各级命中次数、未命中次数、过期次数及平均命中耗时
+     */
+    public Stats getStats() {
+        long memory = memoryHits.get();
+        long disk = diskHits.get();
+        long hits = memory + disk;
+        long averageMicros = hits == 0 ? 0 : hitNanos.get() / hits / 1000;
+        return new Stats(memory, disk, misses.get(), expired.get(), averageMicros, memoryCache.size());
+    }
+}
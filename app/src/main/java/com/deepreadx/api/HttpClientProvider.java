@@ -0,0 +1,117 @@
+package com.deepreadx.api;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * 进程内共享的OkHttpClient，所有API客户端共用同一个连接池和调度器
+ *
+ * <p>各客户端通过{@link OkHttpClient#newBuilder()}在共享实例上添加自己的超时和拦截器，
+ * 派生出的实例仍复用同一个连接池，Activity重建后已建立的连接不会丢失。
+ * 优先使用HTTP/2，同一主机的并发请求复用一条连接。</p>
+ *
+ * <p>{@link #prewarm(String)}提前向API主机发送一个HEAD请求，完成DNS、TCP和TLS握手后
+ * 连接留在连接池中，之后的第一个请求不再等待握手。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public final class HttpClientProvider {
+    private static final String TAG = "HttpClientProvider";
+    
+    // 连接池保留的最大空闲连接数，应用只访问少数几个主机
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+    
+    // 空闲连接保留时间，覆盖一次阅读中两次解释之间的间隔
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    
+    // 预热请求的超时时间，预热失败不影响正常请求
+    private static final int PREWARM_TIMEOUT_SECONDS = 10;
+    
+    // 同一主机两次预热的最短间隔
+    private static final long PREWARM_INTERVAL_MS = 60000;
+    
+    private static OkHttpClient sharedClient;
+    private static final Map<String, Long> lastPrewarmTimes = new HashMap<>();
+    
+    private HttpClientProvider() {
+    }
+    
+    /**
+     * 获取共享的OkHttpClient，首次调用时创建
+     *
+     * @return 共享实例
+     */
+    public static synchronized OkHttpClient getSharedClient() {
+        if (sharedClient == null) {
+            sharedClient = new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                    .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                    .build();
+        }
+        return sharedClient;
+    }
+    
+    /**
+     * 预先建立到指定地址所在主机的连接，最近已预热过的主机会被跳过
+     *
+     * @param baseUrl API基础URL
+     */
+    public static void prewarm(String baseUrl) {
+        final HttpUrl url = baseUrl != null ? HttpUrl.parse(baseUrl) : null;
+        if (url == null) {
+            return;
+        }
+        
+        long now = SystemClock.elapsedRealtime();
+        synchronized (lastPrewarmTimes) {
+            Long last = lastPrewarmTimes.get(url.host());
+            if (last != null && now - last < PREWARM_INTERVAL_MS) {
+                return;
+            }
+            lastPrewarmTimes.put(url.host(), now);
+        }
+        
+        // 直接使用共享实例，不经过API客户端的拦截器和指标统计
+        OkHttpClient client = getSharedClient().newBuilder()
+                .callTimeout(PREWARM_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .build();
+        Request request = new Request.Builder()
+                .url(url)
+                .head()
+                .build();
+        final long start = SystemClock.elapsedRealtime();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.w(TAG, "预热连接失败: " + url.host() + " - " + e.getMessage());
+                synchronized (lastPrewarmTimes) {
+                    lastPrewarmTimes.remove(url.host());
+                }
+            }
+            
+            @Override
+            public void onResponse(Call call, Response response) {
+                // 状态码无关紧要，连接建立后即返回连接池
+                response.close();
+                Log.d(TAG, "预热连接完成: " + url.host() + " " + response.protocol()
+                        + "，耗时" + (SystemClock.elapsedRealtime() - start) + "ms");
+            }
+        });
+    }
+}
@@ -0,0 +1,145 @@
+package com.deepreadx.api;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+/**
+ * 采集单次调用各阶段耗时和传输字节数的OkHttp事件监听器，每个调用一个实例
+ *
+ * <p>首字节时间从发送请求头开始计到开始接收响应头，不含DNS、连接和TLS；
+ * 总耗时覆盖整个调用，包括{@link RetryInterceptor}的重试和退避等待。
+ * 复用连接池中的连接时不会产生DNS、连接和TLS事件。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class MetricsEventListener extends EventListener {
+    private final NetworkMetrics metrics;
+    
+    private long callStartNanos;
+    private long dnsStartNanos;
+    private long connectStartNanos;
+    private long secureConnectStartNanos;
+    private long requestStartNanos;
+    private boolean connected;
+    private boolean finished;
+    
+    /**
+     * 创建为每个调用生成监听器的工厂
+     *
+     * @param metrics 指标记录对象
+     * @return 监听器工厂
+     */
+    public static EventListener.Factory factory(final NetworkMetrics metrics) {
+        return call -> new MetricsEventListener(metrics);
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param metrics 指标记录对象
+     */
+    MetricsEventListener(NetworkMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    @Override
+    public void callStart(Call call) {
+        callStartNanos = System.nanoTime();
+    }
+    
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStartNanos = System.nanoTime();
+    }
+    
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        metrics.dnsMs.record(elapsedMs(dnsStartNanos));
+    }
+    
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStartNanos = System.nanoTime();
+        connected = true;
+    }
+    
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStartNanos = System.nanoTime();
+    }
+    
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        metrics.tlsMs.record(elapsedMs(secureConnectStartNanos));
+    }
+    
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        // 连接耗时包括TCP握手和TLS握手
+        metrics.connectMs.record(elapsedMs(connectStartNanos));
+    }
+    
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        if (!connected) {
+            metrics.recordReusedConnection();
+        }
+        // 重试时可能复用本次调用已建立的连接
+        connected = false;
+    }
+    
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestStartNanos = System.nanoTime();
+    }
+    
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        metrics.requestBytes.record(byteCount);
+    }
+    
+    @Override
+    public void responseHeadersStart(Call call) {
+        metrics.timeToFirstByteMs.record(elapsedMs(requestStartNanos));
+    }
+    
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        metrics.responseBytes.record(byteCount);
+    }
+    
+    @Override
+    public void callEnd(Call call) {
+        finish(false);
+    }
+    
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        finish(true);
+    }
+    
+    /**
+     * 记录调用结束，callEnd和callFailed只计一次
+     */
+    private void finish(boolean failed) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        metrics.recordCall(elapsedMs(callStartNanos), failed);
+    }
+    
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000000;
+    }
+}
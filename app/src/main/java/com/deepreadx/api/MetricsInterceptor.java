@@ -0,0 +1,79 @@
+package com.deepreadx.api;
+
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * 从JSON响应中读取token用量并记入{@link NetworkMetrics}的拦截器
+ *
+ * <p>通过{@link Response#peekBody(long)}读取响应体的副本，不影响调用方读取。
+ * SSE流式响应的用量在最后一个事件中，由{@link DeepSeekClient}解析时记录，这里不做缓冲。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class MetricsInterceptor implements Interceptor {
+    private static final String TAG = "MetricsInterceptor";
+    
+    // 读取响应体副本的最大字节数，超过时不解析用量
+    private static final long MAX_PEEK_BYTES = 256 * 1024;
+    
+    private final NetworkMetrics metrics;
+    
+    /**
+     * 构造函数
+     *
+     * @param metrics 指标记录对象
+     */
+    public MetricsInterceptor(NetworkMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        ResponseBody body = response.body();
+        if (!response.isSuccessful() || body == null || !isJson(body.contentType())) {
+            return response;
+        }
+        long length = body.contentLength();
+        if (length > MAX_PEEK_BYTES) {
+            return response;
+        }
+        
+        String json = response.peekBody(MAX_PEEK_BYTES).string();
+        try {
+            recordUsage(metrics, new JSONObject(json));
+        } catch (JSONException e) {
+            Log.w(TAG, "无法解析响应中的token用量", e);
+        }
+        return response;
+    }
+    
+    /**
+     * 记录响应或流式事件中的usage字段，没有该字段时忽略
+     *
+     * @param metrics 指标记录对象
+     * @param response 响应JSON
+     */
+    static void recordUsage(NetworkMetrics metrics, JSONObject response) {
+        JSONObject usage = response.optJSONObject("usage");
+        if (usage == null) {
+            return;
+        }
+        metrics.recordTokenUsage(usage.optLong("prompt_tokens", -1), usage.optLong("completion_tokens", -1));
+    }
+    
+    private static boolean isJson(MediaType contentType) {
+        return contentType != null && "json".equals(contentType.subtype());
+    }
+}
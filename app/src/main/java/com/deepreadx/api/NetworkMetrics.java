@@ -0,0 +1,237 @@
+package com.deepreadx.api;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * API网络请求的性能指标，各阶段耗时、传输字节数和token用量分别记入直方图
+ *
+ * <p>耗时由{@link MetricsEventListener}在OkHttp事件中采集，token用量由{@link MetricsInterceptor}
+ * 和流式响应的最后一个事件提供。直方图按2的幂分桶，百分位数取所在桶的上界，
+ * 只用于观察分布和趋势，不是精确值。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class NetworkMetrics {
+    
+    /**
+     * 按2的幂分桶的直方图，记录数量、总和、最小值、最大值和近似百分位数
+     */
+    public static class Histogram {
+        // 桶数：第i个桶的上界为2^i，最后一个桶容纳更大的值
+        private static final int BUCKET_COUNT = 32;
+        
+        private final String name;
+        private final String unit;
+        private final long[] buckets = new long[BUCKET_COUNT];
+        private long count = 0;
+        private long sum = 0;
+        private long min = Long.MAX_VALUE;
+        private long max = 0;
+        
+        Histogram(String name, String unit) {
+            this.name = name;
+            this.unit = unit;
+        }
+        
+        /**
+         * 记录一个值，负值被忽略
+         *
+         * @param value 取值
+         */
+        public synchronized void record(long value) {
+            if (value < 0) {
+                return;
+            }
+            buckets[bucketIndex(value)]++;
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        
+        /**
+         * 获取值所在桶的序号：满足value <= 2^i的最小i
+         */
+        private static int bucketIndex(long value) {
+            if (value <= 1) {
+                return 0;
+            }
+            int index = 64 - Long.numberOfLeadingZeros(value - 1);
+            return Math.min(index, BUCKET_COUNT - 1);
+        }
+        
+        /**
+         * 获取记录次数
+         *
+         * @return 次数
+         */
+        public synchronized long getCount() {
+            return count;
+        }
+        
+        /**
+         * 获取平均值
+         *
+         * @return 平均值，没有记录时返回0
+         */
+        public synchronized long getMean() {
+            return count == 0 ? 0 : sum / count;
+        }
+        
+        /**
+         * 获取最大值
+         *
+         * @return 最大值，没有记录时返回0
+         */
+        public synchronized long getMax() {
+            return max;
+        }
+        
+        /**
+         * 获取近似百分位数
+         *
+         * @param percentile 0到100之间的百分位
+         * @return 所在桶的上界，不超过最大值；没有记录时返回0
+         */
+        public synchronized long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(count * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += buckets[i];
+                if (seen >= Math.max(1, target)) {
+                    return Math.max(min, Math.min(max, 1L << i));
+                }
+            }
+            return max;
+        }
+        
+        /**
+         * 清空记录
+         */
+        public synchronized void reset() {
+            Arrays.fill(buckets, 0);
+            count = 0;
+            sum = 0;
+            min = Long.MAX_VALUE;
+            max = 0;
+        }
+        
+        @Override
+        public synchronized String toString() {
+            if (count == 0) {
+                return name + ": -";
+            }
+            return String.format(Locale.ROOT, "%s: n=%d, avg=%d%s, p50=%d%s, p90=%d%s, p99=%d%s, max=%d%s",
+                    name, count, getMean(), unit, getPercentile(50), unit, getPercentile(90), unit,
+                    getPercentile(99), unit, max, unit);
+        }
+    }
+    
+    public final Histogram dnsMs = new Histogram("dns", "ms");
+    public final Histogram connectMs = new Histogram("connect", "ms");
+    public final Histogram tlsMs = new Histogram("tls", "ms");
+    public final Histogram timeToFirstByteMs = new Histogram("ttfb", "ms");
+    public final Histogram totalMs = new Histogram("total", "ms");
+    public final Histogram requestBytes = new Histogram("requestBytes", "B");
+    public final Histogram responseBytes = new Histogram("responseBytes", "B");
+    public final Histogram promptTokens = new Histogram("promptTokens", "");
+    public final Histogram completionTokens = new Histogram("completionTokens", "");
+    
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+    private final AtomicLong reusedConnections = new AtomicLong();
+    
+    /**
+     * 记录一次调用结束
+     *
+     * @param durationMs 总耗时（毫秒），包括重试和退避等待
+     * @param failed 是否失败
+     */
+    void recordCall(long durationMs, boolean failed) {
+        calls.incrementAndGet();
+        if (failed) {
+            failedCalls.incrementAndGet();
+        }
+        totalMs.record(durationMs);
+    }
+    
+    /**
+     * 记录一次复用连接池中已有连接的请求
+     */
+    void recordReusedConnection() {
+        reusedConnections.incrementAndGet();
+    }
+    
+    /**
+     * 记录响应中的token用量
+     *
+     * @param prompt 输入token数
+     * @param completion 输出token数
+     */
+    void recordTokenUsage(long prompt, long completion) {
+        promptTokens.record(prompt);
+        completionTokens.record(completion);
+    }
+    
+    /**
+     * 获取调用次数
+     *
+     * @return 次数
+     */
+    public long getCallCount() {
+        return calls.get();
+    }
+    
+    /**
+     * 获取失败的调用次数
+     *
+     * @return 次数
+     */
+    public long getFailedCallCount() {
+        return failedCalls.get();
+    }
+    
+    /**
+     * 获取复用已有连接的请求次数，复用时没有DNS、连接和TLS耗时
+     *
+     * @return 次数
+     */
+    public long getReusedConnectionCount() {
+        return reusedConnections.get();
+    }
+    
+    /**
+     * 清空所有记录
+     */
+    public void reset() {
+        for (Histogram histogram : histograms()) {
+            histogram.reset();
+        }
+        calls.set(0);
+        failedCalls.set(0);
+        reusedConnections.set(0);
+    }
+    
+    private Histogram[] histograms() {
+        return new Histogram[] {dnsMs, connectMs, tlsMs, timeToFirstByteMs, totalMs,
+                requestBytes, responseBytes, promptTokens, completionTokens};
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("calls=").append(calls.get())
+                .append(", failed=").append(failedCalls.get())
+                .append(", reusedConnections=").append(reusedConnections.get());
+        for (Histogram histogram : histograms()) {
+            sb.append('\n').append(histogram);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,218 @@
+package com.deepreadx.api;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * 按{@link RetryPolicy}自动重试暂时性失败的OkHttp拦截器，并通过{@link CircuitBreaker}在服务端不可用时快速失败
+ *
+ * <p>重试发生在响应体被读取之前：流式请求一旦开始返回内容，中途断开不会重试，
+ * 避免同一段内容被重复回调。非幂等请求只在连接阶段失败时重试，需要把{@link #requestSentTracker()}
+ * 加入网络拦截器，以便知道请求是否已经发出。退避等待在OkHttp的调度线程中进行，请求被取消时立即停止。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class RetryInterceptor implements Interceptor {
+    private static final String TAG = "RetryInterceptor";
+    
+    private final RetryPolicy policy;
+    private final CircuitBreaker circuitBreaker;
+    private final Random random = new Random();
+    
+    // 本次尝试已建立连接、开始发送请求的调用
+    private final Set<Call> sentCalls = ConcurrentHashMap.newKeySet();
+    
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong backoffMillis = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    
+    /**
+     * 熔断器打开时抛出的异常
+     */
+    public static class CircuitOpenException extends IOException {
+        /**
+         * 构造函数
+         */
+        public CircuitOpenException() {
+            super("服务暂时不可用，请稍后重试");
+        }
+    }
+    
+    /**
+     * 重试统计信息
+     */
+    public static class Stats {
+        public final long requests;
+        public final long retries;
+        public final long recovered;
+        public final long backoffMillis;
+        public final long rejected;
+        public final long circuitOpenCount;
+        public final CircuitBreaker.State circuitState;
+        
+        Stats(long requests, long retries, long recovered, long backoffMillis, long rejected,
+              long circuitOpenCount, CircuitBreaker.State circuitState) {
+            this.requests = requests;
+            this.retries = retries;
+            this.recovered = recovered;
+            this.backoffMillis = backoffMillis;
+            this.rejected = rejected;
+            this.circuitOpenCount = circuitOpenCount;
+            this.circuitState = circuitState;
+        }
+        
+        @Override
+        public String toString() {
+            return "requests=" + requests + ", retries=" + retries + ", recovered=" + recovered
+                    + ", backoff=" + backoffMillis + "ms, rejected=" + rejected
+                    + ", circuitOpened=" + circuitOpenCount + ", circuit=" + circuitState;
+        }
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param policy 重试策略
+     * @param circuitBreaker 熔断器
+     */
+    public RetryInterceptor(RetryPolicy policy, CircuitBreaker circuitBreaker) {
+        this.policy = policy;
+        this.circuitBreaker = circuitBreaker;
+    }
+    
+    /**
+     * 获取记录请求是否已发出的网络拦截器，网络拦截器在连接建立之后、发送请求之前执行
+     *
+     * @return 网络拦截器
+     */
+    public Interceptor requestSentTracker() {
+        return chain -> {
+            sentCalls.add(chain.call());
+            return chain.proceed(chain.request());
+        };
+    }
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        requests.incrementAndGet();
+        
+        long previousDelayMs = 0;
+        for (int attempt = 0; ; attempt++) {
+            if (!circuitBreaker.allowRequest()) {
+                rejected.incrementAndGet();
+                throw new CircuitOpenException();
+            }
+            
+            Response response;
+            try {
+                response = chain.proceed(request);
+                sentCalls.remove(chain.call());
+            } catch (IOException e) {
+                boolean sent = sentCalls.remove(chain.call());
+                boolean canceled = chain.call().isCanceled();
+                if (!canceled && policy.isServiceFailure(e)) {
+                    circuitBreaker.recordFailure();
+                } else {
+                    circuitBreaker.recordIgnored();
+                }
+                boolean retryable = !canceled && policy.isRetryableException(e, request.method(), sent);
+                if (!retryable || attempt >= policy.getMaxRetries()) {
+                    throw e;
+                }
+                previousDelayMs = policy.nextBackoffMs(previousDelayMs, random);
+                Log.w(TAG, "请求失败，" + previousDelayMs + "ms后第" + (attempt + 1) + "次重试: " + e);
+                sleep(chain, previousDelayMs);
+                continue;
+            }
+            
+            int code = response.code();
+            if (code >= 500) {
+                circuitBreaker.recordFailure();
+            } else if (code < 400) {
+                circuitBreaker.recordSuccess();
+            } else {
+                circuitBreaker.recordIgnored();
+            }
+            
+            if (!policy.isRetryableStatus(code) || attempt >= policy.getMaxRetries()) {
+                if (attempt > 0 && response.isSuccessful()) {
+                    recovered.incrementAndGet();
+                }
+                return response;
+            }
+            
+            long backoffMs = policy.nextBackoffMs(previousDelayMs, random);
+            long retryAfterMs = RetryPolicy.parseRetryAfterMs(response.header("Retry-After"),
+                    System.currentTimeMillis());
+            long delayMs = policy.resolveDelayMs(retryAfterMs, backoffMs);
+            if (delayMs < 0) {
+                // 服务端要求等待的时间过长，直接返回错误响应
+                Log.w(TAG, "Retry-After过长，不再重试: " + response.header("Retry-After"));
+                return response;
+            }
+            previousDelayMs = backoffMs;
+            response.close();
+            Log.w(TAG, "HTTP " + code + "，" + delayMs + "ms后第" + (attempt + 1) + "次重试");
+            sleep(chain, delayMs);
+        }
+    }
+    
+    /**
+     * 退避等待，请求被取消或线程被中断时抛出异常
+     */
+    private void sleep(Chain chain, long delayMs) throws IOException {
+        retries.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            // 分段等待，以便及时响应取消
+            long remaining = delayMs;
+            while (remaining > 0) {
+                if (chain.call().isCanceled()) {
+                    throw new IOException("Canceled");
+                }
+                long step = Math.min(remaining, 100);
+                Thread.sleep(step);
+                remaining -= step;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("重试等待被中断");
+        } finally {
+            backoffMillis.addAndGet((System.nanoTime() - start) / 1000000);
+        }
+    }
+    
+    /**
+     * 获取熔断器
+     *
+     * @return 熔断器
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    /**
+     * 获取重试统计信息
+     *
+     * @return 请求数、重试次数、重试后成功数、退避总耗时、熔断拒绝数及熔断器状态
+     */
+    public Stats getStats() {
+        return new Stats(requests.get(), retries.get(), recovered.get(), backoffMillis.get(), rejected.get(),
+                circuitBreaker.getOpenCount(), circuitBreaker.getState());
+    }
+}
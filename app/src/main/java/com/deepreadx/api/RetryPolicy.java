@@ -0,0 +1,227 @@
+package com.deepreadx.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * 请求重试策略：哪些失败可以重试、最多重试几次以及每次等待多久
+ *
+ * <p>只重试暂时性的失败：连接或读取超时、连接被拒绝、HTTP 408、429和5xx中的502、503、504、500。
+ * 其他4xx说明请求本身有问题，重试也不会成功。请求已经发出后的超时只对幂等请求重试：
+ * 聊天补全是POST请求，读取超时时服务端可能已经在生成，重试会重复生成并重复计费。</p>
+ *
+ * <p>熔断器按{@link #isServiceFailure}计数，只统计请求到达过服务端主机的失败：连接被拒绝、TLS握手失败、
+ * 超时和5xx。域名无法解析、网络不可达说明设备离线，不计入熔断器，否则网络恢复后熔断器仍然打开，
+ * 请求在打开期间全部立即失败。</p>
+ *
+ * <p>等待时间采用"去相关抖动"退避：每次在基础延迟和上次延迟的3倍之间随机取值，并以最大延迟为上限。
+ * 与固定倍数的指数退避相比，多个客户端同时失败后不会在同一时刻一起重试。
+ * 服务端返回Retry-After时优先按其等待，但不超过允许的最长等待时间。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class RetryPolicy {
+    // 默认最多重试次数
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    
+    // 默认基础延迟和最大延迟（毫秒）
+    private static final long DEFAULT_BASE_DELAY_MS = 500;
+    private static final long DEFAULT_MAX_DELAY_MS = 8000;
+    
+    // 默认允许的最长Retry-After（毫秒），超过时不再重试
+    private static final long DEFAULT_MAX_RETRY_AFTER_MS = 30000;
+    
+    // 重复发送不会产生额外副作用的请求方法
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList(
+            "GET", "HEAD", "OPTIONS", "PUT", "DELETE"));
+    
+    private final int maxRetries;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long maxRetryAfterMs;
+    
+    /**
+     * 构造函数
+     *
+     * @param maxRetries 最多重试次数，为0时不重试
+     * @param baseDelayMs 基础延迟（毫秒）
+     * @param maxDelayMs 单次退避的最大延迟（毫秒）
+     * @param maxRetryAfterMs 允许的最长Retry-After（毫秒）
+     */
+    public RetryPolicy(int maxRetries, long baseDelayMs, long maxDelayMs, long maxRetryAfterMs) {
+        if (maxRetries < 0 || baseDelayMs < 0 || maxDelayMs < baseDelayMs) {
+            throw new IllegalArgumentException("无效的重试参数");
+        }
+        this.maxRetries = maxRetries;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.maxRetryAfterMs = maxRetryAfterMs;
+    }
+    
+    /**
+     * 获取默认策略：最多重试3次，退避延迟500毫秒到8秒
+     *
+     * @return 默认重试策略
+     */
+    public static RetryPolicy defaultPolicy() {
+        return new RetryPolicy(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY_MS, DEFAULT_MAX_DELAY_MS,
+                DEFAULT_MAX_RETRY_AFTER_MS);
+    }
+    
+    /**
+     * 获取最多重试次数
+     *
+     * @return 重试次数
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+    
+    /**
+     * 获取基础延迟
+     *
+     * @return 毫秒
+     */
+    public long getBaseDelayMs() {
+        return baseDelayMs;
+    }
+    
+    /**
+     * 判断HTTP状态码是否可以重试
+     *
+     * @param code HTTP状态码
+     * @return 请求超时、限流或服务端暂时性错误时返回true
+     */
+    public boolean isRetryableStatus(int code) {
+        return code == 408 || code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+    
+    /**
+     * 判断网络异常是否属于暂时性失败
+     *
+     * @param e 网络异常
+     * @return 超时或连接被拒绝时返回true
+     */
+    public boolean isRetryableException(IOException e) {
+        // 调用被取消或线程被中断时抛出的InterruptedIOException不是超时，不能重试
+        return e instanceof SocketTimeoutException
+                || e instanceof ConnectException
+                || (e instanceof InterruptedIOException && "timeout".equals(e.getMessage()));
+    }
+    
+    /**
+     * 判断失败的请求能否重试：暂时性失败，且请求尚未发出或请求方法是幂等的
+     *
+     * @param e 网络异常
+     * @param method 请求方法
+     * @param requestSent 失败前是否已开始发送请求
+     * @return 可以重试时返回true
+     */
+    public boolean isRetryableException(IOException e, String method, boolean requestSent) {
+        return isRetryableException(e) && (!requestSent || IDEMPOTENT_METHODS.contains(method));
+    }
+    
+    /**
+     * 判断网络异常是否说明服务不可达，计入熔断器的失败次数
+     *
+     * @param e 网络异常
+     * @return 请求到达过服务端主机后的失败返回true；设备离线、调用被取消和线程被中断时返回false
+     */
+    public boolean isServiceFailure(IOException e) {
+        if (e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException)) {
+            return "timeout".equals(e.getMessage());
+        }
+        if (isOffline(e)) {
+            return false;
+        }
+        return !"Canceled".equals(e.getMessage());
+    }
+    
+    /**
+     * 判断网络异常是否由设备离线引起：域名无法解析或网络不可达
+     *
+     * @param e 网络异常
+     * @return 设备离线时返回true
+     */
+    static boolean isOffline(IOException e) {
+        if (e instanceof UnknownHostException || e instanceof NoRouteToHostException) {
+            return true;
+        }
+        // 没有可用网络时连接失败的消息，Android上为ENETUNREACH
+        String message = e.getMessage();
+        return e instanceof SocketException && message != null
+                && (message.contains("ENETUNREACH") || message.contains("Network is unreachable"));
+    }
+    
+    /**
+     * 计算下一次重试前的退避延迟
+     *
+     * @param previousDelayMs 上一次的延迟，首次重试时传入0
+     * @param random 随机数生成器
+     * @return 延迟（毫秒）
+     */
+    public long nextBackoffMs(long previousDelayMs, Random random) {
+        long upper = Math.min(maxDelayMs, Math.max(baseDelayMs, previousDelayMs * 3));
+        if (upper <= baseDelayMs) {
+            return baseDelayMs;
+        }
+        return baseDelayMs + (long) (random.nextDouble() * (upper - baseDelayMs));
+    }
+    
+    /**
+     * 根据Retry-After决定等待时间
+     *
+     * @param retryAfterMs 服务端要求的等待时间，没有Retry-After时为-1
+     * @param backoffMs 按退避算法计算的延迟
+     * @return 实际等待时间（毫秒），服务端要求等待过久时返回-1表示不再重试
+     */
+    public long resolveDelayMs(long retryAfterMs, long backoffMs) {
+        if (retryAfterMs < 0) {
+            return backoffMs;
+        }
+        return retryAfterMs > maxRetryAfterMs ? -1 : retryAfterMs;
+    }
+    
+    /**
+     * 解析Retry-After响应头，支持秒数和HTTP日期两种格式
+     *
+     * @param value 响应头的值，可以为null
+     * @param nowMs 当前时间（毫秒）
+     * @return 需要等待的毫秒数，无法解析时返回-1
+     */
+    public static long parseRetryAfterMs(String value, long nowMs) {
+        if (value == null || value.trim().isEmpty()) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        try {
+            long seconds = Long.parseLong(trimmed);
+            return seconds < 0 ? -1 : seconds * 1000;
+        } catch (NumberFormatException e) {
+            // 不是秒数，按HTTP日期解析
+        }
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            Date date = format.parse(trimmed);
+            return Math.max(0, date.getTime() - nowMs);
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.deepreadx.cache;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 缓存管理器，根据设备内存等级分配各类缓存的容量，并在系统内存紧张时按层级逐步裁剪已注册的缓存
+ *
+ * <p>缓存按{@link TrimmableCache}的层级分为复用池、可重新生成的渲染结果、重新生成代价较高的文本三类。
+ * 内存越紧张，裁剪的层级越多、保留的比例越小。管理器只持有缓存的弱引用，文档关闭后未注销的缓存
+ * 也不会因此泄漏。ML Kit和OkHttp的内部缓冲区不在管理范围内。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class CacheManager implements ComponentCallbacks2 {
+    private static final String TAG = "CacheManager";
+    
+    // 页面缓存占应用可用内存的比例（1/8）
+    private static final int PAGE_CACHE_DIVISOR = 8;
+    
+    // 分块缓存占应用可用内存的比例（1/16）
+    private static final int TILE_CACHE_DIVISOR = 16;
+    
+    // 文本缓存占应用可用内存的比例（1/64）
+    private static final int TEXT_CACHE_DIVISOR = 64;
+    
+    // 内存等级低于该值（MB）的设备所有预算减半
+    private static final int LOW_MEMORY_CLASS_MB = 128;
+    
+    private static volatile CacheManager instance;
+    
+    private final int memoryClassBytes;
+    private final boolean lowMemoryDevice;
+    private final Map<TrimmableCache, Boolean> caches = new WeakHashMap<>();
+    
+    private CacheManager(Context context) {
+        ActivityManager activityManager =
+                (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClassMb = activityManager != null ? activityManager.getMemoryClass() : 64;
+        this.memoryClassBytes = memoryClassMb * 1024 * 1024;
+        this.lowMemoryDevice = activityManager == null || activityManager.isLowRamDevice()
+                || memoryClassMb < LOW_MEMORY_CLASS_MB;
+        Log.d(TAG, "内存等级: " + memoryClassMb + "MB, 低内存设备: " + lowMemoryDevice);
+    }
+    
+    /**
+     * 获取缓存管理器实例，首次调用时向应用注册内存回收回调
+     *
+     * @param context 上下文
+     * @return 缓存管理器
+     */
+    public static CacheManager getInstance(Context context) {
+        if (instance == null) {
+            synchronized (CacheManager.class) {
+                if (instance == null) {
+                    Context appContext = context.getApplicationContext();
+                    CacheManager manager = new CacheManager(appContext);
+                    appContext.registerComponentCallbacks(manager);
+                    instance = manager;
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * 获取页面位图缓存的容量预算
+     *
+     * @return 字节数
+     */
+    public int getPageCacheBudget() {
+        return budget(PAGE_CACHE_DIVISOR);
+    }
+    
+    /**
+     * 获取放大分块缓存的容量预算
+     *
+     * @return 字节数
+     */
+    public int getTileCacheBudget() {
+        return budget(TILE_CACHE_DIVISOR);
+    }
+    
+    /**
+     * 获取文本类缓存（OCR结果、AI解释）的容量预算
+     *
+     * @return 字节数
+     */
+    public int getTextCacheBudget() {
+        return budget(TEXT_CACHE_DIVISOR);
+    }
+    
+    /**
+     * 按内存等级计算预算，低内存设备减半
+     */
+    private int budget(int divisor) {
+        int bytes = memoryClassBytes / divisor;
+        return lowMemoryDevice ? bytes / 2 : bytes;
+    }
+    
+    /**
+     * 注册缓存
+     *
+     * @param cache 可裁剪的缓存
+     */
+    public synchronized void register(TrimmableCache cache) {
+        caches.put(cache, Boolean.TRUE);
+    }
+    
+    /**
+     * 注销缓存
+     *
+     * @param cache 之前注册的缓存
+     */
+    public synchronized void unregister(TrimmableCache cache) {
+        caches.remove(cache);
+    }
+    
+    /**
+     * 获取所有已注册缓存的快照
+     */
+    private synchronized List<TrimmableCache> snapshot() {
+        return new ArrayList<>(caches.keySet());
+    }
+    
+    /**
+     * 将LruCache包装为可裁剪缓存，LruCache的sizeOf需按字节计算
+     *
+     * @param name 缓存名称
+     * @param tier 缓存层级
+     * @param cache LRU缓存
+     * @return 可裁剪缓存
+     */
+    public static TrimmableCache wrap(final String name, final int tier, final LruCache<?, ?> cache) {
+        return new TrimmableCache() {
+            @Override
+            public String getCacheName() {
+                return name;
+            }
+            
+            @Override
+            public int getTier() {
+                return tier;
+            }
+            
+            @Override
+            public long getSizeBytes() {
+                return cache.size();
+            }
+            
+            @Override
+            public long getMaxBytes() {
+                return cache.maxSize();
+            }
+            
+            @Override
+            public void trimToFraction(float fraction) {
+                if (fraction <= 0f) {
+                    cache.evictAll();
+                } else {
+                    cache.trimToSize((int) (cache.maxSize() * fraction));
+                }
+            }
+        };
+    }
+    
+    @Override
+    public void onTrimMemory(int level) {
+        Log.d(TAG, "收到内存回收通知，级别: " + level + "，裁剪前: " + getFootprintReport());
+        // 从高层级到低层级裁剪：页面和分块缓存淘汰的位图会回到复用池，复用池必须最后裁剪
+        List<TrimmableCache> list = snapshot();
+        Collections.sort(list, (a, b) -> Integer.compare(b.getTier(), a.getTier()));
+        for (TrimmableCache cache : list) {
+            float fraction = retainFraction(cache.getTier(), level);
+            if (fraction < 1f) {
+                cache.trimToFraction(fraction);
+            }
+        }
+        Log.d(TAG, "裁剪后: " + getFootprintReport());
+    }
+    
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+    
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        // 与缓存无关
+    }
+    
+    /**
+     * 计算指定层级在指定内存回收级别下的保留比例
+     *
+     * @param tier 缓存层级
+     * @param level onTrimMemory的级别
+     * @return 保留比例，1表示不裁剪，0表示清空
+     */
+    static float retainFraction(int tier, int level) {
+        if (level >= TRIM_MEMORY_MODERATE || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            // 进程即将被杀，释放所有缓存
+            return 0f;
+        }
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            return tier == TrimmableCache.TIER_ESSENTIAL ? 0.5f : 0f;
+        }
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            // 界面不可见，只保留少量渲染结果以便返回时快速显示
+            if (tier == TrimmableCache.TIER_POOL) {
+                return 0f;
+            }
+            return tier == TrimmableCache.TIER_DERIVED ? 0.25f : 1f;
+        }
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            if (tier == TrimmableCache.TIER_POOL) {
+                return 0f;
+            }
+            return tier == TrimmableCache.TIER_DERIVED ? 0.5f : 1f;
+        }
+        if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+            return tier == TrimmableCache.TIER_POOL ? 0.5f : 1f;
+        }
+        return 1f;
+    }
+    
+    /**
+     * 获取所有已注册缓存的内存占用报告
+     *
+     * @return 每个缓存的名称、层级、当前占用和容量上限
+     */
+    public String getFootprintReport() {
+        List<TrimmableCache> list = snapshot();
+        Collections.sort(list, (a, b) -> Integer.compare(a.getTier(), b.getTier()));
+        
+        long total = 0;
+        StringBuilder builder = new StringBuilder();
+        for (TrimmableCache cache : list) {
+            long size = cache.getSizeBytes();
+            total += size;
+            builder.append(cache.getCacheName())
+                    .append("[tier=").append(cache.getTier())
+                    .append("] ").append(size / 1024).append("KB/")
+                    .append(cache.getMaxBytes() / 1024).append("KB; ");
+        }
+        builder.append("total=").append(total / 1024).append("KB");
+        return builder.toString();
+    }
+}
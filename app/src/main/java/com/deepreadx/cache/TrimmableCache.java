@@ -0,0 +1,54 @@
+package com.deepreadx.cache;
+
+/**
+ * 可在内存紧张时裁剪的缓存，向{@link CacheManager}注册后统一响应系统的内存回收通知
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public interface TrimmableCache {
+    
+    /** 复用池等可随时丢弃的缓存，最先裁剪 */
+    int TIER_POOL = 0;
+    
+    /** 渲染结果等可以重新生成的缓存 */
+    int TIER_DERIVED = 1;
+    
+    /** OCR文本、AI解释等重新生成代价较高的缓存，最后裁剪 */
+    int TIER_ESSENTIAL = 2;
+    
+    /**
+     * 获取缓存名称，用于内存占用报告
+     *
+     * @return 缓存名称
+     */
+    String getCacheName();
+    
+    /**
+     * 获取缓存层级
+     *
+     * @return 层级，取值为TIER_*常量
+     */
+    int getTier();
+    
+    /**
+     * 获取当前占用的字节数
+     *
+     * @return 字节数
+     */
+    long getSizeBytes();
+    
+    /**
+     * 获取容量上限
+     *
+     * @return 字节数
+     */
+    long getMaxBytes();
+    
+    /**
+     * 将缓存裁剪到容量上限的指定比例
+     *
+     * @param fraction 保留比例，0表示清空
+     */
+    void trimToFraction(float fraction);
+}
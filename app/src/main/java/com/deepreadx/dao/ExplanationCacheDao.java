@@ -0,0 +1,68 @@
+package com.deepreadx.dao;
+
+import com.deepreadx.model.ExplanationCacheEntry;
+
+/**
+ * 解释缓存数据访问接口，按请求参数哈希保存AI生成的解释
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public interface ExplanationCacheDao {
+    
+    /**
+     * 保存解释，已存在的记录会被覆盖
+     * 
+     * @param entry 解释缓存条目
+     * @return 是否保存成功
+     */
+    boolean insert(ExplanationCacheEntry entry);
+    
+    /**
+     * 根据缓存键查询解释
+     * 
+     * @param key 请求参数哈希
+     * @return 解释缓存条目，不存在时返回null
+     */
+    ExplanationCacheEntry queryByKey(String key);
+    
+    /**
+     * 更新记录的最近访问时间
+     * 
+     * @param key 请求参数哈希
+     * @param accessedAt 访问时间（毫秒）
+     * @return 是否更新成功
+     */
+    boolean updateAccessTime(String key, long accessedAt);
+    
+    /**
+     * 删除创建时间早于指定时间的记录
+     * 
+     * @param timestamp 时间（毫秒）
+     * @return 删除的记录数
+     */
+    int deleteOlderThan(long timestamp);
+    
+    /**
+     * 按最近访问时间从新到旧保留记录，直到总大小达到上限，删除其余记录
+     * 
+     * @param maxBytes 保留记录的最大总字节数
+     * @return 删除的记录数
+     */
+    int trimToSize(long maxBytes);
+    
+    /**
+     * 根据缓存键删除记录
+     * 
+     * @param key 请求参数哈希
+     * @return 删除的记录数
+     */
+    int deleteByKey(String key);
+    
+    /**
+     * 删除所有记录
+     * 
+     * @return 删除的记录数
+     */
+    int deleteAll();
+}
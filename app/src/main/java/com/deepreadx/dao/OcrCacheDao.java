@@ -0,0 +1,43 @@
+package com.deepreadx.dao;
+
+import com.deepreadx.model.OcrCacheEntry;
+
+/**
+ * OCR缓存数据访问接口，按图像内容哈希保存识别结果
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public interface OcrCacheDao {
+    
+    /**
+     * 保存识别结果，已存在的记录会被覆盖
+     * 
+     * @param entry OCR缓存条目
+     * @return 是否保存成功
+     */
+    boolean insert(OcrCacheEntry entry);
+    
+    /**
+     * 根据图像内容哈希查询识别结果
+     * 
+     * @param hash 图像内容哈希
+     * @return OCR缓存条目，不存在时返回null
+     */
+    OcrCacheEntry queryByHash(String hash);
+    
+    /**
+     * 只保留最新的若干条记录，删除其余记录
+     * 
+     * @param maxCount 保留的记录数
+     * @return 删除的记录数
+     */
+    int trimToCount(int maxCount);
+    
+    /**
+     * 删除所有记录
+     * 
+     * @return 删除的记录数
+     */
+    int deleteAll();
+}
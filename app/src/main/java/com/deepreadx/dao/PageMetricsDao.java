@@ -0,0 +1,38 @@
+package com.deepreadx.dao;
+
+import com.deepreadx.model.PageMetrics;
+
+import java.util.List;
+
+/**
+ * 页面尺寸数据访问接口，按文档指纹保存和读取每页的尺寸
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public interface PageMetricsDao {
+    
+    /**
+     * 在一个事务中保存文档所有页面的尺寸，已存在的记录会被覆盖
+     * 
+     * @param metrics 页面尺寸列表
+     * @return 成功保存的记录数
+     */
+    int insertAll(List<PageMetrics> metrics);
+    
+    /**
+     * 查询文档所有页面的尺寸，按页码升序排列
+     * 
+     * @param fingerprint 文档指纹
+     * @return 页面尺寸列表，不存在时返回空列表
+     */
+    List<PageMetrics> queryByDocument(String fingerprint);
+    
+    /**
+     * 删除文档的所有页面尺寸记录
+     * 
+     * @param fingerprint 文档指纹
+     * @return 删除的记录数
+     */
+    int deleteByDocument(String fingerprint);
+}
@@ -0,0 +1,47 @@
+package com.deepreadx.dao;
+
+import com.deepreadx.model.PageText;
+
+import java.util.Set;
+
+/**
+ * 页面文本数据访问接口，按文档指纹和页码保存识别出的文本
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public interface PageTextDao {
+    
+    /**
+     * 保存页面文本，已存在的记录会被覆盖
+     * 
+     * @param pageText 页面文本
+     * @return 是否保存成功
+     */
+    boolean insert(PageText pageText);
+    
+    /**
+     * 查询指定页面的文本
+     * 
+     * @param fingerprint 文档指纹
+     * @param pageIndex 页码索引
+     * @return 页面文本，尚未识别时返回null
+     */
+    PageText queryByPage(String fingerprint, int pageIndex);
+    
+    /**
+     * 查询文档中已识别的页码，用于中断后从断点继续建立索引
+     * 
+     * @param fingerprint 文档指纹
+     * @return 已识别的页码集合，不存在时返回空集合
+     */
+    Set<Integer> queryIndexedPages(String fingerprint);
+    
+    /**
+     * 删除文档的所有页面文本
+     * 
+     * @param fingerprint 文档指纹
+     * @return 删除的记录数
+     */
+    int deleteByDocument(String fingerprint);
+}
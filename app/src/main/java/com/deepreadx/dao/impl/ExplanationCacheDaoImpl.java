@@ -0,0 +1,211 @@
+package com.deepreadx.dao.impl;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.deepreadx.dao.ExplanationCacheDao;
+import com.deepreadx.db.CacheDbHelper;
+import com.deepreadx.model.ExplanationCacheEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 解释缓存数据访问接口实现类
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class ExplanationCacheDaoImpl implements ExplanationCacheDao {
+    private static final String TAG = "ExplanationCacheDao";
+    
+    private final CacheDbHelper dbHelper;
+    
+    /**
+     * 构造函数
+     * 
+     * @param context 应用上下文
+     */
+    public ExplanationCacheDaoImpl(Context context) {
+        this.dbHelper = CacheDbHelper.getInstance(context);
+    }
+    
+    @Override
+    public boolean insert(ExplanationCacheEntry entry) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        boolean success = false;
+        
+        try {
+            ContentValues values = new ContentValues();
+            values.put(CacheDbHelper.COLUMN_KEY, entry.getKey());
+            values.put(CacheDbHelper.COLUMN_EXPLANATION, entry.getExplanation());
+            values.put(CacheDbHelper.COLUMN_SIZE_BYTES,
+                    entry.getExplanation().getBytes(StandardCharsets.UTF_8).length);
+            values.put(CacheDbHelper.COLUMN_CREATED_AT, entry.getCreatedAt());
+            values.put(CacheDbHelper.COLUMN_LAST_ACCESSED_AT, entry.getLastAccessedAt());
+            
+            success = db.insertWithOnConflict(CacheDbHelper.TABLE_EXPLANATION_CACHE, null, values,
+                    SQLiteDatabase.CONFLICT_REPLACE) != -1;
+        } catch (Exception e) {
+            Log.e(TAG, "保存解释缓存失败: " + e.getMessage(), e);
+        }
+        
+        return success;
+    }
+    
+    @Override
+    public ExplanationCacheEntry queryByKey(String key) {
+        ExplanationCacheEntry entry = null;
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        
+        try {
+            Cursor cursor = db.query(
+                    CacheDbHelper.TABLE_EXPLANATION_CACHE,
+                    null,
+                    CacheDbHelper.COLUMN_KEY + " = ?",
+                    new String[]{key},
+                    null,
+                    null,
+                    null
+            );
+            
+            if (cursor != null) {
+                if (cursor.moveToFirst()) {
+                    entry = new ExplanationCacheEntry(
+                            key,
+                            cursor.getString(cursor.getColumnIndexOrThrow(CacheDbHelper.COLUMN_EXPLANATION)),
+                            cursor.getLong(cursor.getColumnIndexOrThrow(CacheDbHelper.COLUMN_CREATED_AT)),
+                            cursor.getLong(cursor.getColumnIndexOrThrow(CacheDbHelper.COLUMN_LAST_ACCESSED_AT)));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "查询解释缓存失败: " + e.getMessage(), e);
+        }
+        
+        return entry;
+    }
+    
+    @Override
+    public boolean updateAccessTime(String key, long accessedAt) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        boolean success = false;
+        
+        try {
+            ContentValues values = new ContentValues();
+            values.put(CacheDbHelper.COLUMN_LAST_ACCESSED_AT, accessedAt);
+            success = db.update(
+                    CacheDbHelper.TABLE_EXPLANATION_CACHE,
+                    values,
+                    CacheDbHelper.COLUMN_KEY + " = ?",
+                    new String[]{key}
+            ) > 0;
+        } catch (Exception e) {
+            Log.e(TAG, "更新解释缓存访问时间失败: " + e.getMessage(), e);
+        }
+        
+        return success;
+    }
+    
+    @Override
+    public int deleteOlderThan(long timestamp) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        int affectedRows = 0;
+        
+        try {
+            affectedRows = db.delete(
+                    CacheDbHelper.TABLE_EXPLANATION_CACHE,
+                    CacheDbHelper.COLUMN_CREATED_AT + " < ?",
+                    new String[]{String.valueOf(timestamp)}
+            );
+        } catch (Exception e) {
+            Log.e(TAG, "删除过期解释缓存失败: " + e.getMessage(), e);
+        }
+        
+        return affectedRows;
+    }
+    
+    @Override
+    public int trimToSize(long maxBytes) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        int affectedRows = 0;
+        
+        try {
+            // 从最近访问的记录开始累计大小，超出上限之后的记录全部删除
+            List<String> evicted = new ArrayList<>();
+            Cursor cursor = db.query(
+                    CacheDbHelper.TABLE_EXPLANATION_CACHE,
+                    new String[]{CacheDbHelper.COLUMN_KEY, CacheDbHelper.COLUMN_SIZE_BYTES},
+                    null,
+                    null,
+                    null,
+                    null,
+                    CacheDbHelper.COLUMN_LAST_ACCESSED_AT + " DESC"
+            );
+            if (cursor != null) {
+                long totalBytes = 0;
+                while (cursor.moveToNext()) {
+                    totalBytes += cursor.getLong(1);
+                    if (totalBytes > maxBytes) {
+                        evicted.add(cursor.getString(0));
+                    }
+                }
+                cursor.close();
+            }
+            
+            db.beginTransaction();
+            try {
+                for (String key : evicted) {
+                    affectedRows += db.delete(
+                            CacheDbHelper.TABLE_EXPLANATION_CACHE,
+                            CacheDbHelper.COLUMN_KEY + " = ?",
+                            new String[]{key}
+                    );
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "清理解释缓存失败: " + e.getMessage(), e);
+        }
+        
+        return affectedRows;
+    }
+    
+    @Override
+    public int deleteByKey(String key) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        int affectedRows = 0;
+        
+        try {
+            affectedRows = db.delete(
+                    CacheDbHelper.TABLE_EXPLANATION_CACHE,
+                    CacheDbHelper.COLUMN_KEY + " = ?",
+                    new String[]{key}
+            );
+        } catch (Exception e) {
+            Log.e(TAG, "删除解释缓存失败: " + e.getMessage(), e);
+        }
+        
+        return affectedRows;
+    }
+    
+    @Override
+    public int deleteAll() {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        int affectedRows = 0;
+        
+        try {
+            affectedRows = db.delete(CacheDbHelper.TABLE_EXPLANATION_CACHE, null, null);
+        } catch (Exception e) {
+            Log.e(TAG, "清空解释缓存失败: " + e.getMessage(), e);
+        }
+        
+        return affectedRows;
+    }
+}
@@ -0,0 +1,121 @@
+package com.deepreadx.dao.impl;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.deepreadx.dao.OcrCacheDao;
+import com.deepreadx.db.CacheDbHelper;
+import com.deepreadx.model.OcrCacheEntry;
+
+/**
+ * OCR缓存数据访问接口实现类
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class OcrCacheDaoImpl implements OcrCacheDao {
+    private static final String TAG = "OcrCacheDao";
+    
+    private final CacheDbHelper dbHelper;
+    
+    /**
+     * 构造函数
+     * 
+     * @param context 应用上下文
+     */
+    public OcrCacheDaoImpl(Context context) {
+        this.dbHelper = CacheDbHelper.getInstance(context);
+    }
+    
+    @Override
+    public boolean insert(OcrCacheEntry entry) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        boolean success = false;
+        
+        try {
+            ContentValues values = new ContentValues();
+            values.put(CacheDbHelper.COLUMN_HASH, entry.getHash());
+            values.put(CacheDbHelper.COLUMN_TEXT, entry.getText());
+            values.put(CacheDbHelper.COLUMN_RESULT, entry.getResult());
+            values.put(CacheDbHelper.COLUMN_CREATED_AT, entry.getCreatedAt());
+            
+            success = db.insertWithOnConflict(CacheDbHelper.TABLE_OCR_CACHE, null, values,
+                    SQLiteDatabase.CONFLICT_REPLACE) != -1;
+        } catch (Exception e) {
+            Log.e(TAG, "保存OCR缓存失败: " + e.getMessage(), e);
+        }
+        
+        return success;
+    }
+    
+    @Override
+    public OcrCacheEntry queryByHash(String hash) {
+        OcrCacheEntry entry = null;
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        
+        try {
+            Cursor cursor = db.query(
+                    CacheDbHelper.TABLE_OCR_CACHE,
+                    null,
+                    CacheDbHelper.COLUMN_HASH + " = ?",
+                    new String[]{hash},
+                    null,
+                    null,
+                    null
+            );
+            
+            if (cursor != null) {
+                if (cursor.moveToFirst()) {
+                    entry = new OcrCacheEntry(
+                            hash,
+                            cursor.getString(cursor.getColumnIndexOrThrow(CacheDbHelper.COLUMN_TEXT)),
+                            cursor.getBlob(cursor.getColumnIndexOrThrow(CacheDbHelper.COLUMN_RESULT)),
+                            cursor.getLong(cursor.getColumnIndexOrThrow(CacheDbHelper.COLUMN_CREATED_AT)));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "查询OCR缓存失败: " + e.getMessage(), e);
+        }
+        
+        return entry;
+    }
+    
+    @Override
+    public int trimToCount(int maxCount) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        int affectedRows = 0;
+        
+        try {
+            // 删除创建时间排在maxCount之后的记录
+            affectedRows = db.delete(
+                    CacheDbHelper.TABLE_OCR_CACHE,
+                    CacheDbHelper.COLUMN_HASH + " NOT IN (SELECT " + CacheDbHelper.COLUMN_HASH
+                            + " FROM " + CacheDbHelper.TABLE_OCR_CACHE
+                            + " ORDER BY " + CacheDbHelper.COLUMN_CREATED_AT + " DESC LIMIT ?)",
+                    new String[]{String.valueOf(maxCount)}
+            );
+        } catch (Exception e) {
+            Log.e(TAG, "清理OCR缓存失败: " + e.getMessage(), e);
+        }
+        
+        return affectedRows;
+    }
+    
+    @Override
+    public int deleteAll() {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        int affectedRows = 0;
+        
+        try {
+            affectedRows = db.delete(CacheDbHelper.TABLE_OCR_CACHE, null, null);
+        } catch (Exception e) {
+            Log.e(TAG, "清空OCR缓存失败: " + e.getMessage(), e);
+        }
+        
+        return affectedRows;
+    }
+}
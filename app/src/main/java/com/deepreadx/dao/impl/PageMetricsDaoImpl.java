@@ -0,0 +1,120 @@
+package com.deepreadx.dao.impl;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.deepreadx.dao.PageMetricsDao;
+import com.deepreadx.db.DocumentDbHelper;
+import com.deepreadx.model.PageMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 页面尺寸数据访问接口实现类
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PageMetricsDaoImpl implements PageMetricsDao {
+    private static final String TAG = "PageMetricsDao";
+    
+    private final DocumentDbHelper dbHelper;
+    
+    /**
+     * 构造函数
+     * 
+     * @param context 应用上下文
+     */
+    public PageMetricsDaoImpl(Context context) {
+        this.dbHelper = DocumentDbHelper.getInstance(context);
+    }
+    
+    @Override
+    public int insertAll(List<PageMetrics> metrics) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        int count = 0;
+        
+        try {
+            db.beginTransaction();
+            for (PageMetrics item : metrics) {
+                ContentValues values = new ContentValues();
+                values.put(DocumentDbHelper.COLUMN_FINGERPRINT, item.getFingerprint());
+                values.put(DocumentDbHelper.COLUMN_PAGE_INDEX, item.getPageIndex());
+                values.put(DocumentDbHelper.COLUMN_WIDTH, item.getWidth());
+                values.put(DocumentDbHelper.COLUMN_HEIGHT, item.getHeight());
+                
+                if (db.insertWithOnConflict(DocumentDbHelper.TABLE_PAGE_METRICS, null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE) != -1) {
+                    count++;
+                }
+            }
+            db.setTransactionSuccessful();
+            Log.d(TAG, "保存页面尺寸成功，共 " + count + " 页");
+        } catch (Exception e) {
+            Log.e(TAG, "保存页面尺寸失败: " + e.getMessage(), e);
+            count = 0;
+        } finally {
+            db.endTransaction();
+        }
+        
+        return count;
+    }
+    
+    @Override
+    public List<PageMetrics> queryByDocument(String fingerprint) {
+        List<PageMetrics> metrics = new ArrayList<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        
+        try {
+            Cursor cursor = db.query(
+                    DocumentDbHelper.TABLE_PAGE_METRICS,
+                    null,
+                    DocumentDbHelper.COLUMN_FINGERPRINT + " = ?",
+                    new String[]{fingerprint},
+                    null,
+                    null,
+                    DocumentDbHelper.COLUMN_PAGE_INDEX + " ASC"
+            );
+            
+            if (cursor != null) {
+                int pageIndexColumn = cursor.getColumnIndexOrThrow(DocumentDbHelper.COLUMN_PAGE_INDEX);
+                int widthColumn = cursor.getColumnIndexOrThrow(DocumentDbHelper.COLUMN_WIDTH);
+                int heightColumn = cursor.getColumnIndexOrThrow(DocumentDbHelper.COLUMN_HEIGHT);
+                while (cursor.moveToNext()) {
+                    metrics.add(new PageMetrics(
+                            fingerprint,
+                            cursor.getInt(pageIndexColumn),
+                            cursor.getInt(widthColumn),
+                            cursor.getInt(heightColumn)));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "查询页面尺寸失败: " + e.getMessage(), e);
+        }
+        
+        return metrics;
+    }
+    
+    @Override
+    public int deleteByDocument(String fingerprint) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        int affectedRows = 0;
+        
+        try {
+            affectedRows = db.delete(
+                    DocumentDbHelper.TABLE_PAGE_METRICS,
+                    DocumentDbHelper.COLUMN_FINGERPRINT + " = ?",
+                    new String[]{fingerprint}
+            );
+        } catch (Exception e) {
+            Log.e(TAG, "删除页面尺寸失败: " + e.getMessage(), e);
+        }
+        
+        return affectedRows;
+    }
+}
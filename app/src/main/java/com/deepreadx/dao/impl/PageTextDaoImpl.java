@@ -0,0 +1,136 @@
+package com.deepreadx.dao.impl;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.deepreadx.dao.PageTextDao;
+import com.deepreadx.db.DocumentDbHelper;
+import com.deepreadx.model.PageText;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 页面文本数据访问接口实现类
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PageTextDaoImpl implements PageTextDao {
+    private static final String TAG = "PageTextDao";
+    
+    private final DocumentDbHelper dbHelper;
+    
+    /**
+     * 构造函数
+     * 
+     * @param context 应用上下文
+     */
+    public PageTextDaoImpl(Context context) {
+        this.dbHelper = DocumentDbHelper.getInstance(context);
+    }
+    
+    @Override
+    public boolean insert(PageText pageText) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        boolean success = false;
+        
+        try {
+            ContentValues values = new ContentValues();
+            values.put(DocumentDbHelper.COLUMN_FINGERPRINT, pageText.getFingerprint());
+            values.put(DocumentDbHelper.COLUMN_PAGE_INDEX, pageText.getPageIndex());
+            values.put(DocumentDbHelper.COLUMN_TEXT, pageText.getText());
+            values.put(DocumentDbHelper.COLUMN_CREATED_AT, pageText.getCreatedAt());
+            
+            success = db.insertWithOnConflict(DocumentDbHelper.TABLE_PAGE_TEXT, null, values,
+                    SQLiteDatabase.CONFLICT_REPLACE) != -1;
+        } catch (Exception e) {
+            Log.e(TAG, "保存页面文本失败: " + e.getMessage(), e);
+        }
+        
+        return success;
+    }
+    
+    @Override
+    public PageText queryByPage(String fingerprint, int pageIndex) {
+        PageText pageText = null;
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        
+        try {
+            Cursor cursor = db.query(
+                    DocumentDbHelper.TABLE_PAGE_TEXT,
+                    null,
+                    DocumentDbHelper.COLUMN_FINGERPRINT + " = ? AND " + DocumentDbHelper.COLUMN_PAGE_INDEX + " = ?",
+                    new String[]{fingerprint, String.valueOf(pageIndex)},
+                    null,
+                    null,
+                    null
+            );
+            
+            if (cursor != null) {
+                if (cursor.moveToFirst()) {
+                    pageText = new PageText(
+                            fingerprint,
+                            pageIndex,
+                            cursor.getString(cursor.getColumnIndexOrThrow(DocumentDbHelper.COLUMN_TEXT)),
+                            cursor.getLong(cursor.getColumnIndexOrThrow(DocumentDbHelper.COLUMN_CREATED_AT)));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "查询页面文本失败: " + e.getMessage(), e);
+        }
+        
+        return pageText;
+    }
+    
+    @Override
+    public Set<Integer> queryIndexedPages(String fingerprint) {
+        Set<Integer> pages = new HashSet<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        
+        try {
+            Cursor cursor = db.query(
+                    DocumentDbHelper.TABLE_PAGE_TEXT,
+                    new String[]{DocumentDbHelper.COLUMN_PAGE_INDEX},
+                    DocumentDbHelper.COLUMN_FINGERPRINT + " = ?",
+                    new String[]{fingerprint},
+                    null,
+                    null,
+                    null
+            );
+            
+            if (cursor != null) {
+                while (cursor.moveToNext()) {
+                    pages.add(cursor.getInt(0));
+                }
+                cursor.close();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "查询已识别页码失败: " + e.getMessage(), e);
+        }
+        
+        return pages;
+    }
+    
+    @Override
+    public int deleteByDocument(String fingerprint) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        int affectedRows = 0;
+        
+        try {
+            affectedRows = db.delete(
+                    DocumentDbHelper.TABLE_PAGE_TEXT,
+                    DocumentDbHelper.COLUMN_FINGERPRINT + " = ?",
+                    new String[]{fingerprint}
+            );
+        } catch (Exception e) {
+            Log.e(TAG, "删除页面文本失败: " + e.getMessage(), e);
+        }
+        
+        return affectedRows;
+    }
+}
@@ -0,0 +1,111 @@
+package com.deepreadx.db;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+/**
+ * 缓存数据库辅助类，负责管理OCR识别结果、AI解释等可重新生成的数据表的创建与升级
+ *
+ * <p>缓存数据可以随时清除，因此使用独立的数据库文件，升级时直接重建缓存表。</p>
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class CacheDbHelper extends SQLiteOpenHelper {
+    private static final String TAG = "CacheDbHelper";
+    
+    // 数据库信息
+    private static final String DATABASE_NAME = "deepreadx_cache.db";
+    private static final int DATABASE_VERSION = 3;
+    
+    // 表名
+    public static final String TABLE_OCR_CACHE = "ocr_cache";
+    public static final String TABLE_EXPLANATION_CACHE = "explanation_cache";
+    
+    // 列名
+    public static final String COLUMN_HASH = "hash";
+    public static final String COLUMN_TEXT = "text";
+    public static final String COLUMN_RESULT = "result";
+    public static final String COLUMN_CREATED_AT = "createdAt";
+    public static final String COLUMN_KEY = "cacheKey";
+    public static final String COLUMN_EXPLANATION = "explanation";
+    public static final String COLUMN_SIZE_BYTES = "sizeBytes";
+    public static final String COLUMN_LAST_ACCESSED_AT = "lastAccessedAt";
+    
+    // 创建OCR缓存表SQL
+    private static final String SQL_CREATE_OCR_CACHE_TABLE = 
+            "CREATE TABLE " + TABLE_OCR_CACHE + " (" +
+                    COLUMN_HASH + " TEXT PRIMARY KEY, " +
+                    COLUMN_TEXT + " TEXT NOT NULL, " +
+                    COLUMN_RESULT + " BLOB, " +
+                    COLUMN_CREATED_AT + " INTEGER NOT NULL" +
+            ")";
+    
+    // 创建解释缓存表SQL
+    private static final String SQL_CREATE_EXPLANATION_CACHE_TABLE = 
+            "CREATE TABLE " + TABLE_EXPLANATION_CACHE + " (" +
+                    COLUMN_KEY + " TEXT PRIMARY KEY, " +
+                    COLUMN_EXPLANATION + " TEXT NOT NULL, " +
+                    COLUMN_SIZE_BYTES + " INTEGER NOT NULL, " +
+                    COLUMN_CREATED_AT + " INTEGER NOT NULL, " +
+                    COLUMN_LAST_ACCESSED_AT + " INTEGER NOT NULL" +
+            ")";
+    
+    // 按最近访问时间淘汰时使用的索引
+    private static final String SQL_CREATE_EXPLANATION_ACCESS_INDEX = 
+            "CREATE INDEX idx_explanation_cache_access ON " + TABLE_EXPLANATION_CACHE +
+                    " (" + COLUMN_LAST_ACCESSED_AT + ")";
+    
+    private static CacheDbHelper instance;
+    
+    /**
+     * 获取进程内共享的实例
+     *
+     * <p>多个线程的DAO共用同一个数据库连接，SQLiteDatabase内部保证线程安全；
+     * DAO不应在操作后关闭数据库，否则会使其他线程正在使用的连接失效。</p>
+     * 
+     * @param context 上下文
+     * @return 数据库辅助类实例
+     */
+    public static synchronized CacheDbHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new CacheDbHelper(context.getApplicationContext());
+        }
+        return instance;
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param context 应用上下文
+     */
+    private CacheDbHelper(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        // 写入时允许其他线程并发读取
+        setWriteAheadLoggingEnabled(true);
+    }
+    
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        // 创建OCR缓存表
+        db.execSQL(SQL_CREATE_OCR_CACHE_TABLE);
+        Log.d(TAG, "创建OCR缓存表成功");
+        
+        // 创建解释缓存表
+        db.execSQL(SQL_CREATE_EXPLANATION_CACHE_TABLE);
+        db.execSQL(SQL_CREATE_EXPLANATION_ACCESS_INDEX);
+        Log.d(TAG, "创建解释缓存表成功");
+    }
+    
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        Log.w(TAG, "数据库升级：从 " + oldVersion + " 到 " + newVersion);
+        
+        // 缓存可以重新生成，直接重建缓存表
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_OCR_CACHE);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_EXPLANATION_CACHE);
+        onCreate(db);
+    }
+}
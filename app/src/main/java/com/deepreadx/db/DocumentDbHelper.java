@@ -0,0 +1,105 @@
+package com.deepreadx.db;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+/**
+ * 文档数据库辅助类，负责管理按文档指纹保存的页面数据表的创建与升级
+ *
+ * <p>使用独立的数据库文件，避免与风格、历史记录数据库的版本号互相影响。</p>
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class DocumentDbHelper extends SQLiteOpenHelper {
+    private static final String TAG = "DocumentDbHelper";
+    
+    // 数据库信息
+    private static final String DATABASE_NAME = "deepreadx_document.db";
+    private static final int DATABASE_VERSION = 2;
+    
+    // 表名
+    public static final String TABLE_PAGE_METRICS = "page_metrics";
+    public static final String TABLE_PAGE_TEXT = "page_text";
+    
+    // 列名
+    public static final String COLUMN_FINGERPRINT = "fingerprint";
+    public static final String COLUMN_PAGE_INDEX = "pageIndex";
+    public static final String COLUMN_WIDTH = "width";
+    public static final String COLUMN_HEIGHT = "height";
+    public static final String COLUMN_TEXT = "text";
+    public static final String COLUMN_CREATED_AT = "createdAt";
+    
+    // 创建页面尺寸表SQL
+    private static final String SQL_CREATE_PAGE_METRICS_TABLE = 
+            "CREATE TABLE " + TABLE_PAGE_METRICS + " (" +
+                    COLUMN_FINGERPRINT + " TEXT NOT NULL, " +
+                    COLUMN_PAGE_INDEX + " INTEGER NOT NULL, " +
+                    COLUMN_WIDTH + " INTEGER NOT NULL, " +
+                    COLUMN_HEIGHT + " INTEGER NOT NULL, " +
+                    "PRIMARY KEY (" + COLUMN_FINGERPRINT + ", " + COLUMN_PAGE_INDEX + ")" +
+            ")";
+    
+    // 创建页面文本表SQL
+    private static final String SQL_CREATE_PAGE_TEXT_TABLE = 
+            "CREATE TABLE " + TABLE_PAGE_TEXT + " (" +
+                    COLUMN_FINGERPRINT + " TEXT NOT NULL, " +
+                    COLUMN_PAGE_INDEX + " INTEGER NOT NULL, " +
+                    COLUMN_TEXT + " TEXT NOT NULL, " +
+                    COLUMN_CREATED_AT + " INTEGER NOT NULL, " +
+                    "PRIMARY KEY (" + COLUMN_FINGERPRINT + ", " + COLUMN_PAGE_INDEX + ")" +
+            ")";
+    
+    private static DocumentDbHelper instance;
+    
+    /**
+     * 获取进程内共享的实例
+     *
+     * <p>多个线程的DAO共用同一个数据库连接，SQLiteDatabase内部保证线程安全；
+     * DAO不应在操作后关闭数据库，否则会使其他线程正在使用的连接失效。</p>
+     * 
+     * @param context 上下文
+     * @return 数据库辅助类实例
+     */
+    public static synchronized DocumentDbHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new DocumentDbHelper(context.getApplicationContext());
+        }
+        return instance;
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param context 应用上下文
+     */
+    private DocumentDbHelper(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        // 写入时允许其他线程并发读取
+        setWriteAheadLoggingEnabled(true);
+    }
+    
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        // 创建页面尺寸表
+        db.execSQL(SQL_CREATE_PAGE_METRICS_TABLE);
+        Log.d(TAG, "创建页面尺寸表成功");
+        
+        // 创建页面文本表
+        db.execSQL(SQL_CREATE_PAGE_TEXT_TABLE);
+        Log.d(TAG, "创建页面文本表成功");
+    }
+    
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        Log.w(TAG, "数据库升级：从 " + oldVersion + " 到 " + newVersion);
+        
+        if (oldVersion < 2) {
+            // 版本2新增页面文本表
+            db.execSQL(SQL_CREATE_PAGE_TEXT_TABLE);
+            Log.d(TAG, "创建页面文本表成功");
+        }
+    }
+}
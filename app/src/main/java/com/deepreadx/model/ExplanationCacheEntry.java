@@ -0,0 +1,65 @@
+package com.deepreadx.model;
+
+/**
+ * 解释缓存条目实体类，保存请求参数哈希与AI生成的解释内容
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class ExplanationCacheEntry {
+    private String key;
+    private String explanation;
+    private long createdAt;
+    private long lastAccessedAt;
+    
+    /**
+     * 构造函数
+     * 
+     * @param key 由规范化文本、风格和模型参数计算出的哈希
+     * @param explanation 解释内容
+     * @param createdAt 创建时间（毫秒）
+     * @param lastAccessedAt 最近访问时间（毫秒）
+     */
+    public ExplanationCacheEntry(String key, String explanation, long createdAt, long lastAccessedAt) {
+        this.key = key;
+        this.explanation = explanation;
+        this.createdAt = createdAt;
+        this.lastAccessedAt = lastAccessedAt;
+    }
+    
+    /**
+     * 获取缓存键
+     * 
+     * @return 请求参数哈希
+     */
+    public String getKey() {
+        return key;
+    }
+    
+    /**
+     * 获取解释内容
+     * 
+     * @return 解释内容
+     */
+    public String getExplanation() {
+        return explanation;
+    }
+    
+    /**
+     * 获取创建时间
+     * 
+     * @return 创建时间（毫秒）
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+    
+    /**
+     * 获取最近访问时间
+     * 
+     * @return 最近访问时间（毫秒）
+     */
+    public long getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+}
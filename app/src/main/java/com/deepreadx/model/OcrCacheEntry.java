@@ -0,0 +1,65 @@
+package com.deepreadx.model;
+
+/**
+ * OCR缓存条目实体类，保存页面图像内容哈希与识别出的文本及结构化结果
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class OcrCacheEntry {
+    private String hash;
+    private String text;
+    private byte[] result;
+    private long createdAt;
+    
+    /**
+     * 构造函数
+     * 
+     * @param hash 图像内容哈希
+     * @param text 识别出的文本
+     * @param result 序列化的结构化识别结果，可以为null
+     * @param createdAt 创建时间（毫秒）
+     */
+    public OcrCacheEntry(String hash, String text, byte[] result, long createdAt) {
+        this.hash = hash;
+        this.text = text;
+        this.result = result;
+        this.createdAt = createdAt;
+    }
+    
+    /**
+     * 获取图像内容哈希
+     * 
+     * @return 图像内容哈希
+     */
+    public String getHash() {
+        return hash;
+    }
+    
+    /**
+     * 获取识别出的文本
+     * 
+     * @return 文本
+     */
+    public String getText() {
+        return text;
+    }
+    
+    /**
+     * 获取序列化的结构化识别结果
+     * 
+     * @return 序列化结果，不存在时返回null
+     */
+    public byte[] getResult() {
+        return result;
+    }
+    
+    /**
+     * 获取创建时间
+     * 
+     * @return 创建时间（毫秒）
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+}
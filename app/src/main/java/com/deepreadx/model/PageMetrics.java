@@ -0,0 +1,65 @@
+package com.deepreadx.model;
+
+/**
+ * 页面尺寸实体类，记录文档中一页的原始尺寸（PDF点，1/72英寸）
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PageMetrics {
+    private String fingerprint;
+    private int pageIndex;
+    private int width;
+    private int height;
+    
+    /**
+     * 构造函数
+     * 
+     * @param fingerprint 文档指纹
+     * @param pageIndex 页码索引
+     * @param width 页面宽度（点）
+     * @param height 页面高度（点）
+     */
+    public PageMetrics(String fingerprint, int pageIndex, int width, int height) {
+        this.fingerprint = fingerprint;
+        this.pageIndex = pageIndex;
+        this.width = width;
+        this.height = height;
+    }
+    
+    /**
+     * 获取文档指纹
+     * 
+     * @return 文档指纹
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+    
+    /**
+     * 获取页码索引
+     * 
+     * @return 页码索引
+     */
+    public int getPageIndex() {
+        return pageIndex;
+    }
+    
+    /**
+     * 获取页面宽度
+     * 
+     * @return 页面宽度（点）
+     */
+    public int getWidth() {
+        return width;
+    }
+    
+    /**
+     * 获取页面高度
+     * 
+     * @return 页面高度（点）
+     */
+    public int getHeight() {
+        return height;
+    }
+}
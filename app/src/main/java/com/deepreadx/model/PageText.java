@@ -0,0 +1,76 @@
+package com.deepreadx.model;
+
+/**
+ * 页面文本实体类，保存文档中一页识别出的文本
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PageText {
+    private String fingerprint;
+    private int pageIndex;
+    private String text;
+    private long createdAt;
+    
+    /**
+     * 构造函数，创建时间为当前时间
+     * 
+     * @param fingerprint 文档指纹
+     * @param pageIndex 页码索引
+     * @param text 页面文本，页面没有文字时为空字符串
+     */
+    public PageText(String fingerprint, int pageIndex, String text) {
+        this(fingerprint, pageIndex, text, System.currentTimeMillis());
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param fingerprint 文档指纹
+     * @param pageIndex 页码索引
+     * @param text 页面文本
+     * @param createdAt 创建时间（毫秒）
+     */
+    public PageText(String fingerprint, int pageIndex, String text, long createdAt) {
+        this.fingerprint = fingerprint;
+        this.pageIndex = pageIndex;
+        this.text = text;
+        this.createdAt = createdAt;
+    }
+    
+    /**
+     * 获取文档指纹
+     * 
+     * @return 文档指纹
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+    
+    /**
+     * 获取页码索引
+     * 
+     * @return 页码索引
+     */
+    public int getPageIndex() {
+        return pageIndex;
+    }
+    
+    /**
+     * 获取页面文本
+     * 
+     * @return 页面文本
+     */
+    public String getText() {
+        return text;
+    }
+    
+    /**
+     * 获取创建时间
+     * 
+     * @return 创建时间（毫秒）
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+}
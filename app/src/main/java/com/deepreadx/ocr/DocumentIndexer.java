@@ -0,0 +1,132 @@
+package com.deepreadx.ocr;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.deepreadx.dao.PageTextDao;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 文档文本索引器，在后台以低优先级逐页OCR识别文档，识别结果由{@link OcrWorkQueue}保存到数据库
+ *
+ * <p>启动时先读取已识别的页码，只处理剩余页面，因此中断后再次打开文档会从断点继续。
+ * 每次只向OCR队列提交一个{@link OcrWorkQueue#PRIORITY_BACKGROUND}任务，等待完成后再提交下一页，
+ * 用户发起的识别和预识别始终排在前面。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class DocumentIndexer {
+    private static final String TAG = "DocumentIndexer";
+    
+    private final OcrWorkQueue workQueue;
+    private final PageTextDao pageTextDao;
+    private final String fingerprint;
+    private final int pageCount;
+    private final ExecutorService executor;
+    private final Handler mainHandler;
+    
+    private volatile boolean stopped = false;
+    
+    /**
+     * 构造函数
+     *
+     * @param workQueue OCR任务队列
+     * @param pageTextDao 页面文本DAO
+     * @param fingerprint 文档指纹
+     * @param pageCount 文档页数
+     */
+    public DocumentIndexer(OcrWorkQueue workQueue, PageTextDao pageTextDao, String fingerprint, int pageCount) {
+        this.workQueue = workQueue;
+        this.pageTextDao = pageTextDao;
+        this.fingerprint = fingerprint;
+        this.pageCount = pageCount;
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DocumentIndexThread");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+    
+    /**
+     * 开始建立索引，已识别的页面会被跳过
+     */
+    public void start() {
+        executor.execute(this::indexRemainingPages);
+    }
+    
+    /**
+     * 停止建立索引，已保存的结果保留
+     */
+    public void stop() {
+        stopped = true;
+        executor.shutdownNow();
+    }
+    
+    /**
+     * 依次识别尚未识别的页面，仅在索引线程中调用
+     */
+    private void indexRemainingPages() {
+        Set<Integer> indexed = pageTextDao.queryIndexedPages(fingerprint);
+        Log.d(TAG, "开始建立文本索引，已识别 " + indexed.size() + " / " + pageCount + " 页");
+        
+        for (int page = 0; page < pageCount && !stopped; page++) {
+            if (indexed.contains(page)) {
+                continue;
+            }
+            if (recognizePage(page)) {
+                Log.d(TAG, "已识别第 " + (page + 1) + " / " + pageCount + " 页");
+            }
+        }
+        
+        if (!stopped) {
+            Log.d(TAG, "文本索引建立完成");
+        }
+    }
+    
+    /**
+     * 向OCR队列提交一页并等待完成
+     *
+     * @return 是否识别成功
+     */
+    private boolean recognizePage(final int pageIndex) {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final boolean[] success = new boolean[1];
+        
+        // OCR队列只能在主线程使用
+        mainHandler.post(() -> {
+            OcrWorkQueue.Job job = workQueue.submit(pageIndex, OcrWorkQueue.PRIORITY_BACKGROUND,
+                    new OcrProcessor.OcrCallback() {
+                        @Override
+                        public void onSuccess(String text) {
+                            success[0] = true;
+                            latch.countDown();
+                        }
+                        
+                        @Override
+                        public void onFailure(Exception e) {
+                            // 失败的页面下次打开文档时再试
+                            latch.countDown();
+                        }
+                    });
+            if (job == null) {
+                latch.countDown();
+            }
+        });
+        
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+            return false;
+        }
+        return success[0];
+    }
+}
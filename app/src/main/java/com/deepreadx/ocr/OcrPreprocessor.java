@@ -0,0 +1,611 @@
+package com.deepreadx.ocr;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * OCR识别前的图像预处理流水线，依次执行灰度化、裁剪页边距、倾斜校正、按文字高度缩小和自适应二值化
+ *
+ * <p>所有步骤都在单通道亮度图上完成，按行读写位图，不额外分配整页ARGB像素数组。
+ * 灰度化是其余步骤的前提，关闭灰度化时整个流水线被跳过；其余步骤可单独开关。
+ * 每个步骤单独计时，通过{@link #getStats()}查看累计耗时。</p>
+ *
+ * <p>本类不是线程安全的，应在同一个后台线程中调用{@link #process(Bitmap)}。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class OcrPreprocessor {
+    private static final String TAG = "OcrPreprocessor";
+    
+    // 预处理步骤，可按位组合
+    public static final int STEP_GRAYSCALE = 1;
+    public static final int STEP_TRIM_MARGIN = 1 << 1;
+    public static final int STEP_DESKEW = 1 << 2;
+    public static final int STEP_DOWNSCALE = 1 << 3;
+    public static final int STEP_BINARIZE = 1 << 4;
+    public static final int ALL_STEPS = STEP_GRAYSCALE | STEP_TRIM_MARGIN | STEP_DESKEW
+            | STEP_DOWNSCALE | STEP_BINARIZE;
+    
+    private static final int[] STEPS = {
+            STEP_GRAYSCALE, STEP_TRIM_MARGIN, STEP_DESKEW, STEP_DOWNSCALE, STEP_BINARIZE
+    };
+    private static final String[] STEP_NAMES = {
+            "grayscale", "trim", "deskew", "downscale", "binarize"
+    };
+    
+    // 识别效果较好的文字行高（像素），行高明显更大时缩小图像以减少识别耗时
+    public static final int DEFAULT_TARGET_TEXT_HEIGHT = 32;
+    
+    // 行高超过目标值的该倍数才缩小，避免为很小的收益重新采样
+    private static final float DOWNSCALE_TOLERANCE = 1.25f;
+    
+    // 裁剪后保留的页边距（像素）
+    private static final int TRIM_PADDING = 16;
+    
+    // 倾斜校正的搜索范围和步长（度），扫描件的倾斜通常在几度以内
+    private static final float MAX_SKEW_DEGREES = 5f;
+    private static final float SKEW_STEP_DEGREES = 0.25f;
+    
+    // 倾斜角小于该值时不旋转
+    private static final float MIN_SKEW_DEGREES = 0.3f;
+    
+    // 估计倾斜角时最多采样的深色像素数
+    private static final int MAX_SKEW_SAMPLES = 200_000;
+    
+    // Bradley自适应阈值：窗口边长为图像宽度的1/8，比窗口均值暗15%以上视为前景
+    private static final int BRADLEY_WINDOW_DIVISOR = 8;
+    private static final int BRADLEY_THRESHOLD_PERCENT = 15;
+    
+    private int enabledSteps = ALL_STEPS;
+    private int targetTextHeight = DEFAULT_TARGET_TEXT_HEIGHT;
+    
+    private final long[] stepNanos = new long[STEPS.length];
+    private final int[] stepCounts = new int[STEPS.length];
+    private int processedCount = 0;
+    
+    /**
+     * 单通道亮度图，取值0（黑）到255（白）
+     */
+    private static class GrayImage {
+        final int width;
+        final int height;
+        final byte[] pixels;
+        
+        GrayImage(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.pixels = new byte[width * height];
+        }
+        
+        int get(int x, int y) {
+            return pixels[y * width + x] & 0xFF;
+        }
+    }
+    
+    /**
+     * 预处理统计信息
+     */
+    public static class Stats {
+        public final int processed;
+        public final long[] stepNanos;
+        public final int[] stepCounts;
+        
+        Stats(int processed, long[] stepNanos, int[] stepCounts) {
+            this.processed = processed;
+            this.stepNanos = stepNanos;
+            this.stepCounts = stepCounts;
+        }
+        
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("processed=").append(processed);
+            for (int i = 0; i < STEPS.length; i++) {
+                double avgMs = stepCounts[i] == 0 ? 0 : stepNanos[i] / 1e6 / stepCounts[i];
+                sb.append(", ").append(STEP_NAMES[i]).append('=')
+                        .append(String.format(Locale.US, "%.1fms", avgMs))
+                        .append('x').append(stepCounts[i]);
+            }
+            return sb.toString();
+        }
+    }
+    
+    /**
+     * 设置启用的预处理步骤
+     *
+     * @param steps STEP_*常量的按位组合，0表示不做预处理
+     */
+    public void setEnabledSteps(int steps) {
+        this.enabledSteps = steps;
+    }
+    
+    /**
+     * 单独开关某个预处理步骤
+     *
+     * @param step STEP_*常量
+     * @param enabled 是否启用
+     */
+    public void setStepEnabled(int step, boolean enabled) {
+        enabledSteps = enabled ? enabledSteps | step : enabledSteps & ~step;
+    }
+    
+    /**
+     * 判断预处理步骤是否启用
+     *
+     * @param step STEP_*常量
+     * @return 是否启用
+     */
+    public boolean isStepEnabled(int step) {
+        return (enabledSteps & step) != 0;
+    }
+    
+    /**
+     * 设置缩小图像时的目标文字行高
+     *
+     * @param targetTextHeight 目标行高（像素）
+     */
+    public void setTargetTextHeight(int targetTextHeight) {
+        this.targetTextHeight = Math.max(8, targetTextHeight);
+    }
+    
+    /**
+     * 获取当前预处理配置的标识，配置不同时识别结果不能互相复用
+     *
+     * @return 由启用的步骤和目标行高组成的字符串
+     */
+    public String getConfigKey() {
+        return String.format(Locale.ROOT, "p%x-%d", enabledSteps, targetTextHeight);
+    }
+    
+    /**
+     * 对位图执行已启用的预处理步骤
+     *
+     * @param source 原始位图，不会被修改或回收
+     * @return 处理后的新位图；未启用任何步骤时直接返回原始位图
+     */
+    public Bitmap process(Bitmap source) {
+        return process(source, null);
+    }
+    
+    /**
+     * 对位图执行已启用的预处理步骤，并给出处理后坐标到原图坐标的变换
+     *
+     * @param source 原始位图，不会被修改或回收
+     * @param toSource 输出参数，不为null时被设置为从处理后图像坐标到原图坐标的变换，
+     *                 用于把识别出的文字位置换算回原图
+     * @return 处理后的新位图；未启用任何步骤时直接返回原始位图
+     */
+    public Bitmap process(Bitmap source, Matrix toSource) {
+        if (toSource != null) {
+            toSource.reset();
+        }
+        if (!isStepEnabled(STEP_GRAYSCALE)) {
+            return source;
+        }
+        
+        long start = System.nanoTime();
+        GrayImage image = toGray(source);
+        record(STEP_GRAYSCALE, start);
+        
+        if (isStepEnabled(STEP_TRIM_MARGIN)) {
+            start = System.nanoTime();
+            image = trimMargins(image, otsuThreshold(image), toSource);
+            record(STEP_TRIM_MARGIN, start);
+        }
+        
+        if (isStepEnabled(STEP_DESKEW)) {
+            start = System.nanoTime();
+            image = deskew(image, otsuThreshold(image), toSource);
+            record(STEP_DESKEW, start);
+        }
+        
+        if (isStepEnabled(STEP_DOWNSCALE)) {
+            start = System.nanoTime();
+            image = downscaleToTextHeight(image, otsuThreshold(image), toSource);
+            record(STEP_DOWNSCALE, start);
+        }
+        
+        // 二值化放在缩小之后，避免缩放重新引入灰色边缘
+        if (isStepEnabled(STEP_BINARIZE)) {
+            start = System.nanoTime();
+            binarize(image);
+            record(STEP_BINARIZE, start);
+        }
+        
+        Bitmap result = toBitmap(image);
+        synchronized (this) {
+            processedCount++;
+        }
+        Log.d(TAG, "预处理完成: " + source.getWidth() + "x" + source.getHeight()
+                + " -> " + image.width + "x" + image.height);
+        return result;
+    }
+    
+    /**
+     * 获取各步骤的累计耗时统计
+     *
+     * @return 统计信息
+     */
+    public synchronized Stats getStats() {
+        return new Stats(processedCount, stepNanos.clone(), stepCounts.clone());
+    }
+    
+    /**
+     * 记录步骤耗时
+     */
+    private synchronized void record(int step, long startNanos) {
+        int index = Integer.numberOfTrailingZeros(step);
+        stepNanos[index] += System.nanoTime() - startNanos;
+        stepCounts[index]++;
+    }
+    
+    /**
+     * 按ITU-R BT.601权重将位图转换为亮度图，逐行读取像素
+     */
+    private static GrayImage toGray(Bitmap source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        GrayImage image = new GrayImage(width, height);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            source.getPixels(row, 0, width, 0, y, width, 1);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int color = row[x];
+                // 透明像素按白色背景处理
+                int alpha = color >>> 24;
+                int luma = (Color.red(color) * 299 + Color.green(color) * 587 + Color.blue(color) * 114) / 1000;
+                luma = (luma * alpha + 255 * (255 - alpha)) / 255;
+                image.pixels[offset + x] = (byte) luma;
+            }
+        }
+        return image;
+    }
+    
+    /**
+     * 将亮度图转换为RGB_565位图，逐行写入像素
+     */
+    private static Bitmap toBitmap(GrayImage image) {
+        Bitmap bitmap = Bitmap.createBitmap(image.width, image.height, Bitmap.Config.RGB_565);
+        int[] row = new int[image.width];
+        for (int y = 0; y < image.height; y++) {
+            int offset = y * image.width;
+            for (int x = 0; x < image.width; x++) {
+                int luma = image.pixels[offset + x] & 0xFF;
+                row[x] = Color.rgb(luma, luma, luma);
+            }
+            bitmap.setPixels(row, 0, image.width, 0, y, image.width, 1);
+        }
+        return bitmap;
+    }
+    
+    /**
+     * 用Otsu方法计算区分文字和背景的全局阈值，灰色底纹的页面也能得到合适的值
+     */
+    private static int otsuThreshold(GrayImage image) {
+        int[] histogram = new int[256];
+        for (byte pixel : image.pixels) {
+            histogram[pixel & 0xFF]++;
+        }
+        
+        long total = image.pixels.length;
+        long sum = 0;
+        for (int i = 0; i < 256; i++) {
+            sum += (long) i * histogram[i];
+        }
+        
+        long sumBackground = 0;
+        long weightBackground = 0;
+        double maxVariance = -1;
+        int threshold = 128;
+        for (int i = 0; i < 256; i++) {
+            weightBackground += histogram[i];
+            if (weightBackground == 0) {
+                continue;
+            }
+            long weightForeground = total - weightBackground;
+            if (weightForeground == 0) {
+                break;
+            }
+            sumBackground += (long) i * histogram[i];
+            double meanBackground = (double) sumBackground / weightBackground;
+            double meanForeground = (double) (sum - sumBackground) / weightForeground;
+            double diff = meanBackground - meanForeground;
+            double variance = (double) weightBackground * weightForeground * diff * diff;
+            if (variance > maxVariance) {
+                maxVariance = variance;
+                threshold = i;
+            }
+        }
+        return threshold;
+    }
+    
+    /**
+     * 裁去没有内容的页边距，深色像素少于2个的行和列视为空白
+     */
+    private static GrayImage trimMargins(GrayImage image, int threshold, Matrix toSource) {
+        int[] rowInk = new int[image.height];
+        int[] colInk = new int[image.width];
+        for (int y = 0; y < image.height; y++) {
+            int offset = y * image.width;
+            for (int x = 0; x < image.width; x++) {
+                if ((image.pixels[offset + x] & 0xFF) <= threshold) {
+                    rowInk[y]++;
+                    colInk[x]++;
+                }
+            }
+        }
+        
+        int top = firstAbove(rowInk, 1);
+        int left = firstAbove(colInk, 1);
+        if (top < 0 || left < 0) {
+            // 空白页面，保持原样
+            return image;
+        }
+        int bottom = lastAbove(rowInk, 1);
+        int right = lastAbove(colInk, 1);
+        
+        top = Math.max(0, top - TRIM_PADDING);
+        left = Math.max(0, left - TRIM_PADDING);
+        bottom = Math.min(image.height - 1, bottom + TRIM_PADDING);
+        right = Math.min(image.width - 1, right + TRIM_PADDING);
+        int width = right - left + 1;
+        int height = bottom - top + 1;
+        if (width == image.width && height == image.height) {
+            return image;
+        }
+        
+        GrayImage cropped = new GrayImage(width, height);
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(image.pixels, (top + y) * image.width + left, cropped.pixels, y * width, width);
+        }
+        if (toSource != null) {
+            toSource.preTranslate(left, top);
+        }
+        return cropped;
+    }
+    
+    /**
+     * 用投影法估计文字行的倾斜角并旋转校正
+     *
+     * <p>对每个候选角度，把深色像素沿该角度投影到纵轴，文字行与投影方向平行时
+     * 投影直方图的峰谷最明显，平方和最大。</p>
+     */
+    private static GrayImage deskew(GrayImage image, int threshold, Matrix toSource) {
+        // 收集深色像素坐标，数量过多时按步长抽样
+        int darkCount = 0;
+        for (byte pixel : image.pixels) {
+            if ((pixel & 0xFF) <= threshold) {
+                darkCount++;
+            }
+        }
+        if (darkCount == 0) {
+            return image;
+        }
+        int stride = Math.max(1, darkCount / MAX_SKEW_SAMPLES);
+        int sampleCount = darkCount / stride + 1;
+        int[] xs = new int[sampleCount];
+        int[] ys = new int[sampleCount];
+        int samples = 0;
+        int seen = 0;
+        for (int y = 0; y < image.height; y++) {
+            int offset = y * image.width;
+            for (int x = 0; x < image.width; x++) {
+                if ((image.pixels[offset + x] & 0xFF) <= threshold && seen++ % stride == 0
+                        && samples < sampleCount) {
+                    xs[samples] = x;
+                    ys[samples] = y;
+                    samples++;
+                }
+            }
+        }
+        
+        int margin = (int) Math.ceil(image.width * Math.tan(Math.toRadians(MAX_SKEW_DEGREES)));
+        int[] bins = new int[image.height + 2 * margin + 1];
+        float bestAngle = 0f;
+        long bestScore = -1;
+        for (float angle = -MAX_SKEW_DEGREES; angle <= MAX_SKEW_DEGREES; angle += SKEW_STEP_DEGREES) {
+            double tan = Math.tan(Math.toRadians(angle));
+            Arrays.fill(bins, 0);
+            for (int i = 0; i < samples; i++) {
+                int bin = (int) Math.round(ys[i] - xs[i] * tan) + margin;
+                if (bin >= 0 && bin < bins.length) {
+                    bins[bin]++;
+                }
+            }
+            long score = 0;
+            for (int count : bins) {
+                score += (long) count * count;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestAngle = angle;
+            }
+        }
+        
+        if (Math.abs(bestAngle) < MIN_SKEW_DEGREES) {
+            return image;
+        }
+        Log.d(TAG, "检测到页面倾斜: " + bestAngle + "°");
+        if (toSource != null) {
+            // 旋转后的像素取自原图绕中心旋转bestAngle度的位置
+            toSource.preRotate(bestAngle, image.width / 2f, image.height / 2f);
+        }
+        return rotate(image, -bestAngle);
+    }
+    
+    /**
+     * 绕中心旋转亮度图，尺寸不变，超出原图的区域填充白色
+     */
+    private static GrayImage rotate(GrayImage image, float degrees) {
+        double radians = Math.toRadians(degrees);
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        double cx = image.width / 2.0;
+        double cy = image.height / 2.0;
+        
+        GrayImage rotated = new GrayImage(image.width, image.height);
+        for (int y = 0; y < image.height; y++) {
+            double dy = y - cy;
+            int offset = y * image.width;
+            for (int x = 0; x < image.width; x++) {
+                // 反向映射到原图，最近邻采样
+                double dx = x - cx;
+                int sx = (int) Math.round(cx + dx * cos + dy * sin);
+                int sy = (int) Math.round(cy - dx * sin + dy * cos);
+                if (sx >= 0 && sx < image.width && sy >= 0 && sy < image.height) {
+                    rotated.pixels[offset + x] = image.pixels[sy * image.width + sx];
+                } else {
+                    rotated.pixels[offset + x] = (byte) 255;
+                }
+            }
+        }
+        return rotated;
+    }
+    
+    /**
+     * 估计文字行高，明显大于目标行高时按面积平均缩小图像
+     */
+    private GrayImage downscaleToTextHeight(GrayImage image, int threshold, Matrix toSource) {
+        int textHeight = estimateTextHeight(image, threshold);
+        if (textHeight <= 0 || textHeight < targetTextHeight * DOWNSCALE_TOLERANCE) {
+            return image;
+        }
+        
+        float scale = (float) targetTextHeight / textHeight;
+        int width = Math.max(1, Math.round(image.width * scale));
+        int height = Math.max(1, Math.round(image.height * scale));
+        Log.d(TAG, "文字行高" + textHeight + "px，缩小到" + width + "x" + height);
+        if (toSource != null) {
+            toSource.preScale((float) image.width / width, (float) image.height / height);
+        }
+        
+        GrayImage scaled = new GrayImage(width, height);
+        for (int y = 0; y < height; y++) {
+            int srcTop = y * image.height / height;
+            int srcBottom = Math.max(srcTop + 1, (y + 1) * image.height / height);
+            for (int x = 0; x < width; x++) {
+                int srcLeft = x * image.width / width;
+                int srcRight = Math.max(srcLeft + 1, (x + 1) * image.width / width);
+                int sum = 0;
+                for (int sy = srcTop; sy < srcBottom; sy++) {
+                    int offset = sy * image.width;
+                    for (int sx = srcLeft; sx < srcRight; sx++) {
+                        sum += image.pixels[offset + sx] & 0xFF;
+                    }
+                }
+                scaled.pixels[y * width + x] = (byte) (sum / ((srcBottom - srcTop) * (srcRight - srcLeft)));
+            }
+        }
+        return scaled;
+    }
+    
+    /**
+     * 由水平投影估计文字行高，取连续有墨迹的行段高度的中位数
+     *
+     * @return 文字行高（像素），无法估计时返回0
+     */
+    private static int estimateTextHeight(GrayImage image, int threshold) {
+        // 深色像素少于宽度1%的行视为行间空白
+        int minInk = Math.max(2, image.width / 100);
+        List<Integer> lineHeights = new ArrayList<>();
+        int runStart = -1;
+        for (int y = 0; y <= image.height; y++) {
+            boolean textRow = false;
+            if (y < image.height) {
+                int ink = 0;
+                int offset = y * image.width;
+                for (int x = 0; x < image.width && ink < minInk; x++) {
+                    if ((image.pixels[offset + x] & 0xFF) <= threshold) {
+                        ink++;
+                    }
+                }
+                textRow = ink >= minInk;
+            }
+            if (textRow && runStart < 0) {
+                runStart = y;
+            } else if (!textRow && runStart >= 0) {
+                // 忽略下划线、表格线等过矮的行段
+                if (y - runStart >= 4) {
+                    lineHeights.add(y - runStart);
+                }
+                runStart = -1;
+            }
+        }
+        
+        if (lineHeights.size() < 3) {
+            return 0;
+        }
+        Collections.sort(lineHeights);
+        return lineHeights.get(lineHeights.size() / 2);
+    }
+    
+    /**
+     * Bradley自适应阈值二值化，用积分图求每个像素周围窗口的均值
+     *
+     * <p>积分图使用int保存，大图上可能溢出，但窗口和是积分图四个值的差，
+     * 本身不会超出int范围，按补码运算结果仍然正确。</p>
+     */
+    private static void binarize(GrayImage image) {
+        int width = image.width;
+        int height = image.height;
+        int[] integral = new int[(width + 1) * (height + 1)];
+        for (int y = 0; y < height; y++) {
+            int rowSum = 0;
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                rowSum += image.pixels[offset + x] & 0xFF;
+                integral[(y + 1) * (width + 1) + x + 1] = integral[y * (width + 1) + x + 1] + rowSum;
+            }
+        }
+        
+        int half = Math.max(1, width / BRADLEY_WINDOW_DIVISOR / 2);
+        for (int y = 0; y < height; y++) {
+            int y1 = Math.max(0, y - half);
+            int y2 = Math.min(height, y + half + 1);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int x1 = Math.max(0, x - half);
+                int x2 = Math.min(width, x + half + 1);
+                int area = (x2 - x1) * (y2 - y1);
+                int sum = integral[y2 * (width + 1) + x2] - integral[y1 * (width + 1) + x2]
+                        - integral[y2 * (width + 1) + x1] + integral[y1 * (width + 1) + x1];
+                int luma = image.pixels[offset + x] & 0xFF;
+                boolean foreground = (long) luma * area * 100 <= (long) sum * (100 - BRADLEY_THRESHOLD_PERCENT);
+                image.pixels[offset + x] = foreground ? 0 : (byte) 255;
+            }
+        }
+    }
+    
+    /**
+     * 查找第一个大于阈值的位置，没有时返回-1
+     */
+    private static int firstAbove(int[] values, int threshold) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] > threshold) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * 查找最后一个大于阈值的位置，没有时返回-1
+     */
+    private static int lastAbove(int[] values, int threshold) {
+        for (int i = values.length - 1; i >= 0; i--) {
+            if (values[i] > threshold) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
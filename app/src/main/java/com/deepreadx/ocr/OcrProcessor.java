@@ -2,6 +2,11 @@ package com.deepreadx.ocr;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -13,18 +18,50 @@ import com.google.mlkit.vision.text.Text;
 import com.google.mlkit.vision.text.TextRecognition;
 import com.google.mlkit.vision.text.TextRecognizer;
 import com.google.mlkit.vision.text.chinese.ChineseTextRecognizerOptions;
+import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * OCR文本识别处理器，负责从图像中提取文本
  * 
+ * <p>识别前先在后台线程中由{@link OcrPreprocessor}处理图像，识别回调仍在主线程执行。</p>
+ * 
+ * <p>识别器按文字体系在首次使用时创建：确认文档是拉丁文字时使用较小较快的拉丁文模型，
+ * 否则使用中文模型。文字体系未知时，用中文模型的整页识别结果判断文档的文字体系，连续
+ * {@value #SCRIPT_AGREEMENT_PAGES}页结果一致才确定，选区识别的结果不参与判断；确定后释放
+ * 不再需要的识别器。拉丁文模型的结果字母太少或置信度低时，改用中文模型重新识别该图像。</p>
+ * 
  * @author DeepReadX团队
  * @created 2025-05-18
  */
 public class OcrProcessor {
     private static final String TAG = "OcrProcessor";
     
+    // 连续多少页整页识别结果判断一致时确定文档的文字体系
+    private static final int SCRIPT_AGREEMENT_PAGES = 3;
+    
     private final Context context;
-    private final TextRecognizer recognizer;
+    
+    // 按文字体系延迟创建的识别器及其正在进行的识别数，由this保护
+    private final Map<ScriptDetector.Script, TextRecognizer> recognizers = new EnumMap<>(ScriptDetector.Script.class);
+    private final Map<ScriptDetector.Script, Integer> inFlight = new EnumMap<>(ScriptDetector.Script.class);
+    private boolean closed = false;
+    
+    private volatile ScriptDetector.Script documentScript = ScriptDetector.Script.UNKNOWN;
+    
+    // 文字体系未知时根据整页识别结果累计的判断，由this保护
+    private ScriptDetector.Script candidateScript = ScriptDetector.Script.UNKNOWN;
+    private int candidatePages = 0;
+    private final OcrPreprocessor preprocessor = new OcrPreprocessor();
+    private final ExecutorService preprocessExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private OcrResultCache resultCache;
     
     /**
      * OCR处理结果回调接口
@@ -45,6 +82,25 @@ public class OcrProcessor {
         void onFailure(Exception e);
     }
     
+    /**
+     * 结构化识别结果回调接口
+     */
+    public interface OcrResultCallback {
+        /**
+         * 识别成功回调
+         * 
+         * @param result 带位置和置信度的识别结果
+         */
+        void onSuccess(OcrResult result);
+        
+        /**
+         * 识别失败回调
+         * 
+         * @param e 异常信息
+         */
+        void onFailure(Exception e);
+    }
+    
     /**
      * 构造函数
      * 
@@ -53,37 +109,209 @@ public class OcrProcessor {
     public OcrProcessor(Context context) {
         this.context = context;
         
-        // 创建文本识别器，支持中文识别
-        this.recognizer = TextRecognition.getClient(new ChineseTextRecognizerOptions.Builder().build());
+        // 识别器在首次识别时按文档的文字体系创建
+        this.preprocessExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "OcrPreprocessThread");
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
     }
     
     /**
-     * 从位图图像中提取文本
+     * 获取图像预处理流水线，可用于开关各预处理步骤或查看耗时统计
+     * 
+     * @return 图像预处理器
+     */
+    public OcrPreprocessor getPreprocessor() {
+        return preprocessor;
+    }
+    
+    /**
+     * 设置当前文档的文字体系，确定后释放其他文字体系的识别器
+     * 
+     * <p>打开新文档时应先设为{@link ScriptDetector.Script#UNKNOWN}，再根据文档元数据或
+     * 文本层样本设置；未设置时由连续几页的整页识别结果判断。</p>
+     * 
+     * @param script 文字体系
+     */
+    public void setDocumentScript(ScriptDetector.Script script) {
+        synchronized (this) {
+            candidateScript = ScriptDetector.Script.UNKNOWN;
+            candidatePages = 0;
+        }
+        if (script == documentScript) {
+            return;
+        }
+        Log.d(TAG, "文档文字体系: " + documentScript + " -> " + script);
+        documentScript = script;
+        releaseUnusedRecognizers();
+    }
+    
+    /**
+     * 获取当前文档的文字体系
+     * 
+     * @return 文字体系，尚未确定时为{@link ScriptDetector.Script#UNKNOWN}
+     */
+    public ScriptDetector.Script getDocumentScript() {
+        return documentScript;
+    }
+    
+    /**
+     * 设置识别结果缓存，设置后内容相同的图像直接返回缓存的文本
+     * 
+     * @param resultCache 识别结果缓存，为null时不使用缓存
+     */
+    public void setResultCache(OcrResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+    
+    /**
+     * 从选区等局部图像中提取文本，结果不参与判断文档的文字体系
      * 
      * @param bitmap 包含文本的位图图像
      * @param callback 处理结果回调
+     * @see #extractText(Bitmap, boolean, OcrCallback)
      */
     public void extractText(Bitmap bitmap, final OcrCallback callback) {
+        extractText(bitmap, false, callback);
+    }
+    
+    /**
+     * 从位图图像中提取文本，回调在主线程执行
+     * 
+     * <p>缓存以原始图像计算哈希，命中时跳过预处理。原始位图在回调之前不能回收。</p>
+     * 
+     * @param bitmap 包含文本的位图图像
+     * @param fullPage 是否为整页图像，只有整页结果用于判断文档的文字体系
+     * @param callback 处理结果回调
+     */
+    public void extractText(Bitmap bitmap, boolean fullPage, final OcrCallback callback) {
+        recognize(bitmap, fullPage, new OcrResultCallback() {
+            @Override
+            public void onSuccess(OcrResult result) {
+                callback.onSuccess(result.getText());
+            }
+            
+            @Override
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        });
+    }
+    
+    /**
+     * 识别位图中的文本，返回带位置和置信度的结构化结果，回调在主线程执行
+     * 
+     * <p>结果中的位置相对于传入的位图，识别页面区域时可用
+     * {@link OcrResult#mapFromRegion}换算为整页坐标。计算图像哈希和查询缓存需要读取全部像素
+     * 和数据库，与预处理一起在后台线程进行。</p>
+     * 
+     * @param bitmap 包含文本的位图图像，回调之前不能回收
+     * @param fullPage 是否为整页图像，只有整页结果用于判断文档的文字体系
+     * @param callback 处理结果回调
+     */
+    public void recognize(Bitmap bitmap, final boolean fullPage, final OcrResultCallback callback) {
         if (bitmap == null) {
             callback.onFailure(new IllegalArgumentException("Bitmap不能为空"));
             return;
         }
+        if (preprocessExecutor.isShutdown()) {
+            callback.onFailure(new IllegalStateException("OCR处理器已关闭"));
+            return;
+        }
+        
+        final OcrResultCache cache = resultCache;
+        preprocessExecutor.execute(() -> {
+            // 只有确认是拉丁文字时才使用拉丁文模型，未知时使用同样能识别拉丁字母的中文模型
+            final ScriptDetector.Script script = documentScript == ScriptDetector.Script.LATIN
+                    ? ScriptDetector.Script.LATIN : ScriptDetector.Script.CHINESE;
+            // 按图像内容、识别模型和预处理配置查询缓存
+            final String hash = cache != null
+                    ? cache.computeKey(bitmap, script + "-" + preprocessor.getConfigKey()) : null;
+            if (hash != null) {
+                final OcrResult cached = cache.get(hash);
+                if (cached != null) {
+                    Log.d(TAG, "命中OCR缓存: " + cache.getStats());
+                    mainHandler.post(() -> callback.onSuccess(cached));
+                    return;
+                }
+            }
+            
+            Matrix toSource = new Matrix();
+            Bitmap processed;
+            try {
+                processed = preprocessor.process(bitmap, toSource);
+            } catch (RuntimeException | OutOfMemoryError e) {
+                // 预处理失败时直接识别原图
+                Log.w(TAG, "图像预处理失败，使用原始图像识别", e);
+                processed = bitmap;
+                toSource.reset();
+            }
+            Log.d(TAG, "预处理耗时统计: " + preprocessor.getStats());
+            runRecognizer(bitmap, processed, toSource, script, fullPage, hash, cache, callback);
+        });
+    }
+    
+    /**
+     * 对预处理后的图像执行文本识别，完成后回收预处理产生的位图
+     * 
+     * <p>拉丁文模型的结果不可信时，用中文模型对同一图像重新识别。</p>
+     * 
+     * @param original 原始位图
+     * @param processed 预处理后的位图，可能与原始位图相同
+     * @param toSource 从预处理后图像坐标到原始图像坐标的变换
+     * @param script 使用的识别模型
+     * @param fullPage 是否为整页图像
+     * @param hash 缓存键，未启用缓存时为null
+     * @param cache 识别结果缓存
+     * @param callback 处理结果回调
+     */
+    private void runRecognizer(final Bitmap original, final Bitmap processed, final Matrix toSource,
+                               final ScriptDetector.Script script, final boolean fullPage,
+                               final String hash, final OcrResultCache cache,
+                               final OcrResultCallback callback) {
+        final int width = original.getWidth();
+        final int height = original.getHeight();
         
-        InputImage image = InputImage.fromBitmap(bitmap, 0);
+        final TextRecognizer recognizer = acquireRecognizer(script);
+        if (recognizer == null) {
+            recycleProcessed(original, processed);
+            // 当前在预处理线程，失败回调同样切回主线程
+            mainHandler.post(() -> callback.onFailure(new IllegalStateException("OCR处理器已关闭")));
+            return;
+        }
+        InputImage image = InputImage.fromBitmap(processed, 0);
         
         // 执行文本识别
         recognizer.process(image)
                 .addOnSuccessListener(new OnSuccessListener<Text>() {
                     @Override
                     public void onSuccess(Text text) {
+                        releaseRecognizer(script);
                         // 处理识别结果
-                        String recognizedText = processRecognizedText(text);
-                        callback.onSuccess(recognizedText);
+                        OcrResult result = buildResult(text, toSource, width, height);
+                        if (script == ScriptDetector.Script.LATIN && !ScriptDetector.isConfidentLatinResult(
+                                result.getText(), result.getAverageConfidence())) {
+                            Log.d(TAG, "拉丁文模型结果字母太少或置信度低，改用中文模型重新识别");
+                            runRecognizer(original, processed, toSource, ScriptDetector.Script.CHINESE,
+                                    fullPage, hash, cache, callback);
+                            return;
+                        }
+                        recycleProcessed(original, processed);
+                        if (fullPage && script == ScriptDetector.Script.CHINESE) {
+                            voteDocumentScript(ScriptDetector.detect(result.getText()));
+                        }
+                        if (hash != null) {
+                            cache.put(hash, result);
+                        }
+                        callback.onSuccess(result);
                     }
                 })
                 .addOnFailureListener(new OnFailureListener() {
                     @Override
                     public void onFailure(@NonNull Exception e) {
+                        releaseRecognizer(script);
+                        recycleProcessed(original, processed);
                         Log.e(TAG, "文本识别失败", e);
                         callback.onFailure(e);
                     }
@@ -91,28 +319,144 @@ public class OcrProcessor {
     }
     
     /**
-     * 处理识别结果，提取所有文本块
+     * 记录一页整页识别结果对文字体系的判断，连续{@value #SCRIPT_AGREEMENT_PAGES}页一致时确定
+     * 
+     * <p>无法判断的页面（如空白页、插图页）跳过，不打断已有的连续判断。</p>
+     * 
+     * @param detected 本页的判断结果
+     */
+    private void voteDocumentScript(ScriptDetector.Script detected) {
+        if (detected == ScriptDetector.Script.UNKNOWN) {
+            return;
+        }
+        synchronized (this) {
+            if (documentScript != ScriptDetector.Script.UNKNOWN) {
+                return;
+            }
+            if (detected == candidateScript) {
+                candidatePages++;
+            } else {
+                candidateScript = detected;
+                candidatePages = 1;
+            }
+            if (candidatePages < SCRIPT_AGREEMENT_PAGES) {
+                return;
+            }
+        }
+        setDocumentScript(detected);
+    }
+    
+    /**
+     * 获取指定文字体系的识别器并登记一次正在进行的识别，识别器不存在时创建
+     * 
+     * @return 识别器，处理器已关闭时返回null
+     */
+    private synchronized TextRecognizer acquireRecognizer(ScriptDetector.Script script) {
+        if (closed) {
+            return null;
+        }
+        TextRecognizer recognizer = recognizers.get(script);
+        if (recognizer == null) {
+            long start = System.nanoTime();
+            recognizer = script == ScriptDetector.Script.LATIN
+                    ? TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS)
+                    : TextRecognition.getClient(new ChineseTextRecognizerOptions.Builder().build());
+            recognizers.put(script, recognizer);
+            Log.d(TAG, "创建" + script + "识别器，耗时" + (System.nanoTime() - start) / 1000000 + "ms");
+        }
+        Integer count = inFlight.get(script);
+        inFlight.put(script, count == null ? 1 : count + 1);
+        return recognizer;
+    }
+    
+    /**
+     * 登记一次识别结束，并释放此时不再需要的识别器
+     */
+    private synchronized void releaseRecognizer(ScriptDetector.Script script) {
+        Integer count = inFlight.get(script);
+        inFlight.put(script, count == null || count <= 1 ? 0 : count - 1);
+        releaseUnusedRecognizers();
+    }
+    
+    /**
+     * 释放文档不再需要、且没有正在进行识别的识别器
+     */
+    private synchronized void releaseUnusedRecognizers() {
+        ScriptDetector.Script script = documentScript;
+        if (script == ScriptDetector.Script.UNKNOWN) {
+            return;
+        }
+        for (ScriptDetector.Script candidate : ScriptDetector.Script.values()) {
+            if (candidate == script || !recognizers.containsKey(candidate)) {
+                continue;
+            }
+            Integer count = inFlight.get(candidate);
+            if (count == null || count == 0) {
+                recognizers.remove(candidate).close();
+                Log.d(TAG, "释放不再使用的" + candidate + "识别器");
+            }
+        }
+    }
+    
+    /**
+     * 回收预处理产生的位图，原始位图由调用方负责
+     */
+    private static void recycleProcessed(Bitmap original, Bitmap processed) {
+        if (processed != original) {
+            processed.recycle();
+        }
+    }
+    
+    /**
+     * 把识别结果转换为结构化结果，位置换算回原始图像并归一化
      * 
      * @param text 识别结果
-     * @return 处理后的文本字符串
+     * @param toSource 从预处理后图像坐标到原始图像坐标的变换
+     * @param width 原始图像宽度
+     * @param height 原始图像高度
+     * @return 按阅读顺序排列的结构化结果
      */
-    private String processRecognizedText(Text text) {
-        StringBuilder sb = new StringBuilder();
-        
+    private OcrResult buildResult(Text text, Matrix toSource, int width, int height) {
+        List<OcrResult.Block> blocks = new ArrayList<>();
+        RectF box = new RectF();
         for (Text.TextBlock block : text.getTextBlocks()) {
+            List<OcrResult.Line> lines = new ArrayList<>();
             for (Text.Line line : block.getLines()) {
-                sb.append(line.getText()).append("\n");
+                mapBox(line.getBoundingBox(), toSource, width, height, box);
+                lines.add(new OcrResult.Line(line.getText(), box.left, box.top, box.right, box.bottom,
+                        line.getConfidence()));
             }
-            sb.append("\n");
+            mapBox(block.getBoundingBox(), toSource, width, height, box);
+            blocks.add(new OcrResult.Block(box.left, box.top, box.right, box.bottom, lines));
         }
-        
-        return sb.toString().trim();
+        return OcrResult.inReadingOrder(blocks);
+    }
+    
+    /**
+     * 把预处理后图像中的边界框换算为原始图像中的相对坐标，没有边界框时为空
+     */
+    private static void mapBox(Rect bounds, Matrix toSource, int width, int height, RectF out) {
+        if (bounds == null) {
+            out.setEmpty();
+            return;
+        }
+        out.set(bounds);
+        toSource.mapRect(out);
+        out.set(out.left / width, out.top / height, out.right / width, out.bottom / height);
     }
     
     /**
      * 释放资源
      */
     public void close() {
-        recognizer.close();
+        preprocessExecutor.shutdownNow();
+        Log.d(TAG, "预处理耗时统计: " + preprocessor.getStats());
+        synchronized (this) {
+            closed = true;
+            for (TextRecognizer recognizer : recognizers.values()) {
+                recognizer.close();
+            }
+            recognizers.clear();
+        }
     }
 } 
\ No newline at end of file
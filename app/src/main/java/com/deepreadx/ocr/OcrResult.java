@@ -0,0 +1,432 @@
+package com.deepreadx.ocr;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 结构化的OCR识别结果：文本块、文本行、位置和置信度，文本块按阅读顺序排列
+ *
+ * <p>位置以页面相对坐标表示，各边取值范围为0到1，与识别时的图像分辨率无关。
+ * 可序列化为紧凑的二进制格式用于缓存：坐标量化为16位无符号整数，置信度量化为一个字节，
+ * 文本以UTF-8保存，通常只比纯文本略大。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class OcrResult {
+    /** 置信度未知，例如由纯文本或PDF文本层构造的结果 */
+    public static final float UNKNOWN_CONFIDENCE = -1f;
+    
+    // 二进制格式版本
+    private static final int FORMAT_VERSION = 1;
+    
+    // 坐标量化精度
+    private static final int COORDINATE_SCALE = 0xFFFF;
+    
+    // 置信度未知时写入的字节值
+    private static final int UNKNOWN_CONFIDENCE_BYTE = 0xFF;
+    
+    // 单行文本的最大UTF-8字节数，防止读取损坏的数据时分配过大的数组
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+    
+    private final List<Block> blocks;
+    
+    /**
+     * 文本行
+     */
+    public static final class Line {
+        public final String text;
+        public final float left;
+        public final float top;
+        public final float right;
+        public final float bottom;
+        public final float confidence;
+        
+        /**
+         * 构造函数
+         *
+         * @param text 行文本
+         * @param left 左边界（页面相对坐标）
+         * @param top 上边界
+         * @param right 右边界
+         * @param bottom 下边界
+         * @param confidence 置信度，取值范围0到1，未知时为{@link #UNKNOWN_CONFIDENCE}
+         */
+        public Line(String text, float left, float top, float right, float bottom, float confidence) {
+            this.text = text;
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+            this.confidence = confidence;
+        }
+        
+        /**
+         * 行的中心是否落在指定区域内
+         */
+        boolean centerInside(float regionLeft, float regionTop, float regionRight, float regionBottom) {
+            float centerX = (left + right) / 2f;
+            float centerY = (top + bottom) / 2f;
+            return centerX >= regionLeft && centerX <= regionRight && centerY >= regionTop && centerY <= regionBottom;
+        }
+    }
+    
+    /**
+     * 文本块，通常对应一个段落
+     */
+    public static final class Block {
+        public final float left;
+        public final float top;
+        public final float right;
+        public final float bottom;
+        public final List<Line> lines;
+        
+        /**
+         * 构造函数
+         *
+         * @param left 左边界（页面相对坐标）
+         * @param top 上边界
+         * @param right 右边界
+         * @param bottom 下边界
+         * @param lines 块内的文本行，按从上到下的顺序
+         */
+        public Block(float left, float top, float right, float bottom, List<Line> lines) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+            this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+        }
+    }
+    
+    /**
+     * 构造函数，文本块保持传入的顺序
+     *
+     * @param blocks 按阅读顺序排列的文本块
+     */
+    public OcrResult(List<Block> blocks) {
+        this.blocks = Collections.unmodifiableList(new ArrayList<>(blocks));
+    }
+    
+    /**
+     * 按阅读顺序排列文本块后构造结果
+     *
+     * <p>先按上边界排序，再把与当前行首块在垂直方向重叠超过一半的块归为同一行，
+     * 同一行内从左到右排列，使并排的两栏或图注按从左到右、从上到下的顺序输出。</p>
+     *
+     * @param blocks 识别器输出的文本块
+     * @return 识别结果
+     */
+    public static OcrResult inReadingOrder(List<Block> blocks) {
+        List<Block> sorted = new ArrayList<>(blocks);
+        Collections.sort(sorted, (a, b) -> Float.compare(a.top, b.top));
+        
+        List<Block> ordered = new ArrayList<>(sorted.size());
+        int rowStart = 0;
+        while (rowStart < sorted.size()) {
+            Block head = sorted.get(rowStart);
+            int rowEnd = rowStart + 1;
+            while (rowEnd < sorted.size() && overlapsVertically(head, sorted.get(rowEnd))) {
+                rowEnd++;
+            }
+            List<Block> row = new ArrayList<>(sorted.subList(rowStart, rowEnd));
+            Collections.sort(row, (a, b) -> Float.compare(a.left, b.left));
+            ordered.addAll(row);
+            rowStart = rowEnd;
+        }
+        return new OcrResult(ordered);
+    }
+    
+    /**
+     * 两个块在垂直方向的重叠是否超过较矮者高度的一半
+     */
+    private static boolean overlapsVertically(Block a, Block b) {
+        float overlap = Math.min(a.bottom, b.bottom) - Math.max(a.top, b.top);
+        float minHeight = Math.min(a.bottom - a.top, b.bottom - b.top);
+        return minHeight > 0 && overlap > minHeight / 2f;
+    }
+    
+    /**
+     * 由纯文本构造没有位置信息的结果，空行分隔文本块
+     *
+     * @param text 纯文本
+     * @return 识别结果，所有位置为0，置信度未知
+     */
+    public static OcrResult fromPlainText(String text) {
+        List<Block> blocks = new ArrayList<>();
+        for (String paragraph : text.split("\n\\s*\n")) {
+            List<Line> lines = new ArrayList<>();
+            for (String line : paragraph.split("\n")) {
+                if (!line.trim().isEmpty()) {
+                    lines.add(new Line(line, 0f, 0f, 0f, 0f, UNKNOWN_CONFIDENCE));
+                }
+            }
+            if (!lines.isEmpty()) {
+                blocks.add(new Block(0f, 0f, 0f, 0f, lines));
+            }
+        }
+        return new OcrResult(blocks);
+    }
+    
+    /**
+     * 获取按阅读顺序排列的文本块
+     *
+     * @return 不可修改的文本块列表
+     */
+    public List<Block> getBlocks() {
+        return blocks;
+    }
+    
+    /**
+     * 获取全部文本：同一块内的行以换行分隔，块之间以空行分隔
+     *
+     * @return 文本
+     */
+    public String getText() {
+        return getText(UNKNOWN_CONFIDENCE);
+    }
+    
+    /**
+     * 获取置信度不低于阈值的文本行，置信度未知的行总是保留
+     *
+     * @param minConfidence 最低置信度
+     * @return 文本
+     */
+    public String getText(float minConfidence) {
+        StringBuilder sb = new StringBuilder();
+        for (Block block : blocks) {
+            boolean appended = false;
+            for (Line line : block.lines) {
+                if (line.confidence != UNKNOWN_CONFIDENCE && line.confidence < minConfidence) {
+                    continue;
+                }
+                sb.append(line.text).append("\n");
+                appended = true;
+            }
+            if (appended) {
+                sb.append("\n");
+            }
+        }
+        return sb.toString().trim();
+    }
+    
+    /**
+     * 获取中心落在指定区域内的文本行，按阅读顺序以换行连接
+     *
+     * @param left 区域左边界（页面相对坐标）
+     * @param top 区域上边界
+     * @param right 区域右边界
+     * @param bottom 区域下边界
+     * @return 区域内的文本
+     */
+    public String getTextInRegion(float left, float top, float right, float bottom) {
+        StringBuilder sb = new StringBuilder();
+        for (Block block : blocks) {
+            for (Line line : block.lines) {
+                if (line.centerInside(left, top, right, bottom)) {
+                    sb.append(line.text).append("\n");
+                }
+            }
+        }
+        return sb.toString().trim();
+    }
+    
+    /**
+     * 把相对于页面某个区域的坐标换算为相对于整页的坐标，用于区域识别的结果
+     *
+     * @param left 区域左边界（页面相对坐标）
+     * @param top 区域上边界
+     * @param right 区域右边界
+     * @param bottom 区域下边界
+     * @return 换算后的新结果
+     */
+    public OcrResult mapFromRegion(float left, float top, float right, float bottom) {
+        float width = right - left;
+        float height = bottom - top;
+        List<Block> mapped = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            List<Line> lines = new ArrayList<>(block.lines.size());
+            for (Line line : block.lines) {
+                lines.add(new Line(line.text,
+                        left + line.left * width, top + line.top * height,
+                        left + line.right * width, top + line.bottom * height, line.confidence));
+            }
+            mapped.add(new Block(left + block.left * width, top + block.top * height,
+                    left + block.right * width, top + block.bottom * height, lines));
+        }
+        return new OcrResult(mapped);
+    }
+    
+    /**
+     * 获取置信度已知的文本行的平均置信度
+     *
+     * @return 平均置信度，没有置信度已知的行时返回{@link #UNKNOWN_CONFIDENCE}
+     */
+    public float getAverageConfidence() {
+        float sum = 0f;
+        int count = 0;
+        for (Block block : blocks) {
+            for (Line line : block.lines) {
+                if (line.confidence != UNKNOWN_CONFIDENCE) {
+                    sum += line.confidence;
+                    count++;
+                }
+            }
+        }
+        return count == 0 ? UNKNOWN_CONFIDENCE : sum / count;
+    }
+    
+    /**
+     * 获取文本行数
+     *
+     * @return 行数
+     */
+    public int getLineCount() {
+        int count = 0;
+        for (Block block : blocks) {
+            count += block.lines.size();
+        }
+        return count;
+    }
+    
+    /**
+     * 估算内存占用，用于缓存容量计算
+     *
+     * @return 估算的字节数
+     */
+    public int estimateSizeBytes() {
+        int size = 16;
+        for (Block block : blocks) {
+            size += 48;
+            for (Line line : block.lines) {
+                // 对象头和字段约48字节，字符串每个字符2字节
+                size += 48 + line.text.length() * 2;
+            }
+        }
+        return size;
+    }
+    
+    /**
+     * 序列化为紧凑的二进制格式
+     *
+     * @return 序列化后的字节
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(estimateSizeBytes() / 2);
+        DataOutputStream out = new DataOutputStream(buffer);
+        try {
+            out.writeByte(FORMAT_VERSION);
+            writeVarInt(out, blocks.size());
+            for (Block block : blocks) {
+                writeBox(out, block.left, block.top, block.right, block.bottom);
+                writeVarInt(out, block.lines.size());
+                for (Line line : block.lines) {
+                    byte[] text = line.text.getBytes(StandardCharsets.UTF_8);
+                    writeVarInt(out, text.length);
+                    out.write(text);
+                    writeBox(out, line.left, line.top, line.right, line.bottom);
+                    out.writeByte(line.confidence == UNKNOWN_CONFIDENCE
+                            ? UNKNOWN_CONFIDENCE_BYTE
+                            : Math.round(clamp(line.confidence) * (UNKNOWN_CONFIDENCE_BYTE - 1)));
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // 写入内存缓冲区不会失败
+            throw new IllegalStateException(e);
+        }
+        return buffer.toByteArray();
+    }
+    
+    /**
+     * 从二进制格式反序列化
+     *
+     * @param bytes {@link #toBytes()}的结果
+     * @return 识别结果
+     * @throws IOException 当数据损坏或版本不受支持时
+     */
+    public static OcrResult fromBytes(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("不支持的OCR结果格式版本: " + version);
+        }
+        
+        int blockCount = readVarInt(in);
+        List<Block> blocks = new ArrayList<>(Math.min(blockCount, 256));
+        for (int i = 0; i < blockCount; i++) {
+            float[] blockBox = readBox(in);
+            int lineCount = readVarInt(in);
+            List<Line> lines = new ArrayList<>(Math.min(lineCount, 256));
+            for (int j = 0; j < lineCount; j++) {
+                int length = readVarInt(in);
+                if (length > MAX_LINE_BYTES) {
+                    throw new IOException("文本行长度异常: " + length);
+                }
+                byte[] text = new byte[length];
+                in.readFully(text);
+                float[] box = readBox(in);
+                int confidence = in.readUnsignedByte();
+                lines.add(new Line(new String(text, StandardCharsets.UTF_8), box[0], box[1], box[2], box[3],
+                        confidence == UNKNOWN_CONFIDENCE_BYTE
+                                ? UNKNOWN_CONFIDENCE
+                                : confidence / (float) (UNKNOWN_CONFIDENCE_BYTE - 1)));
+            }
+            blocks.add(new Block(blockBox[0], blockBox[1], blockBox[2], blockBox[3], lines));
+        }
+        return new OcrResult(blocks);
+    }
+    
+    private static void writeBox(DataOutputStream out, float left, float top, float right, float bottom)
+            throws IOException {
+        out.writeShort(Math.round(clamp(left) * COORDINATE_SCALE));
+        out.writeShort(Math.round(clamp(top) * COORDINATE_SCALE));
+        out.writeShort(Math.round(clamp(right) * COORDINATE_SCALE));
+        out.writeShort(Math.round(clamp(bottom) * COORDINATE_SCALE));
+    }
+    
+    private static float[] readBox(DataInputStream in) throws IOException {
+        float[] box = new float[4];
+        for (int i = 0; i < 4; i++) {
+            box[i] = in.readUnsignedShort() / (float) COORDINATE_SCALE;
+        }
+        return box;
+    }
+    
+    /**
+     * 写入变长整数，每字节7位，小于128的值只占一个字节
+     */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+    
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IOException("变长整数超出范围");
+                }
+                return value;
+            }
+        }
+        throw new IOException("变长整数格式错误");
+    }
+    
+    private static float clamp(float value) {
+        return Math.max(0f, Math.min(1f, value));
+    }
+}
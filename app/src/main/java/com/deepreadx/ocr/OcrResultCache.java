@@ -0,0 +1,221 @@
+package com.deepreadx.ocr;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.deepreadx.cache.CacheManager;
+import com.deepreadx.cache.TrimmableCache;
+import com.deepreadx.dao.OcrCacheDao;
+import com.deepreadx.dao.impl.OcrCacheDaoImpl;
+import com.deepreadx.model.OcrCacheEntry;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OCR识别结果缓存，以页面图像的像素哈希为键，分为内存LRU和SQLite两级
+ *
+ * <p>缓存的是带位置和置信度的{@link OcrResult}，数据库中以紧凑的二进制格式保存，
+ * 同时保存纯文本便于排查。</p>
+ *
+ * <p>键由全部像素的64位哈希、图像尺寸和识别配置组成。同一份PDF通过不同URI
+ * 打开或重复扫描的页面，在相同分辨率下渲染出的像素一致，可以直接复用识别结果；
+ * 识别配置（预处理参数等）不同时结果不同，不能互相复用。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class OcrResultCache {
+    private static final String TAG = "OcrResultCache";
+    
+    // FNV-1a 64位参数
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    // 合并各路哈希时使用的乘数
+    private static final long MIX_MULTIPLIER = 0x9e3779b97f4a7c15L;
+    
+    // 每次读取的像素行数，整页只需几十次getPixels调用
+    private static final int ROWS_PER_READ = 32;
+    
+    // 数据库中最多保存的记录数
+    private static final int MAX_DB_ENTRIES = 2000;
+    
+    // 每写入若干条记录清理一次数据库
+    private static final int TRIM_INTERVAL = 100;
+    
+    private static OcrResultCache instance;
+    
+    private final LruCache<String, OcrResult> memoryCache;
+    private final TrimmableCache memoryCacheEntry;
+    private final OcrCacheDao cacheDao;
+    private final ExecutorService dbExecutor;
+    
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private int insertsSinceTrim = 0;
+    
+    /**
+     * 获取OCR结果缓存实例，首次调用时向缓存管理器注册内存缓存
+     *
+     * @param context 上下文
+     * @return OCR结果缓存
+     */
+    public static synchronized OcrResultCache getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            CacheManager manager = CacheManager.getInstance(appContext);
+            instance = new OcrResultCache(new OcrCacheDaoImpl(appContext), manager.getTextCacheBudget());
+            manager.register(instance.memoryCacheEntry);
+        }
+        return instance;
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param cacheDao OCR缓存DAO
+     * @param maxMemoryBytes 内存缓存容量（字节）
+     */
+    OcrResultCache(OcrCacheDao cacheDao, int maxMemoryBytes) {
+        this.cacheDao = cacheDao;
+        this.memoryCache = new LruCache<String, OcrResult>(maxMemoryBytes) {
+            @Override
+            protected int sizeOf(String key, OcrResult value) {
+                // Java字符串每个字符占2字节
+                return key.length() * 2 + value.estimateSizeBytes();
+            }
+        };
+        this.memoryCacheEntry = CacheManager.wrap("OcrResultCache", TrimmableCache.TIER_ESSENTIAL, memoryCache);
+        this.dbExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OcrCacheThread");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+    
+    /**
+     * 计算缓存键，需要读取全部像素，应在后台线程调用
+     *
+     * <p>每次读取{@value #ROWS_PER_READ}行像素，以整个像素为单位按FNV-1a方式分四路交错混入，
+     * 四路之间没有数据依赖，最后合并为一个64位哈希。</p>
+     *
+     * @param bitmap 页面图像
+     * @param recognizerConfig 识别配置标识，如预处理参数
+     * @return 缓存键：16位十六进制哈希_宽x高_识别配置
+     */
+    public String computeKey(Bitmap bitmap, String recognizerConfig) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        int[] pixels = new int[width * Math.min(ROWS_PER_READ, height)];
+        
+        long h0 = FNV_OFFSET_BASIS;
+        long h1 = FNV_OFFSET_BASIS + 1;
+        long h2 = FNV_OFFSET_BASIS + 2;
+        long h3 = FNV_OFFSET_BASIS + 3;
+        for (int y = 0; y < height; y += ROWS_PER_READ) {
+            int rows = Math.min(ROWS_PER_READ, height - y);
+            int count = width * rows;
+            bitmap.getPixels(pixels, 0, width, 0, y, width, rows);
+            int i = 0;
+            for (; i + 4 <= count; i += 4) {
+                h0 = (h0 ^ pixels[i]) * FNV_PRIME;
+                h1 = (h1 ^ pixels[i + 1]) * FNV_PRIME;
+                h2 = (h2 ^ pixels[i + 2]) * FNV_PRIME;
+                h3 = (h3 ^ pixels[i + 3]) * FNV_PRIME;
+            }
+            for (; i < count; i++) {
+                h0 = (h0 ^ pixels[i]) * FNV_PRIME;
+            }
+        }
+        long hash = ((h0 * MIX_MULTIPLIER + h1) * MIX_MULTIPLIER + h2) * MIX_MULTIPLIER + h3;
+        return String.format(Locale.ROOT, "%016x_%dx%d_%s", hash, width, height, recognizerConfig);
+    }
+    
+    /**
+     * 查询识别结果，先查内存再查数据库，数据库命中时回填内存。可能读取数据库，应在后台线程调用
+     *
+     * @param hash 图像内容哈希
+     * @return 识别结果，未缓存时返回null
+     */
+    public OcrResult get(String hash) {
+        OcrResult result = memoryCache.get(hash);
+        if (result != null) {
+            memoryHits.incrementAndGet();
+            return result;
+        }
+        
+        OcrCacheEntry entry = cacheDao.queryByHash(hash);
+        if (entry != null) {
+            diskHits.incrementAndGet();
+            result = decode(entry);
+            memoryCache.put(hash, result);
+            return result;
+        }
+        
+        misses.incrementAndGet();
+        return null;
+    }
+    
+    /**
+     * 反序列化数据库中的结构化结果，损坏时退回纯文本
+     */
+    private static OcrResult decode(OcrCacheEntry entry) {
+        if (entry.getResult() != null) {
+            try {
+                return OcrResult.fromBytes(entry.getResult());
+            } catch (IOException e) {
+                Log.w(TAG, "OCR缓存结果已损坏，使用纯文本: " + entry.getHash(), e);
+            }
+        }
+        return OcrResult.fromPlainText(entry.getText());
+    }
+    
+    /**
+     * 保存识别结果，序列化和数据库写入在后台线程进行
+     *
+     * @param hash 图像内容哈希
+     * @param result 识别结果
+     */
+    public void put(final String hash, final OcrResult result) {
+        memoryCache.put(hash, result);
+        dbExecutor.execute(() -> {
+            cacheDao.insert(new OcrCacheEntry(hash, result.getText(), result.toBytes(),
+                    System.currentTimeMillis()));
+            if (++insertsSinceTrim >= TRIM_INTERVAL) {
+                insertsSinceTrim = 0;
+                int removed = cacheDao.trimToCount(MAX_DB_ENTRIES);
+                Log.d(TAG, "清理OCR缓存记录 " + removed + " 条");
+            }
+        });
+    }
+    
+    /**
+     * 清空内存和数据库中的缓存
+     */
+    public void clear() {
+        memoryCache.evictAll();
+        dbExecutor.execute(cacheDao::deleteAll);
+    }
+    
+    /**
+     * 获取缓存统计信息
+     *
+     * @return 内存命中、数据库命中、未命中次数及命中率
+     */
+    public String getStats() {
+        long memory = memoryHits.get();
+        long disk = diskHits.get();
+        long miss = misses.get();
+        long total = memory + disk + miss;
+        long hitRate = total == 0 ? 0 : (memory + disk) * 100 / total;
+        return "memoryHits=" + memory + ", diskHits=" + disk + ", misses=" + miss
+                + ", hitRate=" + hitRate + "%, memoryBytes=" + memoryCache.size();
+    }
+}
@@ -0,0 +1,533 @@
+package com.deepreadx.ocr;
+
+import android.graphics.Bitmap;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.deepreadx.dao.PageTextDao;
+import com.deepreadx.model.PageText;
+import com.deepreadx.viewer.PageRenderService;
+import com.deepreadx.viewer.PdfRenderer;
+import com.deepreadx.viewer.RenderQueue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * OCR任务队列，按优先级逐页渲染并识别文档页面，识别结果保存到页面文本表
+ *
+ * <p>设置了PDF文本层提取器时，先尝试读取页面自带的文本层，只有没有可用文本层的页面才渲染并OCR。</p>
+ *
+ * <p>同一时间只有一个页面在识别，避免多个识别任务争抢CPU。队列长度有上限，已满时丢弃
+ * 优先级最低的任务。同一页面重复提交时合并为一个任务并取较高的优先级，翻页后不再需要的
+ * 预识别任务会被取消。所有方法和回调都在主线程执行，页面文本表的查询和写入在单独的数据库线程进行，
+ * 查询结果再切回主线程处理。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class OcrWorkQueue implements PageTextExtractor {
+    private static final String TAG = "OcrWorkQueue";
+    
+    /** 用户主动发起的识别 */
+    public static final int PRIORITY_USER = 0;
+    
+    /** 对当前页和下一页的预识别 */
+    public static final int PRIORITY_SPECULATIVE = 1;
+    
+    /** 后台建立文本索引 */
+    public static final int PRIORITY_BACKGROUND = 2;
+    
+    // 等待中的任务数上限
+    private static final int MAX_PENDING = 8;
+    
+    // 预识别当前页之后的页数
+    private static final int SPECULATIVE_DISTANCE = 1;
+    
+    private final PageRenderService renderService;
+    private final OcrProcessor ocrProcessor;
+    private final PageTextDao pageTextDao;
+    private final String fingerprint;
+    private final List<Job> pending = new ArrayList<>();
+    private final ExecutorService dbExecutor;
+    private final Handler mainHandler;
+    
+    private PageTextExtractor textLayerExtractor;
+    private Job running;
+    private boolean closed = false;
+    private long sequence = 0;
+    
+    // 统计信息
+    private long dispatchedCount = 0;
+    private long completedCount = 0;
+    private long cancelledCount = 0;
+    private long droppedCount = 0;
+    private long textLayerCount = 0;
+    private long totalWaitMillis = 0;
+    private long maxWaitMillis = 0;
+    
+    /**
+     * OCR任务句柄，用于取消任务
+     */
+    public final class Job {
+        final int pageIndex;
+        final List<OcrProcessor.OcrCallback> callbacks = new ArrayList<>();
+        int priority;
+        long order;
+        long enqueuedAt;
+        boolean cancelled = false;
+        CancellationSignal renderSignal;
+        
+        Job(int pageIndex, int priority) {
+            this.pageIndex = pageIndex;
+            this.priority = priority;
+        }
+        
+        /**
+         * 取消任务，正在识别的页面不再回调，识别结果仍会保存
+         */
+        public void cancel() {
+            cancelJob(this);
+        }
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param renderService 页面渲染服务
+     * @param ocrProcessor OCR处理器
+     * @param pageTextDao 页面文本DAO
+     * @param fingerprint 文档指纹
+     */
+    public OcrWorkQueue(PageRenderService renderService, OcrProcessor ocrProcessor,
+                        PageTextDao pageTextDao, String fingerprint) {
+        this.renderService = renderService;
+        this.ocrProcessor = ocrProcessor;
+        this.pageTextDao = pageTextDao;
+        this.fingerprint = fingerprint;
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.dbExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OcrQueueDbThread");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+    
+    /**
+     * 设置PDF文本层提取器，设置后优先使用文本层，队列不负责关闭提取器
+     *
+     * @param textLayerExtractor 文本层提取器，为null时所有页面都进行OCR
+     */
+    public void setTextLayerExtractor(PageTextExtractor textLayerExtractor) {
+        this.textLayerExtractor = textLayerExtractor;
+    }
+    
+    /**
+     * 以用户优先级提取页面文本，等同于{@link #submit}使用{@link #PRIORITY_USER}
+     *
+     * @param pageIndex 页码索引
+     * @param callback 提取结果回调
+     */
+    @Override
+    public void extractPageText(int pageIndex, OcrProcessor.OcrCallback callback) {
+        submit(pageIndex, PRIORITY_USER, callback);
+    }
+    
+    /**
+     * 提交页面识别任务，该页面已有等待中的任务时合并
+     *
+     * @param pageIndex 页码索引
+     * @param priority 优先级，取值为PRIORITY_*常量
+     * @param callback 识别结果回调，可以为null
+     * @return 任务句柄；队列已关闭或已满且新任务优先级最低时返回null
+     */
+    public Job submit(int pageIndex, int priority, OcrProcessor.OcrCallback callback) {
+        if (closed) {
+            if (callback != null) {
+                callback.onFailure(new IllegalStateException("OCR队列已关闭"));
+            }
+            return null;
+        }
+        
+        // 正在识别同一页面，直接等待其结果
+        if (running != null && running.pageIndex == pageIndex && !running.cancelled) {
+            addCallback(running, callback);
+            return running;
+        }
+        
+        Job job = findPending(pageIndex);
+        if (job != null) {
+            // 合并任务，提升到较高的优先级
+            if (priority < job.priority) {
+                job.priority = priority;
+            }
+            addCallback(job, callback);
+        } else {
+            if (pending.size() >= MAX_PENDING && !dropLowestPriority(priority)) {
+                droppedCount++;
+                if (callback != null) {
+                    callback.onFailure(new IllegalStateException("OCR队列已满"));
+                }
+                return null;
+            }
+            job = new Job(pageIndex, priority);
+            job.order = sequence++;
+            job.enqueuedAt = SystemClock.elapsedRealtime();
+            addCallback(job, callback);
+            pending.add(job);
+        }
+        
+        dispatchNext();
+        return job;
+    }
+    
+    /**
+     * 当前页变化时调用：取消不再需要的预识别任务，并预识别当前页和下一页
+     *
+     * @param currentPage 当前页码
+     */
+    public void onPageChanged(int currentPage) {
+        if (closed) {
+            return;
+        }
+        
+        Iterator<Job> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            Job job = iterator.next();
+            if (job.priority == PRIORITY_SPECULATIVE && !isSpeculativeTarget(job.pageIndex, currentPage)) {
+                if (job.callbacks.isEmpty()) {
+                    iterator.remove();
+                    job.cancelled = true;
+                    cancelledCount++;
+                } else {
+                    // 有后台任务合并在内，降为后台优先级继续等待
+                    job.priority = PRIORITY_BACKGROUND;
+                }
+            }
+        }
+        if (running != null && running.priority == PRIORITY_SPECULATIVE && running.callbacks.isEmpty()
+                && !isSpeculativeTarget(running.pageIndex, currentPage)) {
+            // 尚在渲染时可以中止，已进入识别的任务让其完成并保存结果
+            if (running.renderSignal != null) {
+                running.renderSignal.cancel();
+            }
+        }
+        
+        int pageCount = renderService.getPageCount();
+        for (int page = currentPage; page <= currentPage + SPECULATIVE_DISTANCE && page < pageCount; page++) {
+            submit(page, PRIORITY_SPECULATIVE, null);
+        }
+    }
+    
+    /**
+     * 判断页面是否属于当前页的预识别范围
+     */
+    private boolean isSpeculativeTarget(int pageIndex, int currentPage) {
+        return pageIndex >= currentPage && pageIndex <= currentPage + SPECULATIVE_DISTANCE;
+    }
+    
+    /**
+     * 查找等待中的同页任务
+     */
+    private Job findPending(int pageIndex) {
+        for (Job job : pending) {
+            if (job.pageIndex == pageIndex) {
+                return job;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 添加回调
+     */
+    private void addCallback(Job job, OcrProcessor.OcrCallback callback) {
+        if (callback != null) {
+            job.callbacks.add(callback);
+        }
+    }
+    
+    /**
+     * 队列已满时丢弃一个优先级低于新任务的任务，优先丢弃最晚提交的
+     *
+     * @return 是否腾出了位置
+     */
+    private boolean dropLowestPriority(int newPriority) {
+        Job victim = null;
+        for (Job job : pending) {
+            if (job.priority > newPriority
+                    && (victim == null || job.priority > victim.priority
+                    || (job.priority == victim.priority && job.order > victim.order))) {
+                victim = job;
+            }
+        }
+        if (victim == null) {
+            return false;
+        }
+        pending.remove(victim);
+        droppedCount++;
+        failJob(victim, new IllegalStateException("OCR任务被更高优先级的任务挤出队列"));
+        return true;
+    }
+    
+    /**
+     * 取消任务
+     */
+    private void cancelJob(Job job) {
+        if (job.cancelled) {
+            return;
+        }
+        job.cancelled = true;
+        cancelledCount++;
+        pending.remove(job);
+        if (job == running && job.renderSignal != null) {
+            job.renderSignal.cancel();
+        }
+    }
+    
+    /**
+     * 没有正在识别的页面时取出优先级最高的任务执行
+     */
+    private void dispatchNext() {
+        if (closed || running != null || pending.isEmpty()) {
+            return;
+        }
+        
+        Job next = pending.get(0);
+        for (Job job : pending) {
+            if (job.priority < next.priority || (job.priority == next.priority && job.order < next.order)) {
+                next = job;
+            }
+        }
+        pending.remove(next);
+        running = next;
+        
+        long waitMillis = SystemClock.elapsedRealtime() - next.enqueuedAt;
+        dispatchedCount++;
+        totalWaitMillis += waitMillis;
+        maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+        
+        runJob(next);
+    }
+    
+    /**
+     * 执行任务：先在数据库线程查询页面文本表，已建立文本索引的页面直接返回
+     */
+    private void runJob(final Job job) {
+        try {
+            dbExecutor.execute(() -> {
+                PageText indexed = pageTextDao.queryByPage(fingerprint, job.pageIndex);
+                mainHandler.post(() -> onIndexedTextLoaded(job, indexed));
+            });
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "OCR队列已关闭，跳过页面: " + job.pageIndex);
+        }
+    }
+    
+    /**
+     * 页面文本表查询完成：没有记录时尝试PDF文本层，最后渲染并识别
+     */
+    private void onIndexedTextLoaded(final Job job, PageText indexed) {
+        if (closed || running != job) {
+            return;
+        }
+        if (indexed != null) {
+            finishJob(job, indexed.getText());
+            return;
+        }
+        
+        if (textLayerExtractor == null) {
+            renderAndRecognize(job);
+            return;
+        }
+        textLayerExtractor.extractPageText(job.pageIndex, new OcrProcessor.OcrCallback() {
+            @Override
+            public void onSuccess(String text) {
+                if (closed) {
+                    return;
+                }
+                if (text.isEmpty()) {
+                    renderAndRecognize(job);
+                    return;
+                }
+                textLayerCount++;
+                savePageText(job.pageIndex, text);
+                finishJob(job, text);
+            }
+            
+            @Override
+            public void onFailure(Exception e) {
+                if (!closed) {
+                    renderAndRecognize(job);
+                }
+            }
+        });
+    }
+    
+    /**
+     * 按OCR分辨率渲染页面并识别
+     */
+    private void renderAndRecognize(final Job job) {
+        if (job.cancelled) {
+            // 读取文本层期间任务被取消，不再渲染
+            onJobDone();
+            return;
+        }
+        
+        job.renderSignal = renderService.requestOcrPage(job.pageIndex, PdfRenderer.DEFAULT_OCR_DPI,
+                renderPriorityOf(job.priority), new PageRenderService.OcrRenderCallback() {
+                    @Override
+                    public void onOcrPageRendered(int pageIndex, Bitmap bitmap) {
+                        recognize(job, bitmap);
+                    }
+                    
+                    @Override
+                    public void onRenderFailed(int pageIndex, Exception e) {
+                        failJob(job, e);
+                        onJobDone();
+                    }
+                });
+        if (job.renderSignal == null) {
+            failJob(job, new IllegalStateException("渲染服务已关闭"));
+            onJobDone();
+            return;
+        }
+        // 取消渲染时不会收到回调，此时释放队列
+        job.renderSignal.setOnCancelListener(() -> {
+            if (running == job) {
+                onJobDone();
+            }
+        });
+    }
+    
+    /**
+     * 识别已渲染的页面并保存结果
+     */
+    private void recognize(final Job job, final Bitmap bitmap) {
+        // 已进入识别阶段，取消渲染信号不再释放队列
+        job.renderSignal.setOnCancelListener(null);
+        ocrProcessor.extractText(bitmap, true, new OcrProcessor.OcrCallback() {
+            @Override
+            public void onSuccess(String text) {
+                bitmap.recycle();
+                savePageText(job.pageIndex, text);
+                finishJob(job, text);
+            }
+            
+            @Override
+            public void onFailure(Exception e) {
+                bitmap.recycle();
+                Log.w(TAG, "识别页面失败: " + job.pageIndex, e);
+                failJob(job, e);
+                onJobDone();
+            }
+        });
+    }
+    
+    /**
+     * 在数据库线程保存页面文本，队列关闭后的结果不再保存
+     */
+    private void savePageText(final int pageIndex, final String text) {
+        try {
+            dbExecutor.execute(() -> pageTextDao.insert(new PageText(fingerprint, pageIndex, text)));
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "OCR队列已关闭，未保存页面文本: " + pageIndex);
+        }
+    }
+    
+    /**
+     * 任务成功完成，回调所有等待者
+     */
+    private void finishJob(Job job, String text) {
+        completedCount++;
+        if (!job.cancelled && !closed) {
+            for (OcrProcessor.OcrCallback callback : job.callbacks) {
+                callback.onSuccess(text);
+            }
+        }
+        onJobDone();
+    }
+    
+    /**
+     * 任务失败，回调所有等待者
+     */
+    private void failJob(Job job, Exception e) {
+        if (!job.cancelled && !closed) {
+            for (OcrProcessor.OcrCallback callback : job.callbacks) {
+                callback.onFailure(e);
+            }
+        }
+        job.callbacks.clear();
+    }
+    
+    /**
+     * 当前任务结束，执行下一个任务
+     */
+    private void onJobDone() {
+        running = null;
+        dispatchNext();
+    }
+    
+    /**
+     * OCR优先级对应的渲染队列优先级
+     */
+    private static int renderPriorityOf(int priority) {
+        if (priority == PRIORITY_USER) {
+            return RenderQueue.PRIORITY_VISIBLE;
+        }
+        return priority == PRIORITY_SPECULATIVE ? RenderQueue.PRIORITY_PREFETCH : RenderQueue.PRIORITY_BACKGROUND;
+    }
+    
+    /**
+     * 获取等待中的任务数
+     *
+     * @return 队列深度
+     */
+    public int getQueueDepth() {
+        return pending.size();
+    }
+    
+    /**
+     * 获取队列统计信息
+     *
+     * @return 队列深度、完成数量（其中来自文本层的数量）、取消/丢弃数量及平均和最长等待时间
+     */
+    public String getStats() {
+        long averageWait = dispatchedCount == 0 ? 0 : totalWaitMillis / dispatchedCount;
+        return "depth=" + pending.size() + ", completed=" + completedCount + ", textLayer=" + textLayerCount
+                + ", cancelled=" + cancelledCount
+                + ", dropped=" + droppedCount + ", avgWait=" + averageWait + "ms, maxWait=" + maxWaitMillis + "ms";
+    }
+    
+    /**
+     * 关闭队列，取消所有任务
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        Log.d(TAG, "OCR队列统计: " + getStats());
+        closed = true;
+        for (Job job : pending) {
+            job.cancelled = true;
+        }
+        pending.clear();
+        if (running != null) {
+            running.cancelled = true;
+            if (running.renderSignal != null) {
+                running.renderSignal.cancel();
+            }
+            running = null;
+        }
+        // 已提交的写入继续完成
+        dbExecutor.shutdown();
+    }
+}
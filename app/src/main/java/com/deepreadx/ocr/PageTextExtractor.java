@@ -0,0 +1,22 @@
+package com.deepreadx.ocr;
+
+/**
+ * 页面文本提取接口，屏蔽文本来源是PDF文本层还是OCR识别
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public interface PageTextExtractor {
+    /**
+     * 提取页面文本，结果在主线程回调
+     *
+     * @param pageIndex 页码索引，从0开始
+     * @param callback 提取结果回调；页面没有可用文本时回调空字符串
+     */
+    void extractPageText(int pageIndex, OcrProcessor.OcrCallback callback);
+    
+    /**
+     * 释放资源，之后不能再提取文本
+     */
+    void close();
+}
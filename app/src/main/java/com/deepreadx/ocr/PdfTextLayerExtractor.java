@@ -0,0 +1,219 @@
+package com.deepreadx.ocr;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.ParcelFileDescriptor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.deepreadx.pdf.PdfTextLayer;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 从PDF自带的文本层提取页面文本，原生数字PDF无需渲染和OCR
+ *
+ * <p>首次提取时以只读方式映射整个文件并解析交叉引用，之后每页只解码该页的内容流。
+ * 提取在单独的后台线程进行，结果在主线程回调。文本层缺失、只有无法映射的字形号或文件
+ * 无法解析时回调空字符串，调用方据此退回OCR。单页解析出错只影响该页，文件结构解析失败后
+ * 不再重复尝试。</p>
+ *
+ * <p>还可以根据文档声明的语言或前几页的文本层判断文档的文字体系，供OCR选择识别模型。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PdfTextLayerExtractor implements PageTextExtractor {
+    private static final String TAG = "PdfTextLayerExtractor";
+    
+    // 判断文字体系时最多读取的页数
+    private static final int SCRIPT_SAMPLE_PAGES = 3;
+    
+    // 样本文本达到该长度后不再读取后续页面
+    private static final int SCRIPT_SAMPLE_CHARS = 2000;
+    
+    private final ParcelFileDescriptor fileDescriptor;
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    
+    // 以下字段只在后台线程访问
+    private PdfTextLayer textLayer;
+    private boolean unavailable = false;
+    
+    private volatile boolean closed = false;
+    
+    /**
+     * 文字体系判断结果回调接口
+     */
+    public interface ScriptCallback {
+        /**
+         * 判断完成回调，在主线程执行
+         *
+         * @param script 文字体系，无法判断时为{@link ScriptDetector.Script#UNKNOWN}
+         */
+        void onScriptDetected(ScriptDetector.Script script);
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param fileDescriptor PDF文件描述符，提取器接管其所有权，关闭时一并关闭
+     */
+    public PdfTextLayerExtractor(ParcelFileDescriptor fileDescriptor) {
+        this.fileDescriptor = fileDescriptor;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "PdfTextLayerThread");
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+    
+    @Override
+    public void extractPageText(final int pageIndex, final OcrProcessor.OcrCallback callback) {
+        if (closed) {
+            callback.onFailure(new IllegalStateException("文本层提取器已关闭"));
+            return;
+        }
+        
+        try {
+            executor.execute(() -> {
+                long start = SystemClock.elapsedRealtime();
+                String text = extractOnWorker(pageIndex);
+                Log.d(TAG, "提取文本层: 第" + pageIndex + "页 " + text.length() + "字 "
+                        + (SystemClock.elapsedRealtime() - start) + "ms");
+                mainHandler.post(() -> {
+                    if (!closed) {
+                        callback.onSuccess(text);
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            callback.onFailure(new IllegalStateException("文本层提取器已关闭", e));
+        }
+    }
+    
+    /**
+     * 在后台线程判断文档的文字体系：优先使用文档目录中的/Lang，未声明时统计前几页文本层
+     *
+     * @param callback 判断结果回调，在主线程执行；提取器关闭后不再回调
+     */
+    public void detectScript(final ScriptCallback callback) {
+        if (closed) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                ScriptDetector.Script script = detectScriptOnWorker();
+                Log.d(TAG, "根据文本层判断文字体系: " + script);
+                mainHandler.post(() -> {
+                    if (!closed) {
+                        callback.onScriptDetected(script);
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "文本层提取器已关闭，跳过文字体系判断");
+        }
+    }
+    
+    /**
+     * 在后台线程判断文字体系，文本层不可用时返回{@link ScriptDetector.Script#UNKNOWN}
+     */
+    private ScriptDetector.Script detectScriptOnWorker() {
+        if (!ensureTextLayer()) {
+            return ScriptDetector.Script.UNKNOWN;
+        }
+        try {
+            ScriptDetector.Script script = ScriptDetector.fromLanguageTag(textLayer.getLanguage());
+            if (script != ScriptDetector.Script.UNKNOWN) {
+                return script;
+            }
+            StringBuilder sample = new StringBuilder();
+            int pages = Math.min(SCRIPT_SAMPLE_PAGES, textLayer.getPageCount());
+            for (int i = 0; i < pages && sample.length() < SCRIPT_SAMPLE_CHARS && !closed; i++) {
+                sample.append(textLayer.extractPageText(i)).append('\n');
+            }
+            return ScriptDetector.detect(sample);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "读取文本层样本失败", e);
+            return ScriptDetector.Script.UNKNOWN;
+        }
+    }
+    
+    /**
+     * 在后台线程提取文本，不可用时返回空字符串
+     */
+    private String extractOnWorker(int pageIndex) {
+        if (!ensureTextLayer()) {
+            return "";
+        }
+        try {
+            if (pageIndex < 0 || pageIndex >= textLayer.getPageCount()) {
+                return "";
+            }
+            String text = textLayer.extractPageText(pageIndex);
+            return PdfTextLayer.isUsable(text) ? text : "";
+        } catch (IOException | RuntimeException | OutOfMemoryError e) {
+            // 只有这一页交给OCR，其他页面的文本层仍可使用
+            Log.w(TAG, "解析页面文本层失败: " + pageIndex, e);
+            return "";
+        }
+    }
+    
+    /**
+     * 在后台线程首次使用时解析文件结构
+     *
+     * @return 文本层可用时返回true
+     */
+    private boolean ensureTextLayer() {
+        if (unavailable || closed) {
+            return false;
+        }
+        if (textLayer != null) {
+            return true;
+        }
+        try {
+            textLayer = new PdfTextLayer(mapFile());
+            return true;
+        } catch (IOException | RuntimeException | OutOfMemoryError e) {
+            // 文件结构无法解析，之后全部交给OCR
+            Log.w(TAG, "无法解析PDF文本层，改用OCR", e);
+            unavailable = true;
+            return false;
+        }
+    }
+    
+    /**
+     * 只读映射整个PDF文件，映射在文件描述符关闭后仍然有效
+     *
+     * <p>不关闭这里创建的输入流，文件描述符由{@link #close()}统一关闭。</p>
+     */
+    private MappedByteBuffer mapFile() throws IOException {
+        FileChannel channel = new FileInputStream(fileDescriptor.getFileDescriptor()).getChannel();
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // 排在已提交的任务之后关闭文件描述符，这些任务看到关闭标志后会立即返回
+        executor.execute(() -> {
+            textLayer = null;
+            try {
+                fileDescriptor.close();
+            } catch (IOException e) {
+                Log.w(TAG, "关闭文件描述符失败", e);
+            }
+        });
+        executor.shutdown();
+    }
+}
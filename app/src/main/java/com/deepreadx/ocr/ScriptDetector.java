@@ -0,0 +1,145 @@
+package com.deepreadx.ocr;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 判断文档使用的文字体系，用于选择OCR识别模型
+ *
+ * <p>拉丁文模型比中文模型小，加载和识别都更快，但不能识别汉字；中文模型同时能识别拉丁字母。
+ * 因此只有确认文档是拉丁文字时才使用拉丁文模型，无法确定时按中文处理。</p>
+ *
+ * <p>文字体系可以来自文档元数据中的语言标签，也可以来自少量样本文本（PDF文本层或
+ * 整页的识别结果）中汉字和拉丁字母的比例。拉丁文模型的识别结果字母太少或置信度低时，
+ * 可能是判断有误，应改用中文模型重新识别。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public final class ScriptDetector {
+    
+    /**
+     * 文字体系
+     */
+    public enum Script {
+        /** 尚未确定 */
+        UNKNOWN,
+        /** 拉丁字母文字，如英语、法语、德语 */
+        LATIN,
+        /** 中日韩文字，使用中文模型识别 */
+        CHINESE
+    }
+    
+    // 样本中字母少于该数量时不做判断
+    private static final int MIN_LETTERS = 20;
+    
+    // 汉字等中日韩字符占字母的比例达到该值时视为中文文档，中文文档中常夹杂英文单词
+    private static final float MIN_CJK_RATIO = 0.05f;
+    
+    // 其他文字占字母的比例超过该值时无法用拉丁文模型识别
+    private static final float MAX_OTHER_RATIO = 0.2f;
+    
+    // 拉丁文模型的识别结果中字母少于该数量时改用中文模型
+    private static final int MIN_LATIN_RESULT_LETTERS = 10;
+    
+    // 拉丁文模型的识别结果平均置信度低于该值时改用中文模型
+    private static final float MIN_LATIN_RESULT_CONFIDENCE = 0.6f;
+    
+    // 使用中文模型识别的语言
+    private static final Set<String> CJK_LANGUAGES = new HashSet<>(Arrays.asList("zh", "ja", "ko"));
+    
+    // 使用拉丁字母的常见语言
+    private static final Set<String> LATIN_LANGUAGES = new HashSet<>(Arrays.asList(
+            "en", "fr", "de", "es", "it", "pt", "nl", "sv", "da", "no", "nb", "nn", "fi", "is",
+            "pl", "cs", "sk", "sl", "hr", "hu", "ro", "tr", "id", "ms", "vi", "ca", "eu", "gl",
+            "et", "lv", "lt", "sq", "af", "sw", "tl", "la", "eo", "ga", "cy"));
+    
+    private ScriptDetector() {
+    }
+    
+    /**
+     * 根据语言标签判断文字体系
+     *
+     * @param languageTag BCP 47语言标签，如"zh-CN"、"en_US"，可以为null
+     * @return 文字体系，无法判断时返回{@link Script#UNKNOWN}
+     */
+    public static Script fromLanguageTag(String languageTag) {
+        if (languageTag == null) {
+            return Script.UNKNOWN;
+        }
+        String language = languageTag.trim().toLowerCase(Locale.ROOT).split("[-_]", 2)[0];
+        if (CJK_LANGUAGES.contains(language)) {
+            return Script.CHINESE;
+        }
+        if (LATIN_LANGUAGES.contains(language)) {
+            return Script.LATIN;
+        }
+        return Script.UNKNOWN;
+    }
+    
+    /**
+     * 判断拉丁文模型的识别结果是否可信，不可信时应改用中文模型重新识别
+     *
+     * @param text 识别出的文本
+     * @param averageConfidence 平均置信度，未知时为负数
+     * @return 字母足够多且置信度不低时返回true
+     */
+    public static boolean isConfidentLatinResult(CharSequence text, float averageConfidence) {
+        if (averageConfidence >= 0 && averageConfidence < MIN_LATIN_RESULT_CONFIDENCE) {
+            return false;
+        }
+        int letters = 0;
+        for (int i = 0; i < text.length() && letters < MIN_LATIN_RESULT_LETTERS; ) {
+            int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetter(codePoint)) {
+                letters++;
+            }
+        }
+        return letters >= MIN_LATIN_RESULT_LETTERS;
+    }
+    
+    /**
+     * 根据样本文本中各类字符的数量判断文字体系
+     *
+     * @param text 样本文本
+     * @return 文字体系，样本太少或主要是其他文字时返回{@link Script#UNKNOWN}
+     */
+    public static Script detect(CharSequence text) {
+        int latin = 0;
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            if (!Character.isLetter(codePoint)) {
+                continue;
+            }
+            Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+            if (script == Character.UnicodeScript.LATIN) {
+                latin++;
+            } else if (script == Character.UnicodeScript.HAN
+                    || script == Character.UnicodeScript.HIRAGANA
+                    || script == Character.UnicodeScript.KATAKANA
+                    || script == Character.UnicodeScript.HANGUL) {
+                cjk++;
+            } else {
+                other++;
+            }
+        }
+        
+        int letters = latin + cjk + other;
+        if (letters < MIN_LETTERS) {
+            return Script.UNKNOWN;
+        }
+        if (cjk >= letters * MIN_CJK_RATIO) {
+            return Script.CHINESE;
+        }
+        if (other > letters * MAX_OTHER_RATIO) {
+            return Script.UNKNOWN;
+        }
+        return Script.LATIN;
+    }
+}
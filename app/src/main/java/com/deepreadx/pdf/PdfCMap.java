@@ -0,0 +1,241 @@
+package com.deepreadx.pdf;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ToUnicode映射表，把字体中的字符编码映射为Unicode文本
+ *
+ * <p>解析codespacerange、bfchar和bfrange三类定义。bfrange不展开为逐个编码的映射，
+ * 查找时按范围计算，避免覆盖整个CJK区间的范围占用大量内存。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PdfCMap {
+    // 单个CMap中最多读取的定义数，防止畸形文件
+    private static final int MAX_ENTRIES = 200_000;
+    
+    private final List<int[]> codespaceRanges = new ArrayList<>();
+    private final Map<Long, String> singleMappings = new HashMap<>();
+    private final List<Range> rangeMappings = new ArrayList<>();
+    
+    /**
+     * bfrange定义，目标为起始字符串或逐个列出的字符串数组
+     */
+    private static final class Range {
+        final int length;
+        final int low;
+        final int high;
+        final byte[] baseTarget;
+        final List<Object> targets;
+        
+        Range(int length, int low, int high, byte[] baseTarget, List<Object> targets) {
+            this.length = length;
+            this.low = low;
+            this.high = high;
+            this.baseTarget = baseTarget;
+            this.targets = targets;
+        }
+    }
+    
+    /**
+     * 解析CMap数据
+     *
+     * @param data 解码后的CMap流
+     * @return 映射表
+     * @throws IOException 当数据无法解析时
+     */
+    public static PdfCMap parse(byte[] data) throws IOException {
+        PdfCMap cmap = new PdfCMap();
+        PdfParser parser = new PdfParser(data);
+        int entries = 0;
+        Object token;
+        while ((token = parser.nextObject()) != null && entries < MAX_ENTRIES) {
+            if (!(token instanceof PdfParser.Operator)) {
+                continue;
+            }
+            switch (token.toString()) {
+                case "begincodespacerange":
+                    entries += cmap.readCodespaceRanges(parser);
+                    break;
+                case "beginbfchar":
+                    entries += cmap.readBfChars(parser);
+                    break;
+                case "beginbfrange":
+                    entries += cmap.readBfRanges(parser);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return cmap;
+    }
+    
+    private int readCodespaceRanges(PdfParser parser) throws IOException {
+        int count = 0;
+        while (true) {
+            Object low = parser.nextObject();
+            if (!(low instanceof byte[])) {
+                return count;
+            }
+            Object high = parser.nextObject();
+            if (!(high instanceof byte[])) {
+                return count;
+            }
+            byte[] lowBytes = (byte[]) low;
+            if (lowBytes.length > 0 && lowBytes.length <= 4) {
+                codespaceRanges.add(new int[] {lowBytes.length, toCode(lowBytes), toCode((byte[]) high)});
+            }
+            count++;
+        }
+    }
+    
+    private int readBfChars(PdfParser parser) throws IOException {
+        int count = 0;
+        while (true) {
+            Object source = parser.nextObject();
+            if (!(source instanceof byte[])) {
+                return count;
+            }
+            Object target = parser.nextObject();
+            byte[] sourceBytes = (byte[]) source;
+            if (sourceBytes.length > 0 && sourceBytes.length <= 4) {
+                String text = targetToString(target);
+                if (text != null) {
+                    singleMappings.put(key(sourceBytes.length, toCode(sourceBytes)), text);
+                }
+            }
+            count++;
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private int readBfRanges(PdfParser parser) throws IOException {
+        int count = 0;
+        while (true) {
+            Object low = parser.nextObject();
+            if (!(low instanceof byte[])) {
+                return count;
+            }
+            Object high = parser.nextObject();
+            Object target = parser.nextObject();
+            byte[] lowBytes = (byte[]) low;
+            if (high instanceof byte[] && lowBytes.length > 0 && lowBytes.length <= 4) {
+                int lowCode = toCode(lowBytes);
+                int highCode = toCode((byte[]) high);
+                if (target instanceof byte[]) {
+                    rangeMappings.add(new Range(lowBytes.length, lowCode, highCode, (byte[]) target, null));
+                } else if (target instanceof List) {
+                    rangeMappings.add(new Range(lowBytes.length, lowCode, highCode, null, (List<Object>) target));
+                }
+            }
+            count++;
+        }
+    }
+    
+    /**
+     * 是否定义了编码空间
+     *
+     * @return 有codespacerange定义时返回true
+     */
+    public boolean hasCodespaceRanges() {
+        return !codespaceRanges.isEmpty();
+    }
+    
+    /**
+     * 按编码空间确定从指定位置开始的编码字节数
+     *
+     * @param bytes 字符串字节
+     * @param offset 起始位置
+     * @return 编码字节数，没有匹配的编码空间时返回0
+     */
+    public int codeLength(byte[] bytes, int offset) {
+        for (int length = 1; length <= 4 && offset + length <= bytes.length; length++) {
+            int code = toCode(bytes, offset, length);
+            for (int[] range : codespaceRanges) {
+                if (range[0] == length && code >= range[1] && code <= range[2]) {
+                    return length;
+                }
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * 查找编码对应的Unicode文本
+     *
+     * @param code 字符编码
+     * @param length 编码字节数
+     * @return Unicode文本，没有映射时返回null
+     */
+    public String lookup(int code, int length) {
+        String text = singleMappings.get(key(length, code));
+        if (text != null) {
+            return text;
+        }
+        for (Range range : rangeMappings) {
+            if (range.length != length || code < range.low || code > range.high) {
+                continue;
+            }
+            int delta = code - range.low;
+            if (range.targets != null) {
+                return delta < range.targets.size() ? targetToString(range.targets.get(delta)) : null;
+            }
+            // 目标字符串的最后一个字节随编码递增
+            byte[] target = range.baseTarget.clone();
+            if (target.length == 0) {
+                return null;
+            }
+            int last = target.length - 1;
+            int value = (target[last] & 0xFF) + delta;
+            target[last] = (byte) value;
+            if (last > 0 && value > 0xFF) {
+                target[last - 1] = (byte) ((target[last - 1] & 0xFF) + (value >> 8));
+            }
+            return decodeUtf16(target);
+        }
+        return null;
+    }
+    
+    private static String targetToString(Object target) {
+        if (target instanceof byte[]) {
+            return decodeUtf16((byte[]) target);
+        }
+        if (target instanceof PdfParser.Name) {
+            // 少数生成器以字形名作为目标
+            return PdfFont.glyphNameToUnicode(((PdfParser.Name) target).value);
+        }
+        return null;
+    }
+    
+    /**
+     * 目标字符串按UTF-16BE解码，单字节目标按Latin-1处理
+     */
+    private static String decodeUtf16(byte[] bytes) {
+        if (bytes.length == 1) {
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+        return new String(bytes, StandardCharsets.UTF_16BE);
+    }
+    
+    static int toCode(byte[] bytes) {
+        return toCode(bytes, 0, Math.min(4, bytes.length));
+    }
+    
+    static int toCode(byte[] bytes, int offset, int length) {
+        int code = 0;
+        for (int i = 0; i < length; i++) {
+            code = (code << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return code;
+    }
+    
+    private static long key(int length, int code) {
+        return ((long) length << 32) | (code & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,897 @@
+package com.deepreadx.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * PDF文件结构读取器：交叉引用表、间接对象、流解码和页面树
+ *
+ * <p>支持传统交叉引用表、交叉引用流（PDF 1.5）和对象流，支持增量更新的/Prev链。
+ * 交叉引用损坏时扫描整个文件重建对象偏移。流过滤器支持FlateDecode（含PNG预测器）、
+ * ASCIIHexDecode和ASCII85Decode，足以读取文本内容流和ToUnicode映射；图像类过滤器不解码。</p>
+ *
+ * <p>本类不是线程安全的。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PdfFile {
+    /** PDF中的null对象 */
+    public static final Object NULL = new Object() {
+        @Override
+        public String toString() {
+            return "null";
+        }
+    };
+    
+    // 只在文件末尾这么多字节内查找startxref
+    private static final int STARTXREF_SEARCH_WINDOW = 2048;
+    
+    // 单个流解码后的最大字节数，防止压缩炸弹
+    private static final int MAX_DECODED_BYTES = 64 * 1024 * 1024;
+    
+    // 缓存的已解析对象数
+    private static final int MAX_CACHED_OBJECTS = 4096;
+    
+    // 页面树的最大深度
+    private static final int MAX_PAGE_TREE_DEPTH = 64;
+    
+    private final ByteBuffer data;
+    private final PdfParser parser;
+    private final Map<Integer, Integer> offsets = new HashMap<>();
+    private final Map<Integer, int[]> compressed = new HashMap<>();
+    private final Map<Integer, Object> objectCache;
+    private final Map<Integer, Object[]> objectStreams = new HashMap<>();
+    private Map<String, Object> trailer;
+    private List<Page> pages;
+    
+    /**
+     * 页面及其继承的资源字典
+     */
+    public static final class Page {
+        public final Map<String, Object> dict;
+        public final Map<String, Object> resources;
+        
+        Page(Map<String, Object> dict, Map<String, Object> resources) {
+            this.dict = dict;
+            this.resources = resources;
+        }
+    }
+    
+    /**
+     * 构造函数，读取交叉引用信息
+     *
+     * @param data PDF文件内容
+     * @throws IOException 当文件不是有效的PDF时
+     */
+    public PdfFile(ByteBuffer data) throws IOException {
+        this.data = data;
+        this.parser = new PdfParser(data);
+        this.objectCache = new LinkedHashMap<Integer, Object>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object> eldest) {
+                return size() > MAX_CACHED_OBJECTS;
+            }
+        };
+        
+        try {
+            readCrossReferences();
+        } catch (IOException | RuntimeException e) {
+            offsets.clear();
+            compressed.clear();
+            trailer = null;
+        }
+        if (trailer == null || !(resolve(trailer.get("Root")) instanceof Map)) {
+            // 交叉引用缺失或损坏，扫描全文重建
+            rebuildCrossReferences();
+        }
+        if (trailer == null || !(resolve(trailer.get("Root")) instanceof Map)) {
+            throw new IOException("找不到PDF文档目录");
+        }
+        if (trailer.containsKey("Encrypt")) {
+            throw new IOException("不支持加密的PDF");
+        }
+    }
+    
+    /**
+     * 获取页数
+     *
+     * @return 页面树中的页数
+     */
+    public int getPageCount() {
+        return getPages().size();
+    }
+    
+    /**
+     * 获取页面
+     *
+     * @param pageIndex 页码索引，从0开始
+     * @return 页面
+     * @throws IndexOutOfBoundsException 当页码超出范围时
+     */
+    public Page getPage(int pageIndex) {
+        return getPages().get(pageIndex);
+    }
+    
+    /**
+     * 解析间接引用，非引用对象原样返回
+     *
+     * @param object 对象或引用
+     * @return 引用指向的对象，找不到时返回{@link #NULL}
+     */
+    public Object resolve(Object object) {
+        int guard = 0;
+        while (object instanceof PdfParser.Ref && guard++ < 8) {
+            object = getObject(((PdfParser.Ref) object).number);
+        }
+        return object;
+    }
+    
+    /**
+     * 获取字典中的字典值
+     *
+     * @return 字典，不存在或类型不符时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getDict(Map<String, Object> dict, String key) {
+        Object value = resolve(dict.get(key));
+        if (value instanceof Map) {
+            return (Map<String, Object>) value;
+        }
+        if (value instanceof PdfParser.Stream) {
+            return ((PdfParser.Stream) value).dict;
+        }
+        return null;
+    }
+    
+    /**
+     * 获取字典中的数组值
+     *
+     * @return 数组，不存在或类型不符时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> getArray(Map<String, Object> dict, String key) {
+        Object value = resolve(dict.get(key));
+        return value instanceof List ? (List<Object>) value : null;
+    }
+    
+    /**
+     * 获取字典中的名称值
+     *
+     * @return 名称字符串，不存在或类型不符时返回null
+     */
+    public String getName(Map<String, Object> dict, String key) {
+        Object value = resolve(dict.get(key));
+        return value instanceof PdfParser.Name ? ((PdfParser.Name) value).value : null;
+    }
+    
+    /**
+     * 获取字典中的文本字符串值，带UTF-16BE字节序标记时按UTF-16BE解码，否则按Latin-1解码
+     *
+     * @return 字符串，不存在或类型不符时返回null
+     */
+    public String getTextString(Map<String, Object> dict, String key) {
+        Object value = resolve(dict.get(key));
+        if (!(value instanceof byte[])) {
+            return null;
+        }
+        byte[] bytes = (byte[]) value;
+        if (bytes.length >= 2 && (bytes[0] & 0xFF) == 0xFE && (bytes[1] & 0xFF) == 0xFF) {
+            return new String(bytes, 2, bytes.length - 2, StandardCharsets.UTF_16BE);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+    
+    /**
+     * 获取文档目录字典
+     *
+     * @return 文档目录，构造成功后不为null
+     */
+    public Map<String, Object> getCatalog() {
+        return getDict(trailer, "Root");
+    }
+    
+    /**
+     * 获取字典中的整数值
+     *
+     * @return 整数，不存在或类型不符时返回默认值
+     */
+    public int getInt(Map<String, Object> dict, String key, int defaultValue) {
+        Object value = resolve(dict.get(key));
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+    
+    /**
+     * 获取页面内容流解码后的数据，多个内容流按顺序拼接
+     *
+     * @param page 页面
+     * @return 内容流数据，页面没有内容时返回空数组
+     */
+    public byte[] getPageContents(Page page) {
+        Object contents = resolve(page.dict.get("Contents"));
+        List<Object> parts = contents instanceof List ? castList(contents) : Collections.singletonList(contents);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Object part : parts) {
+            Object stream = resolve(part);
+            if (!(stream instanceof PdfParser.Stream)) {
+                continue;
+            }
+            try {
+                byte[] decoded = decodeStream((PdfParser.Stream) stream);
+                out.write(decoded, 0, decoded.length);
+                // 内容流之间可能在操作符中间断开，以空白分隔
+                out.write('\n');
+            } catch (IOException e) {
+                // 跳过无法解码的部分，保留其余内容
+            }
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * 按过滤器链解码流数据
+     *
+     * @param stream 流对象
+     * @return 解码后的数据
+     * @throws IOException 当过滤器不受支持或数据损坏时
+     */
+    public byte[] decodeStream(PdfParser.Stream stream) throws IOException {
+        byte[] bytes = new byte[stream.length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = data.get(stream.offset + i);
+        }
+        
+        Object filter = resolve(stream.dict.get("Filter"));
+        Object params = resolve(stream.dict.get("DecodeParms"));
+        List<Object> filters = filter instanceof List ? castList(filter) : Collections.singletonList(filter);
+        for (int i = 0; i < filters.size(); i++) {
+            Object name = resolve(filters.get(i));
+            if (!(name instanceof PdfParser.Name)) {
+                continue;
+            }
+            Object param = params instanceof List
+                    ? (i < castList(params).size() ? resolve(castList(params).get(i)) : null)
+                    : params;
+            bytes = applyFilter(((PdfParser.Name) name).value, bytes, param);
+        }
+        return bytes;
+    }
+    
+    /**
+     * 执行单个过滤器
+     */
+    @SuppressWarnings("unchecked")
+    private byte[] applyFilter(String filter, byte[] bytes, Object params) throws IOException {
+        switch (filter) {
+            case "FlateDecode":
+            case "Fl":
+                byte[] inflated = inflate(bytes);
+                if (params instanceof Map) {
+                    return applyPredictor(inflated, (Map<String, Object>) params);
+                }
+                return inflated;
+            case "ASCIIHexDecode":
+            case "AHx":
+                Object hex = new PdfParser(wrapHexString(bytes)).nextObject();
+                return hex instanceof byte[] ? (byte[]) hex : new byte[0];
+            case "ASCII85Decode":
+            case "A85":
+                return decodeAscii85(bytes);
+            default:
+                throw new IOException("不支持的流过滤器: " + filter);
+        }
+    }
+    
+    /**
+     * 为ASCIIHex数据加上尖括号，复用十六进制字符串解析
+     */
+    private static byte[] wrapHexString(byte[] bytes) {
+        byte[] wrapped = new byte[bytes.length + 2];
+        wrapped[0] = '<';
+        System.arraycopy(bytes, 0, wrapped, 1, bytes.length);
+        wrapped[wrapped.length - 1] = '>';
+        return wrapped;
+    }
+    
+    /**
+     * zlib解压，数据截断时返回已解压的部分
+     */
+    private static byte[] inflate(byte[] bytes) throws IOException {
+        Inflater inflater = new Inflater();
+        inflater.setInput(bytes);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length * 3));
+        byte[] buffer = new byte[8192];
+        try {
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0) {
+                    if (inflater.needsInput() || inflater.needsDictionary()) {
+                        break;
+                    }
+                    continue;
+                }
+                out.write(buffer, 0, count);
+                if (out.size() > MAX_DECODED_BYTES) {
+                    throw new IOException("流数据过大");
+                }
+            }
+        } catch (DataFormatException e) {
+            if (out.size() == 0) {
+                throw new IOException("流数据损坏", e);
+            }
+        } finally {
+            inflater.end();
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * 还原PNG预测器（Predictor 10-15），其余预测器原样返回
+     */
+    private byte[] applyPredictor(byte[] bytes, Map<String, Object> params) {
+        int predictor = getInt(params, "Predictor", 1);
+        if (predictor < 10) {
+            return bytes;
+        }
+        int colors = getInt(params, "Colors", 1);
+        int bitsPerComponent = getInt(params, "BitsPerComponent", 8);
+        int columns = getInt(params, "Columns", 1);
+        int bytesPerPixel = Math.max(1, (colors * bitsPerComponent + 7) / 8);
+        int rowLength = (columns * colors * bitsPerComponent + 7) / 8;
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        byte[] previous = new byte[rowLength];
+        byte[] row = new byte[rowLength];
+        for (int offset = 0; offset < bytes.length; offset += rowLength + 1) {
+            int type = bytes[offset] & 0xFF;
+            int available = Math.min(rowLength, bytes.length - offset - 1);
+            for (int i = 0; i < available; i++) {
+                int raw = bytes[offset + 1 + i] & 0xFF;
+                int left = i >= bytesPerPixel ? row[i - bytesPerPixel] & 0xFF : 0;
+                int up = previous[i] & 0xFF;
+                int upLeft = i >= bytesPerPixel ? previous[i - bytesPerPixel] & 0xFF : 0;
+                int value;
+                switch (type) {
+                    case 1:
+                        value = raw + left;
+                        break;
+                    case 2:
+                        value = raw + up;
+                        break;
+                    case 3:
+                        value = raw + ((left + up) >> 1);
+                        break;
+                    case 4:
+                        value = raw + paeth(left, up, upLeft);
+                        break;
+                    default:
+                        value = raw;
+                        break;
+                }
+                row[i] = (byte) value;
+            }
+            out.write(row, 0, available);
+            byte[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        return out.toByteArray();
+    }
+    
+    private static int paeth(int left, int up, int upLeft) {
+        int estimate = left + up - upLeft;
+        int distanceLeft = Math.abs(estimate - left);
+        int distanceUp = Math.abs(estimate - up);
+        int distanceUpLeft = Math.abs(estimate - upLeft);
+        if (distanceLeft <= distanceUp && distanceLeft <= distanceUpLeft) {
+            return left;
+        }
+        return distanceUp <= distanceUpLeft ? up : upLeft;
+    }
+    
+    /**
+     * ASCII85解码
+     */
+    private static byte[] decodeAscii85(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        long tuple = 0;
+        int count = 0;
+        for (byte b : bytes) {
+            int c = b & 0xFF;
+            if (c == '~') {
+                break;
+            }
+            if (PdfParser.isWhitespace(c)) {
+                continue;
+            }
+            if (c == 'z' && count == 0) {
+                out.write(0);
+                out.write(0);
+                out.write(0);
+                out.write(0);
+                continue;
+            }
+            if (c < '!' || c > 'u') {
+                continue;
+            }
+            tuple = tuple * 85 + (c - '!');
+            if (++count == 5) {
+                for (int shift = 24; shift >= 0; shift -= 8) {
+                    out.write((int) (tuple >> shift) & 0xFF);
+                }
+                tuple = 0;
+                count = 0;
+            }
+        }
+        if (count > 1) {
+            // 不足5个字符的末组按'u'补齐
+            for (int i = count; i < 5; i++) {
+                tuple = tuple * 85 + 84;
+            }
+            for (int i = 0; i < count - 1; i++) {
+                out.write((int) (tuple >> (24 - 8 * i)) & 0xFF);
+            }
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * 获取间接对象
+     *
+     * @param number 对象号
+     * @return 对象，找不到时返回{@link #NULL}
+     */
+    Object getObject(int number) {
+        Object cached = objectCache.get(number);
+        if (cached != null) {
+            return cached;
+        }
+        
+        Object object = PdfFile.NULL;
+        try {
+            Integer offset = offsets.get(number);
+            int[] location = compressed.get(number);
+            if (offset != null) {
+                object = readIndirectObject(offset, number);
+            } else if (location != null) {
+                object = readFromObjectStream(location[0], location[1]);
+            }
+        } catch (IOException | RuntimeException e) {
+            object = PdfFile.NULL;
+        }
+        objectCache.put(number, object);
+        return object;
+    }
+    
+    /**
+     * 读取"对象号 代数 obj"形式的间接对象，流对象只记录数据位置
+     */
+    private Object readIndirectObject(int offset, int expectedNumber) throws IOException {
+        parser.setPosition(offset);
+        Object number = parser.nextObject();
+        Object generation = parser.nextObject();
+        Object keyword = parser.nextObject();
+        if (!(number instanceof Integer) || !(generation instanceof Integer)
+                || !(keyword instanceof PdfParser.Operator) || !"obj".equals(keyword.toString())) {
+            throw new IOException("偏移处不是间接对象: " + offset);
+        }
+        if (expectedNumber >= 0 && (Integer) number != expectedNumber) {
+            throw new IOException("对象号不匹配: " + number + " != " + expectedNumber);
+        }
+        
+        Object object = parser.nextObject();
+        if (!(object instanceof Map)) {
+            return object == null ? PdfFile.NULL : object;
+        }
+        
+        parser.skipWhitespace();
+        if (!parser.startsWith("stream")) {
+            return object;
+        }
+        int position = parser.getPosition() + "stream".length();
+        // stream关键字之后是CRLF或LF
+        if (parser.peekAt(position) == '\r') {
+            position++;
+        }
+        if (parser.peekAt(position) == '\n') {
+            position++;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> dict = (Map<String, Object>) object;
+        return new PdfParser.Stream(dict, position, streamLength(dict, position));
+    }
+    
+    /**
+     * 确定流数据长度，/Length不可信时查找endstream
+     */
+    private int streamLength(Map<String, Object> dict, int start) {
+        Object lengthObject = dict.get("Length");
+        if (lengthObject instanceof PdfParser.Ref) {
+            // 解析引用会移动共享解析器的位置，流起点已单独记录
+            lengthObject = resolve(lengthObject);
+        }
+        if (lengthObject instanceof Number) {
+            int length = ((Number) lengthObject).intValue();
+            int end = start + length;
+            if (length >= 0 && end <= data.limit()) {
+                int check = end;
+                while (check < data.limit() && PdfParser.isWhitespace(parser.peekAt(check))) {
+                    check++;
+                }
+                if (parser.matchesAt(check, "endstream")) {
+                    return length;
+                }
+            }
+        }
+        
+        int end = indexOf("endstream", start);
+        if (end < 0) {
+            return data.limit() - start;
+        }
+        // 去掉endstream之前的换行
+        if (end > start && parser.peekAt(end - 1) == '\n') {
+            end--;
+        }
+        if (end > start && parser.peekAt(end - 1) == '\r') {
+            end--;
+        }
+        return end - start;
+    }
+    
+    /**
+     * 从对象流中读取对象
+     */
+    private Object readFromObjectStream(int streamNumber, int index) throws IOException {
+        Object[] objects = objectStreams.get(streamNumber);
+        if (objects == null) {
+            objects = parseObjectStream(streamNumber);
+            objectStreams.put(streamNumber, objects);
+        }
+        if (index < 0 || index >= objects.length || objects[index] == null) {
+            return PdfFile.NULL;
+        }
+        return objects[index];
+    }
+    
+    /**
+     * 解析对象流中的全部对象
+     */
+    private Object[] parseObjectStream(int streamNumber) throws IOException {
+        Object stream = getObject(streamNumber);
+        if (!(stream instanceof PdfParser.Stream)) {
+            throw new IOException("对象流不存在: " + streamNumber);
+        }
+        PdfParser.Stream objectStream = (PdfParser.Stream) stream;
+        int count = getInt(objectStream.dict, "N", 0);
+        int first = getInt(objectStream.dict, "First", 0);
+        byte[] decoded = decodeStream(objectStream);
+        
+        PdfParser streamParser = new PdfParser(decoded);
+        int[] relativeOffsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            streamParser.nextObject();
+            Object offset = streamParser.nextObject();
+            relativeOffsets[i] = offset instanceof Integer ? (Integer) offset : -1;
+        }
+        
+        Object[] objects = new Object[count];
+        for (int i = 0; i < count; i++) {
+            if (relativeOffsets[i] < 0) {
+                continue;
+            }
+            streamParser.setPosition(first + relativeOffsets[i]);
+            objects[i] = streamParser.nextObject();
+        }
+        return objects;
+    }
+    
+    /**
+     * 从startxref开始读取交叉引用，沿/Prev链读取增量更新前的版本
+     */
+    private void readCrossReferences() throws IOException {
+        int searchStart = Math.max(0, data.limit() - STARTXREF_SEARCH_WINDOW);
+        int startxref = lastIndexOf("startxref", searchStart);
+        if (startxref < 0) {
+            throw new IOException("找不到startxref");
+        }
+        parser.setPosition(startxref + "startxref".length());
+        Object offset = parser.nextObject();
+        if (!(offset instanceof Integer)) {
+            throw new IOException("startxref格式错误");
+        }
+        
+        Set<Integer> visited = new HashSet<>();
+        Integer next = (Integer) offset;
+        while (next != null && next >= 0 && next < data.limit() && visited.add(next)) {
+            Map<String, Object> sectionTrailer = readCrossReferenceSection(next);
+            if (trailer == null) {
+                trailer = sectionTrailer;
+            }
+            // 混合型文件在传统表之外还有交叉引用流
+            Object xrefStream = sectionTrailer.get("XRefStm");
+            if (xrefStream instanceof Integer && visited.add((Integer) xrefStream)) {
+                readCrossReferenceSection((Integer) xrefStream);
+            }
+            Object prev = sectionTrailer.get("Prev");
+            next = prev instanceof Integer ? (Integer) prev : null;
+        }
+    }
+    
+    /**
+     * 读取一段交叉引用，较新的条目优先，已有的条目不被覆盖
+     *
+     * @return 该段的trailer字典
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readCrossReferenceSection(int offset) throws IOException {
+        parser.setPosition(offset);
+        parser.skipWhitespace();
+        if (!parser.startsWith("xref")) {
+            return readCrossReferenceStream(offset);
+        }
+        
+        parser.setPosition(parser.getPosition() + "xref".length());
+        while (true) {
+            Object start = parser.nextObject();
+            if (start instanceof PdfParser.Operator && "trailer".equals(start.toString())) {
+                break;
+            }
+            Object count = parser.nextObject();
+            if (!(start instanceof Integer) || !(count instanceof Integer)) {
+                throw new IOException("交叉引用表格式错误");
+            }
+            for (int i = 0; i < (Integer) count; i++) {
+                Object entryOffset = parser.nextObject();
+                parser.nextObject();
+                Object type = parser.nextObject();
+                int number = (Integer) start + i;
+                if (type instanceof PdfParser.Operator && "n".equals(type.toString())
+                        && entryOffset instanceof Integer && !isKnown(number)) {
+                    offsets.put(number, (Integer) entryOffset);
+                } else if (!isKnown(number)) {
+                    // 已释放的对象，占位以免被更早的版本覆盖
+                    offsets.put(number, -1);
+                }
+            }
+        }
+        Object dict = parser.nextObject();
+        if (!(dict instanceof Map)) {
+            throw new IOException("trailer格式错误");
+        }
+        return (Map<String, Object>) dict;
+    }
+    
+    /**
+     * 读取交叉引用流
+     */
+    private Map<String, Object> readCrossReferenceStream(int offset) throws IOException {
+        Object object = readIndirectObject(offset, -1);
+        if (!(object instanceof PdfParser.Stream)) {
+            throw new IOException("交叉引用流格式错误");
+        }
+        PdfParser.Stream stream = (PdfParser.Stream) object;
+        List<Object> widths = getArray(stream.dict, "W");
+        if (widths == null || widths.size() < 3) {
+            throw new IOException("交叉引用流缺少/W");
+        }
+        int[] w = new int[3];
+        for (int i = 0; i < 3; i++) {
+            w[i] = ((Number) resolve(widths.get(i))).intValue();
+        }
+        List<Object> index = getArray(stream.dict, "Index");
+        if (index == null) {
+            index = new ArrayList<>();
+            index.add(0);
+            index.add(getInt(stream.dict, "Size", 0));
+        }
+        
+        byte[] entries = decodeStream(stream);
+        int entryLength = w[0] + w[1] + w[2];
+        int position = 0;
+        for (int i = 0; i + 1 < index.size(); i += 2) {
+            int start = ((Number) index.get(i)).intValue();
+            int count = ((Number) index.get(i + 1)).intValue();
+            for (int j = 0; j < count && position + entryLength <= entries.length; j++) {
+                int type = w[0] == 0 ? 1 : (int) readField(entries, position, w[0]);
+                long field2 = readField(entries, position + w[0], w[1]);
+                long field3 = readField(entries, position + w[0] + w[1], w[2]);
+                position += entryLength;
+                
+                int number = start + j;
+                if (isKnown(number)) {
+                    continue;
+                }
+                if (type == 1) {
+                    offsets.put(number, (int) field2);
+                } else if (type == 2) {
+                    compressed.put(number, new int[] {(int) field2, (int) field3});
+                } else {
+                    offsets.put(number, -1);
+                }
+            }
+        }
+        return stream.dict;
+    }
+    
+    private boolean isKnown(int number) {
+        return offsets.containsKey(number) || compressed.containsKey(number);
+    }
+    
+    private static long readField(byte[] bytes, int offset, int width) {
+        long value = 0;
+        for (int i = 0; i < width; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+    
+    /**
+     * 扫描全文查找"对象号 代数 obj"，重建对象偏移；后出现的对象覆盖先出现的
+     */
+    @SuppressWarnings("unchecked")
+    private void rebuildCrossReferences() {
+        offsets.clear();
+        compressed.clear();
+        objectCache.clear();
+        objectStreams.clear();
+        trailer = null;
+        
+        List<Integer> objectStreamNumbers = new ArrayList<>();
+        int position = 0;
+        while ((position = indexOf("obj", position)) >= 0) {
+            int objectStart = findObjectHeaderStart(position);
+            position += 3;
+            if (objectStart < 0) {
+                continue;
+            }
+            parser.setPosition(objectStart);
+            try {
+                Object number = parser.nextObject();
+                if (number instanceof Integer) {
+                    offsets.put((Integer) number, objectStart);
+                }
+            } catch (IOException e) {
+                // 忽略
+            }
+        }
+        
+        for (Map.Entry<Integer, Integer> entry : new ArrayList<>(offsets.entrySet())) {
+            Object object = getObject(entry.getKey());
+            if (object instanceof PdfParser.Stream
+                    && "ObjStm".equals(getName(((PdfParser.Stream) object).dict, "Type"))) {
+                objectStreamNumbers.add(entry.getKey());
+            } else if (object instanceof Map && "Catalog".equals(getName((Map<String, Object>) object, "Type"))) {
+                trailer = new HashMap<>();
+                trailer.put("Root", new PdfParser.Ref(entry.getKey(), 0));
+            }
+        }
+        
+        // 对象流中的对象只在没有直接定义时登记
+        for (int streamNumber : objectStreamNumbers) {
+            try {
+                Object[] objects = parseObjectStream(streamNumber);
+                PdfParser.Stream stream = (PdfParser.Stream) getObject(streamNumber);
+                PdfParser headerParser = new PdfParser(decodeStream(stream));
+                for (int i = 0; i < objects.length; i++) {
+                    Object number = headerParser.nextObject();
+                    headerParser.nextObject();
+                    if (number instanceof Integer && !isKnown((Integer) number)) {
+                        compressed.put((Integer) number, new int[] {streamNumber, i});
+                        if (objects[i] instanceof Map
+                                && "Catalog".equals(getName((Map<String, Object>) objects[i], "Type"))
+                                && trailer == null) {
+                            trailer = new HashMap<>();
+                            trailer.put("Root", new PdfParser.Ref((Integer) number, 0));
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // 跳过损坏的对象流
+            }
+        }
+        objectCache.clear();
+    }
+    
+    /**
+     * 从obj关键字向前查找"对象号 代数 "的起始位置
+     *
+     * @return 对象头的起始偏移，不是对象头时返回-1
+     */
+    private int findObjectHeaderStart(int keywordOffset) {
+        if (!PdfParser.isWhitespace(parser.peekAt(keywordOffset - 1))) {
+            return -1;
+        }
+        int position = keywordOffset - 1;
+        for (int field = 0; field < 2; field++) {
+            while (position >= 0 && PdfParser.isWhitespace(parser.peekAt(position))) {
+                position--;
+            }
+            int end = position;
+            while (position >= 0 && parser.peekAt(position) >= '0' && parser.peekAt(position) <= '9') {
+                position--;
+            }
+            if (position == end) {
+                return -1;
+            }
+        }
+        int c = parser.peekAt(position);
+        return c < 0 || PdfParser.isWhitespace(c) || PdfParser.isDelimiter(c) ? position + 1 : -1;
+    }
+    
+    /**
+     * 按文档顺序收集页面树中的页面，处理资源继承
+     */
+    private List<Page> getPages() {
+        if (pages != null) {
+            return pages;
+        }
+        pages = new ArrayList<>();
+        Map<String, Object> catalog = getCatalog();
+        Map<String, Object> root = catalog != null ? getDict(catalog, "Pages") : null;
+        if (root != null) {
+            collectPages(root, null, Collections.newSetFromMap(new IdentityHashMap<>()), 0);
+        }
+        return pages;
+    }
+    
+    private void collectPages(Map<String, Object> node, Map<String, Object> inheritedResources,
+                              Set<Map<String, Object>> visited, int depth) {
+        if (depth > MAX_PAGE_TREE_DEPTH || !visited.add(node)) {
+            return;
+        }
+        Map<String, Object> resources = getDict(node, "Resources");
+        if (resources == null) {
+            resources = inheritedResources;
+        }
+        
+        List<Object> kids = getArray(node, "Kids");
+        if (kids == null || "Page".equals(getName(node, "Type"))) {
+            pages.add(new Page(node, resources != null ? resources : Collections.emptyMap()));
+            return;
+        }
+        for (Object kid : kids) {
+            Object child = resolve(kid);
+            if (child instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> childNode = (Map<String, Object>) child;
+                collectPages(childNode, resources, visited, depth + 1);
+            }
+        }
+    }
+    
+    private int indexOf(String text, int from) {
+        for (int i = Math.max(0, from); i + text.length() <= data.limit(); i++) {
+            if (parser.matchesAt(i, text)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private int lastIndexOf(String text, int from) {
+        for (int i = data.limit() - text.length(); i >= from; i--) {
+            if (parser.matchesAt(i, text)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static List<Object> castList(Object object) {
+        return (List<Object>) object;
+    }
+}
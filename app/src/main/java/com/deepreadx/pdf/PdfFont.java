@@ -0,0 +1,330 @@
+package com.deepreadx.pdf;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PDF字体的编码解析，把显示文本操作符中的字节转换为Unicode文本和字形宽度
+ *
+ * <p>优先使用ToUnicode映射；没有映射时，简单字体按/Encoding和/Differences查字形名，
+ * 使用Uni*-UCS2/UTF16编码的复合字体直接按UTF-16解码。Identity-H等仅有字形号的复合字体
+ * 缺少ToUnicode时无法还原文本，对应字符计为无法映射。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PdfFont {
+    /** 无法映射的字符 */
+    public static final char UNMAPPED = '�';
+    
+    // 缺少宽度信息时使用的默认宽度（千分之一字号）
+    private static final float DEFAULT_WIDTH = 500f;
+    
+    // WinAnsiEncoding中0x80-0x9F区间的字符，其余区间与Latin-1相同
+    private static final char[] WIN_ANSI_HIGH = {
+            '€', UNMAPPED, '‚', 'ƒ', '„', '…', '†', '‡',
+            'ˆ', '‰', 'Š', '‹', 'Œ', UNMAPPED, 'Ž', UNMAPPED,
+            UNMAPPED, '‘', '’', '“', '”', '•', '–', '—',
+            '˜', '™', 'š', '›', 'œ', UNMAPPED, 'ž', 'Ÿ'
+    };
+    
+    // 常见的非字母数字字形名
+    private static final Map<String, String> GLYPH_NAMES = new HashMap<>();
+    
+    static {
+        String[] names = {
+                "space", " ", "exclam", "!", "quotedbl", "\"", "numbersign", "#", "dollar", "$",
+                "percent", "%", "ampersand", "&", "quotesingle", "'", "parenleft", "(", "parenright", ")",
+                "asterisk", "*", "plus", "+", "comma", ",", "hyphen", "-", "period", ".", "slash", "/",
+                "zero", "0", "one", "1", "two", "2", "three", "3", "four", "4", "five", "5", "six", "6",
+                "seven", "7", "eight", "8", "nine", "9", "colon", ":", "semicolon", ";", "less", "<",
+                "equal", "=", "greater", ">", "question", "?", "at", "@", "bracketleft", "[",
+                "backslash", "\\", "bracketright", "]", "asciicircum", "^", "underscore", "_",
+                "grave", "`", "braceleft", "{", "bar", "|", "braceright", "}", "asciitilde", "~",
+                "quoteleft", "‘", "quoteright", "’", "quotedblleft", "“",
+                "quotedblright", "”", "quotesinglbase", "‚", "quotedblbase", "„",
+                "endash", "–", "emdash", "—", "bullet", "•", "ellipsis", "…",
+                "dagger", "†", "daggerdbl", "‡", "degree", "°", "copyright", "©",
+                "registered", "®", "trademark", "™", "section", "§", "paragraph", "¶",
+                "minus", "−", "multiply", "×", "divide", "÷", "plusminus", "±",
+                "fi", "fi", "fl", "fl", "ff", "ff", "ffi", "ffi", "ffl", "ffl",
+                "nbspace", " ", "nonbreakingspace", " "
+        };
+        for (int i = 0; i + 1 < names.length; i += 2) {
+            GLYPH_NAMES.put(names[i], names[i + 1]);
+        }
+    }
+    
+    private final PdfCMap toUnicode;
+    private final boolean composite;
+    private final boolean utf16Encoding;
+    private final String[] simpleEncoding;
+    private final Map<Integer, Float> widths = new HashMap<>();
+    private final float defaultWidth;
+    private final float widthScale;
+    
+    private PdfFont(PdfCMap toUnicode, boolean composite, boolean utf16Encoding,
+                    String[] simpleEncoding, float defaultWidth, float widthScale) {
+        this.toUnicode = toUnicode;
+        this.composite = composite;
+        this.utf16Encoding = utf16Encoding;
+        this.simpleEncoding = simpleEncoding;
+        this.defaultWidth = defaultWidth;
+        this.widthScale = widthScale;
+    }
+    
+    /**
+     * 由字体字典创建字体
+     *
+     * @param file PDF文件
+     * @param fontDict 字体字典
+     * @return 字体
+     */
+    public static PdfFont create(PdfFile file, Map<String, Object> fontDict) {
+        PdfCMap toUnicode = null;
+        Object toUnicodeStream = file.resolve(fontDict.get("ToUnicode"));
+        if (toUnicodeStream instanceof PdfParser.Stream) {
+            try {
+                toUnicode = PdfCMap.parse(file.decodeStream((PdfParser.Stream) toUnicodeStream));
+            } catch (IOException | RuntimeException e) {
+                // 映射损坏时退回编码表
+                toUnicode = null;
+            }
+        }
+        
+        String subtype = file.getName(fontDict, "Subtype");
+        if ("Type0".equals(subtype)) {
+            String encoding = file.getName(fontDict, "Encoding");
+            boolean utf16 = encoding != null && encoding.startsWith("Uni")
+                    && (encoding.contains("UCS2") || encoding.contains("UTF16"));
+            Map<String, Object> descendant = null;
+            List<Object> descendants = file.getArray(fontDict, "DescendantFonts");
+            if (descendants != null && !descendants.isEmpty() && file.resolve(descendants.get(0)) instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> first = (Map<String, Object>) file.resolve(descendants.get(0));
+                descendant = first;
+            }
+            float defaultWidth = descendant != null ? file.getInt(descendant, "DW", 1000) : 1000f;
+            PdfFont font = new PdfFont(toUnicode, true, utf16, null, defaultWidth, 1f);
+            if (descendant != null) {
+                font.readCidWidths(file, file.getArray(descendant, "W"));
+            }
+            return font;
+        }
+        
+        float widthScale = 1f;
+        if ("Type3".equals(subtype)) {
+            // Type3字体的宽度位于字形空间，按FontMatrix换算为千分之一字号
+            List<Object> matrix = file.getArray(fontDict, "FontMatrix");
+            if (matrix != null && !matrix.isEmpty() && file.resolve(matrix.get(0)) instanceof Number) {
+                widthScale = ((Number) file.resolve(matrix.get(0))).floatValue() * 1000f;
+            }
+        }
+        float missingWidth = DEFAULT_WIDTH;
+        Map<String, Object> descriptor = file.getDict(fontDict, "FontDescriptor");
+        if (descriptor != null) {
+            missingWidth = file.getInt(descriptor, "MissingWidth", (int) DEFAULT_WIDTH);
+        }
+        PdfFont font = new PdfFont(toUnicode, false, false, readSimpleEncoding(file, fontDict),
+                missingWidth, widthScale);
+        font.readSimpleWidths(file, fontDict);
+        return font;
+    }
+    
+    /**
+     * 读取简单字体的编码，/Differences覆盖基础编码中的对应位置
+     */
+    private static String[] readSimpleEncoding(PdfFile file, Map<String, Object> fontDict) {
+        String[] encoding = new String[256];
+        for (int code = 0; code < 256; code++) {
+            encoding[code] = String.valueOf(winAnsiChar(code));
+        }
+        
+        Object encodingObject = file.resolve(fontDict.get("Encoding"));
+        if (encodingObject instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> encodingDict = (Map<String, Object>) encodingObject;
+            List<Object> differences = file.getArray(encodingDict, "Differences");
+            if (differences != null) {
+                int code = 0;
+                for (Object item : differences) {
+                    Object value = file.resolve(item);
+                    if (value instanceof Number) {
+                        code = ((Number) value).intValue();
+                    } else if (value instanceof PdfParser.Name) {
+                        if (code >= 0 && code < 256) {
+                            String text = glyphNameToUnicode(((PdfParser.Name) value).value);
+                            encoding[code] = text != null ? text : String.valueOf(UNMAPPED);
+                        }
+                        code++;
+                    }
+                }
+            }
+        }
+        return encoding;
+    }
+    
+    private void readSimpleWidths(PdfFile file, Map<String, Object> fontDict) {
+        List<Object> widthArray = file.getArray(fontDict, "Widths");
+        if (widthArray == null) {
+            return;
+        }
+        int firstChar = file.getInt(fontDict, "FirstChar", 0);
+        for (int i = 0; i < widthArray.size(); i++) {
+            Object width = file.resolve(widthArray.get(i));
+            if (width instanceof Number) {
+                widths.put(firstChar + i, ((Number) width).floatValue());
+            }
+        }
+    }
+    
+    /**
+     * 读取复合字体的/W数组，支持"c [w1 w2 ...]"和"cFirst cLast w"两种形式
+     */
+    private void readCidWidths(PdfFile file, List<Object> widthArray) {
+        if (widthArray == null) {
+            return;
+        }
+        int i = 0;
+        while (i < widthArray.size()) {
+            Object first = file.resolve(widthArray.get(i));
+            if (!(first instanceof Number) || i + 1 >= widthArray.size()) {
+                return;
+            }
+            int start = ((Number) first).intValue();
+            Object second = file.resolve(widthArray.get(i + 1));
+            if (second instanceof List) {
+                List<?> list = (List<?>) second;
+                for (int j = 0; j < list.size(); j++) {
+                    Object width = file.resolve(list.get(j));
+                    if (width instanceof Number) {
+                        widths.put(start + j, ((Number) width).floatValue());
+                    }
+                }
+                i += 2;
+            } else if (second instanceof Number && i + 2 < widthArray.size()) {
+                int end = ((Number) second).intValue();
+                Object width = file.resolve(widthArray.get(i + 2));
+                if (width instanceof Number && end - start <= 0xFFFF) {
+                    for (int code = start; code <= end; code++) {
+                        widths.put(code, ((Number) width).floatValue());
+                    }
+                }
+                i += 3;
+            } else {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 确定从指定位置开始的字符编码字节数
+     *
+     * @param bytes 字符串字节
+     * @param offset 起始位置
+     * @return 编码字节数，至少为1
+     */
+    public int codeLength(byte[] bytes, int offset) {
+        if (!composite) {
+            return 1;
+        }
+        if (toUnicode != null && toUnicode.hasCodespaceRanges()) {
+            int length = toUnicode.codeLength(bytes, offset);
+            if (length > 0) {
+                return length;
+            }
+        }
+        return Math.min(2, bytes.length - offset);
+    }
+    
+    /**
+     * 把字符编码转换为Unicode文本
+     *
+     * @param code 字符编码
+     * @param length 编码字节数
+     * @return Unicode文本，无法映射时为{@link #UNMAPPED}
+     */
+    public String toUnicode(int code, int length) {
+        if (toUnicode != null) {
+            String text = toUnicode.lookup(code, length);
+            if (text != null) {
+                return text;
+            }
+        }
+        if (!composite) {
+            return simpleEncoding[code & 0xFF];
+        }
+        if (utf16Encoding && length == 2) {
+            return String.valueOf((char) code);
+        }
+        return String.valueOf(UNMAPPED);
+    }
+    
+    /**
+     * 获取字形宽度
+     *
+     * @param code 字符编码（复合字体为CID，对Identity编码与编码相同）
+     * @return 宽度，单位为千分之一字号
+     */
+    public float getWidth(int code) {
+        Float width = widths.get(code);
+        return (width != null ? width : defaultWidth) * widthScale;
+    }
+    
+    /**
+     * 是否为复合字体，复合字体的单字节32不应用单词间距
+     *
+     * @return 是否为Type0字体
+     */
+    public boolean isComposite() {
+        return composite;
+    }
+    
+    /**
+     * 把字形名转换为Unicode文本，支持常见字形名、uniXXXX和uXXXX形式
+     *
+     * @param name 字形名
+     * @return Unicode文本，无法识别时返回null
+     */
+    static String glyphNameToUnicode(String name) {
+        // 去掉.sc、.alt等变体后缀
+        int dot = name.indexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        if (name.length() == 1) {
+            char c = name.charAt(0);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                return name;
+            }
+        }
+        String mapped = GLYPH_NAMES.get(name);
+        if (mapped != null) {
+            return mapped;
+        }
+        try {
+            if (name.startsWith("uni") && name.length() >= 7 && (name.length() - 3) % 4 == 0) {
+                StringBuilder sb = new StringBuilder();
+                for (int i = 3; i < name.length(); i += 4) {
+                    sb.append((char) Integer.parseInt(name.substring(i, i + 4), 16));
+                }
+                return sb.toString();
+            }
+            if (name.startsWith("u") && name.length() >= 5 && name.length() <= 7) {
+                return new String(Character.toChars(Integer.parseInt(name.substring(1), 16)));
+            }
+        } catch (IllegalArgumentException e) {
+            // 不是十六进制形式的字形名
+        }
+        return null;
+    }
+    
+    private static char winAnsiChar(int code) {
+        if (code >= 0x80 && code <= 0x9F) {
+            return WIN_ANSI_HIGH[code - 0x80];
+        }
+        return (char) code;
+    }
+}
@@ -0,0 +1,561 @@
+package com.deepreadx.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PDF语法的词法和对象解析器，同时用于解析文件中的对象和页面内容流
+ *
+ * <p>解析结果使用普通Java对象表示：整数为{@link Integer}，实数为{@link Double}，
+ * 字符串为原始字节{@code byte[]}，数组为{@link List}，字典为以名称为键的{@link Map}，
+ * 名称、间接引用、内容流操作符和流分别用{@link Name}、{@link Ref}、{@link Operator}
+ * 和{@link Stream}表示。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PdfParser {
+    // 嵌套数组和字典的最大深度，防止畸形文件导致栈溢出
+    private static final int MAX_NESTING = 64;
+    
+    private final ByteBuffer data;
+    private int position;
+    
+    /**
+     * PDF名称对象
+     */
+    public static final class Name {
+        public final String value;
+        
+        Name(String value) {
+            this.value = value;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Name && ((Name) o).value.equals(value);
+        }
+        
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+        
+        @Override
+        public String toString() {
+            return "/" + value;
+        }
+    }
+    
+    /**
+     * 间接对象引用
+     */
+    public static final class Ref {
+        public final int number;
+        public final int generation;
+        
+        Ref(int number, int generation) {
+            this.number = number;
+            this.generation = generation;
+        }
+        
+        @Override
+        public String toString() {
+            return number + " " + generation + " R";
+        }
+    }
+    
+    /**
+     * 无法识别为对象的关键字，在内容流中即为操作符
+     */
+    public static final class Operator {
+        public final String value;
+        
+        Operator(String value) {
+            this.value = value;
+        }
+        
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+    
+    /**
+     * 流对象，数据仍位于文件缓冲区中
+     */
+    public static final class Stream {
+        public final Map<String, Object> dict;
+        final int offset;
+        final int length;
+        
+        Stream(Map<String, Object> dict, int offset, int length) {
+            this.dict = dict;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param data 待解析的数据，解析过程中不修改其位置
+     */
+    public PdfParser(ByteBuffer data) {
+        this.data = data;
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param data 待解析的数据
+     */
+    public PdfParser(byte[] data) {
+        this(ByteBuffer.wrap(data));
+    }
+    
+    public int getPosition() {
+        return position;
+    }
+    
+    public void setPosition(int position) {
+        this.position = position;
+    }
+    
+    public int length() {
+        return data.limit();
+    }
+    
+    /**
+     * 读取下一个对象
+     *
+     * @return 解析出的对象；到达数据末尾时返回null
+     * @throws IOException 当数据格式错误时
+     */
+    public Object nextObject() throws IOException {
+        return nextObject(0);
+    }
+    
+    private Object nextObject(int depth) throws IOException {
+        if (depth > MAX_NESTING) {
+            throw new IOException("对象嵌套过深");
+        }
+        skipWhitespace();
+        if (position >= data.limit()) {
+            return null;
+        }
+        
+        int c = peek();
+        switch (c) {
+            case '/':
+                position++;
+                return new Name(readNameBody());
+            case '(':
+                position++;
+                return readLiteralString();
+            case '<':
+                if (peekAt(position + 1) == '<') {
+                    position += 2;
+                    return readDictionary(depth);
+                }
+                position++;
+                return readHexString();
+            case '[':
+                position++;
+                return readArray(depth);
+            case ']':
+            case '>':
+            case ')':
+            case '{':
+            case '}':
+                // 孤立的分隔符，作为操作符交给调用方处理
+                position++;
+                return new Operator(String.valueOf((char) c));
+            default:
+                break;
+        }
+        
+        if (isNumberStart(c)) {
+            Number number = readNumber();
+            if (number instanceof Integer) {
+                // 尝试识别"对象号 代数 R"形式的引用
+                int saved = position;
+                Integer generation = tryReadUnsignedInt();
+                if (generation != null) {
+                    skipWhitespace();
+                    if (peek() == 'R' && isDelimiterOrEnd(position + 1)) {
+                        position++;
+                        return new Ref((Integer) number, generation);
+                    }
+                }
+                position = saved;
+            }
+            return number;
+        }
+        
+        String keyword = readKeyword();
+        switch (keyword) {
+            case "true":
+                return Boolean.TRUE;
+            case "false":
+                return Boolean.FALSE;
+            case "null":
+                return PdfFile.NULL;
+            default:
+                return new Operator(keyword);
+        }
+    }
+    
+    /**
+     * 读取数组，左方括号已被读取
+     */
+    private List<Object> readArray(int depth) throws IOException {
+        List<Object> array = new ArrayList<>();
+        while (true) {
+            skipWhitespace();
+            if (position >= data.limit()) {
+                return array;
+            }
+            if (peek() == ']') {
+                position++;
+                return array;
+            }
+            Object value = nextObject(depth + 1);
+            if (value == null) {
+                return array;
+            }
+            array.add(value);
+        }
+    }
+    
+    /**
+     * 读取字典，左双尖括号已被读取
+     */
+    private Map<String, Object> readDictionary(int depth) throws IOException {
+        Map<String, Object> dict = new LinkedHashMap<>();
+        while (true) {
+            skipWhitespace();
+            if (position >= data.limit()) {
+                return dict;
+            }
+            if (peek() == '>' && peekAt(position + 1) == '>') {
+                position += 2;
+                return dict;
+            }
+            Object key = nextObject(depth + 1);
+            if (key == null) {
+                return dict;
+            }
+            if (!(key instanceof Name)) {
+                // 跳过畸形的键
+                continue;
+            }
+            skipWhitespace();
+            if (peek() == '>' && peekAt(position + 1) == '>') {
+                dict.put(((Name) key).value, PdfFile.NULL);
+                continue;
+            }
+            Object value = nextObject(depth + 1);
+            if (value == null) {
+                return dict;
+            }
+            dict.put(((Name) key).value, value);
+        }
+    }
+    
+    /**
+     * 读取字面字符串，左括号已被读取
+     */
+    private byte[] readLiteralString() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int nesting = 1;
+        while (position < data.limit()) {
+            int c = next();
+            if (c == '(') {
+                nesting++;
+            } else if (c == ')') {
+                if (--nesting == 0) {
+                    break;
+                }
+            } else if (c == '\\') {
+                if (position >= data.limit()) {
+                    break;
+                }
+                c = next();
+                switch (c) {
+                    case 'n':
+                        out.write('\n');
+                        continue;
+                    case 'r':
+                        out.write('\r');
+                        continue;
+                    case 't':
+                        out.write('\t');
+                        continue;
+                    case 'b':
+                        out.write('\b');
+                        continue;
+                    case 'f':
+                        out.write('\f');
+                        continue;
+                    case '\r':
+                        // 反斜杠加换行表示续行
+                        if (peek() == '\n') {
+                            position++;
+                        }
+                        continue;
+                    case '\n':
+                        continue;
+                    default:
+                        break;
+                }
+                if (c >= '0' && c <= '7') {
+                    int octal = c - '0';
+                    for (int i = 0; i < 2 && position < data.limit(); i++) {
+                        int d = peek();
+                        if (d < '0' || d > '7') {
+                            break;
+                        }
+                        octal = octal * 8 + (d - '0');
+                        position++;
+                    }
+                    out.write(octal & 0xFF);
+                    continue;
+                }
+            }
+            out.write(c);
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * 读取十六进制字符串，左尖括号已被读取
+     */
+    private byte[] readHexString() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int high = -1;
+        while (position < data.limit()) {
+            int c = next();
+            if (c == '>') {
+                break;
+            }
+            int digit = Character.digit(c, 16);
+            if (digit < 0) {
+                continue;
+            }
+            if (high < 0) {
+                high = digit;
+            } else {
+                out.write((high << 4) | digit);
+                high = -1;
+            }
+        }
+        if (high >= 0) {
+            // 奇数个数字时最后一位补0
+            out.write(high << 4);
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * 读取名称，斜杠已被读取，处理#xx转义
+     */
+    private String readNameBody() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        while (position < data.limit()) {
+            int c = peek();
+            if (isWhitespace(c) || isDelimiter(c)) {
+                break;
+            }
+            position++;
+            if (c == '#' && position + 1 < data.limit()) {
+                int high = Character.digit(peek(), 16);
+                int low = Character.digit(peekAt(position + 1), 16);
+                if (high >= 0 && low >= 0) {
+                    out.write((high << 4) | low);
+                    position += 2;
+                    continue;
+                }
+            }
+            out.write(c);
+        }
+        return new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+    
+    /**
+     * 读取数字，整数返回Integer，带小数点的返回Double
+     */
+    private Number readNumber() {
+        int start = position;
+        boolean real = false;
+        if (peek() == '+' || peek() == '-') {
+            position++;
+        }
+        while (position < data.limit()) {
+            int c = peek();
+            if (c == '.') {
+                real = true;
+            } else if (c < '0' || c > '9') {
+                break;
+            }
+            position++;
+        }
+        String text = ascii(start, position);
+        try {
+            if (!real) {
+                long value = Long.parseLong(text);
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+                return (double) value;
+            }
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            // 单独的符号或小数点按0处理
+            return 0;
+        }
+    }
+    
+    /**
+     * 尝试读取无符号整数，失败时不移动位置
+     */
+    private Integer tryReadUnsignedInt() {
+        int saved = position;
+        skipWhitespace();
+        int start = position;
+        while (position < data.limit() && peek() >= '0' && peek() <= '9') {
+            position++;
+        }
+        if (position == start || position - start > 9 || !isDelimiterOrEnd(position)) {
+            position = saved;
+            return null;
+        }
+        return Integer.parseInt(ascii(start, position));
+    }
+    
+    /**
+     * 读取关键字，直到空白或分隔符
+     */
+    private String readKeyword() {
+        int start = position;
+        while (position < data.limit()) {
+            int c = peek();
+            if (isWhitespace(c) || isDelimiter(c)) {
+                break;
+            }
+            position++;
+        }
+        if (position == start) {
+            // 无法识别的单个字节，跳过以保证前进
+            position++;
+        }
+        return ascii(start, position);
+    }
+    
+    /**
+     * 跳过行内图像数据，ID操作符之后调用，定位到EI之后
+     */
+    public void skipInlineImageData() {
+        // ID之后有一个空白字符
+        position++;
+        while (position + 1 < data.limit()) {
+            if (peek() == 'E' && peekAt(position + 1) == 'I'
+                    && isWhitespace(peekAt(position - 1)) && isDelimiterOrEnd(position + 2)) {
+                position += 2;
+                return;
+            }
+            position++;
+        }
+        position = data.limit();
+    }
+    
+    /**
+     * 跳过空白字符和注释
+     */
+    public void skipWhitespace() {
+        while (position < data.limit()) {
+            int c = peek();
+            if (c == '%') {
+                while (position < data.limit() && peek() != '\n' && peek() != '\r') {
+                    position++;
+                }
+            } else if (isWhitespace(c)) {
+                position++;
+            } else {
+                break;
+            }
+        }
+    }
+    
+    /**
+     * 判断当前位置是否以指定关键字开头，且关键字之后是空白、分隔符或数据末尾
+     *
+     * @param keyword 关键字
+     * @return 是否匹配
+     */
+    public boolean startsWith(String keyword) {
+        return matchesAt(position, keyword) && isDelimiterOrEnd(position + keyword.length());
+    }
+    
+    /**
+     * 判断指定位置的字节是否与字符串相同
+     */
+    boolean matchesAt(int offset, String text) {
+        if (offset < 0 || offset + text.length() > data.limit()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if ((data.get(offset + i) & 0xFF) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    int peek() {
+        return peekAt(position);
+    }
+    
+    int peekAt(int offset) {
+        if (offset < 0 || offset >= data.limit()) {
+            return -1;
+        }
+        return data.get(offset) & 0xFF;
+    }
+    
+    private int next() {
+        return data.get(position++) & 0xFF;
+    }
+    
+    private String ascii(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = data.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+    
+    private boolean isDelimiterOrEnd(int offset) {
+        int c = peekAt(offset);
+        return c < 0 || isWhitespace(c) || isDelimiter(c);
+    }
+    
+    private static boolean isNumberStart(int c) {
+        return (c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.';
+    }
+    
+    static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0;
+    }
+    
+    static boolean isDelimiter(int c) {
+        return c == '(' || c == ')' || c == '<' || c == '>' || c == '[' || c == ']'
+                || c == '{' || c == '}' || c == '/' || c == '%';
+    }
+}
@@ -0,0 +1,456 @@
+package com.deepreadx.pdf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 直接读取PDF内容流中的文本层，不经过渲染和OCR
+ *
+ * <p>解释页面内容流中的文本状态和显示文本操作符（Tj、TJ、'、"），结合字体编码还原Unicode
+ * 文本，并递归处理表单XObject。根据字形宽度推算每段文本的起止位置：基线变化时换行，
+ * 同一行内出现明显间隔时补空格。文本按内容流中的顺序输出，对绝大多数单栏文档即为阅读顺序。</p>
+ *
+ * <p>扫描件通常没有文本层，或只有无法映射的字形号，此时{@link #isUsable(String)}返回false，
+ * 调用方应退回OCR。本类不是线程安全的。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PdfTextLayer {
+    // 可用文本层的最少非空白字符数
+    private static final int MIN_USABLE_CHARS = 8;
+    
+    // 无法映射字符的比例超过该值时视为文本层不可用
+    private static final float MAX_UNMAPPED_RATIO = 0.1f;
+    
+    // 同一行内水平间隔超过字号的该比例时补空格
+    private static final float SPACE_GAP_RATIO = 0.2f;
+    
+    // 基线偏移超过字号的该比例时换行
+    private static final float NEWLINE_RATIO = 0.5f;
+    
+    // 表单XObject的最大嵌套深度
+    private static final int MAX_FORM_DEPTH = 8;
+    
+    private final PdfFile file;
+    private final Map<Map<String, Object>, PdfFont> fontCache = new IdentityHashMap<>();
+    
+    /**
+     * 图形状态中与文本提取相关的部分，q/Q时保存和恢复
+     */
+    private static final class GraphicsState implements Cloneable {
+        double[] ctm = {1, 0, 0, 1, 0, 0};
+        PdfFont font;
+        float fontSize = 12f;
+        float charSpacing = 0f;
+        float wordSpacing = 0f;
+        float horizontalScale = 1f;
+        float leading = 0f;
+        
+        @Override
+        protected GraphicsState clone() {
+            try {
+                GraphicsState copy = (GraphicsState) super.clone();
+                copy.ctm = ctm.clone();
+                return copy;
+            } catch (CloneNotSupportedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+    
+    /**
+     * 单个页面的提取过程
+     */
+    private final class PageExtraction {
+        final StringBuilder text = new StringBuilder();
+        final Set<Object> visitedForms = Collections.newSetFromMap(new IdentityHashMap<>());
+        
+        GraphicsState state = new GraphicsState();
+        final Deque<GraphicsState> stateStack = new ArrayDeque<>();
+        double[] textMatrix = {1, 0, 0, 1, 0, 0};
+        double[] lineMatrix = {1, 0, 0, 1, 0, 0};
+        
+        // 上一段文本结束位置（设备空间）和字号，尚未输出文本时为NaN
+        double lastEndX = Double.NaN;
+        double lastEndY = Double.NaN;
+        double lastSize = 0;
+        
+        void run(byte[] content, Map<String, Object> resources, int depth) throws IOException {
+            PdfParser parser = new PdfParser(content);
+            List<Object> operands = new ArrayList<>();
+            Object token;
+            while ((token = parser.nextObject()) != null) {
+                if (!(token instanceof PdfParser.Operator)) {
+                    operands.add(token);
+                    continue;
+                }
+                String operator = token.toString();
+                if ("ID".equals(operator)) {
+                    parser.skipInlineImageData();
+                } else {
+                    execute(operator, operands, resources, depth);
+                }
+                operands.clear();
+            }
+        }
+        
+        void execute(String operator, List<Object> operands, Map<String, Object> resources, int depth)
+                throws IOException {
+            switch (operator) {
+                case "q":
+                    stateStack.push(state.clone());
+                    break;
+                case "Q":
+                    if (!stateStack.isEmpty()) {
+                        state = stateStack.pop();
+                    }
+                    break;
+                case "cm":
+                    if (operands.size() >= 6) {
+                        state.ctm = multiply(toMatrix(operands), state.ctm);
+                    }
+                    break;
+                case "BT":
+                    textMatrix = new double[] {1, 0, 0, 1, 0, 0};
+                    lineMatrix = textMatrix.clone();
+                    break;
+                case "Tf":
+                    if (operands.size() >= 2) {
+                        state.font = loadFont(resources, operands.get(0));
+                        state.fontSize = number(operands.get(1));
+                    }
+                    break;
+                case "Tc":
+                    state.charSpacing = lastNumber(operands);
+                    break;
+                case "Tw":
+                    state.wordSpacing = lastNumber(operands);
+                    break;
+                case "Tz":
+                    state.horizontalScale = lastNumber(operands) / 100f;
+                    break;
+                case "TL":
+                    state.leading = lastNumber(operands);
+                    break;
+                case "Td":
+                    if (operands.size() >= 2) {
+                        moveLine(number(operands.get(0)), number(operands.get(1)));
+                    }
+                    break;
+                case "TD":
+                    if (operands.size() >= 2) {
+                        state.leading = -number(operands.get(1));
+                        moveLine(number(operands.get(0)), number(operands.get(1)));
+                    }
+                    break;
+                case "Tm":
+                    if (operands.size() >= 6) {
+                        lineMatrix = toMatrix(operands);
+                        textMatrix = lineMatrix.clone();
+                    }
+                    break;
+                case "T*":
+                    moveLine(0, -state.leading);
+                    break;
+                case "Tj":
+                    if (!operands.isEmpty()) {
+                        showString(operands.get(operands.size() - 1));
+                    }
+                    break;
+                case "'":
+                    moveLine(0, -state.leading);
+                    if (!operands.isEmpty()) {
+                        showString(operands.get(operands.size() - 1));
+                    }
+                    break;
+                case "\"":
+                    if (operands.size() >= 3) {
+                        state.wordSpacing = number(operands.get(0));
+                        state.charSpacing = number(operands.get(1));
+                        moveLine(0, -state.leading);
+                        showString(operands.get(2));
+                    }
+                    break;
+                case "TJ":
+                    if (!operands.isEmpty() && operands.get(operands.size() - 1) instanceof List) {
+                        showArray((List<?>) operands.get(operands.size() - 1));
+                    }
+                    break;
+                case "Do":
+                    if (!operands.isEmpty()) {
+                        drawXObject(resources, operands.get(0), depth);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        void moveLine(float tx, float ty) {
+            lineMatrix = multiply(new double[] {1, 0, 0, 1, tx, ty}, lineMatrix);
+            textMatrix = lineMatrix.clone();
+        }
+        
+        void showArray(List<?> array) {
+            for (Object item : array) {
+                if (item instanceof byte[]) {
+                    showString(item);
+                } else if (item instanceof Number) {
+                    // 数值为千分之一字号的水平调整，负值向右移动
+                    double tx = -((Number) item).doubleValue() / 1000.0 * state.fontSize * state.horizontalScale;
+                    textMatrix = multiply(new double[] {1, 0, 0, 1, tx, 0}, textMatrix);
+                }
+            }
+        }
+        
+        void showString(Object operand) {
+            if (!(operand instanceof byte[]) || state.font == null) {
+                return;
+            }
+            byte[] bytes = (byte[]) operand;
+            PdfFont font = state.font;
+            
+            double[] start = multiply(textMatrix, state.ctm);
+            double size = state.fontSize * Math.hypot(start[2], start[3]);
+            separateFromPrevious(start[4], start[5], size);
+            
+            int offset = 0;
+            while (offset < bytes.length) {
+                int length = Math.max(1, font.codeLength(bytes, offset));
+                int code = PdfCMap.toCode(bytes, offset, length);
+                text.append(font.toUnicode(code, length));
+                
+                double advance = font.getWidth(code) / 1000.0 * state.fontSize + state.charSpacing;
+                if (length == 1 && code == ' ' && !font.isComposite()) {
+                    advance += state.wordSpacing;
+                }
+                textMatrix = multiply(new double[] {1, 0, 0, 1, advance * state.horizontalScale, 0}, textMatrix);
+                offset += length;
+            }
+            
+            double[] end = multiply(textMatrix, state.ctm);
+            lastEndX = end[4];
+            lastEndY = end[5];
+            lastSize = size;
+        }
+        
+        /**
+         * 根据与上一段文本的相对位置补换行或空格
+         */
+        void separateFromPrevious(double x, double y, double size) {
+            if (Double.isNaN(lastEndX) || text.length() == 0) {
+                return;
+            }
+            double reference = Math.max(1.0, Math.max(size, lastSize));
+            char last = text.charAt(text.length() - 1);
+            if (Math.abs(y - lastEndY) > reference * NEWLINE_RATIO) {
+                if (last != '\n') {
+                    trimTrailingSpace();
+                    text.append('\n');
+                }
+            } else if (Math.abs(x - lastEndX) > reference * SPACE_GAP_RATIO
+                    && !Character.isWhitespace(last)) {
+                text.append(' ');
+            }
+        }
+        
+        void trimTrailingSpace() {
+            int length = text.length();
+            while (length > 0 && text.charAt(length - 1) == ' ') {
+                length--;
+            }
+            text.setLength(length);
+        }
+        
+        void drawXObject(Map<String, Object> resources, Object nameOperand, int depth) throws IOException {
+            if (!(nameOperand instanceof PdfParser.Name) || depth >= MAX_FORM_DEPTH) {
+                return;
+            }
+            Map<String, Object> xObjects = file.getDict(resources, "XObject");
+            if (xObjects == null) {
+                return;
+            }
+            Object object = file.resolve(xObjects.get(((PdfParser.Name) nameOperand).value));
+            if (!(object instanceof PdfParser.Stream) || !visitedForms.add(object)) {
+                return;
+            }
+            PdfParser.Stream form = (PdfParser.Stream) object;
+            if (!"Form".equals(file.getName(form.dict, "Subtype"))) {
+                return;
+            }
+            
+            Map<String, Object> formResources = file.getDict(form.dict, "Resources");
+            GraphicsState saved = state.clone();
+            double[] savedText = textMatrix;
+            double[] savedLine = lineMatrix;
+            List<Object> matrix = file.getArray(form.dict, "Matrix");
+            if (matrix != null && matrix.size() >= 6) {
+                state.ctm = multiply(toMatrix(matrix), state.ctm);
+            }
+            try {
+                run(file.decodeStream(form), formResources != null ? formResources : resources, depth + 1);
+            } finally {
+                state = saved;
+                textMatrix = savedText;
+                lineMatrix = savedLine;
+                visitedForms.remove(object);
+            }
+        }
+        
+        PdfFont loadFont(Map<String, Object> resources, Object nameOperand) {
+            if (!(nameOperand instanceof PdfParser.Name)) {
+                return null;
+            }
+            Map<String, Object> fonts = file.getDict(resources, "Font");
+            if (fonts == null) {
+                return null;
+            }
+            Map<String, Object> fontDict = file.getDict(fonts, ((PdfParser.Name) nameOperand).value);
+            if (fontDict == null) {
+                return null;
+            }
+            PdfFont font = fontCache.get(fontDict);
+            if (font == null) {
+                font = PdfFont.create(file, fontDict);
+                fontCache.put(fontDict, font);
+            }
+            return font;
+        }
+        
+        double[] toMatrix(List<?> values) {
+            double[] matrix = new double[6];
+            int base = values.size() - 6;
+            for (int i = 0; i < 6; i++) {
+                matrix[i] = number(file.resolve(values.get(base + i)));
+            }
+            return matrix;
+        }
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param data PDF文件内容
+     * @throws IOException 当文件不是有效的PDF或已加密时
+     */
+    public PdfTextLayer(ByteBuffer data) throws IOException {
+        this.file = new PdfFile(data);
+    }
+    
+    /**
+     * 获取页数
+     *
+     * @return 页数
+     */
+    public int getPageCount() {
+        return file.getPageCount();
+    }
+    
+    /**
+     * 获取文档目录中声明的自然语言（/Lang），如"zh-CN"或"en-US"
+     *
+     * @return BCP 47语言标签，未声明时返回null
+     */
+    public String getLanguage() {
+        String language = file.getTextString(file.getCatalog(), "Lang");
+        return language == null || language.trim().isEmpty() ? null : language.trim();
+    }
+    
+    /**
+     * 提取页面文本层
+     *
+     * @param pageIndex 页码索引，从0开始
+     * @return 页面文本，页面没有文本时返回空字符串
+     * @throws IOException 当页面内容无法解析时
+     * @throws IndexOutOfBoundsException 当页码超出范围时
+     */
+    public String extractPageText(int pageIndex) throws IOException {
+        PdfFile.Page page = file.getPage(pageIndex);
+        PageExtraction extraction = new PageExtraction();
+        try {
+            extraction.run(file.getPageContents(page), page.resources, 0);
+        } catch (RuntimeException e) {
+            throw new IOException("解析页面内容失败: " + pageIndex, e);
+        }
+        return normalize(extraction.text);
+    }
+    
+    /**
+     * 判断提取出的文本是否可以代替OCR结果
+     *
+     * @param text 提取出的文本
+     * @return 非空白字符足够且无法映射的字符很少时返回true
+     */
+    public static boolean isUsable(String text) {
+        int visible = 0;
+        int unmapped = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            visible++;
+            if (c == PdfFont.UNMAPPED || Character.isISOControl(c)) {
+                unmapped++;
+            }
+        }
+        return visible >= MIN_USABLE_CHARS && unmapped <= visible * MAX_UNMAPPED_RATIO;
+    }
+    
+    /**
+     * 合并多余空白，去掉每行首尾的空格
+     */
+    private static String normalize(CharSequence raw) {
+        StringBuilder sb = new StringBuilder(raw.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '\n' || c == '\r') {
+                pendingSpace = false;
+                if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '\n') {
+                    sb.append('\n');
+                }
+            } else if (Character.isWhitespace(c) || c == '\u00A0') {
+                pendingSpace = sb.length() > 0 && sb.charAt(sb.length() - 1) != '\n';
+            } else {
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString().trim();
+    }
+    
+    /**
+     * 计算矩阵乘积m1 × m2，矩阵以[a b c d e f]表示
+     */
+    private static double[] multiply(double[] m1, double[] m2) {
+        return new double[] {
+                m1[0] * m2[0] + m1[1] * m2[2],
+                m1[0] * m2[1] + m1[1] * m2[3],
+                m1[2] * m2[0] + m1[3] * m2[2],
+                m1[2] * m2[1] + m1[3] * m2[3],
+                m1[4] * m2[0] + m1[5] * m2[2] + m2[4],
+                m1[4] * m2[1] + m1[5] * m2[3] + m2[5]
+        };
+    }
+    
+    private static float number(Object value) {
+        return value instanceof Number ? ((Number) value).floatValue() : 0f;
+    }
+    
+    private static float lastNumber(List<Object> operands) {
+        return operands.isEmpty() ? 0f : number(operands.get(operands.size() - 1));
+    }
+}
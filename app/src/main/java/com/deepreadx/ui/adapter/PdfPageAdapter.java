@@ -0,0 +1,216 @@
+package com.deepreadx.ui.adapter;
+
+import android.graphics.Bitmap;
+import android.os.CancellationSignal;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.deepreadx.viewer.PageMetricsIndex;
+import com.deepreadx.viewer.PageRenderService;
+import com.example.deepreadx.R;
+
+/**
+ * 连续滚动模式的PDF页面列表适配器，每页一个视图，只为绑定中的视图渲染页面
+ *
+ * <p>视图被回收时取消尚未完成的渲染并释放位图引用，位图由{@link PageRenderService}的
+ * LRU缓存和复用池统一管理，因此内存占用与文档页数无关。</p>
+ * 
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PdfPageAdapter extends RecyclerView.Adapter<PdfPageAdapter.ViewHolder> {
+    private static final String TAG = "PdfPageAdapter";
+    
+    // 页面尺寸索引尚未加载时使用A4纸的宽高比
+    private static final float DEFAULT_ASPECT_RATIO = 1.414f;
+    
+    private final PageRenderService renderService;
+    private final int pageCount;
+    private PageMetricsIndex pageMetrics;
+    private RecyclerView recyclerView;
+    
+    /**
+     * 构造函数
+     * 
+     * @param renderService 页面渲染服务
+     * @param pageCount 页数
+     */
+    public PdfPageAdapter(PageRenderService renderService, int pageCount) {
+        this.renderService = renderService;
+        this.pageCount = pageCount;
+        this.pageMetrics = renderService.getPageMetrics();
+        setHasStableIds(true);
+    }
+    
+    /**
+     * 设置页面尺寸索引，设置后按每页实际宽高比布局。只有高度发生变化的页面会重新绑定，
+     * 与占位宽高比相同的页面保持已显示的图像
+     * 
+     * @param pageMetrics 页面尺寸索引
+     */
+    public void setPageMetrics(PageMetricsIndex pageMetrics) {
+        int width = recyclerView != null && recyclerView.getWidth() > 0
+                ? recyclerView.getWidth() - recyclerView.getPaddingLeft() - recyclerView.getPaddingRight()
+                : 0;
+        int[] oldHeights = new int[pageCount];
+        if (width > 0) {
+            for (int i = 0; i < pageCount; i++) {
+                oldHeights[i] = getPageHeight(i, width);
+            }
+        }
+        this.pageMetrics = pageMetrics;
+        if (width <= 0) {
+            // 列表尚未测量，还没有绑定任何页面
+            notifyDataSetChanged();
+            return;
+        }
+        
+        // 将高度变化的连续页面合并为一个范围通知
+        int rangeStart = -1;
+        for (int i = 0; i <= pageCount; i++) {
+            boolean changed = i < pageCount && getPageHeight(i, width) != oldHeights[i];
+            if (changed && rangeStart < 0) {
+                rangeStart = i;
+            } else if (!changed && rangeStart >= 0) {
+                notifyItemRangeChanged(rangeStart, i - rangeStart);
+                rangeStart = -1;
+            }
+        }
+    }
+    
+    /**
+     * 计算页面在指定宽度下的高度，页面尺寸索引尚未加载时使用占位宽高比
+     */
+    private int getPageHeight(int position, int width) {
+        return pageMetrics != null && position < pageMetrics.getPageCount()
+                ? pageMetrics.getScaledHeight(position, width)
+                : Math.round(width * DEFAULT_ASPECT_RATIO);
+    }
+    
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        this.recyclerView = recyclerView;
+    }
+    
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        this.recyclerView = null;
+    }
+    
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_pdf_page, parent, false);
+        return new ViewHolder(view);
+    }
+    
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.unbind(renderService);
+        
+        // 按页面尺寸索引设置占位高度，渲染完成前布局也不会跳动
+        int width = getPageWidth(holder.itemView);
+        int height = getPageHeight(position, width);
+        ViewGroup.LayoutParams params = holder.ivPage.getLayoutParams();
+        if (params.height != height) {
+            params.height = height;
+            holder.ivPage.setLayoutParams(params);
+        }
+        
+        holder.pageIndex = position;
+        holder.renderSignal = renderService.loadPage(position, width, height, new PageRenderService.RenderCallback() {
+            @Override
+            public void onPagePreview(int pageIndex, Bitmap preview) {
+                holder.show(renderService, pageIndex, preview);
+            }
+            
+            @Override
+            public void onPageRendered(int pageIndex, Bitmap bitmap) {
+                holder.show(renderService, pageIndex, bitmap);
+            }
+            
+            @Override
+            public void onRenderFailed(int pageIndex, Exception e) {
+                Log.e(TAG, "渲染页面失败: " + pageIndex, e);
+            }
+        });
+    }
+    
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        super.onViewRecycled(holder);
+        holder.unbind(renderService);
+    }
+    
+    @Override
+    public int getItemCount() {
+        return pageCount;
+    }
+    
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+    
+    /**
+     * 计算页面渲染宽度，列表尚未测量时使用屏幕宽度
+     */
+    private int getPageWidth(View itemView) {
+        int width = recyclerView != null
+                ? recyclerView.getWidth() - recyclerView.getPaddingLeft() - recyclerView.getPaddingRight()
+                : 0;
+        return width > 0 ? width : itemView.getResources().getDisplayMetrics().widthPixels;
+    }
+    
+    /**
+     * ViewHolder类
+     */
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final ImageView ivPage;
+        int pageIndex = RecyclerView.NO_POSITION;
+        Bitmap bitmap;
+        CancellationSignal renderSignal;
+        
+        ViewHolder(View view) {
+            super(view);
+            ivPage = view.findViewById(R.id.ivPage);
+        }
+        
+        /**
+         * 显示渲染结果，并释放对之前图像的引用
+         */
+        void show(PageRenderService renderService, int renderedPage, Bitmap newBitmap) {
+            if (renderedPage != pageIndex || newBitmap == bitmap) {
+                return;
+            }
+            Bitmap previous = bitmap;
+            renderService.retainBitmap(newBitmap);
+            ivPage.setImageBitmap(newBitmap);
+            bitmap = newBitmap;
+            renderService.releaseBitmap(previous);
+        }
+        
+        /**
+         * 取消未完成的渲染并释放图像
+         */
+        void unbind(PageRenderService renderService) {
+            if (renderSignal != null) {
+                renderSignal.cancel();
+                renderSignal = null;
+            }
+            ivPage.setImageDrawable(null);
+            renderService.releaseBitmap(bitmap);
+            bitmap = null;
+            pageIndex = RecyclerView.NO_POSITION;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.deepreadx.viewer;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.util.Log;
+
+import com.deepreadx.cache.TrimmableCache;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 按尺寸分桶的Bitmap复用池，避免每次翻页都重新分配整页大小的ARGB_8888位图
+ *
+ * <p>取出时优先复用尺寸和格式完全相同的位图，其次通过{@link Bitmap#reconfigure}
+ * 复用容量足够的位图，取出的位图都会被清空。池中保存的总字节数有上限，超出时按放入顺序淘汰。
+ * 池中的位图随时可以丢弃，内存紧张时最先被{@link com.deepreadx.cache.CacheManager}裁剪。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class BitmapPool implements TrimmableCache {
+    private static final String TAG = "BitmapPool";
+    
+    private final long maxBytes;
+    private final Map<String, ArrayDeque<Bitmap>> buckets = new HashMap<>();
+    private final ArrayDeque<Bitmap> insertionOrder = new ArrayDeque<>();
+    
+    private long bytesHeld = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+    
+    /**
+     * 复用池统计信息
+     */
+    public static class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long bytesHeld;
+        public final int bitmapCount;
+        
+        Stats(long hits, long misses, long evictions, long bytesHeld, int bitmapCount) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.bytesHeld = bytesHeld;
+            this.bitmapCount = bitmapCount;
+        }
+        
+        @Override
+        public String toString() {
+            return "hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                    + ", bytesHeld=" + bytesHeld + ", bitmaps=" + bitmapCount;
+        }
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param maxBytes 池中最多保存的字节数
+     */
+    public BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+    
+    /**
+     * 从池中取出一个指定尺寸的已清空位图，池中没有可用位图时新建
+     *
+     * @param width 宽度（像素）
+     * @param height 高度（像素）
+     * @param config 位图格式
+     * @return 可直接绘制的位图
+     */
+    public Bitmap acquire(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = takeFromPool(width, height, config);
+        if (bitmap != null) {
+            bitmap.eraseColor(Color.TRANSPARENT);
+            return bitmap;
+        }
+        return Bitmap.createBitmap(width, height, config);
+    }
+    
+    /**
+     * 查找可复用的位图，找到时从池中移除
+     */
+    private synchronized Bitmap takeFromPool(int width, int height, Bitmap.Config config) {
+        // 优先查找尺寸完全相同的位图
+        ArrayDeque<Bitmap> bucket = buckets.get(bucketKey(width, height, config));
+        if (bucket != null && !bucket.isEmpty()) {
+            Bitmap bitmap = bucket.pollLast();
+            insertionOrder.remove(bitmap);
+            bytesHeld -= bitmap.getAllocationByteCount();
+            hitCount++;
+            return bitmap;
+        }
+        
+        // 其次查找容量足够、可以重新配置尺寸的位图
+        long requiredBytes = (long) width * height * bytesPerPixel(config);
+        Iterator<Bitmap> iterator = insertionOrder.iterator();
+        while (iterator.hasNext()) {
+            Bitmap candidate = iterator.next();
+            int allocation = candidate.getAllocationByteCount();
+            // 避免用过大的位图承载小尺寸页面，浪费内存
+            if (allocation >= requiredBytes && allocation <= requiredBytes * 2) {
+                iterator.remove();
+                removeFromBucket(candidate);
+                bytesHeld -= allocation;
+                try {
+                    candidate.reconfigure(width, height, config);
+                    hitCount++;
+                    return candidate;
+                } catch (IllegalArgumentException e) {
+                    Log.w(TAG, "重新配置位图失败，丢弃该位图", e);
+                    candidate.recycle();
+                    break;
+                }
+            }
+        }
+        
+        missCount++;
+        return null;
+    }
+    
+    /**
+     * 将不再使用的位图放回池中，调用方此后不能再使用该位图
+     *
+     * @param bitmap 要回收的位图
+     */
+    public void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+            return;
+        }
+        
+        synchronized (this) {
+            if (bitmap.getAllocationByteCount() > maxBytes) {
+                bitmap.recycle();
+                return;
+            }
+            
+            String key = bucketKey(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+            ArrayDeque<Bitmap> bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new ArrayDeque<>();
+                buckets.put(key, bucket);
+            } else if (bucket.contains(bitmap)) {
+                // 重复释放，忽略
+                return;
+            }
+            bucket.addLast(bitmap);
+            insertionOrder.addLast(bitmap);
+            bytesHeld += bitmap.getAllocationByteCount();
+            
+            trimToSize(maxBytes);
+        }
+    }
+    
+    /**
+     * 淘汰最早放入的位图，直到总字节数不超过指定值
+     *
+     * @param targetBytes 目标字节数
+     */
+    public synchronized void trimToSize(long targetBytes) {
+        while (bytesHeld > targetBytes && !insertionOrder.isEmpty()) {
+            Bitmap eldest = insertionOrder.pollFirst();
+            removeFromBucket(eldest);
+            bytesHeld -= eldest.getAllocationByteCount();
+            evictionCount++;
+            eldest.recycle();
+        }
+    }
+    
+    /**
+     * 清空复用池并回收所有位图
+     */
+    public void clear() {
+        trimToSize(0);
+    }
+    
+    @Override
+    public String getCacheName() {
+        return "BitmapPool";
+    }
+    
+    @Override
+    public int getTier() {
+        return TIER_POOL;
+    }
+    
+    @Override
+    public synchronized long getSizeBytes() {
+        return bytesHeld;
+    }
+    
+    @Override
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+    
+    @Override
+    public void trimToFraction(float fraction) {
+        trimToSize((long) (maxBytes * fraction));
+    }
+    
+    /**
+     * 获取复用池统计信息
+     *
+     * @return 命中、未命中次数及当前占用字节数
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hitCount, missCount, evictionCount, bytesHeld, insertionOrder.size());
+    }
+    
+    /**
+     * 从所在尺寸分桶中移除位图
+     */
+    private void removeFromBucket(Bitmap bitmap) {
+        String key = bucketKey(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+        ArrayDeque<Bitmap> bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.remove(bitmap);
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+    
+    /**
+     * 构建分桶键：宽 x 高 + 格式
+     */
+    private static String bucketKey(int width, int height, Bitmap.Config config) {
+        return width + "x" + height + ":" + config;
+    }
+    
+    /**
+     * 获取指定格式每个像素占用的字节数
+     */
+    private static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        } else if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        }
+        return 4;
+    }
+}
@@ -0,0 +1,122 @@
+package com.deepreadx.viewer;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 文档指纹工具类，根据文件内容生成稳定的文档标识
+ *
+ * <p>只读取文件长度以及首尾各64KB内容计算SHA-1，同一文件通过不同URI打开时得到相同的指纹，
+ * 可用于磁盘缓存、页面索引等按文档区分的数据。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public final class DocumentFingerprint {
+    private static final String TAG = "DocumentFingerprint";
+    
+    // 首尾各读取的字节数
+    private static final int SAMPLE_BYTES = 64 * 1024;
+    
+    private DocumentFingerprint() {
+    }
+    
+    /**
+     * 计算文档指纹，读取失败时退化为基于URI的指纹
+     *
+     * @param context 上下文
+     * @param uri 文档URI
+     * @return 40位十六进制指纹
+     */
+    public static String compute(Context context, Uri uri) {
+        try (ParcelFileDescriptor descriptor = context.getContentResolver().openFileDescriptor(uri, "r")) {
+            if (descriptor == null) {
+                throw new IOException("无法获取文件描述符");
+            }
+            return compute(descriptor);
+        } catch (Exception e) {
+            Log.w(TAG, "读取文件内容计算指纹失败，改用URI计算: " + e.getMessage());
+            return sha1Hex(uri.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+    
+    /**
+     * 根据已打开的文件描述符计算文档指纹，不改变调用方的读取位置
+     *
+     * @param descriptor 文件描述符
+     * @return 40位十六进制指纹
+     * @throws IOException 读取失败时
+     */
+    public static String compute(ParcelFileDescriptor descriptor) throws IOException {
+        MessageDigest digest = newDigest();
+        
+        try (ParcelFileDescriptor duplicate = descriptor.dup();
+             FileInputStream input = new FileInputStream(duplicate.getFileDescriptor())) {
+            FileChannel channel = input.getChannel();
+            long size = channel.size();
+            digest.update(ByteBuffer.allocate(8).putLong(0, size));
+            
+            ByteBuffer buffer = ByteBuffer.allocate(SAMPLE_BYTES);
+            readFully(channel, buffer, 0);
+            buffer.flip();
+            digest.update(buffer);
+            
+            if (size > SAMPLE_BYTES) {
+                buffer.clear();
+                readFully(channel, buffer, Math.max(SAMPLE_BYTES, size - SAMPLE_BYTES));
+                buffer.flip();
+                digest.update(buffer);
+            }
+        }
+        
+        return toHex(digest.digest());
+    }
+    
+    /**
+     * 从指定位置读取数据直到缓冲区写满或到达文件末尾
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+        }
+    }
+    
+    /**
+     * 计算字节数组的SHA-1十六进制字符串
+     */
+    private static String sha1Hex(byte[] data) {
+        MessageDigest digest = newDigest();
+        return toHex(digest.digest(data));
+    }
+    
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持SHA-1", e);
+        }
+    }
+    
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -6,6 +6,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageButton;
+import android.widget.ScrollView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
@@ -19,14 +20,20 @@ import com.example.deepreadx.R;
 /**
  * 解释展示Fragment，负责显示AI解释内容
  * 
+ * <p>流式生成时先以纯文本逐段追加，生成结束后再替换为格式化后的内容。</p>
+ * 
  * @author DeepReadX团队
  * @created 2025-05-10
  */
 public class ExplanationFragment extends Fragment {
     private TextView tvExplanation;
+    private ScrollView scrollExplanation;
     private ImageButton btnCloseDrawer;
     private DrawerLayout drawerLayout;
     
+    // 是否已收到当前流式生成的首段内容
+    private boolean streaming = false;
+    
     /**
      * 创建Fragment实例
      * 
@@ -46,6 +53,7 @@ public class ExplanationFragment extends Fragment {
         
         // 初始化视图
         tvExplanation = view.findViewById(R.id.tvExplanation);
+        scrollExplanation = view.findViewById(R.id.scrollExplanation);
         btnCloseDrawer = view.findViewById(R.id.btnCloseDrawer);
         
         // 设置关闭按钮点击事件
@@ -69,6 +77,40 @@ public class ExplanationFragment extends Fragment {
     public void updateExplanation(String htmlContent) {
         if (tvExplanation != null) {
             tvExplanation.setText(Html.fromHtml(htmlContent, Html.FROM_HTML_MODE_COMPACT));
+            streaming = false;
+        }
+    }
+    
+    /**
+     * 清空解释内容，准备接收流式生成的内容
+     * 
+     * @param placeholder 首段内容到达之前显示的提示文字
+     */
+    public void beginStreaming(String placeholder) {
+        if (tvExplanation != null) {
+            tvExplanation.setText(placeholder);
+            streaming = false;
+        }
+    }
+    
+    /**
+     * 追加流式生成的一段内容，内容区已滚动到底部时保持跟随
+     * 
+     * @param delta 新增的文本片段（纯文本）
+     */
+    public void appendExplanation(String delta) {
+        if (tvExplanation == null) {
+            return;
+        }
+        if (!streaming) {
+            // 首段内容到达时替换提示文字
+            tvExplanation.setText("");
+            streaming = true;
+        }
+        boolean atBottom = scrollExplanation == null || !scrollExplanation.canScrollVertically(1);
+        tvExplanation.append(delta);
+        if (atBottom && scrollExplanation != null) {
+            scrollExplanation.post(() -> scrollExplanation.fullScroll(View.FOCUS_DOWN));
         }
     }
     
@@ -0,0 +1,477 @@
+package com.deepreadx.viewer;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 页面渲染结果的磁盘缓存，保存在应用缓存目录下，再次打开文档时可直接从磁盘读取页面
+ *
+ * <p>缓存项按LRU顺序淘汰，总大小不超过配置的配额。所有增删和访问操作都追加记录到日志文件，
+ * 启动时通过重放日志恢复LRU顺序。写入时先写临时文件并同步到磁盘，再重命名为正式文件，
+ * 最后记录CLEAN日志，因此进程在任何时刻崩溃都不会留下损坏的缓存项。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PageDiskCache {
+    private static final String TAG = "PageDiskCache";
+    
+    private static final String CACHE_DIR_NAME = "page_cache";
+    private static final String JOURNAL_FILE = "journal";
+    private static final String JOURNAL_FILE_TMP = "journal.tmp";
+    private static final String JOURNAL_MAGIC = "deepreadx.pagecache";
+    private static final String JOURNAL_VERSION = "1";
+    
+    private static final String CLEAN = "CLEAN";
+    private static final String READ = "READ";
+    private static final String REMOVE = "REMOVE";
+    
+    private static final String ENTRY_SUFFIX = ".png";
+    private static final String TMP_SUFFIX = ".tmp";
+    
+    // 默认磁盘配额100MB
+    public static final long DEFAULT_MAX_BYTES = 100L * 1024 * 1024;
+    
+    // 冗余日志条目超过该值时重建日志
+    private static final int REDUNDANT_OP_COMPACT_THRESHOLD = 2000;
+    
+    private static PageDiskCache instance;
+    
+    private final File directory;
+    private final File journalFile;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(0, 0.75f, true);
+    
+    private long maxBytes;
+    private long size = 0;
+    private int redundantOpCount = 0;
+    private Writer journalWriter;
+    
+    private long hitCount = 0;
+    private long missCount = 0;
+    
+    /**
+     * 获取进程内唯一的磁盘缓存实例，保证同一目录只有一个日志写入者
+     *
+     * @param context 上下文
+     * @return 磁盘缓存实例
+     */
+    public static synchronized PageDiskCache getInstance(Context context) {
+        if (instance == null) {
+            File directory = new File(context.getApplicationContext().getCacheDir(), CACHE_DIR_NAME);
+            instance = new PageDiskCache(directory, DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param directory 缓存目录
+     * @param maxBytes 磁盘配额（字节）
+     */
+    PageDiskCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.journalFile = new File(directory, JOURNAL_FILE);
+        this.maxBytes = maxBytes;
+    }
+    
+    /**
+     * 设置磁盘配额，超出部分立即按LRU顺序淘汰
+     *
+     * @param maxBytes 配额（字节）
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        if (ensureOpen()) {
+            trimToSize();
+        }
+    }
+    
+    /**
+     * 读取缓存的页面图像
+     *
+     * @param key 缓存键，只能包含字母、数字、下划线和x
+     * @param pool 位图复用池，可为null
+     * @return 解码后的可变位图，不存在或解码失败时返回null
+     */
+    public Bitmap get(String key, BitmapPool pool) {
+        File file;
+        synchronized (this) {
+            if (!ensureOpen() || !entries.containsKey(key)) {
+                missCount++;
+                return null;
+            }
+            hitCount++;
+            appendJournal(READ + " " + key);
+            redundantOpCount++;
+            file = entryFile(key);
+        }
+        
+        Bitmap bitmap = decode(file, pool);
+        if (bitmap == null) {
+            Log.w(TAG, "缓存文件解码失败，删除缓存项: " + key);
+            remove(key);
+        }
+        return bitmap;
+    }
+    
+    /**
+     * 判断是否存在指定缓存项
+     *
+     * @param key 缓存键
+     * @return 是否存在
+     */
+    public synchronized boolean contains(String key) {
+        return ensureOpen() && entries.containsKey(key);
+    }
+    
+    /**
+     * 将页面图像压缩写入缓存
+     *
+     * @param key 缓存键
+     * @param bitmap 页面图像，写入期间调用方需保证其内容不被修改
+     */
+    public void put(String key, Bitmap bitmap) {
+        synchronized (this) {
+            if (!ensureOpen() || entries.containsKey(key)) {
+                return;
+            }
+        }
+        
+        // 先写临时文件并同步到磁盘，再原子重命名
+        File tmpFile = new File(directory, key + TMP_SUFFIX);
+        File entryFile = entryFile(key);
+        try (FileOutputStream output = new FileOutputStream(tmpFile)) {
+            if (!bitmap.compress(Bitmap.CompressFormat.PNG, 100, output)) {
+                throw new IOException("压缩页面图像失败");
+            }
+            output.flush();
+            output.getFD().sync();
+        } catch (IOException e) {
+            Log.w(TAG, "写入缓存失败: " + key, e);
+            tmpFile.delete();
+            return;
+        }
+        
+        synchronized (this) {
+            if (journalWriter == null || !tmpFile.renameTo(entryFile)) {
+                tmpFile.delete();
+                return;
+            }
+            
+            long length = entryFile.length();
+            Long previous = entries.put(key, length);
+            if (previous != null) {
+                size -= previous;
+            }
+            size += length;
+            appendJournal(CLEAN + " " + key + " " + length);
+            trimToSize();
+            compactJournalIfNeeded();
+        }
+    }
+    
+    /**
+     * 删除缓存项
+     *
+     * @param key 缓存键
+     */
+    public synchronized void remove(String key) {
+        if (!ensureOpen()) {
+            return;
+        }
+        Long length = entries.remove(key);
+        if (length != null) {
+            size -= length;
+            entryFile(key).delete();
+            appendJournal(REMOVE + " " + key);
+            redundantOpCount++;
+        }
+    }
+    
+    /**
+     * 获取统计信息
+     *
+     * @return 包含命中次数、未命中次数、缓存项数量和占用字节数的描述
+     */
+    public synchronized String getStats() {
+        return "hits=" + hitCount + ", misses=" + missCount + ", entries=" + entries.size()
+                + ", bytes=" + size + ", maxBytes=" + maxBytes;
+    }
+    
+    /**
+     * 获取当前占用的磁盘字节数
+     *
+     * @return 字节数
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+    
+    /**
+     * 清空所有缓存项
+     */
+    public synchronized void clear() {
+        closeJournal();
+        deleteContents(directory);
+        entries.clear();
+        size = 0;
+        redundantOpCount = 0;
+    }
+    
+    /**
+     * 解码缓存文件，优先复用池中尺寸相同的位图
+     */
+    private static Bitmap decode(File file, BitmapPool pool) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        
+        if (pool != null) {
+            BitmapFactory.Options bounds = new BitmapFactory.Options();
+            bounds.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(file.getPath(), bounds);
+            if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+                return null;
+            }
+            options.inBitmap = pool.acquire(bounds.outWidth, bounds.outHeight, Bitmap.Config.ARGB_8888);
+        }
+        
+        try {
+            Bitmap bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+            if (bitmap == null && options.inBitmap != null) {
+                pool.release(options.inBitmap);
+            }
+            return bitmap;
+        } catch (IllegalArgumentException e) {
+            // inBitmap不可用时退回普通解码
+            if (options.inBitmap != null) {
+                pool.release(options.inBitmap);
+                options.inBitmap = null;
+                return BitmapFactory.decodeFile(file.getPath(), options);
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * 首次使用时打开缓存目录并重放日志
+     *
+     * @return 是否可用
+     */
+    private boolean ensureOpen() {
+        if (journalWriter != null) {
+            return true;
+        }
+        
+        if (!directory.exists() && !directory.mkdirs()) {
+            Log.e(TAG, "无法创建缓存目录: " + directory);
+            return false;
+        }
+        
+        try {
+            if (journalFile.exists()) {
+                readJournal();
+                removeUntrackedFiles();
+                journalWriter = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(journalFile, true), StandardCharsets.UTF_8));
+            } else {
+                rebuildJournal();
+            }
+            trimToSize();
+            return true;
+        } catch (IOException e) {
+            Log.w(TAG, "缓存日志损坏，清空缓存目录", e);
+            closeJournal();
+            deleteContents(directory);
+            entries.clear();
+            size = 0;
+            try {
+                rebuildJournal();
+                return true;
+            } catch (IOException rebuildError) {
+                Log.e(TAG, "重建缓存日志失败", rebuildError);
+                return false;
+            }
+        }
+    }
+    
+    /**
+     * 重放日志，恢复缓存项及其LRU顺序
+     */
+    private void readJournal() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+            if (!JOURNAL_MAGIC.equals(reader.readLine()) || !JOURNAL_VERSION.equals(reader.readLine())) {
+                throw new IOException("日志头不匹配");
+            }
+            
+            int lineCount = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineCount++;
+                String[] parts = line.split(" ");
+                if (parts.length < 2) {
+                    // 崩溃时可能留下写了一半的最后一行，忽略即可
+                    continue;
+                }
+                String key = parts[1];
+                if (CLEAN.equals(parts[0]) && parts.length == 3) {
+                    try {
+                        entries.put(key, Long.parseLong(parts[2]));
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                } else if (READ.equals(parts[0])) {
+                    entries.get(key);
+                } else if (REMOVE.equals(parts[0])) {
+                    entries.remove(key);
+                }
+            }
+            redundantOpCount = lineCount - entries.size();
+        }
+        
+        // 丢弃文件缺失或大小不一致的缓存项
+        size = 0;
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            File file = entryFile(entry.getKey());
+            if (!file.exists() || file.length() != entry.getValue()) {
+                file.delete();
+                iterator.remove();
+            } else {
+                size += entry.getValue();
+            }
+        }
+    }
+    
+    /**
+     * 删除日志中不存在的文件，包括崩溃时残留的临时文件
+     */
+    private void removeUntrackedFiles() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.equals(JOURNAL_FILE)) {
+                continue;
+            }
+            if (!name.endsWith(ENTRY_SUFFIX)
+                    || !entries.containsKey(name.substring(0, name.length() - ENTRY_SUFFIX.length()))) {
+                file.delete();
+            }
+        }
+    }
+    
+    /**
+     * 按当前缓存项重写日志：先写临时日志再重命名，避免写到一半时崩溃
+     */
+    private void rebuildJournal() throws IOException {
+        closeJournal();
+        
+        File tmpJournal = new File(directory, JOURNAL_FILE_TMP);
+        try (FileOutputStream output = new FileOutputStream(tmpJournal);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+            writer.write(JOURNAL_MAGIC + "\n" + JOURNAL_VERSION + "\n");
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                writer.write(CLEAN + " " + entry.getKey() + " " + entry.getValue() + "\n");
+            }
+            writer.flush();
+            output.getFD().sync();
+        }
+        
+        if (!tmpJournal.renameTo(journalFile)) {
+            throw new IOException("无法替换缓存日志");
+        }
+        redundantOpCount = 0;
+        journalWriter = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(journalFile, true), StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 冗余日志过多时重建日志
+     */
+    private void compactJournalIfNeeded() {
+        if (redundantOpCount < REDUNDANT_OP_COMPACT_THRESHOLD || redundantOpCount < entries.size()) {
+            return;
+        }
+        try {
+            rebuildJournal();
+        } catch (IOException e) {
+            Log.w(TAG, "压缩缓存日志失败", e);
+        }
+    }
+    
+    /**
+     * 追加一条日志记录
+     */
+    private void appendJournal(String record) {
+        if (journalWriter == null) {
+            return;
+        }
+        try {
+            journalWriter.write(record + "\n");
+            journalWriter.flush();
+        } catch (IOException e) {
+            Log.w(TAG, "写入缓存日志失败", e);
+        }
+    }
+    
+    /**
+     * 按LRU顺序淘汰缓存项，直到总大小不超过配额
+     */
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (size > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.getValue();
+            entryFile(eldest.getKey()).delete();
+            appendJournal(REMOVE + " " + eldest.getKey());
+            redundantOpCount++;
+        }
+    }
+    
+    private File entryFile(String key) {
+        return new File(directory, key + ENTRY_SUFFIX);
+    }
+    
+    private void closeJournal() {
+        if (journalWriter != null) {
+            try {
+                journalWriter.close();
+            } catch (IOException e) {
+                Log.w(TAG, "关闭缓存日志失败", e);
+            }
+            journalWriter = null;
+        }
+    }
+    
+    private static void deleteContents(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+}
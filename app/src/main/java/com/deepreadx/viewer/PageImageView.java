@@ -0,0 +1,423 @@
+package com.deepreadx.viewer;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.HapticFeedbackConstants;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.widget.AppCompatImageView;
+import androidx.core.content.ContextCompat;
+
+import com.example.deepreadx.R;
+
+/**
+ * 可缩放的PDF页面视图，支持双指缩放、拖动、双击缩放和长按拖动选择区域
+ *
+ * <p>未放大时直接显示整页位图；放大后由{@link TileManager}在整页位图之上绘制
+ * 当前缩放级别下清晰的可见分块。</p>
+ *
+ * <p>设置{@link OnRegionSelectedListener}后，长按开始框选，拖动调整选区，抬起手指时
+ * 以页面相对坐标回调选区，与当前缩放和显示位图的分辨率无关。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PageImageView extends AppCompatImageView {
+    private static final float MIN_ZOOM = 1f;
+    private static final float MAX_ZOOM = 8f;
+    private static final float DOUBLE_TAP_ZOOM = 2.5f;
+    
+    // 缩放倍数超过该值才绘制分块
+    private static final float TILE_ZOOM_THRESHOLD = 1.05f;
+    
+    // 选区边长小于该值（dp）时视为误触
+    private static final float MIN_SELECTION_DP = 24f;
+    
+    // 选区边框宽度（dp）
+    private static final float SELECTION_STROKE_DP = 2f;
+    
+    private final Matrix baseMatrix = new Matrix();
+    private final Matrix zoomMatrix = new Matrix();
+    private final Matrix drawMatrix = new Matrix();
+    private final float[] matrixValues = new float[9];
+    private final RectF drawableRect = new RectF();
+    private final Matrix inverseMatrix = new Matrix();
+    private final RectF selectionRect = new RectF();
+    private final Paint selectionStrokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint selectionFillPaint = new Paint();
+    
+    private ScaleGestureDetector scaleDetector;
+    private GestureDetector gestureDetector;
+    private TileManager tileManager;
+    private int shownPage = -1;
+    private OnRegionSelectedListener regionSelectedListener;
+    private boolean selecting = false;
+    private float selectionStartX;
+    private float selectionStartY;
+    
+    /**
+     * 区域选择回调接口
+     */
+    public interface OnRegionSelectedListener {
+        /**
+         * 选择完成回调
+         *
+         * @param pageIndex 页码索引
+         * @param region 选区在页面中的相对位置，各边取值范围为0到1
+         */
+        void onRegionSelected(int pageIndex, RectF region);
+    }
+    
+    public PageImageView(@NonNull Context context) {
+        super(context);
+        init(context);
+    }
+    
+    public PageImageView(@NonNull Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(context);
+    }
+    
+    public PageImageView(@NonNull Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context);
+    }
+    
+    /**
+     * 初始化手势识别
+     */
+    private void init(Context context) {
+        setScaleType(ScaleType.MATRIX);
+        
+        float density = context.getResources().getDisplayMetrics().density;
+        selectionStrokePaint.setStyle(Paint.Style.STROKE);
+        selectionStrokePaint.setStrokeWidth(SELECTION_STROKE_DP * density);
+        selectionStrokePaint.setColor(ContextCompat.getColor(context, R.color.selectionStroke));
+        selectionFillPaint.setColor(ContextCompat.getColor(context, R.color.selectionFill));
+        
+        scaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                zoomBy(detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+                return true;
+            }
+        });
+        
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+            
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                if (getZoom() <= MIN_ZOOM) {
+                    return false;
+                }
+                zoomMatrix.postTranslate(-distanceX, -distanceY);
+                applyMatrix();
+                return true;
+            }
+            
+            @Override
+            public void onLongPress(MotionEvent e) {
+                startSelection(e.getX(), e.getY());
+            }
+            
+            @Override
+            public boolean onDoubleTap(MotionEvent e) {
+                if (getZoom() > MIN_ZOOM) {
+                    resetZoom();
+                } else {
+                    zoomBy(DOUBLE_TAP_ZOOM, e.getX(), e.getY());
+                }
+                return true;
+            }
+        });
+    }
+    
+    /**
+     * 设置分块管理器，为null时只显示整页位图
+     *
+     * @param tileManager 分块管理器
+     */
+    public void setTileManager(TileManager tileManager) {
+        this.tileManager = tileManager;
+        if (tileManager != null) {
+            tileManager.setOnTileReadyListener(this::invalidate);
+        }
+    }
+    
+    /**
+     * 设置区域选择回调，为null时长按不进入框选
+     *
+     * @param listener 区域选择回调
+     */
+    public void setOnRegionSelectedListener(OnRegionSelectedListener listener) {
+        this.regionSelectedListener = listener;
+        if (listener == null) {
+            cancelSelection();
+        }
+    }
+    
+    /**
+     * 显示指定页面的位图，切换页面时恢复到整页显示；同一页面由预览替换为
+     * 完整分辨率位图时保持当前缩放
+     *
+     * @param pageIndex 页码索引
+     * @param bitmap 页面位图
+     */
+    public void showPage(int pageIndex, Bitmap bitmap) {
+        boolean pageChanged = pageIndex != shownPage;
+        if (pageChanged) {
+            cancelSelection();
+        }
+        shownPage = pageIndex;
+        if (tileManager != null) {
+            tileManager.setPage(pageIndex);
+        }
+        setImageBitmap(bitmap);
+        if (pageChanged) {
+            resetZoom();
+        }
+    }
+    
+    @Override
+    public void setImageDrawable(@Nullable Drawable drawable) {
+        // 父类构造函数中可能调用本方法，此时成员变量尚未初始化
+        if (zoomMatrix == null) {
+            super.setImageDrawable(drawable);
+            return;
+        }
+        
+        Drawable previous = getDrawable();
+        boolean sizeChanged = previous == null || drawable == null
+                || previous.getIntrinsicWidth() != drawable.getIntrinsicWidth()
+                || previous.getIntrinsicHeight() != drawable.getIntrinsicHeight();
+        super.setImageDrawable(drawable);
+        if (sizeChanged) {
+            updateBaseMatrix();
+        }
+        applyMatrix();
+    }
+    
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateBaseMatrix();
+        applyMatrix();
+    }
+    
+    /**
+     * 计算居中适配视图的基础变换
+     */
+    private void updateBaseMatrix() {
+        Drawable drawable = getDrawable();
+        int viewWidth = getWidth();
+        int viewHeight = getHeight();
+        baseMatrix.reset();
+        if (drawable == null || viewWidth == 0 || viewHeight == 0) {
+            return;
+        }
+        
+        int drawableWidth = drawable.getIntrinsicWidth();
+        int drawableHeight = drawable.getIntrinsicHeight();
+        float scale = Math.min((float) viewWidth / drawableWidth, (float) viewHeight / drawableHeight);
+        baseMatrix.setScale(scale, scale);
+        baseMatrix.postTranslate(
+                (viewWidth - drawableWidth * scale) / 2f,
+                (viewHeight - drawableHeight * scale) / 2f);
+    }
+    
+    /**
+     * 获取当前缩放倍数（相对整页适配）
+     *
+     * @return 缩放倍数
+     */
+    public float getZoom() {
+        zoomMatrix.getValues(matrixValues);
+        return matrixValues[Matrix.MSCALE_X];
+    }
+    
+    /**
+     * 恢复到整页显示
+     */
+    public void resetZoom() {
+        zoomMatrix.reset();
+        applyMatrix();
+    }
+    
+    /**
+     * 以指定点为中心缩放
+     */
+    private void zoomBy(float factor, float focusX, float focusY) {
+        float zoom = getZoom();
+        float target = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        float actualFactor = target / zoom;
+        zoomMatrix.postScale(actualFactor, actualFactor, focusX, focusY);
+        applyMatrix();
+    }
+    
+    /**
+     * 限制平移范围并应用变换
+     */
+    private void applyMatrix() {
+        drawMatrix.set(baseMatrix);
+        drawMatrix.postConcat(zoomMatrix);
+        
+        Drawable drawable = getDrawable();
+        if (drawable != null) {
+            drawableRect.set(0, 0, drawable.getIntrinsicWidth(), drawable.getIntrinsicHeight());
+            drawMatrix.mapRect(drawableRect);
+            float dx = constrainOffset(drawableRect.left, drawableRect.right, getWidth());
+            float dy = constrainOffset(drawableRect.top, drawableRect.bottom, getHeight());
+            if (dx != 0 || dy != 0) {
+                zoomMatrix.postTranslate(dx, dy);
+                drawMatrix.postTranslate(dx, dy);
+            }
+        }
+        
+        setImageMatrix(drawMatrix);
+        invalidate();
+    }
+    
+    /**
+     * 计算单个方向上需要修正的平移量：内容小于视图时居中，否则不允许露出边缘
+     */
+    private static float constrainOffset(float start, float end, int viewSize) {
+        float contentSize = end - start;
+        if (contentSize <= viewSize) {
+            return (viewSize - contentSize) / 2f - start;
+        }
+        if (start > 0) {
+            return -start;
+        }
+        if (end < viewSize) {
+            return viewSize - end;
+        }
+        return 0;
+    }
+    
+    /**
+     * 长按后开始框选
+     */
+    private void startSelection(float x, float y) {
+        if (regionSelectedListener == null || getDrawable() == null) {
+            return;
+        }
+        selecting = true;
+        selectionStartX = x;
+        selectionStartY = y;
+        selectionRect.set(x, y, x, y);
+        performHapticFeedback(HapticFeedbackConstants.LONG_PRESS);
+        invalidate();
+    }
+    
+    /**
+     * 更新选区，限制在页面显示范围内
+     */
+    private void updateSelection(float x, float y) {
+        selectionRect.set(
+                Math.min(selectionStartX, x), Math.min(selectionStartY, y),
+                Math.max(selectionStartX, x), Math.max(selectionStartY, y));
+        Drawable drawable = getDrawable();
+        if (drawable != null) {
+            drawableRect.set(0, 0, drawable.getIntrinsicWidth(), drawable.getIntrinsicHeight());
+            drawMatrix.mapRect(drawableRect);
+            if (!selectionRect.intersect(drawableRect)) {
+                selectionRect.setEmpty();
+            }
+        }
+        invalidate();
+    }
+    
+    /**
+     * 结束框选，将选区换算为页面相对坐标并回调
+     */
+    private void finishSelection() {
+        selecting = false;
+        invalidate();
+        
+        Drawable drawable = getDrawable();
+        float minSize = MIN_SELECTION_DP * getResources().getDisplayMetrics().density;
+        if (drawable == null || selectionRect.width() < minSize || selectionRect.height() < minSize
+                || !drawMatrix.invert(inverseMatrix)) {
+            return;
+        }
+        
+        // 视图坐标 -> 位图坐标 -> 页面相对坐标
+        RectF region = new RectF(selectionRect);
+        inverseMatrix.mapRect(region);
+        float width = drawable.getIntrinsicWidth();
+        float height = drawable.getIntrinsicHeight();
+        region.set(
+                Math.max(0f, region.left / width), Math.max(0f, region.top / height),
+                Math.min(1f, region.right / width), Math.min(1f, region.bottom / height));
+        if (!region.isEmpty()) {
+            regionSelectedListener.onRegionSelected(shownPage, region);
+        }
+    }
+    
+    /**
+     * 取消框选
+     */
+    private void cancelSelection() {
+        if (selecting) {
+            selecting = false;
+            invalidate();
+        }
+    }
+    
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (selecting) {
+            // 框选期间不缩放或拖动页面
+            switch (event.getActionMasked()) {
+                case MotionEvent.ACTION_MOVE:
+                    updateSelection(event.getX(), event.getY());
+                    break;
+                case MotionEvent.ACTION_UP:
+                    updateSelection(event.getX(), event.getY());
+                    finishSelection();
+                    break;
+                case MotionEvent.ACTION_CANCEL:
+                    cancelSelection();
+                    break;
+                default:
+                    break;
+            }
+            return true;
+        }
+        
+        boolean handled = scaleDetector.onTouchEvent(event);
+        handled = gestureDetector.onTouchEvent(event) || handled;
+        return handled || super.onTouchEvent(event);
+    }
+    
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        
+        Drawable drawable = getDrawable();
+        if (tileManager != null && drawable != null && getZoom() > TILE_ZOOM_THRESHOLD) {
+            tileManager.drawTiles(canvas, drawMatrix,
+                    drawable.getIntrinsicWidth(), drawable.getIntrinsicHeight(),
+                    getWidth(), getHeight(), getZoom());
+        }
+        
+        if (selecting) {
+            canvas.drawRect(selectionRect, selectionFillPaint);
+            canvas.drawRect(selectionRect, selectionStrokePaint);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.deepreadx.viewer;
+
+import com.deepreadx.dao.PageMetricsDao;
+import com.deepreadx.model.PageMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文档页面尺寸索引，记录每一页的原始尺寸，布局时无需打开页面即可计算页面大小
+ *
+ * <p>索引按文档指纹持久化到数据库，同一文档再次打开时直接读取。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PageMetricsIndex {
+    private final int[] widths;
+    private final int[] heights;
+    
+    /**
+     * 构造函数
+     *
+     * @param widths 每页宽度（点）
+     * @param heights 每页高度（点）
+     */
+    PageMetricsIndex(int[] widths, int[] heights) {
+        this.widths = widths;
+        this.heights = heights;
+    }
+    
+    /**
+     * 从数据库读取索引，记录不完整时返回null
+     *
+     * @param dao 页面尺寸DAO
+     * @param fingerprint 文档指纹
+     * @param pageCount 文档页数
+     * @return 页面尺寸索引，或null
+     */
+    public static PageMetricsIndex fromDatabase(PageMetricsDao dao, String fingerprint, int pageCount) {
+        List<PageMetrics> stored = dao.queryByDocument(fingerprint);
+        if (stored.size() != pageCount) {
+            return null;
+        }
+        
+        int[] widths = new int[pageCount];
+        int[] heights = new int[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            PageMetrics metrics = stored.get(i);
+            if (metrics.getPageIndex() != i || metrics.getWidth() <= 0 || metrics.getHeight() <= 0) {
+                return null;
+            }
+            widths[i] = metrics.getWidth();
+            heights[i] = metrics.getHeight();
+        }
+        return new PageMetricsIndex(widths, heights);
+    }
+    
+    /**
+     * 将索引保存到数据库，覆盖该文档原有的记录
+     *
+     * @param dao 页面尺寸DAO
+     * @param fingerprint 文档指纹
+     */
+    public void saveTo(PageMetricsDao dao, String fingerprint) {
+        List<PageMetrics> metrics = new ArrayList<>(widths.length);
+        for (int i = 0; i < widths.length; i++) {
+            metrics.add(new PageMetrics(fingerprint, i, widths[i], heights[i]));
+        }
+        dao.deleteByDocument(fingerprint);
+        dao.insertAll(metrics);
+    }
+    
+    /**
+     * 获取页数
+     *
+     * @return 页数
+     */
+    public int getPageCount() {
+        return widths.length;
+    }
+    
+    /**
+     * 获取页面原始宽度
+     *
+     * @param pageIndex 页码索引
+     * @return 宽度（点）
+     */
+    public int getPageWidth(int pageIndex) {
+        return widths[pageIndex];
+    }
+    
+    /**
+     * 获取页面原始高度
+     *
+     * @param pageIndex 页码索引
+     * @return 高度（点）
+     */
+    public int getPageHeight(int pageIndex) {
+        return heights[pageIndex];
+    }
+    
+    /**
+     * 计算页面按指定宽度缩放后的高度
+     *
+     * @param pageIndex 页码索引
+     * @param targetWidth 目标宽度（像素）
+     * @return 缩放后的高度（像素）
+     */
+    public int getScaledHeight(int pageIndex, int targetWidth) {
+        return Math.round((float) targetWidth * heights[pageIndex] / widths[pageIndex]);
+    }
+    
+    /**
+     * 计算所有页面按指定宽度纵向排列后的总高度
+     *
+     * @param targetWidth 目标宽度（像素）
+     * @param pageGap 页面间距（像素）
+     * @return 总高度（像素）
+     */
+    public long getTotalHeight(int targetWidth, int pageGap) {
+        long total = 0;
+        for (int i = 0; i < widths.length; i++) {
+            total += getScaledHeight(i, targetWidth) + pageGap;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,811 @@
+package com.deepreadx.viewer;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import android.util.Log;
+import android.util.LruCache;
+import android.util.Size;
+
+import com.deepreadx.cache.CacheManager;
+import com.deepreadx.cache.TrimmableCache;
+import com.deepreadx.dao.PageMetricsDao;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 页面渲染服务，在后台线程渲染PDF页面，预取相邻页面并缓存渲染结果
+ *
+ * <p>所有对{@link PdfRenderer}的调用都经过{@link RenderQueue}按优先级执行，渲染线程数与
+ * {@link PdfRendererPool}的实例数一致；可见页面优先于分块和预取，连续翻页时被取代的渲染会被合并取消。渲染结果按
+ * (文档, 页码, 目标尺寸) 保存在按字节数限制的LRU缓存中，翻到已预取的页面时无需再次渲染。</p>
+ *
+ * <p>被缓存淘汰且不再显示的位图会放回{@link BitmapPool}供下次渲染复用。正在显示或被其他
+ * 任务使用的位图需要通过{@link #retainBitmap}/{@link #releaseBitmap}登记引用，避免被复用覆盖。</p>
+ *
+ * <p>设置{@link PageDiskCache}后，内存缓存未命中时先从磁盘读取，新渲染的页面在独立线程中写入磁盘。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PageRenderService {
+    private static final String TAG = "PageRenderService";
+    
+    // 默认预取当前页前后各2页
+    private static final int DEFAULT_PREFETCH_DISTANCE = 2;
+    
+    // 位图复用池容量占页面缓存容量的比例（1/4）
+    private static final int POOL_SIZE_DIVISOR = 4;
+    
+    // 建立页面尺寸索引时每批读取的页数，批次之间让出渲染线程
+    private static final int METRICS_BATCH_SIZE = 32;
+    
+    // 可见页面渲染的合并键，新的翻页请求取代尚未完成的旧请求
+    private static final String VISIBLE_PAGE_KEY = "visible";
+    
+    private final PdfRendererPool rendererPool;
+    private final String documentKey;
+    private final RenderQueue renderQueue;
+    private final ExecutorService diskExecutor;
+    private final Handler mainHandler;
+    private final LruCache<String, Bitmap> bitmapCache;
+    private final Set<String> pendingKeys;
+    private final BitmapPool bitmapPool;
+    private final TrimmableCache pageCacheEntry;
+    private CacheManager cacheManager;
+    
+    // 位图引用计数与当前仍在缓存中的位图，均以对象身份区分
+    private final Map<Bitmap, Integer> retainCounts = new IdentityHashMap<>();
+    private final Map<Bitmap, Boolean> cachedBitmaps = new IdentityHashMap<>();
+    
+    private int prefetchDistance = DEFAULT_PREFETCH_DISTANCE;
+    private volatile int visiblePage = -1;
+    private volatile boolean closed = false;
+    private volatile PageDiskCache diskCache;
+    private volatile PageMetricsIndex pageMetrics;
+    
+    /**
+     * 页面渲染回调接口，回调均在主线程执行
+     */
+    public interface RenderCallback {
+        /**
+         * 页面渲染完成回调。回调期间位图已登记引用，回调之后还要使用时需自行调用{@link #retainBitmap}
+         *
+         * @param pageIndex 页码索引
+         * @param bitmap 渲染后的页面图像
+         */
+        void onPageRendered(int pageIndex, Bitmap bitmap);
+        
+        /**
+         * 低分辨率预览渲染完成回调，随后还会收到完整分辨率的{@link #onPageRendered}
+         *
+         * @param pageIndex 页码索引
+         * @param preview 预览图像，不会进入页面缓存
+         */
+        void onPagePreview(int pageIndex, Bitmap preview);
+        
+        /**
+         * 页面渲染失败回调
+         *
+         * @param pageIndex 页码索引
+         * @param e 异常信息
+         */
+        void onRenderFailed(int pageIndex, Exception e);
+    }
+    
+    /**
+     * 分块渲染回调接口，回调在主线程执行
+     */
+    public interface TileCallback {
+        /**
+         * 分块渲染完成回调
+         *
+         * @param tile 分块位图，不再使用时应通过{@link #recycleTile}归还
+         */
+        void onTileRendered(Bitmap tile);
+        
+        /**
+         * 分块渲染失败回调
+         *
+         * @param e 异常信息
+         */
+        void onTileFailed(Exception e);
+    }
+    
+    /**
+     * OCR页面渲染回调接口，回调在主线程执行
+     */
+    public interface OcrRenderCallback {
+        /**
+         * OCR页面渲染完成回调
+         *
+         * @param pageIndex 页码索引
+         * @param bitmap 灰度页面图像，不在缓存中，识别完成后由调用方回收
+         */
+        void onOcrPageRendered(int pageIndex, Bitmap bitmap);
+        
+        /**
+         * OCR页面渲染失败回调
+         *
+         * @param pageIndex 页码索引
+         * @param e 异常信息
+         */
+        void onRenderFailed(int pageIndex, Exception e);
+    }
+    
+    /**
+     * 页面尺寸索引加载回调接口，回调在主线程执行
+     */
+    public interface MetricsCallback {
+        /**
+         * 页面尺寸索引加载完成回调
+         *
+         * @param index 页面尺寸索引
+         */
+        void onMetricsLoaded(PageMetricsIndex index);
+    }
+    
+    /**
+     * 构造函数，渲染服务接管PDF渲染器的所有权，关闭服务时一并关闭渲染器
+     *
+     * @param pdfRenderer PDF渲染器
+     * @param documentKey 文档标识，用于区分不同文档的缓存，只能包含字母和数字
+     * @param cacheSizeBytes 缓存容量上限（字节）
+     */
+    public PageRenderService(PdfRenderer pdfRenderer, String documentKey, int cacheSizeBytes) {
+        this(PdfRendererPool.create(pdfRenderer), documentKey, cacheSizeBytes);
+    }
+    
+    /**
+     * 构造函数，渲染服务接管渲染器池的所有权，每个渲染器实例对应一个渲染线程
+     *
+     * @param rendererPool PDF渲染器池
+     * @param documentKey 文档标识，用于区分不同文档的缓存，只能包含字母和数字
+     * @param cacheSizeBytes 缓存容量上限（字节）
+     */
+    public PageRenderService(PdfRendererPool rendererPool, String documentKey, int cacheSizeBytes) {
+        this.rendererPool = rendererPool;
+        this.documentKey = documentKey;
+        this.renderQueue = new RenderQueue("PageRenderThread", rendererPool.size());
+        this.diskExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PageDiskCacheThread");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.pendingKeys = ConcurrentHashMap.newKeySet();
+        this.bitmapPool = new BitmapPool(cacheSizeBytes / POOL_SIZE_DIVISOR);
+        this.bitmapCache = new LruCache<String, Bitmap>(cacheSizeBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+            
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                if (oldValue != newValue) {
+                    onBitmapUncached(oldValue);
+                }
+            }
+        };
+        this.pageCacheEntry = CacheManager.wrap("PageCache", TrimmableCache.TIER_DERIVED, bitmapCache);
+        rendererPool.setBitmapPool(bitmapPool);
+    }
+    
+    /**
+     * 根据设备内存等级计算默认缓存容量
+     *
+     * @param context 上下文
+     * @return 缓存容量（字节）
+     */
+    public static int defaultCacheSize(Context context) {
+        return CacheManager.getInstance(context).getPageCacheBudget();
+    }
+    
+    /**
+     * 向缓存管理器注册页面缓存和位图复用池，内存紧张时由管理器裁剪，关闭服务时自动注销
+     *
+     * @param manager 缓存管理器
+     */
+    public void registerCaches(CacheManager manager) {
+        this.cacheManager = manager;
+        manager.register(pageCacheEntry);
+        manager.register(bitmapPool);
+    }
+    
+    /**
+     * 设置磁盘缓存
+     *
+     * @param diskCache 磁盘缓存，为null时不使用磁盘缓存
+     */
+    public void setDiskCache(PageDiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+    
+    /**
+     * 获取页面尺寸索引
+     *
+     * @return 页面尺寸索引，尚未加载完成时返回null
+     */
+    public PageMetricsIndex getPageMetrics() {
+        return pageMetrics;
+    }
+    
+    /**
+     * 加载页面尺寸索引：数据库中已有完整记录时直接读取，否则在渲染线程中分批读取
+     * 所有页面尺寸并保存，批次之间可以插入页面渲染任务
+     *
+     * @param dao 页面尺寸DAO
+     * @param callback 加载完成回调
+     */
+    public void loadPageMetrics(final PageMetricsDao dao, final MetricsCallback callback) {
+        if (closed) {
+            return;
+        }
+        
+        renderQueue.submit(RenderQueue.PRIORITY_BACKGROUND, null, signal -> {
+            int pageCount = rendererPool.getPageCount();
+            PageMetricsIndex stored = PageMetricsIndex.fromDatabase(dao, documentKey, pageCount);
+            if (stored != null) {
+                onMetricsReady(stored, callback);
+            } else {
+                readMetricsBatch(dao, new int[pageCount], new int[pageCount], 0, callback);
+            }
+        });
+    }
+    
+    /**
+     * 读取一批页面尺寸，未读完时重新入队读取下一批
+     */
+    private void readMetricsBatch(final PageMetricsDao dao, final int[] widths, final int[] heights,
+                                  final int start, final MetricsCallback callback) {
+        if (closed) {
+            return;
+        }
+        
+        final int end = Math.min(start + METRICS_BATCH_SIZE, widths.length);
+        try {
+            rendererPool.use(renderer -> {
+                for (int i = start; i < end; i++) {
+                    Size size = renderer.readPageSize(i);
+                    widths[i] = size.getWidth();
+                    heights[i] = size.getHeight();
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "读取页面尺寸失败", e);
+            return;
+        }
+        
+        if (end < widths.length) {
+            renderQueue.submit(RenderQueue.PRIORITY_BACKGROUND, null,
+                    signal -> readMetricsBatch(dao, widths, heights, end, callback));
+        } else {
+            PageMetricsIndex index = new PageMetricsIndex(widths, heights);
+            index.saveTo(dao, documentKey);
+            Log.d(TAG, "页面尺寸索引已建立，共" + widths.length + "页");
+            onMetricsReady(index, callback);
+        }
+    }
+    
+    /**
+     * 保存索引并在主线程回调
+     */
+    private void onMetricsReady(final PageMetricsIndex index, final MetricsCallback callback) {
+        pageMetrics = index;
+        mainHandler.post(() -> {
+            if (!closed) {
+                callback.onMetricsLoaded(index);
+            }
+        });
+    }
+    
+    /**
+     * 设置预取距离
+     *
+     * @param prefetchDistance 当前页前后各预取的页数，0表示不预取
+     */
+    public void setPrefetchDistance(int prefetchDistance) {
+        this.prefetchDistance = Math.max(0, prefetchDistance);
+    }
+    
+    /**
+     * 获取页面总数
+     *
+     * @return 页数
+     */
+    public int getPageCount() {
+        return rendererPool.getPageCount();
+    }
+    
+    /**
+     * 从缓存中获取已渲染的页面
+     *
+     * @param pageIndex 页码索引
+     * @param width 目标宽度
+     * @param height 目标高度
+     * @return 已缓存的页面图像，未缓存时返回null
+     */
+    public Bitmap getCachedPage(int pageIndex, int width, int height) {
+        return bitmapCache.get(buildCacheKey(pageIndex, width, height));
+    }
+    
+    /**
+     * 从缓存中获取页面并登记引用，查找和登记在同一把锁内完成，
+     * 避免渲染线程在两者之间淘汰该位图并放回复用池
+     *
+     * @return 已登记引用的页面图像，使用完后需调用{@link #releaseBitmap}；未缓存时返回null
+     */
+    private Bitmap acquireCachedPage(int pageIndex, int width, int height) {
+        synchronized (retainCounts) {
+            Bitmap cached = bitmapCache.get(buildCacheKey(pageIndex, width, height));
+            retainBitmap(cached);
+            return cached;
+        }
+    }
+    
+    /**
+     * 请求显示指定页面，已缓存时在当前线程立即回调；否则在后台渐进式渲染，
+     * 先回调低分辨率预览，再回调完整分辨率页面。同时预取相邻页面
+     *
+     * <p>新的请求会取代上一个尚未完成的可见页面渲染，连续翻页时只渲染最后一页。</p>
+     *
+     * @param pageIndex 页码索引
+     * @param width 目标宽度（像素）
+     * @param height 目标高度（像素）
+     * @param callback 渲染回调
+     */
+    public void requestPage(final int pageIndex, final int width, final int height,
+                            final RenderCallback callback) {
+        if (closed) {
+            return;
+        }
+        visiblePage = pageIndex;
+        
+        Bitmap cached = acquireCachedPage(pageIndex, width, height);
+        if (cached != null) {
+            // 取消上一页尚未完成的渲染
+            renderQueue.cancel(VISIBLE_PAGE_KEY);
+            try {
+                callback.onPageRendered(pageIndex, cached);
+            } finally {
+                releaseBitmap(cached);
+            }
+        } else {
+            renderQueue.submit(RenderQueue.PRIORITY_VISIBLE, VISIBLE_PAGE_KEY,
+                    signal -> renderVisiblePage(pageIndex, width, height, signal, callback));
+        }
+        
+        prefetchAround(pageIndex, width, height);
+    }
+    
+    /**
+     * 加载指定页面，供连续滚动模式中的每个页面视图使用。与{@link #requestPage}不同，
+     * 不会取消其他页面的渲染，也不触发预取
+     *
+     * @param pageIndex 页码索引
+     * @param width 目标宽度（像素）
+     * @param height 目标高度（像素）
+     * @param callback 渲染回调
+     * @return 取消信号，页面视图被回收时调用cancel；已缓存或服务已关闭时返回null
+     */
+    public CancellationSignal loadPage(final int pageIndex, final int width, final int height,
+                                       final RenderCallback callback) {
+        if (closed) {
+            return null;
+        }
+        
+        Bitmap cached = acquireCachedPage(pageIndex, width, height);
+        if (cached != null) {
+            try {
+                callback.onPageRendered(pageIndex, cached);
+            } finally {
+                releaseBitmap(cached);
+            }
+            return null;
+        }
+        
+        return renderQueue.submit(RenderQueue.PRIORITY_VISIBLE, null,
+                signal -> renderVisiblePage(pageIndex, width, height, signal, callback));
+    }
+    
+    /**
+     * 渲染可见页面，仅在渲染线程中调用
+     */
+    private void renderVisiblePage(final int pageIndex, int width, int height,
+                                   final CancellationSignal signal, final RenderCallback callback) {
+        if (closed || signal.isCanceled()) {
+            return;
+        }
+        
+        try {
+            final String key = buildCacheKey(pageIndex, width, height);
+            Bitmap bitmap = bitmapCache.get(key);
+            if (bitmap == null) {
+                bitmap = loadFromDisk(key);
+            }
+            if (bitmap == null) {
+                bitmap = rendererPool.use(renderer -> renderer.renderPageProgressive(
+                        pageIndex, width, height, signal, preview -> mainHandler.post(() -> {
+                            if (!closed && !signal.isCanceled()) {
+                                callback.onPagePreview(pageIndex, preview);
+                            } else {
+                                bitmapPool.release(preview);
+                            }
+                        })));
+                bitmap = putToCache(key, bitmap);
+                writeToDisk(key, bitmap);
+            }
+            
+            // 投递到主线程期间保持引用，防止位图被淘汰后复用
+            final Bitmap result = bitmap;
+            retainBitmap(result);
+            mainHandler.post(() -> {
+                if (!closed && !signal.isCanceled()) {
+                    callback.onPageRendered(pageIndex, result);
+                }
+                releaseBitmap(result);
+            });
+        } catch (OperationCanceledException e) {
+            Log.d(TAG, "页面渲染已取消: " + pageIndex);
+        } catch (final Exception e) {
+            Log.e(TAG, "渲染页面失败: " + pageIndex, e);
+            mainHandler.post(() -> callback.onRenderFailed(pageIndex, e));
+        }
+    }
+    
+    /**
+     * 在后台渲染页面的一个分块
+     *
+     * @param pageIndex 页码索引
+     * @param pageWidth 当前缩放级别下整页的宽度（像素）
+     * @param pageHeight 当前缩放级别下整页的高度（像素）
+     * @param tileRect 分块在整页中的位置
+     * @param callback 分块渲染回调
+     * @return 取消令牌，取消后不再渲染或回调；服务已关闭时返回null
+     */
+    public CancellationSignal requestTile(final int pageIndex, final int pageWidth, final int pageHeight,
+                                          final Rect tileRect, final TileCallback callback) {
+        if (closed) {
+            return null;
+        }
+        
+        return renderQueue.submit(RenderQueue.PRIORITY_TILE, null, signal -> {
+            if (closed) {
+                return;
+            }
+            try {
+                final Bitmap tile = rendererPool.use(
+                        renderer -> renderer.renderTile(pageIndex, pageWidth, pageHeight, tileRect));
+                mainHandler.post(() -> {
+                    if (closed || signal.isCanceled()) {
+                        recycleTile(tile);
+                    } else {
+                        callback.onTileRendered(tile);
+                    }
+                });
+            } catch (final Exception e) {
+                Log.w(TAG, "渲染分块失败: " + pageIndex + " " + tileRect, e);
+                mainHandler.post(() -> {
+                    if (!closed && !signal.isCanceled()) {
+                        callback.onTileFailed(e);
+                    }
+                });
+            }
+        });
+    }
+    
+    /**
+     * 按OCR分辨率在后台渲染页面，与屏幕显示的页面缓存互不影响
+     *
+     * @param pageIndex 页码索引
+     * @param dpi 目标分辨率，通常为{@link PdfRenderer#DEFAULT_OCR_DPI}
+     * @param callback OCR页面渲染回调
+     * @return 取消令牌，服务已关闭时返回null
+     */
+    public CancellationSignal requestOcrPage(int pageIndex, int dpi, OcrRenderCallback callback) {
+        // 用户主动发起的识别，与可见页面同等优先
+        return requestOcrPage(pageIndex, dpi, RenderQueue.PRIORITY_VISIBLE, callback);
+    }
+    
+    /**
+     * 以指定优先级按OCR分辨率渲染页面，后台建立文本索引时使用{@link RenderQueue#PRIORITY_BACKGROUND}
+     *
+     * @param pageIndex 页码索引
+     * @param dpi 目标分辨率
+     * @param priority 渲染队列优先级
+     * @param callback OCR页面渲染回调
+     * @return 取消令牌，服务已关闭时返回null
+     */
+    public CancellationSignal requestOcrPage(final int pageIndex, final int dpi, int priority,
+                                             final OcrRenderCallback callback) {
+        if (closed) {
+            return null;
+        }
+        
+        return renderQueue.submit(priority, null, signal -> {
+            try {
+                final Bitmap bitmap = rendererPool.use(renderer -> renderer.renderPageForOcr(pageIndex, dpi));
+                mainHandler.post(() -> {
+                    if (closed || signal.isCanceled()) {
+                        bitmap.recycle();
+                    } else {
+                        callback.onOcrPageRendered(pageIndex, bitmap);
+                    }
+                });
+            } catch (final Exception e) {
+                Log.e(TAG, "渲染OCR页面失败: " + pageIndex, e);
+                mainHandler.post(() -> callback.onRenderFailed(pageIndex, e));
+            }
+        });
+    }
+    
+    /**
+     * 按OCR分辨率在后台渲染页面中的一块区域，用于框选识别
+     *
+     * @param pageIndex 页码索引
+     * @param region 页面相对坐标区域，各边取值范围为0到1
+     * @param dpi 目标分辨率
+     * @param callback OCR页面渲染回调，回调的位图只包含选定区域
+     * @return 取消令牌，服务已关闭时返回null
+     */
+    public CancellationSignal requestOcrRegion(final int pageIndex, RectF region, final int dpi,
+                                               final OcrRenderCallback callback) {
+        if (closed) {
+            return null;
+        }
+        
+        final RectF regionCopy = new RectF(region);
+        return renderQueue.submit(RenderQueue.PRIORITY_VISIBLE, null, signal -> {
+            try {
+                final Bitmap bitmap = rendererPool.use(
+                        renderer -> renderer.renderRegionForOcr(pageIndex, regionCopy, dpi));
+                mainHandler.post(() -> {
+                    if (closed || signal.isCanceled()) {
+                        bitmap.recycle();
+                    } else {
+                        callback.onOcrPageRendered(pageIndex, bitmap);
+                    }
+                });
+            } catch (final Exception e) {
+                Log.e(TAG, "渲染OCR区域失败: " + pageIndex + " " + regionCopy, e);
+                mainHandler.post(() -> callback.onRenderFailed(pageIndex, e));
+            }
+        });
+    }
+    
+    /**
+     * 归还不再使用的分块位图
+     *
+     * @param tile 分块位图
+     */
+    public void recycleTile(Bitmap tile) {
+        bitmapPool.release(tile);
+    }
+    
+    /**
+     * 预取当前页前后的页面，由近到远依次提交
+     *
+     * @param centerPage 当前页码
+     * @param width 目标宽度
+     * @param height 目标高度
+     */
+    private void prefetchAround(int centerPage, int width, int height) {
+        int pageCount = rendererPool.getPageCount();
+        for (int distance = 1; distance <= prefetchDistance; distance++) {
+            prefetchPage(centerPage + distance, pageCount, width, height);
+            prefetchPage(centerPage - distance, pageCount, width, height);
+        }
+    }
+    
+    /**
+     * 提交单页预取任务
+     */
+    private void prefetchPage(final int pageIndex, int pageCount, final int width, final int height) {
+        if (pageIndex < 0 || pageIndex >= pageCount) {
+            return;
+        }
+        
+        final String key = buildCacheKey(pageIndex, width, height);
+        if (bitmapCache.get(key) != null || !pendingKeys.add(key)) {
+            return;
+        }
+        
+        renderQueue.submit(RenderQueue.PRIORITY_PREFETCH, null, signal -> {
+            try {
+                // 预取任务执行时当前页已远离，则不再渲染
+                if (closed || Math.abs(pageIndex - visiblePage) > prefetchDistance) {
+                    return;
+                }
+                renderToCache(pageIndex, width, height);
+            } catch (Exception e) {
+                Log.w(TAG, "预取页面失败: " + pageIndex, e);
+            } finally {
+                pendingKeys.remove(key);
+            }
+        });
+    }
+    
+    /**
+     * 渲染页面并放入缓存，仅在渲染线程中调用
+     */
+    private Bitmap renderToCache(int pageIndex, int width, int height) {
+        String key = buildCacheKey(pageIndex, width, height);
+        Bitmap bitmap = bitmapCache.get(key);
+        if (bitmap == null) {
+            bitmap = loadFromDisk(key);
+        }
+        if (bitmap == null) {
+            bitmap = rendererPool.use(renderer -> renderer.renderPage(pageIndex, width, height));
+            bitmap = putToCache(key, bitmap);
+            writeToDisk(key, bitmap);
+        }
+        return bitmap;
+    }
+    
+    /**
+     * 从磁盘缓存读取页面并放入内存缓存，仅在渲染线程中调用
+     *
+     * @return 页面图像，磁盘中不存在时返回null
+     */
+    private Bitmap loadFromDisk(String key) {
+        PageDiskCache cache = diskCache;
+        if (cache == null) {
+            return null;
+        }
+        Bitmap bitmap = cache.get(key, bitmapPool);
+        return bitmap != null ? putToCache(key, bitmap) : null;
+    }
+    
+    /**
+     * 在磁盘线程中将新渲染的页面写入磁盘缓存，写入期间保持对位图的引用
+     */
+    private void writeToDisk(final String key, final Bitmap bitmap) {
+        final PageDiskCache cache = diskCache;
+        if (cache == null || cache.contains(key)) {
+            return;
+        }
+        retainBitmap(bitmap);
+        diskExecutor.execute(() -> {
+            try {
+                cache.put(key, bitmap);
+            } finally {
+                releaseBitmap(bitmap);
+            }
+        });
+    }
+    
+    /**
+     * 放入缓存并登记位图。多个渲染线程同时渲染了同一页面时保留先放入的位图，
+     * 后渲染的位图直接归还复用池
+     *
+     * @return 缓存中的位图
+     */
+    private Bitmap putToCache(String key, Bitmap bitmap) {
+        synchronized (retainCounts) {
+            Bitmap existing = bitmapCache.get(key);
+            if (existing != null && existing != bitmap) {
+                bitmapPool.release(bitmap);
+                return existing;
+            }
+            cachedBitmaps.put(bitmap, Boolean.TRUE);
+            bitmapCache.put(key, bitmap);
+        }
+        return bitmap;
+    }
+    
+    /**
+     * 位图被移出缓存时调用，没有其他引用时放回复用池
+     */
+    private void onBitmapUncached(Bitmap bitmap) {
+        synchronized (retainCounts) {
+            cachedBitmaps.remove(bitmap);
+            if (retainCounts.containsKey(bitmap)) {
+                return;
+            }
+        }
+        bitmapPool.release(bitmap);
+    }
+    
+    /**
+     * 登记对位图的引用，例如将其设置到ImageView或交给OCR处理，登记期间位图不会被复用
+     *
+     * @param bitmap 由本服务渲染的位图
+     */
+    public void retainBitmap(Bitmap bitmap) {
+        if (bitmap == null) {
+            return;
+        }
+        synchronized (retainCounts) {
+            Integer count = retainCounts.get(bitmap);
+            retainCounts.put(bitmap, count == null ? 1 : count + 1);
+        }
+    }
+    
+    /**
+     * 释放对位图的引用，引用全部释放且位图已不在缓存中时放回复用池
+     *
+     * @param bitmap 之前登记过引用的位图
+     */
+    public void releaseBitmap(Bitmap bitmap) {
+        if (bitmap == null) {
+            return;
+        }
+        synchronized (retainCounts) {
+            Integer count = retainCounts.get(bitmap);
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                retainCounts.put(bitmap, count - 1);
+                return;
+            }
+            retainCounts.remove(bitmap);
+            if (cachedBitmaps.containsKey(bitmap)) {
+                return;
+            }
+        }
+        bitmapPool.release(bitmap);
+    }
+    
+    /**
+     * 获取位图复用池统计信息
+     *
+     * @return 命中、未命中次数及占用字节数
+     */
+    public BitmapPool.Stats getBitmapPoolStats() {
+        return bitmapPool.getStats();
+    }
+    
+    /**
+     * 构建缓存键：文档标识 + 页码 + 目标尺寸
+     */
+    private String buildCacheKey(int pageIndex, int width, int height) {
+        return documentKey + "_" + pageIndex + "_" + width + "x" + height;
+    }
+    
+    /**
+     * 清空页面缓存
+     */
+    public void clearCache() {
+        bitmapCache.evictAll();
+    }
+    
+    /**
+     * 关闭渲染服务，等待正在进行的渲染结束后关闭PDF渲染器
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        mainHandler.removeCallbacksAndMessages(null);
+        if (cacheManager != null) {
+            cacheManager.unregister(pageCacheEntry);
+            cacheManager.unregister(bitmapPool);
+            cacheManager = null;
+        }
+        // 取消排队中的任务，所有渲染线程结束后再关闭渲染器，避免与正在进行的渲染冲突
+        renderQueue.shutdown(() -> {
+            Log.d(TAG, "渲染器池统计: " + rendererPool.getStats());
+            rendererPool.close();
+            bitmapCache.evictAll();
+            Log.d(TAG, "渲染队列统计: " + renderQueue.getStats());
+            Log.d(TAG, "位图复用池统计: " + bitmapPool.getStats());
+            bitmapPool.clear();
+            // 渲染线程提交的磁盘写入任务都已入队，此后再关闭磁盘线程
+            diskExecutor.shutdown();
+        });
+    }
+}
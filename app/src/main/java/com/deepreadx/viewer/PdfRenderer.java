@@ -2,15 +2,29 @@ package com.deepreadx.viewer;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorMatrix;
+import android.graphics.ColorMatrixColorFilter;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
 import android.graphics.pdf.PdfRenderer.Page;
 import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
 import android.os.ParcelFileDescriptor;
 import android.util.Log;
+import android.util.Size;
 
 import java.io.IOException;
 
 /**
  * PDF渲染管理类，负责PDF文件的加载、显示和分页浏览
+ *
+ * <p>系统PdfRenderer同一时间只能打开一个页面，本类以页面锁保证打开、渲染、关闭页面的过程互斥，
+ * 并在关闭时等待正在渲染的页面结束。渲染任务应统一通过{@link RenderQueue}提交。</p>
  * 
  * @author DeepReadX团队
  * @created 2025-05-18
@@ -18,9 +32,40 @@ import java.io.IOException;
 public class PdfRenderer implements AutoCloseable {
     private static final String TAG = "PdfRenderer";
     
-    private android.graphics.pdf.PdfRenderer renderer;
+    // 预览渲染的线性缩放比例，0.5即四分之一像素数
+    private static final float PREVIEW_SCALE = 0.5f;
+    
+    /** OCR渲染的默认分辨率，小字号中文在该分辨率下笔画仍清晰可辨 */
+    public static final int DEFAULT_OCR_DPI = 200;
+    
+    // PDF页面尺寸的单位为点（1/72英寸）
+    private static final float POINTS_PER_INCH = 72f;
+    
+    // OCR图像长边上限（像素），超过后识别精度不再提高，只增加耗时和内存
+    private static final int MAX_OCR_LONG_SIDE = 4096;
+    
+    // OCR分带渲染时每一带的高度（像素）
+    private static final int OCR_BAND_HEIGHT = 256;
+    
+    private volatile android.graphics.pdf.PdfRenderer renderer;
     private ParcelFileDescriptor fileDescriptor;
     private int pageCount;
+    private BitmapPool bitmapPool;
+    
+    // 页面锁，保证同一时间只有一个页面处于打开状态
+    private final Object pageLock = new Object();
+    
+    /**
+     * 渐进式渲染的预览回调接口
+     */
+    public interface PreviewListener {
+        /**
+         * 低分辨率预览渲染完成回调，在渲染线程中执行
+         *
+         * @param preview 预览位图，尺寸为目标尺寸的一半
+         */
+        void onPreview(Bitmap preview);
+    }
     
     /**
      * 构造函数
@@ -38,10 +83,7 @@ public class PdfRenderer implements AutoCloseable {
             }
             
             // 创建PDF渲染器
-            renderer = new android.graphics.pdf.PdfRenderer(fileDescriptor);
-            pageCount = renderer.getPageCount();
-            
-            Log.d(TAG, "PDF已加载，共" + pageCount + "页");
+            openRenderer();
         } catch (IOException e) {
             close();
             throw e;
@@ -51,6 +93,49 @@ public class PdfRenderer implements AutoCloseable {
         }
     }
     
+    /**
+     * 使用已打开的文件描述符构造，渲染器接管描述符的所有权，关闭时一并关闭
+     *
+     * @param fileDescriptor PDF文件描述符，通常为{@link #duplicateFileDescriptor()}的结果
+     * @throws IOException 如果PDF文件无法打开
+     */
+    public PdfRenderer(ParcelFileDescriptor fileDescriptor) throws IOException {
+        this.fileDescriptor = fileDescriptor;
+        try {
+            openRenderer();
+        } catch (IOException e) {
+            close();
+            throw e;
+        } catch (Exception e) {
+            close();
+            throw new IOException("无法初始化PDF渲染器: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 在文件描述符上创建系统PDF渲染器
+     */
+    private void openRenderer() throws IOException {
+        renderer = new android.graphics.pdf.PdfRenderer(fileDescriptor);
+        pageCount = renderer.getPageCount();
+        
+        Log.d(TAG, "PDF已加载，共" + pageCount + "页");
+    }
+    
+    /**
+     * 复制文件描述符，用于在同一文档上打开另一个渲染器实例
+     *
+     * @return 新的文件描述符，由调用方负责关闭
+     * @throws IOException 如果复制失败或渲染器已关闭
+     */
+    public ParcelFileDescriptor duplicateFileDescriptor() throws IOException {
+        ParcelFileDescriptor descriptor = fileDescriptor;
+        if (descriptor == null) {
+            throw new IOException("PDF渲染器已关闭");
+        }
+        return descriptor.dup();
+    }
+    
     /**
      * 获取PDF文档总页数
      *
@@ -60,6 +145,41 @@ public class PdfRenderer implements AutoCloseable {
         return pageCount;
     }
     
+    /**
+     * 读取指定页面的原始尺寸
+     *
+     * @param pageIndex 页码索引，从0开始
+     * @return 页面尺寸（点，1/72英寸）
+     * @throws IllegalArgumentException 当页码超出范围时
+     */
+    public Size readPageSize(int pageIndex) {
+        if (renderer == null) {
+            throw new IllegalStateException("PDF渲染器未初始化或已关闭");
+        }
+        
+        if (pageIndex < 0 || pageIndex >= pageCount) {
+            throw new IllegalArgumentException("页码超出范围: " + pageIndex);
+        }
+        
+        synchronized (pageLock) {
+            Page page = openPage(pageIndex);
+            try {
+                return new Size(page.getWidth(), page.getHeight());
+            } finally {
+                page.close();
+            }
+        }
+    }
+    
+    /**
+     * 设置位图复用池，设置后渲染时优先从池中取出位图绘制
+     *
+     * @param bitmapPool 位图复用池，为null时每次新建位图
+     */
+    public void setBitmapPool(BitmapPool bitmapPool) {
+        this.bitmapPool = bitmapPool;
+    }
+    
     /**
      * 渲染指定页码到Bitmap对象
      *
@@ -78,24 +198,233 @@ public class PdfRenderer implements AutoCloseable {
             throw new IllegalArgumentException("页码超出范围: " + pageIndex);
         }
         
-        // 打开指定页面
-        Page page = renderer.openPage(pageIndex);
+        synchronized (pageLock) {
+            // 打开指定页面
+            Page page = openPage(pageIndex);
+            try {
+                // 计算适当的缩放比例以适应目标尺寸
+                float pageWidth = page.getWidth();
+                float pageHeight = page.getHeight();
+                float scale = Math.min((float) width / pageWidth, (float) height / pageHeight);
+                
+                // 创建Bitmap用于渲染，有复用池时从池中取出已清空的位图
+                int scaledWidth = Math.round(pageWidth * scale);
+                int scaledHeight = Math.round(pageHeight * scale);
+                Bitmap bitmap = obtainBitmap(scaledWidth, scaledHeight);
+                
+                // 渲染页面到Bitmap
+                page.render(bitmap, null, null, Page.RENDER_MODE_FOR_DISPLAY);
+                return bitmap;
+            } finally {
+                page.close();
+            }
+        }
+    }
+    
+    /**
+     * 渐进式渲染指定页面：先渲染四分之一分辨率的预览并立即回调，再渲染完整分辨率
+     *
+     * <p>两次渲染之前及之后都会检查取消信号，用户快速翻页时尚未开始的渲染会被跳过，
+     * 已取消的渲染结果会归还复用池。</p>
+     *
+     * @param pageIndex 页码索引，从0开始
+     * @param width 目标宽度（像素）
+     * @param height 目标高度（像素）
+     * @param signal 取消信号
+     * @param listener 预览回调
+     * @return 完整分辨率的页面Bitmap
+     * @throws OperationCanceledException 当渲染被取消时
+     */
+    public Bitmap renderPageProgressive(int pageIndex, int width, int height,
+                                        CancellationSignal signal, PreviewListener listener) {
+        // 第一遍：低分辨率预览
+        signal.throwIfCanceled();
+        int previewWidth = Math.max(1, Math.round(width * PREVIEW_SCALE));
+        int previewHeight = Math.max(1, Math.round(height * PREVIEW_SCALE));
+        Bitmap preview = renderPage(pageIndex, previewWidth, previewHeight);
+        if (signal.isCanceled()) {
+            releaseBitmap(preview);
+            throw new OperationCanceledException();
+        }
+        listener.onPreview(preview);
+        
+        // 第二遍：完整分辨率
+        signal.throwIfCanceled();
+        Bitmap bitmap = renderPage(pageIndex, width, height);
+        if (signal.isCanceled()) {
+            releaseBitmap(bitmap);
+            throw new OperationCanceledException();
+        }
+        return bitmap;
+    }
+    
+    /**
+     * 渲染页面的一个矩形分块，用于放大后只渲染可见区域
+     *
+     * <p>页面先按整页目标尺寸缩放，再平移到分块左上角，因此放大倍数再高，
+     * 分配的位图也只有分块大小。</p>
+     *
+     * @param pageIndex 页码索引，从0开始
+     * @param pageWidth 当前缩放级别下整页的宽度（像素）
+     * @param pageHeight 当前缩放级别下整页的高度（像素）
+     * @param tileRect 分块在整页中的位置（像素）
+     * @return 分块大小的位图
+     * @throws IllegalArgumentException 当页码超出范围时
+     */
+    public Bitmap renderTile(int pageIndex, int pageWidth, int pageHeight, Rect tileRect) {
+        if (renderer == null) {
+            throw new IllegalStateException("PDF渲染器未初始化或已关闭");
+        }
         
-        // 计算适当的缩放比例以适应目标尺寸
-        float pageWidth = page.getWidth();
-        float pageHeight = page.getHeight();
-        float scale = Math.min((float) width / pageWidth, (float) height / pageHeight);
+        if (pageIndex < 0 || pageIndex >= pageCount) {
+            throw new IllegalArgumentException("页码超出范围: " + pageIndex);
+        }
+        
+        synchronized (pageLock) {
+            Page page = openPage(pageIndex);
+            try {
+                // 分块叠加在低分辨率页面之上，需要不透明的白色背景
+                Bitmap bitmap = obtainBitmap(tileRect.width(), tileRect.height());
+                bitmap.eraseColor(Color.WHITE);
+                
+                // 页面坐标 -> 整页像素坐标 -> 分块坐标
+                Matrix matrix = new Matrix();
+                matrix.setScale((float) pageWidth / page.getWidth(), (float) pageHeight / page.getHeight());
+                matrix.postTranslate(-tileRect.left, -tileRect.top);
+                
+                Rect clip = new Rect(0, 0, tileRect.width(), tileRect.height());
+                page.render(bitmap, clip, matrix, Page.RENDER_MODE_FOR_DISPLAY);
+                return bitmap;
+            } finally {
+                page.close();
+            }
+        }
+    }
+    
+    /**
+     * 按指定分辨率渲染用于OCR识别的灰度页面，与屏幕显示尺寸无关
+     *
+     * <p>系统渲染器只能输出ARGB_8888，因此按水平分带渲染到一块较小的ARGB_8888位图上，
+     * 再逐带转为灰度绘制到RGB_565目标位图，整页只占用一半内存。背景填充为白色，
+     * 避免透明区域被识别为黑色。</p>
+     *
+     * @param pageIndex 页码索引，从0开始
+     * @param dpi 目标分辨率（每英寸像素数），长边超过上限时按比例降低
+     * @return RGB_565格式的灰度页面，不进入缓存或复用池，由调用方负责回收
+     * @throws IllegalArgumentException 当页码超出范围时
+     */
+    public Bitmap renderPageForOcr(int pageIndex, int dpi) {
+        return renderRegionForOcr(pageIndex, new RectF(0f, 0f, 1f, 1f), dpi);
+    }
+    
+    /**
+     * 按指定分辨率只渲染页面中的一块区域用于OCR识别
+     *
+     * <p>区域以页面相对坐标表示，只分配和渲染区域大小的位图，框选一段文字时
+     * 识别的像素量远小于整页。长边上限按区域尺寸计算，小区域可以保持完整分辨率。</p>
+     *
+     * @param pageIndex 页码索引，从0开始
+     * @param region 页面相对坐标区域，各边取值范围为0到1
+     * @param dpi 目标分辨率（每英寸像素数），长边超过上限时按比例降低
+     * @return RGB_565格式的灰度区域图像，由调用方负责回收
+     * @throws IllegalArgumentException 当页码超出范围或区域为空时
+     */
+    public Bitmap renderRegionForOcr(int pageIndex, RectF region, int dpi) {
+        if (renderer == null) {
+            throw new IllegalStateException("PDF渲染器未初始化或已关闭");
+        }
         
-        // 创建Bitmap用于渲染
-        int scaledWidth = Math.round(pageWidth * scale);
-        int scaledHeight = Math.round(pageHeight * scale);
-        Bitmap bitmap = Bitmap.createBitmap(scaledWidth, scaledHeight, Bitmap.Config.ARGB_8888);
+        if (pageIndex < 0 || pageIndex >= pageCount) {
+            throw new IllegalArgumentException("页码超出范围: " + pageIndex);
+        }
         
-        // 渲染页面到Bitmap
-        page.render(bitmap, null, null, Page.RENDER_MODE_FOR_DISPLAY);
-        page.close();
+        if (region.isEmpty() || region.left < 0f || region.top < 0f
+                || region.right > 1f || region.bottom > 1f) {
+            throw new IllegalArgumentException("无效的页面区域: " + region);
+        }
         
-        return bitmap;
+        synchronized (pageLock) {
+            Page page = openPage(pageIndex);
+            Bitmap band = null;
+            try {
+                // 区域点数 -> 目标像素，长边不超过上限
+                float regionWidth = page.getWidth() * region.width();
+                float regionHeight = page.getHeight() * region.height();
+                float scale = dpi / POINTS_PER_INCH;
+                scale = Math.min(scale, MAX_OCR_LONG_SIDE / Math.max(regionWidth, regionHeight));
+                int width = Math.max(1, Math.round(regionWidth * scale));
+                int height = Math.max(1, Math.round(regionHeight * scale));
+                float offsetX = page.getWidth() * region.left * scale;
+                float offsetY = page.getHeight() * region.top * scale;
+                
+                Bitmap target = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+                Canvas canvas = new Canvas(target);
+                ColorMatrix grayscale = new ColorMatrix();
+                grayscale.setSaturation(0f);
+                Paint paint = new Paint();
+                paint.setColorFilter(new ColorMatrixColorFilter(grayscale));
+                
+                int bandHeight = Math.min(OCR_BAND_HEIGHT, height);
+                band = obtainBitmap(width, bandHeight);
+                Rect clip = new Rect(0, 0, width, bandHeight);
+                Matrix matrix = new Matrix();
+                for (int top = 0; top < height; top += bandHeight) {
+                    band.eraseColor(Color.WHITE);
+                    matrix.setScale(scale, scale);
+                    matrix.postTranslate(-offsetX, -offsetY - top);
+                    page.render(band, clip, matrix, Page.RENDER_MODE_FOR_DISPLAY);
+                    canvas.drawBitmap(band, 0, top, paint);
+                }
+                
+                Log.d(TAG, "OCR区域已渲染: " + pageIndex + " " + region + " " + width + "x" + height);
+                return target;
+            } finally {
+                page.close();
+                if (band != null) {
+                    releaseBitmap(band);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 打开页面，调用方必须持有页面锁并在使用后关闭页面
+     *
+     * @param pageIndex 页码索引
+     * @return 已打开的页面
+     * @throws IllegalStateException 当渲染器已关闭时
+     */
+    private Page openPage(int pageIndex) {
+        // 等待页面锁期间渲染器可能已被关闭
+        if (renderer == null) {
+            throw new IllegalStateException("PDF渲染器未初始化或已关闭");
+        }
+        return renderer.openPage(pageIndex);
+    }
+    
+    /**
+     * 获取用于渲染的ARGB_8888位图
+     *
+     * @param width 宽度
+     * @param height 高度
+     * @return 已清空的位图
+     */
+    private Bitmap obtainBitmap(int width, int height) {
+        if (bitmapPool != null) {
+            return bitmapPool.acquire(width, height, Bitmap.Config.ARGB_8888);
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+    
+    /**
+     * 归还不再使用的位图，没有复用池时交给GC处理
+     *
+     * @param bitmap 位图
+     */
+    private void releaseBitmap(Bitmap bitmap) {
+        if (bitmapPool != null) {
+            bitmapPool.release(bitmap);
+        }
     }
     
     /**
@@ -103,9 +432,12 @@ public class PdfRenderer implements AutoCloseable {
      */
     @Override
     public void close() {
-        if (renderer != null) {
-            renderer.close();
-            renderer = null;
+        // 等待正在渲染的页面关闭后再关闭渲染器
+        synchronized (pageLock) {
+            if (renderer != null) {
+                renderer.close();
+                renderer = null;
+            }
         }
         
         if (fileDescriptor != null) {
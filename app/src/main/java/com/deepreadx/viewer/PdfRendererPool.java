@@ -0,0 +1,159 @@
+package com.deepreadx.viewer;
+
+import android.os.SystemClock;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * PDF渲染器的借用入口，渲染任务通过{@link #use}独占渲染器执行操作，并统计忙碌时间与任务数
+ *
+ * <p>只持有一个{@link PdfRenderer}实例：系统PdfRenderer在进程级的锁下调用PDFium，
+ * 同一进程中的多个实例只能依次渲染，不能在多个CPU核心上并行光栅化，却要各占一份文档解析的
+ * 原生内存和一个文件描述符。渲染线程数因此与实例数一致，保持为一个。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class PdfRendererPool implements AutoCloseable {
+    private final List<Instance> instances;
+    private final BlockingQueue<Instance> idleInstances;
+    private final long createdAt;
+    
+    /**
+     * 渲染器操作接口
+     *
+     * @param <T> 操作结果类型
+     */
+    public interface RendererAction<T> {
+        /**
+         * 使用借出的渲染器执行操作，操作期间独占该渲染器
+         *
+         * @param renderer PDF渲染器
+         * @return 操作结果
+         */
+        T run(PdfRenderer renderer);
+    }
+    
+    /**
+     * 池中的渲染器实例及其使用统计
+     */
+    private static final class Instance {
+        final PdfRenderer renderer;
+        long busyMillis = 0;
+        int taskCount = 0;
+        
+        Instance(PdfRenderer renderer) {
+            this.renderer = renderer;
+        }
+    }
+    
+    private PdfRendererPool(List<Instance> instances) {
+        this.instances = instances;
+        this.idleInstances = new ArrayBlockingQueue<>(instances.size(), false, instances);
+        this.createdAt = SystemClock.elapsedRealtime();
+    }
+    
+    /**
+     * 以已打开的渲染器创建渲染器池
+     *
+     * @param renderer 已打开的渲染器，池接管其所有权
+     * @return 渲染器池
+     */
+    public static PdfRendererPool create(PdfRenderer renderer) {
+        return new PdfRendererPool(Collections.singletonList(new Instance(renderer)));
+    }
+    
+    /**
+     * 获取实例数
+     *
+     * @return 池中渲染器实例数
+     */
+    public int size() {
+        return instances.size();
+    }
+    
+    /**
+     * 获取文档页数
+     *
+     * @return 页数
+     */
+    public int getPageCount() {
+        return instances.get(0).renderer.getPageCount();
+    }
+    
+    /**
+     * 为所有实例设置共享的位图复用池
+     *
+     * @param bitmapPool 位图复用池
+     */
+    public void setBitmapPool(BitmapPool bitmapPool) {
+        for (Instance instance : instances) {
+            instance.renderer.setBitmapPool(bitmapPool);
+        }
+    }
+    
+    /**
+     * 借用一个空闲的渲染器执行操作，没有空闲实例时阻塞等待
+     *
+     * @param action 渲染器操作
+     * @param <T> 操作结果类型
+     * @return 操作结果
+     * @throws IllegalStateException 当等待期间线程被中断时
+     */
+    public <T> T use(RendererAction<T> action) {
+        Instance instance;
+        try {
+            instance = idleInstances.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待渲染器时被中断", e);
+        }
+        
+        long start = SystemClock.elapsedRealtime();
+        try {
+            return action.run(instance.renderer);
+        } finally {
+            synchronized (instance) {
+                instance.busyMillis += SystemClock.elapsedRealtime() - start;
+                instance.taskCount++;
+            }
+            idleInstances.offer(instance);
+        }
+    }
+    
+    /**
+     * 获取每个实例的使用统计
+     *
+     * @return 每个实例的任务数和忙碌时间占比
+     */
+    public String getStats() {
+        long elapsed = Math.max(1, SystemClock.elapsedRealtime() - createdAt);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < instances.size(); i++) {
+            Instance instance = instances.get(i);
+            synchronized (instance) {
+                if (i > 0) {
+                    builder.append("; ");
+                }
+                builder.append('#').append(i)
+                        .append(" tasks=").append(instance.taskCount)
+                        .append(", busy=").append(instance.busyMillis).append("ms")
+                        .append(", utilization=").append(instance.busyMillis * 100 / elapsed).append('%');
+            }
+        }
+        return builder.toString();
+    }
+    
+    /**
+     * 关闭所有渲染器实例，每个实例会等待正在渲染的页面结束
+     */
+    @Override
+    public void close() {
+        for (Instance instance : instances) {
+            instance.renderer.close();
+        }
+    }
+}
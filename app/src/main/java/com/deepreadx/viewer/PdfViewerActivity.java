@@ -1,11 +1,11 @@
 package com.deepreadx.viewer;
 
+import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.drawable.BitmapDrawable;
+import android.graphics.RectF;
 import android.net.Uri;
 import android.os.Bundle;
 import android.preference.PreferenceManager;
@@ -14,7 +14,6 @@ import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.ImageButton;
-import android.widget.ImageView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
@@ -24,19 +23,34 @@ import androidx.core.view.GravityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
 import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.deepreadx.api.DeepSeekClient;
-import com.deepreadx.api.DeepSeekClient.ApiCallback;
+import com.deepreadx.api.DeepSeekClient.RequestHandle;
+import com.deepreadx.api.DeepSeekClient.StreamCallback;
+import com.deepreadx.api.ExplanationCache;
+import com.deepreadx.cache.CacheManager;
 import com.deepreadx.dao.ExplanationHistoryDao;
+import com.deepreadx.dao.PageTextDao;
 import com.deepreadx.dao.StyleDao;
 import com.deepreadx.dao.StyleDaoImpl;
 import com.deepreadx.dao.impl.ExplanationHistoryDaoImpl;
+import com.deepreadx.dao.impl.PageMetricsDaoImpl;
+import com.deepreadx.dao.impl.PageTextDaoImpl;
 import com.deepreadx.model.ExplainStyle;
 import com.deepreadx.model.ExplanationHistory;
+import com.deepreadx.ocr.DocumentIndexer;
 import com.deepreadx.ocr.OcrProcessor;
 import com.deepreadx.ocr.OcrProcessor.OcrCallback;
+import com.deepreadx.ocr.OcrResultCache;
+import com.deepreadx.ocr.OcrWorkQueue;
+import com.deepreadx.ocr.PageTextExtractor;
+import com.deepreadx.ocr.PdfTextLayerExtractor;
+import com.deepreadx.ocr.ScriptDetector;
 import com.deepreadx.ui.HistoryActivity;
 import com.deepreadx.ui.StyleManagerActivity;
+import com.deepreadx.ui.adapter.PdfPageAdapter;
 import com.example.deepreadx.BuildConfig;
 import com.example.deepreadx.R;
 import com.google.android.material.snackbar.Snackbar;
@@ -54,9 +68,13 @@ public class PdfViewerActivity extends AppCompatActivity {
     private static final String TAG = "PdfViewerActivity";
     private static final String EXTRA_PDF_URI = "pdf_uri";
     private static final String PREF_LAST_STYLE_ID = "last_style_id";
-
+    private static final String PREF_CONTINUOUS_SCROLL = "continuous_scroll";
+    
     private Toolbar toolbar;
-    private ImageView pdfImageView;
+    private PageImageView pdfImageView;
+    private RecyclerView pdfRecyclerView;
+    private LinearLayoutManager pageLayoutManager;
+    private PdfPageAdapter pageAdapter;
     private ImageButton btnPrevPage;
     private ImageButton btnNextPage;
     private ImageButton btnExplain;
@@ -65,15 +83,31 @@ public class PdfViewerActivity extends AppCompatActivity {
     private ExplanationFragment explanationFragment;
     
     private PdfRenderer pdfRenderer;
+    private PageRenderService pageRenderService;
+    private TileManager tileManager;
+    private Bitmap displayedBitmap;
+    private DocumentIndexer documentIndexer;
+    private OcrWorkQueue ocrWorkQueue;
+    private PageTextExtractor textLayerExtractor;
+    private String documentFingerprint;
     private Uri pdfUri;
     private int currentPage = 0;
     private int pageCount = 0;
+    private boolean continuousScroll = false;
     
     private OcrProcessor ocrProcessor;
     private DeepSeekClient deepSeekClient;
+    
+    // 正在流式生成的解释请求，发起新请求或退出时取消
+    private RequestHandle explanationCall;
+    // 解释请求的序号，回调序号与之不同时说明请求已被取代或取消
+    private int explanationGeneration = 0;
+    // 打开文档的序号，计算指纹期间又打开了其他文档时忽略旧结果
+    private int openGeneration = 0;
     private StyleDao styleDao;
+    private PageTextDao pageTextDao;
     private ExplainStyle currentStyle;
-
+    
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -81,6 +115,7 @@ public class PdfViewerActivity extends AppCompatActivity {
         
         // 初始化DAO
         styleDao = new StyleDaoImpl(this);
+        pageTextDao = new PageTextDaoImpl(this);
         
         // 初始化OCR处理器和DeepSeek客户端
         initServices();
@@ -213,6 +248,7 @@ public class PdfViewerActivity extends AppCompatActivity {
     private void initServices() {
         // 初始化OCR处理器
         ocrProcessor = new OcrProcessor(this);
+        ocrProcessor.setResultCache(OcrResultCache.getInstance(this));
         
         // 从配置中获取API密钥和URL
         String apiKey = BuildConfig.DEEPSEEK_API_KEY;
@@ -226,6 +262,8 @@ public class PdfViewerActivity extends AppCompatActivity {
         
         // 初始化DeepSeek客户端
         deepSeekClient = new DeepSeekClient(apiKey, baseUrl);
+        deepSeekClient.setDebugLogging(BuildConfig.DEBUG);
+        deepSeekClient.setExplanationCache(ExplanationCache.getInstance(this));
     }
     
     /**
@@ -238,6 +276,30 @@ public class PdfViewerActivity extends AppCompatActivity {
         btnNextPage = findViewById(R.id.btnNextPage);
         btnExplain = findViewById(R.id.btnExplain);
         btnManageStyles = findViewById(R.id.btnManageStyles);
+        pdfRecyclerView = findViewById(R.id.pdfRecyclerView);
+        
+        // 连续滚动模式：额外布局约半屏高度，使即将滚入的页面提前开始渲染
+        pageLayoutManager = new LinearLayoutManager(this) {
+            @Override
+            protected void calculateExtraLayoutSpace(RecyclerView.State state, int[] extraLayoutSpace) {
+                int extra = pdfRecyclerView.getHeight() / 2;
+                extraLayoutSpace[0] = extra;
+                extraLayoutSpace[1] = extra;
+            }
+        };
+        pdfRecyclerView.setLayoutManager(pageLayoutManager);
+        pdfRecyclerView.setHasFixedSize(true);
+        pdfRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                onContinuousScrolled();
+            }
+        });
+        continuousScroll = PreferenceManager.getDefaultSharedPreferences(this)
+                .getBoolean(PREF_CONTINUOUS_SCROLL, false);
+        
+        // 单页模式下长按拖动框选区域，只识别并解释选中的文字
+        pdfImageView.setOnRegionSelectedListener(this::startTextRecognition);
         
         // 设置页面导航按钮点击事件
         btnPrevPage.setOnClickListener(new View.OnClickListener() {
@@ -288,6 +350,7 @@ public class PdfViewerActivity extends AppCompatActivity {
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_pdf_viewer, menu);
+        menu.findItem(R.id.action_continuous_scroll).setChecked(continuousScroll);
         return true;
     }
     
@@ -304,6 +367,13 @@ public class PdfViewerActivity extends AppCompatActivity {
         } else if (id == R.id.action_manage_styles) {
             openStyleManager();
             return true;
+        } else if (id == R.id.action_continuous_scroll) {
+            boolean enabled = !item.isChecked();
+            item.setChecked(enabled);
+            PreferenceManager.getDefaultSharedPreferences(this).edit()
+                    .putBoolean(PREF_CONTINUOUS_SCROLL, enabled).apply();
+            setContinuousScroll(enabled);
+            return true;
         } else if (id == R.id.action_history) {
             // 打开历史记录界面
             Intent intent = new Intent(this, HistoryActivity.class);
@@ -357,115 +427,40 @@ public class PdfViewerActivity extends AppCompatActivity {
      * 处理当前页面以获取AI解释
      */
     private void processCurrentPageForExplanation() {
-        // 确保已选择风格
-        if (currentStyle == null) {
-            currentStyle = styleDao.getDefaultStyle();
-            if (currentStyle == null) {
-                Toast.makeText(this, "没有可用的解释风格", Toast.LENGTH_SHORT).show();
-                return;
-            }
+        if (!ensureStyleSelected()) {
+            return;
         }
         
-        // 获取当前显示的PDF页面图像
-        Bitmap pageBitmap = getCurrentPageBitmap();
-        if (pageBitmap == null) {
+        if (ocrWorkQueue == null) {
             Toast.makeText(this, "无法获取当前页面图像", Toast.LENGTH_SHORT).show();
             return;
         }
         
+        // 连接可能已因空闲被关闭，在OCR识别的同时重新建立
+        deepSeekClient.prewarmConnection();
+        
+        // 记下发起请求时的页码，识别和生成期间翻页不影响保存的历史记录
+        final int pageIndex = currentPage;
+        
         // 显示加载提示
         Toast.makeText(this, "正在进行OCR识别...", Toast.LENGTH_SHORT).show();
         
-        // 使用OCR处理器提取文本
-        ocrProcessor.extractText(pageBitmap, new OcrCallback() {
+        // 以最高优先级识别当前页，已建立文本索引的页面由队列在后台查询后直接返回，
+        // 页面正在预识别时直接等待其结果
+        ocrWorkQueue.submit(pageIndex, OcrWorkQueue.PRIORITY_USER, new OcrCallback() {
             @Override
             public void onSuccess(String text) {
-                if (text.isEmpty()) {
-                    runOnUiThread(() -> Toast.makeText(PdfViewerActivity.this, 
-                            "未能识别到文字", Toast.LENGTH_SHORT).show());
-                    return;
-                }
-                
-                // 显示加载提示
-                runOnUiThread(() -> Toast.makeText(PdfViewerActivity.this, 
-                        "正在生成AI解释...", Toast.LENGTH_SHORT).show());
-                
-                // 构建提示词
-                String prompt = currentStyle.getPromptTemplate().replace("{text}", text);
-                String styleTemplate = currentStyle.getPromptTemplate();
-                
-                // 请求DeepSeek API生成解释
-                deepSeekClient.requestExplanation(text, styleTemplate, new ApiCallback() {
-                    @Override
-                    public void onResponse(String explanation) {
-                        runOnUiThread(() -> {
-                            // 显示解释内容
-                            showExplanation(explanation);
-                            
-                            // 保存解释结果到历史
-                            ExplanationHistoryDao historyDao = new ExplanationHistoryDaoImpl(PdfViewerActivity.this);
-                            ExplanationHistory history = new ExplanationHistory(
-                                    pdfUri.toString(),
-                                    currentPage,
-                                    currentStyle.getId(),
-                                    explanation
-                            );
-                            historyDao.insert(history);
-                        });
-                    }
-                    
-                    @Override
-                    public void onError(Exception e) {
-                        runOnUiThread(() -> {
-                            // 创建带有重试按钮的Snackbar
-                            Snackbar snackbar = Snackbar.make(
-                                    pdfImageView,
-                                    "生成解释失败：" + e.getMessage() + "。请检查网络或稍后重试。",
-                                    Snackbar.LENGTH_LONG);
-                                    
-                            // 添加重试按钮
-                            snackbar.setAction("重试", v -> {
-                                // 重新执行OCR识别和解释
-                                processCurrentPageForExplanation();
-                            });
-                            
-                            // 显示Snackbar
-                            snackbar.show();
-                            
-                            Log.e(TAG, "生成解释失败", e);
-                        });
-                    }
-                });
+                generateExplanation(pageIndex, text);
             }
             
             @Override
             public void onFailure(Exception e) {
-                runOnUiThread(() -> Toast.makeText(PdfViewerActivity.this, 
-                        "OCR识别失败: " + e.getMessage(), Toast.LENGTH_LONG).show());
+                Toast.makeText(PdfViewerActivity.this, 
+                        "OCR识别失败: " + e.getMessage(), Toast.LENGTH_LONG).show();
             }
         });
     }
     
-    /**
-     * 获取当前页面的Bitmap图像
-     * 
-     * @return 页面图像，或null如果获取失败
-     */
-    private Bitmap getCurrentPageBitmap() {
-        if (pdfImageView.getDrawable() instanceof BitmapDrawable) {
-            return ((BitmapDrawable) pdfImageView.getDrawable()).getBitmap();
-        } else {
-            // 如果ImageView中不是BitmapDrawable，尝试从视图创建Bitmap
-            Bitmap bitmap = Bitmap.createBitmap(
-                    pdfImageView.getWidth(), 
-                    pdfImageView.getHeight(), 
-                    Bitmap.Config.ARGB_8888);
-            Canvas canvas = new Canvas(bitmap);
-            pdfImageView.draw(canvas);
-            return bitmap;
-        }
-    }
-    
     /**
      * 显示解释内容到侧边栏
      * 
@@ -502,16 +497,82 @@ public class PdfViewerActivity extends AppCompatActivity {
      *
      * @param uri PDF文件的URI
      */
-    private void openPdf(Uri uri) {
+    private void openPdf(final Uri uri) {
+        closeRenderer();
+        
+        // 计算指纹需要通过ContentResolver读取文件内容，云端或SAF文档可能很慢，在后台线程进行
+        final int generation = ++openGeneration;
+        final Context appContext = getApplicationContext();
+        new Thread(() -> {
+            final String fingerprint = DocumentFingerprint.compute(appContext, uri);
+            runOnUiThread(() -> {
+                if (generation == openGeneration && !isDestroyed()) {
+                    openPdf(uri, fingerprint);
+                }
+            });
+        }, "DocumentFingerprintThread").start();
+    }
+    
+    /**
+     * 指纹计算完成后打开PDF文件，创建渲染服务、缓存、文本索引和OCR队列
+     *
+     * @param uri PDF文件的URI
+     * @param fingerprint 文档指纹
+     */
+    private void openPdf(Uri uri, String fingerprint) {
         try {
             pdfRenderer = new PdfRenderer(this, uri);
             pageCount = pdfRenderer.getPageCount();
             
+            // 创建后台渲染服务，渲染器交由服务管理
+            // 以文档指纹区分缓存，同一文件通过不同URI打开时可共用磁盘缓存
+            documentFingerprint = fingerprint;
+            CacheManager cacheManager = CacheManager.getInstance(this);
+            int cacheSize = cacheManager.getPageCacheBudget();
+            pageRenderService = new PageRenderService(pdfRenderer, fingerprint, cacheSize);
+            pageRenderService.setDiskCache(PageDiskCache.getInstance(this));
+            pageRenderService.registerCaches(cacheManager);
+            
+            // 放大时按分块渲染可见区域
+            tileManager = new TileManager(pageRenderService, cacheManager.getTileCacheBudget());
+            pdfImageView.setTileManager(tileManager);
+            cacheManager.register(tileManager);
+            
+            // OCR任务队列，预识别当前页和下一页
+            ocrWorkQueue = new OcrWorkQueue(pageRenderService, ocrProcessor, pageTextDao, fingerprint);
+            // 原生数字PDF直接读取文本层，没有文本层的页面才进行OCR
+            PdfTextLayerExtractor extractor = new PdfTextLayerExtractor(pdfRenderer.duplicateFileDescriptor());
+            textLayerExtractor = extractor;
+            ocrWorkQueue.setTextLayerExtractor(extractor);
+            // 根据文档语言或文本层选择OCR模型，排在页面提取之前完成；无法判断时由连续几页的整页识别结果决定
+            ocrProcessor.setDocumentScript(ScriptDetector.Script.UNKNOWN);
+            extractor.detectScript(script -> {
+                if (script != ScriptDetector.Script.UNKNOWN) {
+                    ocrProcessor.setDocumentScript(script);
+                }
+            });
+            
+            // 连续滚动模式的页面列表
+            pageAdapter = new PdfPageAdapter(pageRenderService, pageCount);
+            pdfRecyclerView.setAdapter(pageAdapter);
+            
             // 初始显示第一页
             currentPage = 0;
-            renderPage(currentPage);
+            setContinuousScroll(continuousScroll);
+            
+            // 在后台建立页面尺寸索引，供布局计算页面大小
+            final PdfPageAdapter adapter = pageAdapter;
+            pageRenderService.loadPageMetrics(new PageMetricsDaoImpl(this), index -> {
+                Log.d(TAG, "页面尺寸索引已加载，共" + index.getPageCount() + "页");
+                adapter.setPageMetrics(index);
+            });
             
-            updatePagingButtons();
+            // 在后台逐页识别文本，中断后下次打开从断点继续
+            documentIndexer = new DocumentIndexer(ocrWorkQueue, pageTextDao, fingerprint, pageCount);
+            documentIndexer.start();
+            
+            // 提前建立到API主机的连接，首次请求解释时不再等待握手
+            deepSeekClient.prewarmConnection();
             
             Log.d(TAG, "PDF已打开，共" + pageCount + "页");
         } catch (IOException e) {
@@ -521,40 +582,142 @@ public class PdfViewerActivity extends AppCompatActivity {
         }
     }
     
+    /**
+     * 切换连续滚动模式与单页模式，切换后保持当前页码
+     *
+     * @param enabled 是否启用连续滚动模式
+     */
+    private void setContinuousScroll(boolean enabled) {
+        continuousScroll = enabled;
+        if (pageRenderService == null) {
+            return;
+        }
+        
+        pdfRecyclerView.setVisibility(enabled ? View.VISIBLE : View.GONE);
+        pdfImageView.setVisibility(enabled ? View.GONE : View.VISIBLE);
+        btnPrevPage.setVisibility(enabled ? View.GONE : View.VISIBLE);
+        btnNextPage.setVisibility(enabled ? View.GONE : View.VISIBLE);
+        
+        if (enabled) {
+            // 单页视图不再显示，释放其图像引用
+            pdfImageView.setImageDrawable(null);
+            pageRenderService.releaseBitmap(displayedBitmap);
+            displayedBitmap = null;
+            pageLayoutManager.scrollToPositionWithOffset(currentPage, 0);
+            updatePageSubtitle();
+            requestSpeculativeOcr(currentPage);
+        } else {
+            renderPage(currentPage);
+        }
+    }
+    
+    /**
+     * 连续滚动时以占据屏幕中线的页面作为当前页
+     */
+    private void onContinuousScrolled() {
+        if (!continuousScroll || pageCount == 0) {
+            return;
+        }
+        
+        View center = pdfRecyclerView.findChildViewUnder(
+                pdfRecyclerView.getWidth() / 2f, pdfRecyclerView.getHeight() / 2f);
+        int page = center != null
+                ? pdfRecyclerView.getChildAdapterPosition(center)
+                : pageLayoutManager.findFirstVisibleItemPosition();
+        if (page != RecyclerView.NO_POSITION && page != currentPage) {
+            currentPage = page;
+            updatePageSubtitle();
+            requestSpeculativeOcr(currentPage);
+        }
+    }
+    
+    /**
+     * 当前页变化时预识别当前页和下一页，并取消已过时的预识别
+     *
+     * @param pageIndex 当前页码
+     */
+    private void requestSpeculativeOcr(int pageIndex) {
+        if (ocrWorkQueue != null) {
+            ocrWorkQueue.onPageChanged(pageIndex);
+        }
+    }
+    
+    /**
+     * 更新标题显示当前页码
+     */
+    private void updatePageSubtitle() {
+        getSupportActionBar().setSubtitle("第 " + (currentPage + 1) + " / " + pageCount + " 页");
+    }
+    
     /**
      * 渲染指定页码的PDF页面
      *
      * @param pageIndex 页码索引（从0开始）
      */
     private void renderPage(int pageIndex) {
-        if (pdfRenderer == null) {
+        if (pageRenderService == null) {
             return;
         }
         
-        try {
-            // 获取页面尺寸
-            int width = pdfImageView.getWidth();
-            int height = pdfImageView.getHeight();
-            
-            // 如果视图尚未测量，使用屏幕尺寸
-            if (width <= 0 || height <= 0) {
-                width = getResources().getDisplayMetrics().widthPixels;
-                height = getResources().getDisplayMetrics().heightPixels;
+        // 获取页面尺寸
+        int width = pdfImageView.getWidth();
+        int height = pdfImageView.getHeight();
+        
+        // 如果视图尚未测量，使用屏幕尺寸
+        if (width <= 0 || height <= 0) {
+            width = getResources().getDisplayMetrics().widthPixels;
+            height = getResources().getDisplayMetrics().heightPixels;
+        }
+        
+        // 更新标题显示当前页码
+        getSupportActionBar().setSubtitle("第 " + (pageIndex + 1) + " / " + pageCount + " 页");
+        
+        // 更新分页按钮状态
+        updatePagingButtons();
+        
+        // 阅读当前页时预识别当前页和下一页
+        requestSpeculativeOcr(pageIndex);
+        
+        // 在后台线程渲染页面，已预取的页面会立即返回
+        pageRenderService.requestPage(pageIndex, width, height, new PageRenderService.RenderCallback() {
+            @Override
+            public void onPageRendered(int renderedPage, Bitmap bitmap) {
+                if (renderedPage == currentPage) {
+                    showPageBitmap(bitmap);
+                }
             }
             
-            // 渲染页面到Bitmap
-            Bitmap pageBitmap = pdfRenderer.renderPage(pageIndex, width, height);
-            pdfImageView.setImageBitmap(pageBitmap);
-            
-            // 更新标题显示当前页码
-            getSupportActionBar().setSubtitle("第 " + (pageIndex + 1) + " / " + pageCount + " 页");
+            @Override
+            public void onPagePreview(int renderedPage, Bitmap preview) {
+                // 先显示低分辨率预览，完整分辨率渲染完成后自动替换
+                if (renderedPage == currentPage) {
+                    showPageBitmap(preview);
+                }
+            }
             
-            // 更新分页按钮状态
-            updatePagingButtons();
-        } catch (Exception e) {
-            Log.e(TAG, "渲染页面失败: " + e.getMessage(), e);
-            Toast.makeText(this, "渲染页面失败", Toast.LENGTH_SHORT).show();
+            @Override
+            public void onRenderFailed(int failedPage, Exception e) {
+                Log.e(TAG, "渲染页面失败: " + e.getMessage(), e);
+                Toast.makeText(PdfViewerActivity.this, "渲染页面失败", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+    
+    /**
+     * 显示页面图像，并释放对上一页图像的引用，使其可以回到位图复用池
+     *
+     * @param bitmap 新页面图像
+     */
+    private void showPageBitmap(Bitmap bitmap) {
+        Bitmap previous = displayedBitmap;
+        if (previous == bitmap) {
+            return;
         }
+        
+        pageRenderService.retainBitmap(bitmap);
+        pdfImageView.showPage(currentPage, bitmap);
+        displayedBitmap = bitmap;
+        pageRenderService.releaseBitmap(previous);
     }
     
     /**
@@ -572,38 +735,223 @@ public class PdfViewerActivity extends AppCompatActivity {
      * 关闭PDF渲染器并释放资源
      */
     private void closeRenderer() {
-        if (pdfRenderer != null) {
+        if (documentIndexer != null) {
+            documentIndexer.stop();
+            documentIndexer = null;
+        }
+        
+        if (ocrWorkQueue != null) {
+            ocrWorkQueue.close();
+            ocrWorkQueue = null;
+        }
+        
+        if (textLayerExtractor != null) {
+            textLayerExtractor.close();
+            textLayerExtractor = null;
+        }
+        
+        if (tileManager != null) {
+            CacheManager.getInstance(this).unregister(tileManager);
+            tileManager.clear();
+            pdfImageView.setTileManager(null);
+            tileManager = null;
+        }
+        
+        if (pageAdapter != null) {
+            // 移除列表项，释放其持有的页面图像
+            pdfRecyclerView.setAdapter(null);
+            pageAdapter = null;
+        }
+        
+        if (pageRenderService != null) {
+            // 渲染服务会在渲染线程上关闭渲染器
+            pageRenderService.close();
+            pageRenderService = null;
+            pdfRenderer = null;
+            displayedBitmap = null;
+        } else if (pdfRenderer != null) {
             pdfRenderer.close();
             pdfRenderer = null;
         }
     }
     
+    /**
+     * 确保已选择解释风格，未选择时使用默认风格
+     *
+     * @return 是否有可用的解释风格
+     */
+    private boolean ensureStyleSelected() {
+        if (currentStyle == null) {
+            currentStyle = styleDao.getDefaultStyle();
+            if (currentStyle == null) {
+                Toast.makeText(this, "没有可用的解释风格", Toast.LENGTH_SHORT).show();
+                return false;
+            }
+        }
+        return true;
+    }
+    
     /**
      * 启动OCR识别选定区域
-     * 
-     * TODO: 实现长按选择区域功能
-     * TODO: 调用OCR识别API
-     * TODO: 显示识别结果并允许编辑
+     *
+     * <p>只按OCR分辨率重新渲染选区，识别像素量随选区大小缩小，识别结果直接用于生成解释。
+     * 选区结果按图像内容进入OCR缓存，但不写入整页文本索引。</p>
+     *
+     * @param pageIndex 页码索引
+     * @param region 选区在页面中的相对位置
      */
-    private void startTextRecognition() {
-        // TODO: 实现文本识别逻辑
+    private void startTextRecognition(int pageIndex, RectF region) {
+        if (pageRenderService == null || !ensureStyleSelected()) {
+            return;
+        }
+        
+        Toast.makeText(this, "正在识别选中区域...", Toast.LENGTH_SHORT).show();
+        
+        pageRenderService.requestOcrRegion(pageIndex, region, PdfRenderer.DEFAULT_OCR_DPI,
+                new PageRenderService.OcrRenderCallback() {
+                    @Override
+                    public void onOcrPageRendered(int page, Bitmap bitmap) {
+                        ocrProcessor.extractText(bitmap, new OcrCallback() {
+                            @Override
+                            public void onSuccess(String text) {
+                                bitmap.recycle();
+                                generateExplanation(pageIndex, text);
+                            }
+                            
+                            @Override
+                            public void onFailure(Exception e) {
+                                bitmap.recycle();
+                                Toast.makeText(PdfViewerActivity.this,
+                                        "OCR识别失败: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                            }
+                        });
+                    }
+                    
+                    @Override
+                    public void onRenderFailed(int page, Exception e) {
+                        Toast.makeText(PdfViewerActivity.this,
+                                "无法渲染选中区域: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                    }
+                });
     }
     
     /**
      * 使用DeepSeek API生成解释
      * 
-     * TODO: 发送文本到DeepSeek API
-     * TODO: 接收并显示解释结果
-     * 
+     * @param pageIndex 文本所在的页码，保存历史记录时使用
      * @param text 需要解释的文本
      */
-    private void generateExplanation(String text) {
-        // TODO: 实现解释生成逻辑
+    private void generateExplanation(final int pageIndex, String text) {
+        if (text.isEmpty()) {
+            Toast.makeText(this, "未能识别到文字", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        
+        // 只保留最新的一次生成；旧请求在发起新请求之后再取消，
+        // 内容相同时新请求直接加入进行中的生成，不会重新发送
+        RequestHandle previous = explanationCall;
+        explanationCall = null;
+        final int generation = ++explanationGeneration;
+        
+        // 立即打开侧边栏，内容生成后逐段显示
+        explanationFragment.beginStreaming("正在生成AI解释...");
+        drawerLayout.openDrawer(GravityCompat.END);
+        
+        // 构建提示词
+        String prompt = currentStyle.getPromptTemplate().replace("{text}", text);
+        String styleTemplate = currentStyle.getPromptTemplate();
+        final int styleId = currentStyle.getId();
+        
+        // 以流式方式请求DeepSeek API生成解释
+        explanationCall = deepSeekClient.requestExplanationStream(text, styleTemplate, new StreamCallback() {
+            @Override
+            public void onDelta(String delta) {
+                runOnUiThread(() -> {
+                    if (generation == explanationGeneration) {
+                        explanationFragment.appendExplanation(delta);
+                    }
+                });
+            }
+            
+            @Override
+            public void onComplete(String explanation) {
+                runOnUiThread(() -> {
+                    if (generation != explanationGeneration) {
+                        return;
+                    }
+                    explanationCall = null;
+                    
+                    // 以格式化后的完整内容替换逐段追加的纯文本
+                    showExplanation(explanation);
+                    
+                    // 保存解释结果到历史
+                    ExplanationHistoryDao historyDao = new ExplanationHistoryDaoImpl(PdfViewerActivity.this);
+                    ExplanationHistory history = new ExplanationHistory(
+                            pdfUri.toString(),
+                            pageIndex,
+                            styleId,
+                            explanation
+                    );
+                    historyDao.insert(history);
+                });
+            }
+            
+            @Override
+            public void onError(Exception e) {
+                runOnUiThread(() -> {
+                    // 已被新请求取代或主动取消的生成不提示错误
+                    if (generation != explanationGeneration) {
+                        return;
+                    }
+                    explanationCall = null;
+                    
+                    // 创建带有重试按钮的Snackbar
+                    Snackbar snackbar = Snackbar.make(
+                            pdfImageView,
+                            "生成解释失败：" + e.getMessage() + "。请检查网络或稍后重试。",
+                            Snackbar.LENGTH_LONG);
+                            
+                    // 添加重试按钮
+                    snackbar.setAction("重试", v -> {
+                        // 暂时性失败已自动重试过，这里只重新请求解释，不必再做OCR识别
+                        generateExplanation(pageIndex, text);
+                    });
+                    
+                    // 显示Snackbar
+                    snackbar.show();
+                    
+                    Log.e(TAG, "生成解释失败", e);
+                });
+            }
+        });
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+    
+    /**
+     * 取消正在流式生成的解释，已取消请求的回调会被忽略
+     */
+    private void cancelExplanation() {
+        explanationGeneration++;
+        if (explanationCall != null) {
+            explanationCall.cancel();
+            explanationCall = null;
+        }
     }
     
     @Override
     protected void onDestroy() {
+        cancelExplanation();
+        if (deepSeekClient != null && deepSeekClient.getNetworkMetrics().getCallCount() > 0) {
+            Log.d(TAG, "网络指标: " + deepSeekClient.getNetworkMetrics());
+        }
         closeRenderer();
+        if (ocrProcessor != null) {
+            // 结束预处理线程并释放已创建的识别器
+            ocrProcessor.close();
+            ocrProcessor = null;
+        }
         super.onDestroy();
     }
 } 
@@ -0,0 +1,243 @@
+package com.deepreadx.viewer;
+
+import android.os.CancellationSignal;
+import android.util.Log;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 渲染任务队列，作为{@link PdfRenderer}的唯一使用者执行所有渲染任务
+ *
+ * <p>系统PdfRenderer同一时间只允许打开一个页面，因此所有渲染、读取尺寸的操作都必须经过本队列。
+ * 队列的工作线程数与{@link PdfRendererPool}的实例数一致，每个线程同一时间只借用一个实例。
+ * 任务按优先级出队，同一优先级内先提交先执行。提交时可以指定合并键，相同合并键的新任务会取消
+ * 尚未完成的旧任务，例如连续点击下一页时只渲染最后一页。</p>
+ *
+ * <p>每个任务都有一个{@link CancellationSignal}作为取消令牌：尚未开始的任务出队时直接跳过，
+ * 正在执行的任务可以通过该信号中止渲染。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class RenderQueue {
+    private static final String TAG = "RenderQueue";
+    
+    /** 当前可见页面 */
+    public static final int PRIORITY_VISIBLE = 0;
+    
+    /** 放大后的可见分块 */
+    public static final int PRIORITY_TILE = 1;
+    
+    /** 相邻页面预取 */
+    public static final int PRIORITY_PREFETCH = 2;
+    
+    /** 建立索引等后台任务 */
+    public static final int PRIORITY_BACKGROUND = 3;
+    
+    // 关闭时等待正在进行的任务结束的单次超时（秒）
+    private static final long SHUTDOWN_WAIT_SECONDS = 5;
+    
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Task> coalescedTasks = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong supersededCount = new AtomicLong();
+    
+    /**
+     * 渲染任务接口
+     */
+    public interface RenderTask {
+        /**
+         * 在渲染线程中执行任务
+         *
+         * @param signal 本任务的取消令牌，耗时操作之间应检查
+         */
+        void run(CancellationSignal signal);
+    }
+    
+    /**
+     * 构造函数
+     *
+     * @param threadName 渲染线程名称前缀
+     * @param workerCount 工作线程数
+     */
+    public RenderQueue(final String threadName, int workerCount) {
+        final AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<Runnable>(), runnable -> {
+                    Thread thread = new Thread(runnable, threadName + "-" + threadIndex.getAndIncrement());
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        // 预先启动所有线程，保证首批任务也按优先级出队
+        executor.prestartAllCoreThreads();
+    }
+    
+    /**
+     * 提交渲染任务
+     *
+     * @param priority 优先级，取值为PRIORITY_*常量，数值越小越先执行
+     * @param coalesceKey 合并键，相同合并键的旧任务会被取消；为null时不合并
+     * @param task 渲染任务
+     * @return 取消令牌；队列已关闭时返回已取消的令牌
+     */
+    public CancellationSignal submit(int priority, String coalesceKey, RenderTask task) {
+        return submit(priority, coalesceKey, new CancellationSignal(), task);
+    }
+    
+    /**
+     * 使用调用方提供的取消令牌提交渲染任务
+     *
+     * @param priority 优先级
+     * @param coalesceKey 合并键，为null时不合并
+     * @param signal 取消令牌
+     * @param task 渲染任务
+     * @return 传入的取消令牌
+     */
+    public CancellationSignal submit(int priority, String coalesceKey, CancellationSignal signal,
+                                     RenderTask task) {
+        Task entry = new Task(priority, sequence.getAndIncrement(), coalesceKey, signal, task);
+        if (coalesceKey != null) {
+            Task superseded = coalescedTasks.put(coalesceKey, entry);
+            if (superseded != null && superseded.cancel()) {
+                supersededCount.incrementAndGet();
+            }
+        }
+        
+        try {
+            executor.execute(entry);
+        } catch (RejectedExecutionException e) {
+            Log.d(TAG, "渲染队列已关闭，忽略任务");
+            entry.cancel();
+        }
+        return signal;
+    }
+    
+    /**
+     * 取消指定合并键下尚未完成的任务
+     *
+     * @param coalesceKey 合并键
+     */
+    public void cancel(String coalesceKey) {
+        Task task = coalescedTasks.remove(coalesceKey);
+        if (task != null) {
+            task.cancel();
+        }
+    }
+    
+    /**
+     * 获取等待执行的任务数量
+     *
+     * @return 队列长度
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+    
+    /**
+     * 获取队列统计信息
+     *
+     * @return 已完成、已跳过、被合并取代的任务数量
+     */
+    public String getStats() {
+        return "completed=" + completedCount.get() + ", skipped=" + skippedCount.get()
+                + ", superseded=" + supersededCount.get() + ", queued=" + getQueueSize();
+    }
+    
+    /**
+     * 取消所有尚未执行的任务并停止工作线程，所有正在进行的任务结束后运行收尾任务
+     *
+     * @param finalTask 收尾任务，例如关闭渲染器，在独立线程中执行
+     */
+    public void shutdown(final Runnable finalTask) {
+        for (Runnable runnable : executor.getQueue().toArray(new Runnable[0])) {
+            ((Task) runnable).cancel();
+        }
+        // 正在执行的可合并任务（如可见页面渲染）也尽快中止
+        for (Task task : coalescedTasks.values()) {
+            task.cancel();
+        }
+        coalescedTasks.clear();
+        executor.shutdown();
+        
+        // 多个工作线程时无法在某个工作线程中确认其他线程已结束，由独立线程等待后收尾
+        Thread finisher = new Thread(() -> {
+            try {
+                while (!executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                    Log.w(TAG, "等待渲染任务结束...");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finalTask.run();
+        }, "RenderQueueShutdown");
+        finisher.start();
+    }
+    
+    /**
+     * 队列中的任务，按优先级和提交顺序排序
+     */
+    private final class Task implements Runnable, Comparable<Task> {
+        final int priority;
+        final long order;
+        final String coalesceKey;
+        final CancellationSignal signal;
+        final RenderTask work;
+        
+        Task(int priority, long order, String coalesceKey, CancellationSignal signal, RenderTask work) {
+            this.priority = priority;
+            this.order = order;
+            this.coalesceKey = coalesceKey;
+            this.signal = signal;
+            this.work = work;
+        }
+        
+        /**
+         * 取消任务，已在队列中的任务出队时跳过
+         *
+         * @return 任务此前是否未被取消
+         */
+        boolean cancel() {
+            if (signal.isCanceled()) {
+                return false;
+            }
+            signal.cancel();
+            return true;
+        }
+        
+        @Override
+        public void run() {
+            if (coalesceKey != null) {
+                coalescedTasks.remove(coalesceKey, this);
+            }
+            if (signal.isCanceled()) {
+                skippedCount.incrementAndGet();
+                return;
+            }
+            try {
+                work.run(signal);
+            } catch (RuntimeException e) {
+                // 任务自行处理业务异常，这里只防止渲染线程意外终止
+                Log.e(TAG, "渲染任务异常", e);
+            } finally {
+                completedCount.incrementAndGet();
+            }
+        }
+        
+        @Override
+        public int compareTo(Task other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.deepreadx.viewer;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.CancellationSignal;
+import android.util.LruCache;
+import android.util.SparseArray;
+
+import com.deepreadx.cache.TrimmableCache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分块渲染管理类，放大页面时只渲染并绘制当前可见区域的分块
+ *
+ * <p>缩放倍数按2的幂划分为若干级别，每个级别维护独立的分块缓存。滑出可见区域
+ * 且尚未开始渲染的分块会被取消，因此无论放大多少倍，内存占用都只与屏幕大小相关。
+ * 所有方法都应在主线程调用。内存紧张时分块缓存由{@link com.deepreadx.cache.CacheManager}裁剪，
+ * 裁剪掉的可见分块会在下次绘制时重新请求。</p>
+ *
+ * @author DeepReadX团队
+ * @created 2026-10-18
+ */
+public class TileManager implements TrimmableCache {
+    // 分块边长（像素）
+    private static final int TILE_SIZE = 512;
+    
+    // 最大缩放级别
+    private static final int MAX_ZOOM_LEVEL = 8;
+    
+    private final PageRenderService renderService;
+    private final int maxBytesPerLevel;
+    private final SparseArray<LruCache<String, Bitmap>> levelCaches = new SparseArray<>();
+    private final Map<String, CancellationSignal> pendingTiles = new HashMap<>();
+    private final Paint tilePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Matrix inverseMatrix = new Matrix();
+    private final RectF visibleRect = new RectF();
+    
+    private Runnable onTileReadyListener;
+    private int pageIndex = -1;
+    private int currentLevel = 1;
+    private int baseWidth = 0;
+    private int baseHeight = 0;
+    
+    /**
+     * 构造函数
+     *
+     * @param renderService 页面渲染服务
+     * @param maxBytes 分块缓存总容量（字节），由当前级别与上一级别平分
+     */
+    public TileManager(PageRenderService renderService, int maxBytes) {
+        this.renderService = renderService;
+        this.maxBytesPerLevel = Math.max(maxBytes / 2, 1);
+    }
+    
+    /**
+     * 设置分块渲染完成监听，通常用于刷新视图
+     *
+     * @param listener 监听器
+     */
+    public void setOnTileReadyListener(Runnable listener) {
+        this.onTileReadyListener = listener;
+    }
+    
+    /**
+     * 切换当前页面，丢弃上一页面的所有分块
+     *
+     * @param pageIndex 页码索引
+     */
+    public void setPage(int pageIndex) {
+        if (this.pageIndex == pageIndex) {
+            return;
+        }
+        this.pageIndex = pageIndex;
+        clear();
+    }
+    
+    /**
+     * 根据缩放倍数计算缩放级别（不小于缩放倍数的2的幂）
+     *
+     * @param zoom 相对整页适配尺寸的缩放倍数
+     * @return 缩放级别
+     */
+    public static int zoomLevelFor(float zoom) {
+        int level = 1;
+        while (level < zoom && level < MAX_ZOOM_LEVEL) {
+            level <<= 1;
+        }
+        return level;
+    }
+    
+    /**
+     * 绘制可见区域内的分块，缺失的分块提交后台渲染，离开可见区域的分块取消渲染
+     *
+     * @param canvas 画布
+     * @param imageMatrix 页面位图到视图坐标的变换
+     * @param bitmapWidth 页面位图宽度
+     * @param bitmapHeight 页面位图高度
+     * @param viewWidth 视图宽度
+     * @param viewHeight 视图高度
+     * @param zoom 当前缩放倍数
+     */
+    public void drawTiles(Canvas canvas, Matrix imageMatrix, int bitmapWidth, int bitmapHeight,
+                          int viewWidth, int viewHeight, float zoom) {
+        if (pageIndex < 0 || !imageMatrix.invert(inverseMatrix)) {
+            return;
+        }
+        
+        // 底图由预览替换为完整分辨率后，原有分块的坐标已不适用
+        if (bitmapWidth != baseWidth || bitmapHeight != baseHeight) {
+            clear();
+            baseWidth = bitmapWidth;
+            baseHeight = bitmapHeight;
+        }
+        
+        int level = zoomLevelFor(zoom);
+        if (level != currentLevel) {
+            switchLevel(level);
+        }
+        
+        // 可见区域换算到当前级别的整页像素坐标
+        int pageWidth = bitmapWidth * level;
+        int pageHeight = bitmapHeight * level;
+        visibleRect.set(0, 0, viewWidth, viewHeight);
+        inverseMatrix.mapRect(visibleRect);
+        int firstColumn = Math.max(0, (int) (visibleRect.left * level) / TILE_SIZE);
+        int lastColumn = Math.min((pageWidth - 1) / TILE_SIZE, (int) (visibleRect.right * level) / TILE_SIZE);
+        int firstRow = Math.max(0, (int) (visibleRect.top * level) / TILE_SIZE);
+        int lastRow = Math.min((pageHeight - 1) / TILE_SIZE, (int) (visibleRect.bottom * level) / TILE_SIZE);
+        
+        LruCache<String, Bitmap> cache = getLevelCache(level);
+        Set<String> visibleKeys = new HashSet<>();
+        
+        canvas.save();
+        canvas.concat(imageMatrix);
+        canvas.scale(1f / level, 1f / level);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                String key = buildTileKey(level, row, column);
+                visibleKeys.add(key);
+                
+                Bitmap tile = cache.get(key);
+                if (tile != null) {
+                    canvas.drawBitmap(tile, column * TILE_SIZE, row * TILE_SIZE, tilePaint);
+                } else if (!pendingTiles.containsKey(key)) {
+                    Rect tileRect = new Rect(
+                            column * TILE_SIZE,
+                            row * TILE_SIZE,
+                            Math.min((column + 1) * TILE_SIZE, pageWidth),
+                            Math.min((row + 1) * TILE_SIZE, pageHeight));
+                    requestTile(level, key, pageWidth, pageHeight, tileRect);
+                }
+            }
+        }
+        canvas.restore();
+        
+        cancelInvisibleTiles(visibleKeys);
+    }
+    
+    /**
+     * 提交分块渲染任务
+     */
+    private void requestTile(final int level, final String key, int pageWidth, int pageHeight, Rect tileRect) {
+        final int requestPage = pageIndex;
+        CancellationSignal signal = renderService.requestTile(requestPage, pageWidth, pageHeight, tileRect,
+                new PageRenderService.TileCallback() {
+                    @Override
+                    public void onTileRendered(Bitmap tile) {
+                        pendingTiles.remove(key);
+                        // 页面或缩放级别已切换，分块作废
+                        if (requestPage != pageIndex || level != currentLevel) {
+                            renderService.recycleTile(tile);
+                            return;
+                        }
+                        getLevelCache(level).put(key, tile);
+                        if (onTileReadyListener != null) {
+                            onTileReadyListener.run();
+                        }
+                    }
+                    
+                    @Override
+                    public void onTileFailed(Exception e) {
+                        // 移除记录，下次绘制时重新请求该分块
+                        pendingTiles.remove(key);
+                    }
+                });
+        if (signal != null) {
+            pendingTiles.put(key, signal);
+        }
+    }
+    
+    /**
+     * 取消已离开可见区域的分块渲染任务
+     */
+    private void cancelInvisibleTiles(Set<String> visibleKeys) {
+        Iterator<Map.Entry<String, CancellationSignal>> iterator = pendingTiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CancellationSignal> entry = iterator.next();
+            if (!visibleKeys.contains(entry.getKey())) {
+                entry.getValue().cancel();
+                iterator.remove();
+            }
+        }
+    }
+    
+    /**
+     * 切换缩放级别，只保留新级别和上一级别的分块缓存
+     */
+    private void switchLevel(int level) {
+        int previousLevel = currentLevel;
+        currentLevel = level;
+        for (int i = levelCaches.size() - 1; i >= 0; i--) {
+            int cachedLevel = levelCaches.keyAt(i);
+            if (cachedLevel != level && cachedLevel != previousLevel) {
+                levelCaches.valueAt(i).evictAll();
+                levelCaches.removeAt(i);
+            }
+        }
+    }
+    
+    /**
+     * 获取指定缩放级别的分块缓存，不存在时创建
+     */
+    private LruCache<String, Bitmap> getLevelCache(int level) {
+        LruCache<String, Bitmap> cache = levelCaches.get(level);
+        if (cache == null) {
+            cache = new LruCache<String, Bitmap>(maxBytesPerLevel) {
+                @Override
+                protected int sizeOf(String key, Bitmap value) {
+                    return value.getByteCount();
+                }
+                
+                @Override
+                protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                    if (oldValue != newValue) {
+                        renderService.recycleTile(oldValue);
+                    }
+                }
+            };
+            levelCaches.put(level, cache);
+        }
+        return cache;
+    }
+    
+    /**
+     * 构建分块缓存键：缩放级别 + 行 + 列
+     */
+    private static String buildTileKey(int level, int row, int column) {
+        return level + ":" + row + ":" + column;
+    }
+    
+    @Override
+    public String getCacheName() {
+        return "TileCache";
+    }
+    
+    @Override
+    public int getTier() {
+        return TIER_DERIVED;
+    }
+    
+    @Override
+    public long getSizeBytes() {
+        long size = 0;
+        for (int i = 0; i < levelCaches.size(); i++) {
+            size += levelCaches.valueAt(i).size();
+        }
+        return size;
+    }
+    
+    @Override
+    public long getMaxBytes() {
+        // 只保留当前级别与上一级别
+        return (long) maxBytesPerLevel * 2;
+    }
+    
+    @Override
+    public void trimToFraction(float fraction) {
+        for (int i = 0; i < levelCaches.size(); i++) {
+            LruCache<String, Bitmap> cache = levelCaches.valueAt(i);
+            if (fraction <= 0f) {
+                cache.evictAll();
+            } else {
+                cache.trimToSize((int) (maxBytesPerLevel * fraction));
+            }
+        }
+    }
+    
+    /**
+     * 取消所有渲染任务并清空分块缓存
+     */
+    public void clear() {
+        for (CancellationSignal signal : pendingTiles.values()) {
+            signal.cancel();
+        }
+        pendingTiles.clear();
+        for (int i = 0; i < levelCaches.size(); i++) {
+            levelCaches.valueAt(i).evictAll();
+        }
+        levelCaches.clear();
+    }
+}
@@ -0,0 +1,104 @@
+package com.deepreadx.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ApiLoggingInterceptor单元测试类
+ *
+ * @author DeepReadX团队
+ */
+public class ApiLoggingInterceptorTest {
+
+    private static final String REQUEST_JSON = "{\"model\":\"deepseek-chat\",\"messages\":"
+            + "[{\"role\":\"user\",\"content\":\"用户选中的文本\"}]}";
+    private static final String RESPONSE_JSON = "{\"choices\":[{\"message\":{\"role\":\"assistant\","
+            + "\"content\":\"生成的解释\"}}],\"usage\":{\"total_tokens\":42}}";
+
+    private final List<String> lines = new CopyOnWriteArrayList<>();
+    private MockWebServer server;
+    private ApiLoggingInterceptor interceptor;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        interceptor = new ApiLoggingInterceptor(lines::add);
+        interceptor.setDebugLogging(true);
+        client = new OkHttpClient.Builder().addInterceptor(interceptor).build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void redactContent_消息内容_替换为字符数() {
+        assertEquals("{\"role\":\"user\",\"content\":\"<7字符>\"}",
+                ApiLoggingInterceptor.redactContent("{\"role\":\"user\",\"content\":\"用户选中的文本\"}"));
+        // 转义的引号不会提前结束字符串
+        assertEquals("{\"reasoning_content\" : \"<6字符>\"}",
+                ApiLoggingInterceptor.redactContent("{\"reasoning_content\" : \"a\\\"b\\\"\"}"));
+        assertEquals("--> POST /v1/chat/completions", ApiLoggingInterceptor.redactContent("--> POST /v1/chat/completions"));
+    }
+
+    @Test
+    public void intercept_调试模式普通请求_记录请求体和用量但隐去消息内容() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody(RESPONSE_JSON));
+
+        try (Response response = client.newCall(post(false)).execute()) {
+            assertEquals(RESPONSE_JSON, response.body().string());
+        }
+        String log = String.join("\n", lines);
+        assertTrue(log.contains("\"model\":\"deepseek-chat\""));
+        assertTrue(log.contains("\"total_tokens\":42"));
+        assertFalse(log.contains("用户选中的文本"));
+        assertFalse(log.contains("生成的解释"));
+        assertFalse(log.contains("test-api-key"));
+    }
+
+    @Test
+    public void intercept_调试模式流式请求_不记录响应体() throws Exception {
+        String eventStream = "data: {\"choices\":[{\"delta\":{\"content\":\"生成的解释\"}}]}\n\n"
+                + "data: [DONE]\n\n";
+        server.enqueue(new MockResponse().setHeader("Content-Type", "text/event-stream").setBody(eventStream));
+
+        try (Response response = client.newCall(post(true)).execute()) {
+            assertEquals(eventStream, response.body().string());
+        }
+        String log = String.join("\n", lines);
+        assertTrue(log.contains("text/event-stream"));
+        assertFalse(log.contains("data:"));
+        assertFalse(log.contains("用户选中的文本"));
+        assertFalse(log.contains("test-api-key"));
+    }
+
+    private Request post(boolean stream) {
+        Request.Builder builder = new Request.Builder()
+                .url(server.url("/v1/chat/completions"))
+                .addHeader("Authorization", "Bearer test-api-key")
+                .post(RequestBody.create(MediaType.parse("application/json; charset=utf-8"), REQUEST_JSON));
+        if (stream) {
+            builder.addHeader("Accept", "text/event-stream");
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.deepreadx.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DeepSeekClient流式请求单元测试类，请求经过真实的拦截器链发往本地MockWebServer
+ *
+ * @author DeepReadX团队
+ */
+public class DeepSeekClientStreamTest {
+
+    private static final String FIRST_EVENT = "data: {\"choices\":[{\"delta\":{\"content\":\"这是\"}}]}\n\n";
+    private static final String REST_EVENTS = "data: {\"choices\":[{\"delta\":{\"content\":\"流式解释\"}}]}\n\n"
+            + "data: [DONE]\n\n";
+
+    // 服务端每发送一段数据后的停顿
+    private static final long THROTTLE_PERIOD_MS = 500;
+
+    private MockWebServer server;
+    private DeepSeekClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        String baseUrl = server.url("/").toString();
+        client = new DeepSeekClient("test-api-key", baseUrl.substring(0, baseUrl.length() - 1));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void requestExplanationStream_调试日志开启_首段内容在流结束前到达() throws Exception {
+        // 服务端先发送第一个事件，停顿后再发送其余内容
+        int firstEventBytes = FIRST_EVENT.getBytes(StandardCharsets.UTF_8).length;
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "text/event-stream")
+                .setBody(FIRST_EVENT + REST_EVENTS)
+                .throttleBody(firstEventBytes, THROTTLE_PERIOD_MS, TimeUnit.MILLISECONDS));
+        // 开启调试日志，BODY级别的日志拦截器会缓冲整个响应体
+        client.setDebugLogging(true);
+
+        final AtomicLong firstDeltaAt = new AtomicLong();
+        final AtomicLong completedAt = new AtomicLong();
+        final AtomicReference<String> explanation = new AtomicReference<>();
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        client.requestExplanationStream("测试文本内容", "简明易懂", new DeepSeekClient.StreamCallback() {
+            @Override
+            public void onDelta(String delta) {
+                firstDeltaAt.compareAndSet(0, System.nanoTime());
+            }
+
+            @Override
+            public void onComplete(String result) {
+                completedAt.set(System.nanoTime());
+                explanation.set(result);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                error.set(e);
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertNull(error.get());
+        assertEquals("这是流式解释", explanation.get());
+        // 首段内容应在服务端停顿期间就交给调用方，而不是等整个响应读完
+        long gapMs = TimeUnit.NANOSECONDS.toMillis(completedAt.get() - firstDeltaAt.get());
+        assertTrue("首段内容与结束间隔仅" + gapMs + "ms", gapMs >= THROTTLE_PERIOD_MS / 2);
+        assertEquals("text/event-stream", server.takeRequest().getHeader("Accept"));
+    }
+}
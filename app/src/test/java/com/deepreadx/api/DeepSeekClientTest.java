@@ -4,6 +4,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -23,7 +24,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -160,4 +164,131 @@ public class DeepSeekClientTest {
         // 验证结果
         verify(mockCallback).onError(networkException);
     }
+
+    @Test
+    public void requestExplanation_相同请求进行中_合并为一次调用并共享结果() throws Exception {
+        String successResponseJson = "{"
+                + "\"choices\": [{"
+                + "    \"message\": {"
+                + "        \"content\": \"共享的解释内容\""
+                + "    }"
+                + "}]"
+                + "}";
+        
+        Response successResponse = new Response.Builder()
+                .request(new Request.Builder().url(TEST_BASE_URL).build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(
+                        MediaType.parse("application/json"), 
+                        successResponseJson))
+                .build();
+        
+        // 配置mock行为：请求发出后暂不返回
+        ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        doAnswer(invocation -> null).when(mockCall).enqueue(callbackCaptor.capture());
+        
+        DeepSeekClient.ApiCallback secondCallback = mock(DeepSeekClient.ApiCallback.class);
+        
+        // 执行测试：第一次请求返回之前发起相同的请求
+        deepSeekClient.requestExplanation(TEST_TEXT, TEST_STYLE, mockCallback);
+        deepSeekClient.requestExplanation(TEST_TEXT, TEST_STYLE, secondCallback);
+        callbackCaptor.getValue().onResponse(mockCall, successResponse);
+        
+        // 验证结果：只发送了一次请求，两个回调都收到结果
+        verify(mockOkHttpClient, times(1)).newCall(any());
+        verify(mockCallback).onResponse("共享的解释内容");
+        verify(secondCallback).onResponse("共享的解释内容");
+        assertEquals(1, deepSeekClient.getCoalescedCount());
+    }
+    
+    @Test
+    public void requestExplanation_前一请求已结束_重新发送() throws Exception {
+        IOException networkException = new IOException("网络连接失败");
+        ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        doAnswer(invocation -> {
+            callbackCaptor.getValue().onFailure(mockCall, networkException);
+            return null;
+        }).when(mockCall).enqueue(callbackCaptor.capture());
+        
+        // 执行测试：失败后重试相同的请求
+        deepSeekClient.requestExplanation(TEST_TEXT, TEST_STYLE, mockCallback);
+        deepSeekClient.requestExplanation(TEST_TEXT, TEST_STYLE, mockCallback);
+        
+        // 验证结果：两次都发送了请求
+        verify(mockOkHttpClient, times(2)).newCall(any());
+        verify(mockCallback, times(2)).onError(networkException);
+    }
+    
+    @Test
+    public void requestExplanationStream_SSE响应_逐段回调后回调onComplete() throws Exception {
+        // 准备模拟SSE响应：角色事件、保活注释、两段内容和结束标记
+        String eventStream = "data: {\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}\n\n"
+                + ": keep-alive\n\n"
+                + "data: {\"choices\":[{\"delta\":{\"content\":\"这是\"}}]}\n\n"
+                + "data: {\"choices\":[{\"delta\":{\"content\":\"流式解释\"},\"finish_reason\":null}]}\n\n"
+                + "data: [DONE]\n\n";
+        
+        Response streamResponse = new Response.Builder()
+                .request(new Request.Builder().url(TEST_BASE_URL).build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(
+                        MediaType.parse("text/event-stream"), 
+                        eventStream))
+                .build();
+        
+        ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        doAnswer(invocation -> {
+            Callback callback = callbackCaptor.getValue();
+            callback.onResponse(mockCall, streamResponse);
+            return null;
+        }).when(mockCall).enqueue(callbackCaptor.capture());
+        
+        DeepSeekClient.StreamCallback streamCallback = mock(DeepSeekClient.StreamCallback.class);
+        
+        // 执行测试
+        deepSeekClient.requestExplanationStream(TEST_TEXT, TEST_STYLE, streamCallback);
+        
+        // 验证结果
+        InOrder inOrder = inOrder(streamCallback);
+        inOrder.verify(streamCallback).onDelta("这是");
+        inOrder.verify(streamCallback).onDelta("流式解释");
+        inOrder.verify(streamCallback).onComplete("这是流式解释");
+        verify(streamCallback, never()).onError(any());
+    }
+    
+    @Test
+    public void requestExplanationStream_缺少结束标记_回调onError() throws Exception {
+        String eventStream = "data: {\"choices\":[{\"delta\":{\"content\":\"半段\"}}]}\n\n";
+        
+        Response truncatedResponse = new Response.Builder()
+                .request(new Request.Builder().url(TEST_BASE_URL).build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(
+                        MediaType.parse("text/event-stream"), 
+                        eventStream))
+                .build();
+        
+        ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        doAnswer(invocation -> {
+            Callback callback = callbackCaptor.getValue();
+            callback.onResponse(mockCall, truncatedResponse);
+            return null;
+        }).when(mockCall).enqueue(callbackCaptor.capture());
+        
+        DeepSeekClient.StreamCallback streamCallback = mock(DeepSeekClient.StreamCallback.class);
+        
+        // 执行测试
+        deepSeekClient.requestExplanationStream(TEST_TEXT, TEST_STYLE, streamCallback);
+        
+        // 验证结果：已收到的内容照常回调，随后报告中断
+        verify(streamCallback).onDelta("半段");
+        verify(streamCallback).onError(any(IOException.class));
+        verify(streamCallback, never()).onComplete(any());
+    }
 } 
@@ -0,0 +1,54 @@
+package com.deepreadx.api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * NetworkMetrics单元测试类
+ * 
+ * @author DeepReadX团队
+ */
+public class NetworkMetricsTest {
+
+    @Test
+    public void histogram_记录耗时_百分位取桶上界且不超过最大值() {
+        NetworkMetrics.Histogram histogram = new NetworkMetrics.Histogram("ttfb", "ms");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 10);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(505, histogram.getMean());
+        assertEquals(1000, histogram.getMax());
+        // 第50个值是500，所在桶上界为512
+        assertEquals(512, histogram.getPercentile(50));
+        assertEquals(1000, histogram.getPercentile(99));
+        assertTrue(histogram.getPercentile(90) >= 900);
+    }
+
+    @Test
+    public void histogram_没有记录或负值_返回0() {
+        NetworkMetrics.Histogram histogram = new NetworkMetrics.Histogram("dns", "ms");
+        histogram.record(-1);
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals("dns: -", histogram.toString());
+    }
+
+    @Test
+    public void recordCall_成功和失败_分别计数() {
+        NetworkMetrics metrics = new NetworkMetrics();
+        metrics.recordCall(120, false);
+        metrics.recordCall(3000, true);
+        metrics.recordTokenUsage(50, 200);
+        assertEquals(2, metrics.getCallCount());
+        assertEquals(1, metrics.getFailedCallCount());
+        assertEquals(3000, metrics.totalMs.getMax());
+        assertEquals(200, metrics.completionTokens.getMax());
+
+        metrics.reset();
+        assertEquals(0, metrics.getCallCount());
+        assertEquals(0, metrics.totalMs.getCount());
+    }
+}
@@ -0,0 +1,177 @@
+package com.deepreadx.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * RetryInterceptor单元测试类，请求经过真实的OkHttp拦截器链发往本地MockWebServer
+ *
+ * @author DeepReadX团队
+ */
+public class RetryInterceptorTest {
+
+    // 读取超时，NO_RESPONSE的响应在此之后失败
+    private static final long READ_TIMEOUT_MS = 300;
+
+    private final AtomicLong now = new AtomicLong(1000);
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void intercept_503后恢复_重试一次后返回200() throws Exception {
+        RetryInterceptor retryInterceptor = newInterceptor(new RetryPolicy(3, 10, 50, 2000), 5);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        try (Response response = newClient(retryInterceptor).newCall(get()).execute()) {
+            assertEquals(200, response.code());
+            assertEquals("ok", response.body().string());
+        }
+        assertEquals(2, server.getRequestCount());
+        RetryInterceptor.Stats stats = retryInterceptor.getStats();
+        assertEquals(1, stats.retries);
+        assertEquals(1, stats.recovered);
+        assertEquals(CircuitBreaker.State.CLOSED, stats.circuitState);
+    }
+
+    @Test
+    public void intercept_503带RetryAfter_按服务端要求等待后重试() throws Exception {
+        // 退避延迟只有10ms，等待时间达到1秒说明采用了Retry-After
+        RetryInterceptor retryInterceptor = newInterceptor(new RetryPolicy(3, 10, 50, 2000), 5);
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "1"));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        long start = System.nanoTime();
+        try (Response response = newClient(retryInterceptor).newCall(get()).execute()) {
+            assertEquals(200, response.code());
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("只等待了" + elapsedMs + "ms", elapsedMs >= 1000);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void intercept_RetryAfter超过上限_直接返回503() throws Exception {
+        RetryInterceptor retryInterceptor = newInterceptor(new RetryPolicy(3, 10, 50, 2000), 5);
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "60"));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        try (Response response = newClient(retryInterceptor).newCall(get()).execute()) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, retryInterceptor.getStats().retries);
+    }
+
+    @Test
+    public void intercept_POST读取超时_不重复发送() throws Exception {
+        RetryInterceptor retryInterceptor = newInterceptor(new RetryPolicy(3, 10, 50, 2000), 5);
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        Request post = new Request.Builder()
+                .url(server.url("/v1/chat/completions"))
+                .post(RequestBody.create(MediaType.parse("application/json"), "{}"))
+                .build();
+        try {
+            newClient(retryInterceptor).newCall(post).execute().close();
+            fail("POST读取超时后不应重试");
+        } catch (SocketTimeoutException e) {
+            // 预期：服务端可能已经在处理请求，不能重发
+        }
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, retryInterceptor.getStats().retries);
+    }
+
+    @Test
+    public void intercept_GET读取超时_重试后成功() throws Exception {
+        RetryInterceptor retryInterceptor = newInterceptor(new RetryPolicy(3, 10, 50, 2000), 5);
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        try (Response response = newClient(retryInterceptor).newCall(get()).execute()) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void intercept_熔断器打开_不发请求直接失败() throws Exception {
+        // 不重试，连续两次500后熔断
+        RetryInterceptor retryInterceptor = newInterceptor(new RetryPolicy(0, 10, 50, 2000), 2);
+        OkHttpClient client = newClient(retryInterceptor);
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        client.newCall(get()).execute().close();
+        client.newCall(get()).execute().close();
+        assertEquals(CircuitBreaker.State.OPEN, retryInterceptor.getCircuitBreaker().getState());
+
+        try {
+            client.newCall(get()).execute().close();
+            fail("熔断器打开时应直接失败");
+        } catch (RetryInterceptor.CircuitOpenException e) {
+            // 预期
+        }
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, retryInterceptor.getStats().rejected);
+
+        // 冷却时间过后放行试探请求，成功后恢复关闭
+        now.addAndGet(30000);
+        try (Response response = client.newCall(get()).execute()) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(3, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, retryInterceptor.getCircuitBreaker().getState());
+    }
+
+    private RetryInterceptor newInterceptor(RetryPolicy policy, int failureThreshold) {
+        return new RetryInterceptor(policy, new CircuitBreaker(failureThreshold, 30000, now::get));
+    }
+
+    /**
+     * 按DeepSeekClient的方式组装拦截器，关闭OkHttp自身的连接失败重试
+     */
+    private OkHttpClient newClient(RetryInterceptor retryInterceptor) {
+        return new OkHttpClient.Builder()
+                .readTimeout(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(false)
+                .addInterceptor(retryInterceptor)
+                .addNetworkInterceptor(retryInterceptor.requestSentTracker())
+                .build();
+    }
+
+    private Request get() {
+        return new Request.Builder().url(server.url("/")).build();
+    }
+}
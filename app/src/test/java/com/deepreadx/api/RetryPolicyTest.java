@@ -0,0 +1,118 @@
+package com.deepreadx.api;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Random;
+
+import javax.net.ssl.SSLHandshakeException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RetryPolicy和CircuitBreaker单元测试类
+ * 
+ * @author DeepReadX团队
+ */
+public class RetryPolicyTest {
+
+    private final RetryPolicy policy = new RetryPolicy(3, 500, 8000, 30000);
+
+    @Test
+    public void isRetryable_暂时性失败_可以重试() {
+        assertTrue(policy.isRetryableStatus(429));
+        assertTrue(policy.isRetryableStatus(503));
+        assertFalse(policy.isRetryableStatus(400));
+        assertFalse(policy.isRetryableStatus(401));
+        assertTrue(policy.isRetryableException(new SocketTimeoutException()));
+        assertTrue(policy.isRetryableException(new InterruptedIOException("timeout")));
+        assertFalse(policy.isRetryableException(new InterruptedIOException()));
+        assertFalse(policy.isRetryableException(new IOException("Canceled")));
+    }
+
+    @Test
+    public void isRetryableException_请求已发出_只重试幂等请求() {
+        assertTrue(policy.isRetryableException(new ConnectException(), "POST", false));
+        assertTrue(policy.isRetryableException(new SocketTimeoutException("connect timed out"), "POST", false));
+        assertFalse(policy.isRetryableException(new SocketTimeoutException("timeout"), "POST", true));
+        assertFalse(policy.isRetryableException(new InterruptedIOException("timeout"), "POST", true));
+        assertTrue(policy.isRetryableException(new SocketTimeoutException("timeout"), "GET", true));
+        assertFalse(policy.isRetryableException(new UnknownHostException("api.deepseek.com"), "GET", false));
+    }
+
+    @Test
+    public void isServiceFailure_离线和取消_不计入熔断() {
+        assertFalse(policy.isServiceFailure(new UnknownHostException("api.deepseek.com")));
+        assertFalse(policy.isServiceFailure(new NoRouteToHostException("No route to host")));
+        assertFalse(policy.isServiceFailure(new ConnectException(
+                "failed to connect to api.deepseek.com (port 443): connect failed: ENETUNREACH (Network is unreachable)")));
+        assertTrue(policy.isServiceFailure(new ConnectException("Connection refused")));
+        assertTrue(policy.isServiceFailure(new SSLHandshakeException("handshake failed")));
+        assertTrue(policy.isServiceFailure(new SocketTimeoutException()));
+        assertTrue(policy.isServiceFailure(new InterruptedIOException("timeout")));
+        assertFalse(policy.isServiceFailure(new InterruptedIOException()));
+        assertFalse(policy.isServiceFailure(new IOException("Canceled")));
+    }
+
+    @Test
+    public void nextBackoffMs_多次重试_在基础延迟和上限之间() {
+        Random random = new Random(42);
+        long delay = 0;
+        for (int i = 0; i < 100; i++) {
+            long next = policy.nextBackoffMs(delay, random);
+            assertTrue(next >= 500);
+            assertTrue(next <= Math.min(8000, Math.max(500, delay * 3)));
+            delay = next;
+        }
+    }
+
+    @Test
+    public void parseRetryAfterMs_秒数和日期_转换为毫秒() {
+        assertEquals(2000, RetryPolicy.parseRetryAfterMs(" 2 ", 0));
+        assertEquals(-1, RetryPolicy.parseRetryAfterMs("soon", 0));
+        assertEquals(-1, RetryPolicy.parseRetryAfterMs(null, 0));
+        // Thu, 01 Jan 1970 00:00:10 GMT
+        assertEquals(7000, RetryPolicy.parseRetryAfterMs("Thu, 01 Jan 1970 00:00:10 GMT", 3000));
+    }
+
+    @Test
+    public void resolveDelayMs_服务端指定等待_优先采用且过长时放弃() {
+        assertEquals(1200, policy.resolveDelayMs(-1, 1200));
+        assertEquals(5000, policy.resolveDelayMs(5000, 1200));
+        assertEquals(-1, policy.resolveDelayMs(60000, 1200));
+    }
+
+    @Test
+    public void circuitBreaker_连续失败_熔断后半开试探() {
+        long[] now = {0};
+        CircuitBreaker breaker = new CircuitBreaker(3, 1000, () -> now[0]);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.allowRequest());
+            breaker.recordFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        // 冷却后只放行一个试探请求，试探失败重新打开
+        now[0] = 1000;
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+
+        // 再次冷却后试探成功，恢复关闭
+        now[0] = 2000;
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertEquals(2, breaker.getOpenCount());
+    }
+}
@@ -0,0 +1,92 @@
+package com.deepreadx.ocr;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * OcrResult单元测试类
+ * 
+ * @author DeepReadX团队
+ */
+public class OcrResultTest {
+
+    private static OcrResult.Block block(float left, float top, float right, float bottom, String text,
+                                         float confidence) {
+        return new OcrResult.Block(left, top, right, bottom, Collections.singletonList(
+                new OcrResult.Line(text, left, top, right, bottom, confidence)));
+    }
+
+    @Test
+    public void inReadingOrder_并排两栏_先左后右再向下() {
+        OcrResult result = OcrResult.inReadingOrder(Arrays.asList(
+                block(0.05f, 0.60f, 0.95f, 0.70f, "页脚", 0.9f),
+                block(0.55f, 0.11f, 0.95f, 0.50f, "右栏", 0.9f),
+                block(0.05f, 0.10f, 0.45f, 0.50f, "左栏", 0.9f)));
+
+        assertEquals("左栏\n\n右栏\n\n页脚", result.getText());
+    }
+
+    @Test
+    public void toBytes_往返_保留文本位置和置信度() throws Exception {
+        OcrResult original = new OcrResult(Arrays.asList(
+                new OcrResult.Block(0.1f, 0.2f, 0.9f, 0.4f, Arrays.asList(
+                        new OcrResult.Line("第一行 first", 0.1f, 0.2f, 0.9f, 0.3f, 0.87f),
+                        new OcrResult.Line("第二行", 0.1f, 0.3f, 0.5f, 0.4f, OcrResult.UNKNOWN_CONFIDENCE))),
+                block(0f, 0.5f, 1f, 0.6f, "", 0f)));
+
+        OcrResult decoded = OcrResult.fromBytes(original.toBytes());
+
+        assertEquals(original.getText(), decoded.getText());
+        assertEquals(3, decoded.getLineCount());
+        OcrResult.Line first = decoded.getBlocks().get(0).lines.get(0);
+        assertEquals(0.1f, first.left, 1e-4f);
+        assertEquals(0.3f, first.bottom, 1e-4f);
+        assertEquals(0.87f, first.confidence, 0.005f);
+        assertEquals(OcrResult.UNKNOWN_CONFIDENCE, decoded.getBlocks().get(0).lines.get(1).confidence, 0f);
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void fromBytes_数据截断_抛出异常() throws Exception {
+        byte[] bytes = OcrResult.fromPlainText("一段文字").toBytes();
+
+        OcrResult.fromBytes(Arrays.copyOf(bytes, bytes.length - 2));
+    }
+
+    @Test
+    public void getText_置信度阈值_过滤低置信度行并保留未知置信度() {
+        OcrResult result = new OcrResult(Arrays.asList(
+                block(0f, 0f, 1f, 0.1f, "清晰", 0.95f),
+                block(0f, 0.2f, 1f, 0.3f, "模糊", 0.2f),
+                block(0f, 0.4f, 1f, 0.5f, "文本层", OcrResult.UNKNOWN_CONFIDENCE)));
+
+        assertEquals("清晰\n\n文本层", result.getText(0.5f));
+    }
+
+    @Test
+    public void getAverageConfidence_混合置信度_忽略未知置信度的行() {
+        OcrResult result = new OcrResult(Arrays.asList(
+                block(0f, 0f, 1f, 0.1f, "清晰", 0.9f),
+                block(0f, 0.2f, 1f, 0.3f, "模糊", 0.3f),
+                block(0f, 0.4f, 1f, 0.5f, "文本层", OcrResult.UNKNOWN_CONFIDENCE)));
+
+        assertEquals(0.6f, result.getAverageConfidence(), 1e-6f);
+        assertEquals(OcrResult.UNKNOWN_CONFIDENCE, OcrResult.fromPlainText("文本").getAverageConfidence(), 0f);
+    }
+
+    @Test
+    public void mapFromRegion_区域结果_换算为整页坐标() {
+        OcrResult region = new OcrResult(Collections.singletonList(block(0f, 0f, 0.5f, 1f, "选中", 0.9f)));
+
+        OcrResult page = region.mapFromRegion(0.2f, 0.4f, 0.6f, 0.6f);
+
+        OcrResult.Line line = page.getBlocks().get(0).lines.get(0);
+        assertEquals(0.2f, line.left, 1e-6f);
+        assertEquals(0.4f, line.right, 1e-6f);
+        assertEquals(0.6f, line.bottom, 1e-6f);
+        assertEquals("选中", page.getTextInRegion(0.2f, 0.4f, 0.4f, 0.6f));
+    }
+}
@@ -0,0 +1,52 @@
+package com.deepreadx.ocr;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ScriptDetector单元测试类
+ * 
+ * @author DeepReadX团队
+ */
+public class ScriptDetectorTest {
+
+    @Test
+    public void detect_英文文本_返回拉丁文字() {
+        assertEquals(ScriptDetector.Script.LATIN,
+                ScriptDetector.detect("The quick brown fox jumps over the lazy dog. Résumé, naïve café."));
+    }
+
+    @Test
+    public void detect_夹杂英文的中文文本_返回中文() {
+        String text = "Transformer模型使用self-attention机制计算序列中每个token与其他token的关系，"
+                + "并通过multi-head attention提高表达能力";
+        assertEquals(ScriptDetector.Script.CHINESE, ScriptDetector.detect(text));
+    }
+
+    @Test
+    public void detect_样本太少或其他文字_无法判断() {
+        assertEquals(ScriptDetector.Script.UNKNOWN, ScriptDetector.detect("Page 12"));
+        assertEquals(ScriptDetector.Script.UNKNOWN,
+                ScriptDetector.detect("Съешь же ещё этих мягких французских булок, да выпей чаю"));
+    }
+
+    @Test
+    public void isConfidentLatinResult_字母太少或置信度低_改用中文模型() {
+        String text = "Attention is all you need";
+        assertTrue(ScriptDetector.isConfidentLatinResult(text, 0.9f));
+        assertTrue(ScriptDetector.isConfidentLatinResult(text, -1f));
+        assertFalse(ScriptDetector.isConfidentLatinResult(text, 0.3f));
+        assertFalse(ScriptDetector.isConfidentLatinResult("1 2 3 Fig", 0.9f));
+    }
+
+    @Test
+    public void fromLanguageTag_常见标签_按语言判断() {
+        assertEquals(ScriptDetector.Script.CHINESE, ScriptDetector.fromLanguageTag("zh-Hans-CN"));
+        assertEquals(ScriptDetector.Script.LATIN, ScriptDetector.fromLanguageTag("EN_us"));
+        assertEquals(ScriptDetector.Script.UNKNOWN, ScriptDetector.fromLanguageTag("ru"));
+        assertEquals(ScriptDetector.Script.UNKNOWN, ScriptDetector.fromLanguageTag(null));
+    }
+}
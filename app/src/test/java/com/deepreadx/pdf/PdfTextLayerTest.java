@@ -0,0 +1,154 @@
+package com.deepreadx.pdf;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * PdfTextLayer单元测试类，测试用的PDF在内存中按规范拼装
+ * 
+ * @author DeepReadX团队
+ */
+public class PdfTextLayerTest {
+
+    private static final String SIMPLE_FONT =
+            "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>";
+
+    @Test
+    public void extractPageText_简单字体_按基线换行并按间隔补空格() throws Exception {
+        String content = "BT /F1 12 Tf 72 720 Td (Hello World) Tj 0 -14 Td "
+                + "[(Sec) 10 (ond) -400 (line)] TJ ET";
+        byte[] pdf = buildPdf(SIMPLE_FONT, content.getBytes(StandardCharsets.ISO_8859_1), false, false);
+
+        PdfTextLayer layer = new PdfTextLayer(ByteBuffer.wrap(pdf));
+
+        assertEquals(1, layer.getPageCount());
+        String text = layer.extractPageText(0);
+        assertEquals("Hello World\nSecond line", text);
+        assertTrue(PdfTextLayer.isUsable(text));
+    }
+
+    @Test
+    public void extractPageText_压缩内容流和ToUnicode_还原中文() throws Exception {
+        // CID 1-4 分别映射为"深度阅读"
+        String cmap = "/CIDInit /ProcSet findresource begin 12 dict begin begincmap\n"
+                + "1 begincodespacerange <0000> <FFFF> endcodespacerange\n"
+                + "2 beginbfchar <0001> <6DF1> <0002> <5EA6> endbfchar\n"
+                + "1 beginbfrange <0003> <0004> [<9605> <8BFB>] endbfrange\n"
+                + "endcmap CMapName currentdict /CMap defineresource pop end end";
+        String font = "<< /Type /Font /Subtype /Type0 /BaseFont /SimSun /Encoding /Identity-H "
+                + "/DescendantFonts [<< /Type /Font /Subtype /CIDFontType2 /DW 1000 >>] "
+                + "/ToUnicode 6 0 R >>";
+        String content = "BT /F1 10 Tf 1 0 0 1 50 700 Tm <0001000200030004> Tj ET\n"
+                + "BT /F1 10 Tf 1 0 0 1 50 680 Tm <00030004000100020003> Tj ET";
+        byte[] pdf = buildPdf(font, deflate(content.getBytes(StandardCharsets.ISO_8859_1)), true,
+                false, cmap);
+
+        String text = new PdfTextLayer(ByteBuffer.wrap(pdf)).extractPageText(0);
+
+        assertEquals("深度阅读\n阅读深度阅", text);
+        assertTrue(PdfTextLayer.isUsable(text));
+    }
+
+    @Test
+    public void isUsable_缺少ToUnicode的字形号_不可用() throws Exception {
+        String font = "<< /Type /Font /Subtype /Type0 /BaseFont /Embedded /Encoding /Identity-H "
+                + "/DescendantFonts [<< /Type /Font /Subtype /CIDFontType2 >>] >>";
+        String content = "BT /F1 10 Tf 50 700 Td <0011002200330044005500660077008800990011> Tj ET";
+        byte[] pdf = buildPdf(font, content.getBytes(StandardCharsets.ISO_8859_1), false, false);
+
+        String text = new PdfTextLayer(ByteBuffer.wrap(pdf)).extractPageText(0);
+
+        assertFalse(PdfTextLayer.isUsable(text));
+    }
+
+    @Test
+    public void extractPageText_交叉引用偏移错误_扫描全文重建() throws Exception {
+        String content = "BT /F1 12 Tf 72 720 Td (Recovered from a damaged file) Tj ET";
+        byte[] pdf = buildPdf(SIMPLE_FONT, content.getBytes(StandardCharsets.ISO_8859_1), false, true);
+
+        String text = new PdfTextLayer(ByteBuffer.wrap(pdf)).extractPageText(0);
+
+        assertEquals("Recovered from a damaged file", text);
+    }
+
+    @Test
+    public void isUsable_空白页面_不可用() {
+        assertFalse(PdfTextLayer.isUsable(""));
+        assertFalse(PdfTextLayer.isUsable("  第1页 \n"));
+    }
+
+    /**
+     * 拼装单页PDF：1目录 2页面树 3页面 4字体 5内容流 6可选的ToUnicode
+     */
+    private static byte[] buildPdf(String fontDict, byte[] content, boolean flate, boolean corruptXref,
+                                   String... extraStreams) throws Exception {
+        List<byte[]> objects = new ArrayList<>();
+        objects.add(ascii("<< /Type /Catalog /Pages 2 0 R >>"));
+        objects.add(ascii("<< /Type /Pages /Kids [3 0 R] /Count 1 "
+                + "/Resources << /Font << /F1 4 0 R >> >> >>"));
+        objects.add(ascii("<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] /Contents 5 0 R >>"));
+        objects.add(ascii(fontDict));
+        objects.add(stream(content, flate ? "/Filter /FlateDecode " : ""));
+        for (String extra : extraStreams) {
+            objects.add(stream(extra.getBytes(StandardCharsets.ISO_8859_1), ""));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, "%PDF-1.4\n%âãÏÓ\n");
+        int[] offsets = new int[objects.size()];
+        for (int i = 0; i < objects.size(); i++) {
+            offsets[i] = out.size();
+            write(out, (i + 1) + " 0 obj\n");
+            out.write(objects.get(i));
+            write(out, "\nendobj\n");
+        }
+        int xrefOffset = out.size();
+        write(out, "xref\n0 " + (objects.size() + 1) + "\n0000000000 65535 f \n");
+        for (int offset : offsets) {
+            write(out, String.format("%010d 00000 n \n", offset));
+        }
+        write(out, "trailer\n<< /Size " + (objects.size() + 1) + " /Root 1 0 R >>\n");
+        write(out, "startxref\n" + (corruptXref ? xrefOffset + 7 : xrefOffset) + "\n%%EOF\n");
+        return out.toByteArray();
+    }
+
+    private static byte[] stream(byte[] data, String filter) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, "<< " + filter + "/Length " + data.length + " >>\nstream\n");
+        out.write(data);
+        write(out, "\nendstream");
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        while (!deflater.finished()) {
+            int count = deflater.deflate(buffer);
+            out.write(buffer, 0, count);
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) throws Exception {
+        out.write(ascii(text));
+    }
+}